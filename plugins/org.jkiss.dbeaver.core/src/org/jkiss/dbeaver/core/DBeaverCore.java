@@ -37,6 +37,7 @@ import org.jkiss.dbeaver.registry.BasePlatformImpl;
 import org.jkiss.dbeaver.registry.DataSourceProviderRegistry;
 import org.jkiss.dbeaver.runtime.SecurityProviderUtils;
 import org.jkiss.dbeaver.runtime.qm.QMControllerImpl;
+import org.jkiss.dbeaver.runtime.qm.QMHistoryStore;
 import org.jkiss.dbeaver.runtime.qm.QMLogFileWriter;
 import org.jkiss.dbeaver.ui.resources.DefaultResourceHandlerImpl;
 import org.jkiss.dbeaver.utils.ContentUtils;
@@ -72,6 +73,7 @@ public class DBeaverCore extends BasePlatformImpl {
     private DBeaverWorkspace workspace;
     private QMControllerImpl queryManager;
     private QMLogFileWriter qmLogWriter;
+    private QMHistoryStore qmHistoryStore;
     private DBACertificateStorage certificateStorage;
 
     private static boolean disposed = false;
@@ -163,6 +165,10 @@ public class DBeaverCore extends BasePlatformImpl {
         this.qmLogWriter = new QMLogFileWriter();
         this.queryManager.registerMetaListener(qmLogWriter);
 
+        this.qmHistoryStore = new QMHistoryStore();
+        this.queryManager.registerMetaListener(qmHistoryStore);
+        this.queryManager.setHistoryStore(qmHistoryStore);
+
         super.initialize();
 
         log.debug("Core initialized (" + (System.currentTimeMillis() - startTime) + "ms)");
@@ -188,6 +194,12 @@ public class DBeaverCore extends BasePlatformImpl {
             this.qmLogWriter.dispose();
             this.qmLogWriter = null;
         }
+        if (this.qmHistoryStore != null) {
+            this.queryManager.unregisterMetaListener(qmHistoryStore);
+            this.queryManager.setHistoryStore(null);
+            this.qmHistoryStore.dispose();
+            this.qmHistoryStore = null;
+        }
         if (this.queryManager != null) {
             this.queryManager.dispose();
             //queryManager = null;
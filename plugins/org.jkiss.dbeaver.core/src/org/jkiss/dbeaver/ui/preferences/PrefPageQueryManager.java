@@ -59,6 +59,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
     private Button checkQueryTypeDDL;
     private Text textHistoryDays;
     private Text textEntriesPerPage;
+    private Button checkStoreHistory;
     private Button checkStoreLog;
     private Text textOutputFolder;
 
@@ -99,6 +100,14 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         {
             Group storageSettings = UIUtils.createControlGroup(composite, CoreMessages.pref_page_query_manager_group_storage, 2, GridData.FILL_HORIZONTAL | GridData.VERTICAL_ALIGN_BEGINNING, 0);
+            checkStoreHistory = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_history, CoreMessages.pref_page_query_manager_checkbox_store_history_tip, false, 2);
+            checkStoreHistory.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e)
+                {
+                    textHistoryDays.setEnabled(checkStoreHistory.getSelection());
+                }
+            });
             checkStoreLog = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_log_file, false);
             GridData gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
             gd.horizontalSpan = 2;
@@ -112,7 +121,6 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
             });
             textOutputFolder = DialogUtils.createOutputFolderChooser(storageSettings, CoreMessages.pref_page_query_manager_logs_folder, null);
             textHistoryDays = UIUtils.createLabelText(storageSettings, CoreMessages.pref_page_query_manager_label_days_to_store_log, "", SWT.BORDER, new GridData(50, SWT.DEFAULT)); //$NON-NLS-2$
-            textHistoryDays.setEnabled(false);
 
             CLabel infoLabel = UIUtils.createInfoLabel(storageSettings, CoreMessages.pref_page_query_manager_log_file_hint);
             infoLabel.setLayoutData(new GridData(GridData.FILL, GridData.BEGINNING, true, false, 2, 1));
@@ -143,6 +151,8 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         textHistoryDays.setText(store.getString(QMConstants.PROP_HISTORY_DAYS));
         textEntriesPerPage.setText(store.getString(QMConstants.PROP_ENTRIES_PER_PAGE));
 
+        checkStoreHistory.setSelection(store.getBoolean(QMConstants.PROP_STORE_HISTORY));
+        textHistoryDays.setEnabled(checkStoreHistory.getSelection());
         checkStoreLog.setSelection(store.getBoolean(QMConstants.PROP_STORE_LOG_FILE));
         textOutputFolder.setText(store.getString(QMConstants.PROP_LOG_DIRECTORY));
         UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
@@ -178,6 +188,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         if (entriesPerPage != null) {
             store.setValue(QMConstants.PROP_ENTRIES_PER_PAGE, entriesPerPage);
         }
+        store.setValue(QMConstants.PROP_STORE_HISTORY, checkStoreHistory.getSelection());
         store.setValue(QMConstants.PROP_STORE_LOG_FILE, checkStoreLog.getSelection());
         store.setValue(QMConstants.PROP_LOG_DIRECTORY, textOutputFolder.getText());
         PrefUtils.savePreferenceStore(store);
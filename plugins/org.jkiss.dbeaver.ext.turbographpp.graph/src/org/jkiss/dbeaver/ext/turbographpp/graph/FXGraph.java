@@ -16,16 +16,21 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.graph;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Consumer;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.embed.swt.FXCanvas;
 import javafx.embed.swt.SWTFXUtils;
@@ -36,11 +41,14 @@ import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.SnapshotParameters;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.image.WritableImage;
 import javafx.scene.input.ContextMenuEvent;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
@@ -61,7 +69,6 @@ import org.eclipse.swt.events.TouchListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Cursor;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridData;
@@ -74,19 +81,29 @@ import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TabFolder;
 import org.eclipse.swt.widgets.TabItem;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ext.turbographpp.graph.chart.GraphChart;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.DeleteGraphElement;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphClusters;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphDataModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.NeighborExpansion;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.NodesEdges;
 import org.jkiss.dbeaver.ext.turbographpp.graph.dialog.CSVDialog;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
-import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphList;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.ShortestPath;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.AnalyticsGraph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysis;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysisResult;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphPanel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphPanel.RenderMode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphProperties;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphVertex;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphVertexNode;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartStyleProxy;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartCircularGroupPlacementStrategy;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartGridPlacementStrategy;
@@ -95,12 +112,19 @@ import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartPl
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartRandomPlacementStrategy;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartVerticalTreePlacementStrategy;
 import org.jkiss.dbeaver.ext.turbographpp.graph.internal.GraphMessages;
-import org.jkiss.dbeaver.ext.turbographpp.graph.utils.ExportCSV;
-import org.jkiss.dbeaver.ext.turbographpp.graph.utils.SendHttp;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphAnalysisJob;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphExportJob;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphExporter;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphPublishJob;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.LayoutPositionCache;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.NeighborExpandJob;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 
 public class FXGraph implements GraphBase {
 
+    private static final Log log = Log.getLog(FXGraph.class);
+
     public static final int MOUSE_WHELL_UP = 5;
     public static final int MOUSE_WHELL_DOWN = -5;
 
@@ -113,8 +137,35 @@ public class FXGraph implements GraphBase {
     public static final int GRAPH_TAP = 0;
     public static final int BROWSER_TAP = 1;
 
+    // lets the placement strategy settle before the automatic layout starts
+    private static final Duration LAYOUT_START_DELAY = Duration.millis(700);
+
+    // minimum time between two minimap refreshes, in milliseconds
+    private static final int MINIMAP_REFRESH_INTERVAL = 200;
+
+    // radius of the highest and lowest scored nodes, relative to their label radius
+    private static final double ANALYSIS_MIN_SCALE = 0.6;
+    private static final double ANALYSIS_MAX_SCALE = 2.0;
+
+    // colors of the largest groups; smaller groups and single nodes share the last one
+    private static final String[] ANALYSIS_GROUP_COLORS = {
+        "e6194b", "3cb44b", "ffe119", "4363d8", "f58231", "911eb4",
+        "42d4f4", "f032e6", "bfef45", "fabed4", "469990", "dcbeff",
+        "9a6324", "800000", "aaffc3", "808000", "000075", "a9a9a9"
+    };
+
+    // relationships read per page when a node is expanded
+    private static final int EXPAND_PAGE_SIZE = 100;
+    // pages read in a row when they only hold elements already displayed
+    private static final int EXPAND_MAX_SKIPPED_PAGES = 5;
+    // angle between two nodes placed around an expanded node
+    private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+    // radius of the largest clusters, relative to the default vertex radius
+    private static final double CLUSTER_MAX_SCALE = 3.0;
+
     private FXCanvas canvas;
-    private TurboGraphList<CypherNode, CypherEdge> graph;
+    private TurboGraphArray<CypherNode, CypherEdge> graph;
     private SmartGraphPanel<CypherNode, CypherEdge> graphView;
     Group graphGroup;
     private ScrollPane scrollPane;
@@ -128,6 +179,11 @@ public class FXGraph implements GraphBase {
     private TabItem browserTab;
 
     private MiniMap miniMap;
+    private boolean miniMapRefreshScheduled = false;
+    private double[] miniMapX = new double[0];
+    private double[] miniMapY = new double[0];
+    private double[] miniMapRadius = new double[0];
+    private int[] miniMapColor = new int[0];
 
     private boolean ctrlKeyMode = false;
     private ZoomManager zoomManager;
@@ -137,12 +193,26 @@ public class FXGraph implements GraphBase {
     private HashMap<String, String> nodesGroup = new HashMap<>();
     private HashMap<String, Double> nodesRadiusGroup = new HashMap<>();
 
+    // style of the nodes before the first analysis, by node ID
+    private HashMap<String, Double> analysisSavedRadius = new HashMap<>();
+    private HashMap<String, String> analysisSavedColor = new HashMap<>();
+
+    // last expansion of each expanded node, by node ID
+    private HashMap<String, NeighborExpansion> expansions = new HashMap<>();
+
+    // layout of the current query in the layout cache, and its positions saved by the last run
+    private String layoutKey = null;
+    private Map<String, double[]> savedLayout = null;
+
+    // nodes of an oversized result hidden in clusters, with the drawn clusters and merged edges
+    private GraphClusters clusters = new GraphClusters();
+    private HashMap<String, Vertex<CypherNode>> clusterVertices = new HashMap<>();
+    private List<FxEdge<CypherEdge, CypherNode>> clusterLinks = new ArrayList<>();
+
     private Consumer<String> nodeIDConsumer = null;
     private Consumer<String> edgeIDConsumer = null;
     private Consumer<Integer> tabIDConsumer = null;
 
-    private LayoutUpdateThread layoutUpdatethread;
-
     private ContextMenu contextMenu;
     private MenuItem redoMenu;
     private MenuItem undoMenu;
@@ -150,6 +220,12 @@ public class FXGraph implements GraphBase {
     private MenuItem unHighlightMenu;
     private MenuItem deteleMenu;
     private MenuItem designMenu;
+    private Menu analyzeMenu;
+    private Menu expandMenu;
+    private MenuItem analyzeResetMenu;
+    private Menu clusterMenu;
+    private MenuItem clusterExpandMenu;
+    private MenuItem clusterByLabelMenu;
 
     private SmartGraphVertex<CypherNode> selectNode = null;
 
@@ -162,6 +238,11 @@ public class FXGraph implements GraphBase {
     private double lastViewportHeight = 0;
 
     private ArrayList<DeleteGraphElement> undoList = new ArrayList<>();
+
+    // edges whose end nodes were not added yet, by edge id
+    private Map<String, GraphBatch.EdgeData> pendingEdges = new LinkedHashMap<>();
+    // pending edges by the id of the missing end node they wait for
+    private Map<String, List<GraphBatch.EdgeData>> pendingEdgesByNode = new HashMap<>();
     private ArrayList<DeleteGraphElement> redoList = new ArrayList<>();
     private NodesEdges shortestList = new NodesEdges();
 
@@ -215,7 +296,7 @@ public class FXGraph implements GraphBase {
 
         canvas = new FXCanvas(graphComposite, SWT.NONE);
 
-        graph = new TurboGraphList<>();
+        graph = new TurboGraphArray<>();
 
         SmartPlacementStrategy strategy = new SmartRandomPlacementStrategy();
 
@@ -266,12 +347,19 @@ public class FXGraph implements GraphBase {
                         if (chartBox != null) {
                             chartBox.remove();
                         }
-                        
+
+                        saveLayout();
                         dataModel.clear();
                         graphView.free();
                         graph.clear();
                         nodesGroup.clear();
                         nodesRadiusGroup.clear();
+                        analysisSavedRadius.clear();
+                        analysisSavedColor.clear();
+                        expansions.clear();
+                        clusters.clear();
+                        clusterVertices.clear();
+                        clusterLinks.clear();
                     }
                 });
 
@@ -377,7 +465,8 @@ public class FXGraph implements GraphBase {
                             endVertex = graphVertex;
                             graphView.doHighlightVertexStyle(endVertex);
                             String result = "";
-                            if (!runShortest(guideBox.getSelectedProperty())) {
+                            if (!runShortest(
+                                    guideBox.getSelectedProperty(), guideBox.getPathCount())) {
                                 result = GraphMessages.shortest_not_find_search_path + "\n";
                             }
                             guideBox.setText(
@@ -407,6 +496,8 @@ public class FXGraph implements GraphBase {
                             guideBox.setText(GraphMessages.shortest_please_select_end);
                         }
 
+                    } else if (isClusterVertex(graphVertex)) {
+                        expandCluster(graphVertex.getUnderlyingVertex().element().getID());
                     } else {
                         setUnhighlight();
 
@@ -467,6 +558,17 @@ public class FXGraph implements GraphBase {
                 event -> {
                     miniMapUpdate();
                 });
+
+        graphView
+                .automaticLayoutProperty()
+                .addListener(
+                        (observable, oldValue, newValue) -> {
+                            // keeps refreshing while the layout runs
+                            miniMapUpdate();
+                            if (!newValue) {
+                                saveLayout();
+                            }
+                        });
     }
 
     private void setBaseListener() {
@@ -555,12 +657,15 @@ public class FXGraph implements GraphBase {
     }
 
     private void graphInit(boolean refreshMetadata) {
+        selectRenderMode();
         if (refreshMetadata) {
             zoomManager.setDefaultZoom();
             graphView.init();
             graphView.update();
-            layoutUpdatethread = new LayoutUpdateThread();
-            layoutUpdatethread.start();
+            // nodes placed by the last run keep their position, only new ones are laid out
+            if (graphView.getPinnedVertexCount() < graph.numVertices()) {
+                startAutomaticLayout();
+            }
         } else {
             graphView.updateAndWait();
             setLayoutAlgorithm(lastLayoutstyle);
@@ -603,6 +708,12 @@ public class FXGraph implements GraphBase {
             radius = nodesRadiusGroup.get(label);
         }
         CypherNode node = new CypherNode(id, labels, attr, fillColor, radius);
+        if (savedLayout != null && lastLayoutstyle == LayoutStyle.SPRING) {
+            double[] position = savedLayout.get(id);
+            if (position != null) {
+                node.setLastPosition(position[0], position[1]);
+            }
+        }
         v = graph.insertVertex(node);
         dataModel.putNode(id, labels, (Vertex<CypherNode>) v);
         return v;
@@ -627,6 +738,390 @@ public class FXGraph implements GraphBase {
         return e;
     }
 
+    /**
+     * Adds the nodes, then the edges of a batch, and refreshes the view once. Elements already in
+     * the graph are skipped; edges whose end nodes are not in the graph yet are kept and retried
+     * when a batch brings the missing node. Once the result grows past {@link
+     * SmartGraphProperties#getClusterMinVertices()}, nodes are hidden in clusters instead.
+     *
+     * @param batch decoded nodes and edges
+     * @return number of elements added
+     */
+    public int addBatch(GraphBatch batch) {
+        int threshold = graphView.getSmartGraphProperties().getClusterMinVertices();
+        if (clusters.isActive()
+                || (threshold > 0 && graph.numVertices() + countNewNodes(batch) > threshold)) {
+            return addClusteredBatch(batch);
+        }
+        return addElements(batch);
+    }
+
+    /* Nodes of a batch that are not in the graph yet; a result may repeat a node many times */
+    private int countNewNodes(GraphBatch batch) {
+        Set<String> newNodeIds = new HashSet<>();
+        for (GraphBatch.NodeData node : batch.getNodes()) {
+            if (dataModel.getNode(node.getId()) == null) {
+                newNodeIds.add(node.getId());
+            }
+        }
+        return newNodeIds.size();
+    }
+
+    private int addElements(GraphBatch batch) {
+        int added = 0;
+        List<String> nodeIds = new ArrayList<>();
+        for (GraphBatch.NodeData node : batch.getNodes()) {
+            if (addNode(node.getId(), node.getLabels(), node.getAttr()) != null) {
+                nodeIds.add(node.getId());
+                added++;
+            }
+        }
+        added += releasePendingEdges(nodeIds);
+        for (GraphBatch.EdgeData edge : batch.getEdges()) {
+            if (addOrKeepEdge(edge)) {
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            selectRenderMode();
+            graphView.update();
+        }
+        return added;
+    }
+
+    /*
+     * Adds an edge whose end nodes are both in the graph. Otherwise the edge is kept until the
+     * first missing end node is added, unless an edge with this id is already kept.
+     */
+    private boolean addOrKeepEdge(GraphBatch.EdgeData edge) {
+        String missingNodeId = null;
+        if (dataModel.getNode(edge.getStartNodeID()) == null) {
+            missingNodeId = edge.getStartNodeID();
+        } else if (dataModel.getNode(edge.getEndNodeID()) == null) {
+            missingNodeId = edge.getEndNodeID();
+        }
+        if (missingNodeId == null) {
+            return addEdge(
+                            edge.getId(),
+                            edge.getTypes(),
+                            edge.getStartNodeID(),
+                            edge.getEndNodeID(),
+                            edge.getAttr())
+                    != null;
+        }
+        if (pendingEdges.putIfAbsent(edge.getId(), edge) == null) {
+            pendingEdgesByNode
+                    .computeIfAbsent(missingNodeId, id -> new ArrayList<>())
+                    .add(edge);
+        }
+        return false;
+    }
+
+    /* Retries the edges waiting for one of the added nodes; returns the number of edges added */
+    private int releasePendingEdges(Collection<String> nodeIds) {
+        int added = 0;
+        if (pendingEdgesByNode.isEmpty()) {
+            return added;
+        }
+        for (String nodeId : nodeIds) {
+            List<GraphBatch.EdgeData> waiting = pendingEdgesByNode.remove(nodeId);
+            if (waiting == null) {
+                continue;
+            }
+            for (GraphBatch.EdgeData edge : waiting) {
+                pendingEdges.remove(edge.getId());
+                if (addOrKeepEdge(edge)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    private void clearPendingEdges() {
+        pendingEdges.clear();
+        pendingEdgesByNode.clear();
+    }
+
+    /* Edges to nodes still hidden are merged into the cluster links */
+    private void movePendingEdgesToClusters() {
+        if (!clusters.isActive()) {
+            return;
+        }
+        for (GraphBatch.EdgeData edge : pendingEdges.values()) {
+            clusters.addEdge(edge);
+        }
+        clearPendingEdges();
+    }
+
+    /**
+     * Drops the edges still waiting for an end node, once the whole result is read. Such edges
+     * point to nodes the result does not contain, so they can never be drawn.
+     */
+    public void dropPendingEdges() {
+        if (!pendingEdges.isEmpty()) {
+            log.debug(
+                    "Dropped "
+                            + pendingEdges.size()
+                            + " edges whose end nodes are not in the result");
+        }
+        clearPendingEdges();
+    }
+
+    /* Hides the nodes of a batch in clusters; only the clusters and their links are drawn */
+    private int addClusteredBatch(GraphBatch batch) {
+        if (!clusters.isActive()) {
+            collapseGraph();
+        }
+        int added = 0;
+        for (GraphBatch.NodeData node : batch.getNodes()) {
+            if (dataModel.getNode(node.getId()) == null && clusters.addNode(node)) {
+                added++;
+            }
+        }
+        for (GraphBatch.EdgeData edge : batch.getEdges()) {
+            if (dataModel.getEdge(edge.getId()) == null && clusters.addEdge(edge)) {
+                added++;
+            }
+        }
+        if (added > 0) {
+            releaseClusterEdges();
+            refreshClusters();
+        }
+        return added;
+    }
+
+    /* Moves the drawn nodes and edges into the clusters, when the result gets too large */
+    private void collapseGraph() {
+        GraphBatch drawn = new GraphBatch();
+        for (Vertex<CypherNode> vertex : dataModel.getNodes().values()) {
+            CypherNode node = vertex.element();
+            drawn.addNode(node.getID(), node.getLabels(), node.getProperties());
+        }
+        for (FxEdge<CypherEdge, CypherNode> e : dataModel.getEdges().values()) {
+            CypherEdge edge = e.element();
+            drawn.addEdge(
+                    edge.getID(),
+                    edge.getTypes(),
+                    edge.getStartNodeID(),
+                    edge.getEndNodeID(),
+                    edge.getProperties());
+        }
+        drawn.getEdges().addAll(pendingEdges.values());
+
+        setAutomaticLayout(false);
+        clearSelectNode();
+        dataModel.clear();
+        clearPendingEdges();
+        undoList.clear();
+        redoList.clear();
+        graph.clearElement();
+        graphView.clear();
+        analysisSavedRadius.clear();
+        analysisSavedColor.clear();
+        expansions.clear();
+
+        for (GraphBatch.NodeData node : drawn.getNodes()) {
+            clusters.addNode(node);
+        }
+        for (GraphBatch.EdgeData edge : drawn.getEdges()) {
+            clusters.addEdge(edge);
+        }
+    }
+
+    /* Draws the kept edges whose end nodes are both drawn */
+    private void releaseClusterEdges() {
+        List<GraphBatch.EdgeData> edges =
+                clusters.releaseEdges(id -> dataModel.getNode(id) != null);
+        for (GraphBatch.EdgeData edge : edges) {
+            addEdge(
+                    edge.getId(),
+                    edge.getTypes(),
+                    edge.getStartNodeID(),
+                    edge.getEndNodeID(),
+                    edge.getAttr());
+        }
+    }
+
+    /* Draws a vertex per cluster, then a merged edge per pair of linked vertices and type */
+    private void refreshClusters() {
+        for (FxEdge<CypherEdge, CypherNode> link : clusterLinks) {
+            graph.removeEdge(link);
+        }
+        clusterLinks.clear();
+
+        boolean labelChanged = false;
+        Iterator<Map.Entry<String, Vertex<CypherNode>>> itr =
+                clusterVertices.entrySet().iterator();
+        while (itr.hasNext()) {
+            Map.Entry<String, Vertex<CypherNode>> entry = itr.next();
+            GraphClusters.Cluster cluster = clusters.getCluster(entry.getKey());
+            if (cluster == null) {
+                if (selectNode != null && selectNode.getUnderlyingVertex() == entry.getValue()) {
+                    selectNode = null;
+                }
+                graph.removeVertex(entry.getValue());
+                itr.remove();
+            } else if (updateClusterVertex(entry.getValue(), cluster)) {
+                labelChanged = true;
+            }
+        }
+        for (GraphClusters.Cluster cluster : clusters.getClusters()) {
+            if (!clusterVertices.containsKey(cluster.getId())) {
+                clusterVertices.put(cluster.getId(), insertClusterVertex(cluster));
+            }
+        }
+
+        for (GraphClusters.Link link : clusters.getLinks(id -> dataModel.getNode(id) != null)) {
+            Vertex<CypherNode> start = clusterVertices.get(link.getStartId());
+            if (start == null) {
+                start = dataModel.getNode(link.getStartId());
+            }
+            Vertex<CypherNode> end = clusterVertices.get(link.getEndId());
+            if (end == null) {
+                end = dataModel.getNode(link.getEndId());
+            }
+            List<String> types = new ArrayList<>();
+            types.add(link.getType() + " (" + link.getCount() + ")");
+            LinkedHashMap<String, Object> attr = new LinkedHashMap<>();
+            attr.put(GraphClusters.PROPERTY_COUNT, link.getCount());
+            CypherEdge edge =
+                    new CypherEdge(link.getId(), types, attr, link.getStartId(), link.getEndId());
+            clusterLinks.add(graph.insertEdge(start, end, edge));
+        }
+
+        selectRenderMode();
+        graphView.update();
+        if (labelChanged) {
+            graphView.updateLabel();
+        }
+    }
+
+    private Vertex<CypherNode> insertClusterVertex(GraphClusters.Cluster cluster) {
+        String fillColor = "";
+        for (String label : cluster.getLabels()) {
+            if (nodesGroup.get(label) == null) {
+                nodesGroup.put(label, ramdomColor());
+            }
+            if (fillColor.isEmpty()) {
+                fillColor = nodesGroup.get(label);
+            }
+        }
+        LinkedHashMap<String, Object> attr = new LinkedHashMap<>();
+        attr.put(GraphClusters.PROPERTY_NAME, cluster.getName());
+        attr.put(GraphClusters.PROPERTY_COUNT, cluster.size());
+        CypherNode node =
+                new CypherNode(
+                        cluster.getId(),
+                        cluster.getLabels(),
+                        attr,
+                        fillColor,
+                        getClusterRadius(cluster));
+        if (savedLayout != null && lastLayoutstyle == LayoutStyle.SPRING) {
+            double[] position = savedLayout.get(cluster.getId());
+            if (position != null) {
+                node.setLastPosition(position[0], position[1]);
+            }
+        }
+        return graph.insertVertex(node);
+    }
+
+    /* Updates the count and size of a cluster vertex; returns true if its label changed */
+    private boolean updateClusterVertex(Vertex<CypherNode> vertex, GraphClusters.Cluster cluster) {
+        CypherNode node = vertex.element();
+        Object count = node.getProperties().get(GraphClusters.PROPERTY_COUNT);
+        if (count instanceof Integer && (Integer) count == cluster.size()) {
+            return false;
+        }
+        node.getProperties().put(GraphClusters.PROPERTY_NAME, cluster.getName());
+        node.getProperties().put(GraphClusters.PROPERTY_COUNT, cluster.size());
+        node.setRadius(getClusterRadius(cluster));
+        SmartGraphVertexNode<CypherNode> vertexNode = graphView.getGraphVertex(vertex);
+        if (vertexNode != null) {
+            vertexNode.setNodeRadius(node.getRadius());
+        }
+        return true;
+    }
+
+    /* Grows with the logarithm of the member count, so large clusters stay readable */
+    private double getClusterRadius(GraphClusters.Cluster cluster) {
+        double scale = 1 + Math.log10(Math.max(1, cluster.size())) / 2;
+        return SmartGraphProperties.DEFAULT_VERTEX_RADIUS * Math.min(CLUSTER_MAX_SCALE, scale);
+    }
+
+    private boolean isClusterVertex(SmartGraphVertex<CypherNode> vertex) {
+        Vertex<CypherNode> underlying = vertex.getUnderlyingVertex();
+        return clusterVertices.get(underlying.element().getID()) == underlying;
+    }
+
+    /**
+     * Draws the next members of a cluster around it, with their edges to the drawn nodes. The
+     * cluster disappears once all its members are drawn.
+     *
+     * @param clusterId id of the cluster vertex
+     */
+    public void expandCluster(String clusterId) {
+        Vertex<CypherNode> clusterVertex = clusterVertices.get(clusterId);
+        if (clusterVertex == null) {
+            return;
+        }
+        List<String> nodeIds = new ArrayList<>();
+        for (GraphBatch.NodeData node :
+                clusters.expand(
+                        clusterId, graphView.getSmartGraphProperties().getClusterExpandSize())) {
+            if (addNode(node.getId(), node.getLabels(), node.getAttr()) != null) {
+                nodeIds.add(node.getId());
+            }
+        }
+        releasePendingEdges(nodeIds);
+        movePendingEdgesToClusters();
+        placeAround(clusterVertex, nodeIds);
+        releaseClusterEdges();
+        refreshClusters();
+        miniMapUpdate();
+    }
+
+    /** Groups the hidden nodes by label again. */
+    public void clusterByLabel() {
+        if (clusters.isActive()) {
+            clusters.groupByLabel();
+            refreshClusters();
+        }
+    }
+
+    /** Groups the hidden nodes by community, found in the background. */
+    public void clusterByCommunity() {
+        if (clusters.size() == 0) {
+            return;
+        }
+        AnalyticsGraph<String> snapshot = AnalyticsGraph.build(clusters.buildGraph());
+        new GraphAnalysisJob(
+                        GraphAnalysis.COMMUNITIES,
+                        snapshot,
+                        result -> applyCommunityClusters(snapshot, result))
+                .schedule();
+    }
+
+    private void applyCommunityClusters(
+            AnalyticsGraph<String> snapshot, GraphAnalysisResult result) {
+        if (canvas == null || canvas.isDisposed() || !clusters.isActive()) {
+            return;
+        }
+        clusters.groupByCommunity(snapshot, result);
+        refreshClusters();
+        miniMapUpdate();
+    }
+
+    /* Large results are drawn on a single canvas, smaller ones with a node per element */
+    private void selectRenderMode() {
+        int elements = graph.numVertices() + graph.numEdges();
+        graphView.setRenderMode(
+                elements >= graphView.getSmartGraphProperties().getCanvasMinElements()
+                        ? RenderMode.CANVAS
+                        : RenderMode.NODES);
+    }
+
     private boolean removeNode(SmartGraphVertex<CypherNode> node) {
         if (node != null) {
             graph.removeVertex(node.getUnderlyingVertex());
@@ -670,15 +1165,25 @@ public class FXGraph implements GraphBase {
 
     @Override
     public void clearGraph() {
+        saveLayout();
+        layoutKey = null;
+        savedLayout = null;
         shortestMode = false;
         startVertex = null;
         endVertex = null;
         dataModel.clear();
+        clearPendingEdges();
         undoList.clear();
         redoList.clear();
         graph.clearElement();
         graphView.clear();
         nodesGroup.clear();
+        analysisSavedRadius.clear();
+        analysisSavedColor.clear();
+        expansions.clear();
+        clusters.clear();
+        clusterVertices.clear();
+        clusterLinks.clear();
 
         subClose();
     }
@@ -698,10 +1203,7 @@ public class FXGraph implements GraphBase {
                 break;
             case SPRING:
                 graphView.setSmartPlacementStrategy(new SmartRandomPlacementStrategy());
-                if (miniMap == null || !miniMap.isShowing()) {
-                    layoutUpdatethread = new LayoutUpdateThread();
-                    layoutUpdatethread.start();
-                }
+                startAutomaticLayout();
                 break;
             case HORIZONTAL_TREE:
                 graphView.setSmartPlacementStrategy(new SmartHorizotalTreePlacementStrategy());
@@ -825,27 +1327,14 @@ public class FXGraph implements GraphBase {
         zoomManager.zoomOut();
     }
 
-    private class LayoutUpdateThread extends Thread {
-        @Override
-        public void run() {
-            try {
-                Thread.sleep(700);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-
-            setAutomaticLayout(true);
-
-            if (miniMap != null && miniMap.isShowing()) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                setAutomaticLayout(false);
-                miniMapUpdate();
-            }
-        }
+    /**
+     * Starts the automatic layout after a short delay. It runs on its own worker and stops by
+     * itself once the vertices have settled.
+     */
+    private void startAutomaticLayout() {
+        PauseTransition delay = new PauseTransition(LAYOUT_START_DELAY);
+        delay.setOnFinished(event -> setAutomaticLayout(true));
+        delay.play();
     }
 
     private String ramdomColor() {
@@ -878,6 +1367,52 @@ public class FXGraph implements GraphBase {
         unHighlightMenu = new MenuItem(GraphMessages.context_menu_unhighlight);
         deteleMenu = new MenuItem(GraphMessages.context_menu_delete);
         designMenu = new MenuItem(GraphMessages.context_menu_design);
+        expandMenu = new Menu(GraphMessages.context_menu_expand);
+        analyzeMenu = new Menu(GraphMessages.context_menu_analyze);
+        analyzeResetMenu = new MenuItem(GraphMessages.context_menu_analyze_reset);
+        clusterMenu = new Menu(GraphMessages.context_menu_cluster);
+        clusterExpandMenu = new MenuItem(GraphMessages.context_menu_cluster_expand);
+        clusterByLabelMenu = new MenuItem(GraphMessages.context_menu_cluster_by_label);
+        MenuItem clusterByCommunityMenu =
+                new MenuItem(GraphMessages.context_menu_cluster_by_community);
+        clusterByCommunityMenu.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        clusterByCommunity();
+                    }
+                });
+        clusterMenu
+                .getItems()
+                .addAll(
+                        clusterExpandMenu,
+                        new SeparatorMenuItem(),
+                        clusterByLabelMenu,
+                        clusterByCommunityMenu);
+        analyzeMenu
+                .getItems()
+                .addAll(
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_degree, GraphAnalysis.DEGREE),
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_betweenness,
+                                GraphAnalysis.BETWEENNESS),
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_pagerank,
+                                GraphAnalysis.PAGERANK),
+                        new SeparatorMenuItem(),
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_components,
+                                GraphAnalysis.COMPONENTS),
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_strong_components,
+                                GraphAnalysis.STRONG_COMPONENTS),
+                        analysisMenuItem(
+                                GraphMessages.context_menu_analyze_communities,
+                                GraphAnalysis.COMMUNITIES),
+                        new SeparatorMenuItem(),
+                        analyzeResetMenu);
 
         redoMenu.setDisable(true);
         undoMenu.setDisable(true);
@@ -887,7 +1422,16 @@ public class FXGraph implements GraphBase {
 
         contextMenu
                 .getItems()
-                .addAll(redoMenu, undoMenu, highlightMenu, unHighlightMenu, deteleMenu, designMenu);
+                .addAll(
+                        redoMenu,
+                        undoMenu,
+                        highlightMenu,
+                        unHighlightMenu,
+                        deteleMenu,
+                        designMenu,
+                        expandMenu,
+                        clusterMenu,
+                        analyzeMenu);
 
         contextMenuAction();
 
@@ -897,7 +1441,7 @@ public class FXGraph implements GraphBase {
                     public void handle(ContextMenuEvent event) {
                         if (selectNode != null && !graphView.isHighlighted()) {
                             highlightMenu.setDisable(false);
-                            deteleMenu.setDisable(false);
+                            deteleMenu.setDisable(isClusterVertex(selectNode));
                         } else {
                             highlightMenu.setDisable(true);
                             deteleMenu.setDisable(true);
@@ -924,6 +1468,15 @@ public class FXGraph implements GraphBase {
                         } else {
                             undoMenu.setDisable(true);
                         }
+
+                        updateExpandMenu();
+                        clusterMenu.setDisable(!clusters.isActive());
+                        clusterExpandMenu.setDisable(
+                                selectNode == null || !isClusterVertex(selectNode));
+                        clusterByLabelMenu.setDisable(
+                                clusters.getGrouping() == GraphClusters.Grouping.LABEL);
+                        analyzeMenu.setDisable(graph.numVertices() == 0);
+                        analyzeResetMenu.setDisable(analysisSavedRadius.isEmpty());
                     }
                 });
     }
@@ -981,6 +1534,120 @@ public class FXGraph implements GraphBase {
                         designEditorShow();
                     }
                 });
+
+        analyzeResetMenu.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        resetAnalysisStyle();
+                    }
+                });
+
+        clusterExpandMenu.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        if (selectNode != null) {
+                            expandCluster(selectNode.getUnderlyingVertex().element().getID());
+                        }
+                    }
+                });
+
+        clusterByLabelMenu.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        clusterByLabel();
+                    }
+                });
+    }
+
+    /* Directions, then the relationship types shown in the graph, then the next page */
+    private void updateExpandMenu() {
+        expandMenu.getItems().clear();
+        expandMenu.setDisable(
+                selectNode == null || parentDataSource == null || isClusterVertex(selectNode));
+        if (expandMenu.isDisable()) {
+            return;
+        }
+        String nodeId = selectNode.getUnderlyingVertex().element().getID();
+
+        expandMenu
+                .getItems()
+                .addAll(
+                        expandMenuItem(
+                                GraphMessages.context_menu_expand_both,
+                                nodeId,
+                                NeighborExpansion.Direction.BOTH,
+                                null),
+                        expandMenuItem(
+                                GraphMessages.context_menu_expand_outgoing,
+                                nodeId,
+                                NeighborExpansion.Direction.OUTGOING,
+                                null),
+                        expandMenuItem(
+                                GraphMessages.context_menu_expand_incoming,
+                                nodeId,
+                                NeighborExpansion.Direction.INCOMING,
+                                null));
+
+        String[] types = dataModel.getEdgeTypeList();
+        if (types.length > 0) {
+            expandMenu.getItems().add(new SeparatorMenuItem());
+            Arrays.sort(types);
+            for (String type : types) {
+                List<String> filter = new ArrayList<>();
+                filter.add(type);
+                expandMenu
+                        .getItems()
+                        .add(
+                                expandMenuItem(
+                                        type, nodeId, NeighborExpansion.Direction.BOTH, filter));
+            }
+        }
+
+        NeighborExpansion expansion = expansions.get(nodeId);
+        MenuItem nextItem = new MenuItem(GraphMessages.context_menu_expand_next);
+        nextItem.setDisable(expansion == null || !expansion.hasMore());
+        nextItem.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        expandNextPage(nodeId);
+                    }
+                });
+        expandMenu.getItems().addAll(new SeparatorMenuItem(), nextItem);
+    }
+
+    private MenuItem expandMenuItem(
+            String text, String nodeId, NeighborExpansion.Direction direction, List<String> types) {
+        MenuItem item = new MenuItem(text);
+        item.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        expandNeighbors(nodeId, direction, types);
+                    }
+                });
+        return item;
+    }
+
+    private MenuItem analysisMenuItem(String text, GraphAnalysis analysis) {
+        MenuItem item = new MenuItem(text);
+        item.setOnAction(
+                new EventHandler<ActionEvent>() {
+
+                    @Override
+                    public void handle(ActionEvent arg0) {
+                        runAnalysis(analysis);
+                    }
+                });
+        return item;
     }
 
     private void hideContextMenu() {
@@ -998,7 +1665,7 @@ public class FXGraph implements GraphBase {
     }
 
     private void doDelete(boolean delete) {
-        if (selectNode != null) {
+        if (selectNode != null && !isClusterVertex(selectNode)) {
             DeleteGraphElement deleteModel =
                     new DeleteGraphElement(
                             selectNode,
@@ -1127,7 +1794,6 @@ public class FXGraph implements GraphBase {
         if (miniMap != null) {
             if (visible) {
                 miniMap.show();
-                setAutomaticLayout(false);
                 miniMapUpdate();
 
             } else {
@@ -1146,55 +1812,73 @@ public class FXGraph implements GraphBase {
 
             } else {
                 miniMap.show();
-                setAutomaticLayout(false);
                 miniMapUpdate();
             }
         }
     }
 
+    /**
+     * Schedules a refresh of the minimap. Refreshes are throttled to one per {@link
+     * #MINIMAP_REFRESH_INTERVAL}, and repeat while the automatic layout runs.
+     */
     public void miniMapUpdate() {
-        Display.getDefault()
-                .asyncExec(
-                        new Runnable() {
-                            @Override
-                            public void run() {
-                                if (miniMap != null && miniMap.isShowing()) {
-                                    miniMap.setImage(graphImageCapture());
-                                    miniMap.reDraw();
-                                }
-                            }
-                        });
-    }
-
-    public void miniMapUpdate(Composite composite, Shell shell) {
-        if (miniMap != null) {
-            miniMap.changeParent(composite, shell);
-            miniMapUpdate();
+        Display display = Display.getDefault();
+        if (display.getThread() != Thread.currentThread()) {
+            display.asyncExec(this::miniMapUpdate);
+            return;
         }
+        if (miniMapRefreshScheduled) {
+            return;
+        }
+        miniMapRefreshScheduled = true;
+        display.timerExec(MINIMAP_REFRESH_INTERVAL, this::miniMapRefresh);
     }
 
-    private Image graphImageCapture() {
-        setGraphScaleForCapture();
-        ImageData imageData = getCaptureImage();
-        setGraphLastScale();
-        if (imageData != null) {
-            Image image = new Image(null, imageData);
-            return image;
+    private void miniMapRefresh() {
+        miniMapRefreshScheduled = false;
+        if (miniMap == null || !miniMap.isShowing() || canvas.isDisposed()) {
+            return;
         }
 
-        return null;
-    }
+        Collection<Vertex<CypherNode>> vertices = graph.vertices();
+        if (miniMapX.length < vertices.size()) {
+            miniMapX = new double[vertices.size()];
+            miniMapY = new double[vertices.size()];
+            miniMapRadius = new double[vertices.size()];
+            miniMapColor = new int[vertices.size()];
+        }
+        int count = 0;
+        for (Vertex<CypherNode> vertex : vertices) {
+            SmartGraphVertexNode<CypherNode> node = graphView.getGraphVertex(vertex);
+            if (node == null) {
+                continue;
+            }
+            miniMapX[count] = node.getPositionCenterX();
+            miniMapY[count] = node.getPositionCenterY();
+            miniMapRadius[count] = node.getRadius();
+            miniMapColor[count] = -1;
+            if (node.getFill() instanceof javafx.scene.paint.Color) {
+                javafx.scene.paint.Color fill = (javafx.scene.paint.Color) node.getFill();
+                miniMapColor[count] =
+                        ((int) Math.round(fill.getRed() * 255) << 16)
+                                | ((int) Math.round(fill.getGreen() * 255) << 8)
+                                | (int) Math.round(fill.getBlue() * 255);
+            }
+            count++;
+        }
+        miniMap.drawVertices(
+                lastWidth, lastHeight, miniMapX, miniMapY, miniMapRadius, miniMapColor, count);
 
-    private void setGraphScaleForCapture() {
-        if (lastHeight * lastWidth > 480000) {
-            graphView.setScaleX(800 / lastWidth);
-            graphView.setScaleY(600 / lastHeight);
+        if (graphView.automaticLayoutProperty().get()) {
+            miniMapUpdate();
         }
     }
 
-    private void setGraphLastScale() {
-        graphView.setScaleX(zoomManager.getZoomLevel());
-        graphView.setScaleY(zoomManager.getZoomLevel());
+    public void miniMapUpdate(Composite composite, Shell shell) {
+        if (miniMap != null) {
+            miniMap.changeParent(composite, shell);
+            miniMapUpdate();
+        }
     }
 
     public void MoveScrollBar(double hValue, double vValue) {
@@ -1202,18 +1886,31 @@ public class FXGraph implements GraphBase {
         scrollPane.setVvalue(vValue);
     }
 
+    /**
+     * Asks for the files and format to export the graph to, and starts the export in the
+     * background.
+     *
+     * @return true if the export was started
+     */
     public boolean exportCSV() {
 
         CSVDialog csvDialog = new CSVDialog(this.getControl().getShell());
 
         csvDialog.create();
         if (csvDialog.open() == Window.OK) {
-            return ExportCSV.exportCSV(
-                    csvDialog.getFolderPath(),
-                    csvDialog.getNodeFileName(),
-                    csvDialog.getEdgeFileName(),
-                    graph.vertices(),
-                    graph.edges());
+            // the result elements, not the cluster vertices and links standing for them
+            GraphExporter exporter =
+                    new GraphExporter(csvDialog.getFormat(), getDataModel(), clusters);
+            Path edgeFile = null;
+            if (csvDialog.getEdgeFileName() != null) {
+                edgeFile = Paths.get(csvDialog.getFolderPath(), csvDialog.getEdgeFileName());
+            }
+            new GraphExportJob(
+                            exporter,
+                            Paths.get(csvDialog.getFolderPath(), csvDialog.getNodeFileName()),
+                            edgeFile)
+                    .schedule();
+            return true;
         }
 
         return false;
@@ -1248,6 +1945,10 @@ public class FXGraph implements GraphBase {
     }
 
     public boolean runShortest(String propertyName) {
+        return runShortest(propertyName, 1);
+    }
+
+    public boolean runShortest(String propertyName, int pathCount) {
         if (startVertex != null && endVertex != null) {
             shortestList =
                     ShortestPath.start(
@@ -1255,7 +1956,8 @@ public class FXGraph implements GraphBase {
                             graphView,
                             startVertex.getUnderlyingVertex(),
                             endVertex.getUnderlyingVertex(),
-                            propertyName);
+                            propertyName,
+                            pathCount);
             if (shortestList == null || shortestList.getEdges().size() == 0) {
                 graphView
                         .getStylableVertex(startVertex.getUnderlyingVertex())
@@ -1313,6 +2015,218 @@ public class FXGraph implements GraphBase {
         }
     }
 
+    /**
+     * Reads the relationships of a node from the database and adds those not displayed yet, with
+     * their other end, around the node. Expanding a node again with the same filter reads the next
+     * page.
+     *
+     * @param nodeId id of the expanded node
+     * @param direction relationship direction, seen from the node
+     * @param types relationship types to follow, null or empty for all
+     */
+    public void expandNeighbors(
+            String nodeId, NeighborExpansion.Direction direction, List<String> types) {
+        if (parentDataSource == null || dataModel.getNode(nodeId) == null) {
+            return;
+        }
+        NeighborExpansion expansion = expansions.get(nodeId);
+        if (expansion == null || !expansion.isSameFilter(direction, types)) {
+            try {
+                expansion = new NeighborExpansion(nodeId, direction, types, EXPAND_PAGE_SIZE);
+            } catch (IllegalArgumentException e) {
+                DBWorkbench.getPlatformUI().showError("Expand node", e.getMessage(), e);
+                return;
+            }
+            expansions.put(nodeId, expansion);
+        }
+        if (expansion.hasMore()) {
+            fetchExpansionPage(expansion, 0);
+        }
+    }
+
+    /**
+     * Reads the next page of the last expansion of a node.
+     *
+     * @param nodeId id of the expanded node
+     */
+    public void expandNextPage(String nodeId) {
+        NeighborExpansion expansion = expansions.get(nodeId);
+        if (expansion != null && expansion.hasMore()) {
+            fetchExpansionPage(expansion, 0);
+        }
+    }
+
+    private void fetchExpansionPage(NeighborExpansion expansion, int skippedPages) {
+        new NeighborExpandJob(
+                        parentDataSource,
+                        expansion,
+                        page -> addExpansionPage(expansion, page, skippedPages))
+                .schedule();
+    }
+
+    /* Adds the new elements of a page; a page of known elements is skipped for the next one */
+    private void addExpansionPage(
+            NeighborExpansion expansion, NeighborExpandJob.Page page, int skippedPages) {
+        Vertex<CypherNode> anchor = dataModel.getNode(expansion.getAnchorId());
+        if (canvas == null
+                || canvas.isDisposed()
+                || anchor == null
+                || expansions.get(expansion.getAnchorId()) != expansion) {
+            // graph cleared or expansion replaced while the page was read
+            return;
+        }
+        expansion.advance(page.getLastEdgeId(), page.getCount());
+
+        GraphBatch delta = new GraphBatch();
+        List<String> newNodeIds = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (GraphBatch.NodeData node : page.getBatch().getNodes()) {
+            if (dataModel.getNode(node.getId()) == null && seen.add(node.getId())) {
+                // neighbors hidden in a cluster are drawn like new ones
+                clusters.release(node.getId());
+                delta.addNode(node.getId(), node.getLabels(), node.getAttr());
+                newNodeIds.add(node.getId());
+            }
+        }
+        for (GraphBatch.EdgeData edge : page.getBatch().getEdges()) {
+            if (dataModel.getEdge(edge.getId()) == null && seen.add(edge.getId())) {
+                delta.addEdge(
+                        edge.getId(),
+                        edge.getTypes(),
+                        edge.getStartNodeID(),
+                        edge.getEndNodeID(),
+                        edge.getAttr());
+            }
+        }
+
+        if (delta.isEmpty()) {
+            if (expansion.hasMore() && skippedPages < EXPAND_MAX_SKIPPED_PAGES) {
+                fetchExpansionPage(expansion, skippedPages + 1);
+            }
+            return;
+        }
+
+        addElements(delta);
+        placeAround(anchor, newNodeIds);
+        if (clusters.isActive()) {
+            movePendingEdgesToClusters();
+            releaseClusterEdges();
+            refreshClusters();
+        }
+        miniMapUpdate();
+    }
+
+    /* Spreads new nodes on a spiral around the anchor, before the view draws them */
+    private void placeAround(Vertex<CypherNode> anchor, List<String> nodeIds) {
+        SmartGraphVertexNode<CypherNode> anchorNode = graphView.getGraphVertex(anchor);
+        if (anchorNode == null) {
+            return;
+        }
+        double centerX = anchorNode.getPositionCenterX();
+        double centerY = anchorNode.getPositionCenterY();
+        double spacing = anchor.element().getRadius() * 2;
+        int index = 0;
+        for (String nodeId : nodeIds) {
+            Vertex<CypherNode> vertex = dataModel.getNode(nodeId);
+            if (vertex == null) {
+                continue;
+            }
+            double distance = spacing * (2 + Math.sqrt(index));
+            double angle = index * GOLDEN_ANGLE;
+            vertex.element()
+                    .setLastPosition(
+                            centerX + distance * Math.cos(angle),
+                            centerY + distance * Math.sin(angle));
+            index++;
+        }
+    }
+
+    /**
+     * Runs an analysis on the current graph in the background. Scores scale the node radius,
+     * groups set the node color; {@link #resetAnalysisStyle()} restores the previous style.
+     *
+     * @param analysis analysis to run
+     */
+    public void runAnalysis(GraphAnalysis analysis) {
+        if (graph.numVertices() == 0) {
+            return;
+        }
+        AnalyticsGraph<CypherNode> snapshot = AnalyticsGraph.build(graph);
+        new GraphAnalysisJob(analysis, snapshot, result -> applyAnalysis(snapshot, result))
+                .schedule();
+    }
+
+    private void applyAnalysis(AnalyticsGraph<CypherNode> snapshot, GraphAnalysisResult result) {
+        if (canvas == null || canvas.isDisposed()) {
+            return;
+        }
+        for (int i = 0; i < result.size(); i++) {
+            Vertex<CypherNode> vertex = snapshot.vertex(i);
+            CypherNode node = vertex.element();
+            SmartGraphVertexNode<CypherNode> vertexNode = graphView.getGraphVertex(vertex);
+            if (vertexNode == null || dataModel.getNode(node.getID()) != vertex) {
+                // removed while the analysis was running
+                continue;
+            }
+            analysisSavedRadius.putIfAbsent(node.getID(), node.getRadius());
+            analysisSavedColor.putIfAbsent(node.getID(), node.getFillColorHexString());
+
+            if (result.isGrouping()) {
+                int group = result.getGroup(i);
+                String color = ANALYSIS_GROUP_COLORS[ANALYSIS_GROUP_COLORS.length - 1];
+                if (group < ANALYSIS_GROUP_COLORS.length - 1 && result.getGroupSize(group) > 1) {
+                    color = ANALYSIS_GROUP_COLORS[group];
+                }
+                node.setFillColor(color);
+                vertexNode.setStyle(SmartStyleProxy.DEFAULT_VERTEX + node.getFillColor());
+            } else {
+                // square root, so the area rather than the radius follows the score
+                double scale =
+                        ANALYSIS_MIN_SCALE
+                                + (ANALYSIS_MAX_SCALE - ANALYSIS_MIN_SCALE)
+                                        * Math.sqrt(result.getNormalizedScore(i));
+                node.setRadius(getLabelRadius(node) * scale);
+                vertexNode.setNodeRadius(node.getRadius());
+            }
+        }
+        if (!result.isGrouping()) {
+            graphView.updateEdgeArrowForRadius();
+        }
+        miniMapUpdate();
+    }
+
+    /** Restores the radius and color the nodes had before the first analysis. */
+    public void resetAnalysisStyle() {
+        for (Vertex<CypherNode> vertex : graph.vertices()) {
+            CypherNode node = vertex.element();
+            Double radius = analysisSavedRadius.get(node.getID());
+            String color = analysisSavedColor.get(node.getID());
+            SmartGraphVertexNode<CypherNode> vertexNode = graphView.getGraphVertex(vertex);
+            if (radius == null || vertexNode == null) {
+                continue;
+            }
+            node.setRadius(radius);
+            node.setFillColor(color);
+            vertexNode.setNodeRadius(radius);
+            vertexNode.setStyle(SmartStyleProxy.DEFAULT_VERTEX + node.getFillColor());
+        }
+        analysisSavedRadius.clear();
+        analysisSavedColor.clear();
+        graphView.updateEdgeArrowForRadius();
+        miniMapUpdate();
+    }
+
+    /* Radius given to the label of the node, before any analysis */
+    private double getLabelRadius(CypherNode node) {
+        Double radius = analysisSavedRadius.get(node.getID());
+        for (String label : node.getLabels()) {
+            if (nodesRadiusGroup.get(label) != null) {
+                radius = nodesRadiusGroup.get(label);
+            }
+        }
+        return radius != null ? radius : node.getRadius();
+    }
+
     private boolean isEmptyStartVertex() {
         if (startVertex == null) {
             return true;
@@ -1352,7 +2266,7 @@ public class FXGraph implements GraphBase {
         return graphView;
     }
 
-    public TurboGraphList<CypherNode, CypherEdge> getGraph() {
+    public TurboGraphArray<CypherNode, CypherEdge> getGraph() {
         return graph;
     }
 
@@ -1404,6 +2318,18 @@ public class FXGraph implements GraphBase {
     }
 
     public void setCurrentQuery(String query, int rowCount) {
+        if (parentDataSource != null && query != null) {
+            String key =
+                    LayoutPositionCache.makeKey(parentDataSource.getContainer().getId(), query);
+            if (!key.equals(layoutKey)) {
+                // edges kept for the previous query never get their nodes
+                dropPendingEdges();
+                layoutKey = key;
+                savedLayout = null;
+                LayoutPositionCache.getInstance()
+                        .load(key, positions -> applySavedLayout(key, positions));
+            }
+        }
         if (chartBox != null) {
             chartBox.setCurrentQuery(query, rowCount);
         }
@@ -1420,6 +2346,46 @@ public class FXGraph implements GraphBase {
     //
     //	}
 
+    /* Uses a layout read in the background; nodes added before it arrived are moved too */
+    private void applySavedLayout(String key, Map<String, double[]> positions) {
+        if (positions == null || !key.equals(layoutKey) || graphView == null) {
+            return;
+        }
+        savedLayout = positions;
+        if (lastLayoutstyle != LayoutStyle.SPRING || graph.numVertices() == 0) {
+            return;
+        }
+        boolean moved = false;
+        for (Vertex<CypherNode> vertex : graph.vertices()) {
+            CypherNode node = vertex.element();
+            double[] position = positions.get(node.getID());
+            if (position != null && node.getLastPositionX() == -1) {
+                node.setLastPosition(position[0], position[1]);
+                moved = true;
+            }
+        }
+        if (moved) {
+            graphView.restoreLastPositions();
+        }
+    }
+
+    /* Remembers where the nodes are, for the next run of the query */
+    private void saveLayout() {
+        if (layoutKey == null || graph.numVertices() == 0) {
+            return;
+        }
+        Map<String, double[]> positions = new HashMap<>(graph.numVertices() * 2);
+        for (Vertex<CypherNode> vertex : graph.vertices()) {
+            SmartGraphVertexNode<CypherNode> node = graphView.getGraphVertex(vertex);
+            if (node != null) {
+                positions.put(
+                        vertex.element().getID(),
+                        new double[] {node.getPositionCenterX(), node.getPositionCenterY()});
+            }
+        }
+        LayoutPositionCache.getInstance().save(layoutKey, positions);
+    }
+
     private void subClose() {
         if (chartBox != null) chartBox.remove();
         if (designBox != null) designBox.remove();
@@ -1447,11 +2413,24 @@ public class FXGraph implements GraphBase {
     }
     
     public void sendJsonData(String url) {
-        if (url.toLowerCase().startsWith("https")) {
-            SendHttp.sendPost(url, getDataModel().getNodes(), getDataModel().getEdges());
-        } else {
-            SendHttp.sendPostHttp(url, getDataModel().getNodes(), getDataModel().getEdges());
-        }
+        sendJsonData(url, false, null);
+    }
+
+    /**
+     * Posts the graph to a viewer in the background.
+     *
+     * @param url http or https URL
+     * @param gzip compress the request body
+     * @param onSent called on the UI thread once the viewer accepted the graph, may be null
+     */
+    public void sendJsonData(String url, boolean gzip, Runnable onSent) {
+        new GraphPublishJob(
+                        url,
+                        getDataModel().getNodes().values(),
+                        getDataModel().getEdges().values(),
+                        gzip,
+                        onSent)
+                .schedule();
     }
     
     public void setPaneVisible(boolean visible) {
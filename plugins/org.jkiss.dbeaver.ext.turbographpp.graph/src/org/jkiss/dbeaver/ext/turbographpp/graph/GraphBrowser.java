@@ -32,6 +32,7 @@ public class GraphBrowser {
     private Composite mainComposite;
     private Browser swtBrowser;
     private Button refreshButton;
+    private Button gzipButton;
 
     public GraphBrowser(Composite parent, FXGraph graph) {
         createBrowserArea(parent);
@@ -84,15 +85,33 @@ public class GraphBrowser {
                     public void widgetSelected(SelectionEvent event) {
                         String jUrl = jsonUrl.getText();
                         String bUrl = browserUrl.getText();
+                        Runnable openViewer =
+                                () -> {
+                                    if (!bUrl.isEmpty() && !swtBrowser.isDisposed()) {
+                                        swtBrowser.setUrl(bUrl);
+                                    }
+                                };
                         if (!jUrl.isEmpty()) {
-                            graphview.sendJsonData(jUrl);
-                        }
-                        if (!bUrl.isEmpty()) {
-                            swtBrowser.setUrl(bUrl);
+                            // the viewer is loaded once it has the data
+                            graphview.sendJsonData(jUrl, gzipButton.getSelection(), openViewer);
+                        } else {
+                            openViewer.run();
                         }
                     }
                 });
 
+        gzipButton = new Button(mainComposite, SWT.CHECK);
+        gzipButton.setText("Compress JsonData (gzip)");
+        gzipButton.setToolTipText("Send the graph gzip-compressed, the server must accept it");
+        data =
+                new GridData(
+                        GridData.HORIZONTAL_ALIGN_BEGINNING,
+                        GridData.VERTICAL_ALIGN_CENTER,
+                        false,
+                        false);
+        data.horizontalSpan = 3;
+        gzipButton.setLayoutData(data);
+
         refreshButton = new Button(mainComposite, SWT.PUSH);
         refreshButton.setText("Refresh");
         data =
@@ -101,7 +120,7 @@ public class GraphBrowser {
                         GridData.VERTICAL_ALIGN_CENTER,
                         false,
                         false);
-        data.horizontalSpan = 4;
+        refreshButton.setLayoutData(data);
         refreshButton.addSelectionListener(
                 new SelectionAdapter() {
                     @Override
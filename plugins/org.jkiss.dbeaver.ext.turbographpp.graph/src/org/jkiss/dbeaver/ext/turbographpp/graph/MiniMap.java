@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.ext.turbographpp.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import org.eclipse.swt.SWT;
@@ -27,7 +28,10 @@ import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.GridData;
@@ -38,6 +42,13 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 
+/**
+ * Overview of the whole graph with the visible part outlined.
+ *
+ * <p>The map is drawn from vertex positions into a fixed size pixel buffer, so a refresh costs
+ * the same whatever the size of the graph. Only the part of the image that changed since the
+ * previous refresh is copied and repainted.
+ */
 public class MiniMap {
 
     private static final int OVERLAY_WIDTH = 430;
@@ -48,6 +59,11 @@ public class MiniMap {
     private final int POINT_MARGIN_WIDTH = 2;
     private final int POINT_MARGIN_HEIGHT = 5;
 
+    private static final int BACKGROUND_PIXEL = 0xFFFFFF;
+    private static final int DEFAULT_VERTEX_PIXEL = 0x808080;
+    private static final int MAX_DOT_RADIUS = 3;
+    private static final PaletteData PALETTE = new PaletteData(0xFF0000, 0xFF00, 0xFF);
+
     private List<Composite> parents;
     private Control parentComposite;
     private Shell overlayShell;
@@ -62,6 +78,10 @@ public class MiniMap {
 
     private Rectangle pointRectAngel;
 
+    // pixels of the next image and of the image in captureImage, row by row
+    private final int[] pixels = new int[MINIMAP_WIDTH * MINIMAP_HEIGHT];
+    private final int[] drawnPixels = new int[MINIMAP_WIDTH * MINIMAP_HEIGHT];
+
     public MiniMap(Composite composite) {
 
         Objects.requireNonNull(composite);
@@ -102,6 +122,7 @@ public class MiniMap {
         createMiniMapCanvas(overlayShell);
 
         pointRectAngel = new Rectangle(0, 0, 0, 0);
+        Arrays.fill(drawnPixels, -1);
 
         canvasPaintListener =
                 new PaintListener() {
@@ -115,16 +136,7 @@ public class MiniMap {
                                             .getSystemColor(SWT.COLOR_RED);
                             e.gc.setForeground(color);
                             e.gc.setLineWidth(4);
-                            e.gc.drawImage(
-                                    captureImage,
-                                    0,
-                                    0,
-                                    captureImage.getBounds().width,
-                                    captureImage.getBounds().height,
-                                    0,
-                                    0,
-                                    MINIMAP_WIDTH,
-                                    MINIMAP_HEIGHT);
+                            e.gc.drawImage(captureImage, 0, 0);
                             e.gc.drawRectangle(pointRectAngel);
                             color.dispose();
                             // captureImage.dispose();
@@ -234,6 +246,8 @@ public class MiniMap {
     public void remove() {
         if (captureImage != null) {
             captureImage.dispose();
+            captureImage = null;
+            Arrays.fill(drawnPixels, -1);
         }
 
         if (!showing) {
@@ -269,8 +283,100 @@ public class MiniMap {
         return showing;
     }
 
-    public void setImage(Image image) {
-        captureImage = image;
+    /**
+     * Draws the vertices of the graph as dots. Must be called on the UI thread.
+     *
+     * @param viewWidth width of the graph panel
+     * @param viewHeight height of the graph panel
+     * @param x vertex center x-coordinates on the panel
+     * @param y vertex center y-coordinates on the panel
+     * @param radius vertex radiuses
+     * @param rgb vertex colors as 0xRRGGBB, negative for the default color
+     * @param count number of vertices in the arrays
+     */
+    public void drawVertices(
+            double viewWidth,
+            double viewHeight,
+            double[] x,
+            double[] y,
+            double[] radius,
+            int[] rgb,
+            int count) {
+        if (overlayShell.isDisposed() || miniMapCanvas.isDisposed()) {
+            return;
+        }
+
+        Arrays.fill(pixels, BACKGROUND_PIXEL);
+        if (viewWidth > 0 && viewHeight > 0) {
+            double scaleX = MINIMAP_WIDTH / viewWidth;
+            double scaleY = MINIMAP_HEIGHT / viewHeight;
+            double scale = Math.min(scaleX, scaleY);
+            for (int i = 0; i < count; i++) {
+                int r = (int) Math.max(1, Math.min(MAX_DOT_RADIUS, radius[i] * scale));
+                fillDot(
+                        (int) (x[i] * scaleX),
+                        (int) (y[i] * scaleY),
+                        r,
+                        rgb[i] < 0 ? DEFAULT_VERTEX_PIXEL : rgb[i]);
+            }
+        }
+
+        if (captureImage == null || captureImage.isDisposed()) {
+            captureImage =
+                    new Image(miniMapCanvas.getDisplay(), MINIMAP_WIDTH, MINIMAP_HEIGHT);
+            Arrays.fill(drawnPixels, -1);
+        }
+
+        // bounds of the pixels changed since the last refresh
+        int minX = MINIMAP_WIDTH;
+        int minY = MINIMAP_HEIGHT;
+        int maxX = -1;
+        int maxY = -1;
+        for (int row = 0; row < MINIMAP_HEIGHT; row++) {
+            int offset = row * MINIMAP_WIDTH;
+            for (int col = 0; col < MINIMAP_WIDTH; col++) {
+                if (pixels[offset + col] != drawnPixels[offset + col]) {
+                    minX = Math.min(minX, col);
+                    maxX = Math.max(maxX, col);
+                    minY = Math.min(minY, row);
+                    maxY = row;
+                }
+            }
+        }
+        if (maxX < 0) {
+            return;
+        }
+
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+        ImageData dirtyData = new ImageData(width, height, 24, PALETTE);
+        for (int row = minY; row <= maxY; row++) {
+            dirtyData.setPixels(0, row - minY, width, pixels, row * MINIMAP_WIDTH + minX);
+        }
+        Image dirtyImage = new Image(miniMapCanvas.getDisplay(), dirtyData);
+        GC gc = new GC(captureImage);
+        try {
+            gc.drawImage(dirtyImage, minX, minY);
+        } finally {
+            gc.dispose();
+            dirtyImage.dispose();
+        }
+        System.arraycopy(pixels, 0, drawnPixels, 0, pixels.length);
+
+        miniMapCanvas.redraw(minX, minY, width, height, false);
+    }
+
+    private void fillDot(int centerX, int centerY, int radius, int pixel) {
+        int fromY = Math.max(0, centerY - radius);
+        int toY = Math.min(MINIMAP_HEIGHT - 1, centerY + radius);
+        int fromX = Math.max(0, centerX - radius);
+        int toX = Math.min(MINIMAP_WIDTH - 1, centerX + radius);
+        for (int row = fromY; row <= toY; row++) {
+            int offset = row * MINIMAP_WIDTH;
+            for (int col = fromX; col <= toX; col++) {
+                pixels[offset + col] = pixel;
+            }
+        }
     }
 
     public void reDraw() {
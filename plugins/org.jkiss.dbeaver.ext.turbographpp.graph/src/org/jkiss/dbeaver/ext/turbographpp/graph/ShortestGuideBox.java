@@ -27,6 +27,7 @@ import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.jkiss.dbeaver.ext.turbographpp.graph.internal.GraphMessages;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -37,10 +38,12 @@ public class ShortestGuideBox extends MoveBox {
     private static final int OVERLAY_WIDTH = 300;
     private static final int OVERLAY_HEIGHT = 150;
     private static final int INFO_LOG_HEIGHT = 200;
+    private static final int MAX_PATH_COUNT = 10;
 
     private Text textBox;
     private Button extendButton;
     private Combo propertyCombo;
+    private Spinner pathCountSpinner;
 
     private Composite composite;
 
@@ -70,6 +73,15 @@ public class ShortestGuideBox extends MoveBox {
         propertyCombo.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
         propertyCombo.setEnabled(false);
 
+        Label pathCountLabel = new Label(composite, SWT.CENTER);
+        pathCountLabel.setAlignment(SWT.CENTER);
+        pathCountLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
+        pathCountLabel.setText(GraphMessages.shortest_guidebox_paths_label);
+
+        pathCountSpinner = new Spinner(composite, SWT.BORDER);
+        pathCountSpinner.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
+        pathCountSpinner.setValues(1, 1, MAX_PATH_COUNT, 0, 1, 1);
+
         textBox = new Text(composite, SWT.MULTI | SWT.BORDER | SWT.V_SCROLL | SWT.READ_ONLY);
         gd = new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1);
         textBox.setLayoutData(gd);
@@ -128,6 +140,10 @@ public class ShortestGuideBox extends MoveBox {
         return null;
     }
 
+    public int getPathCount() {
+        return pathCountSpinner.getSelection();
+    }
+
     public void open() {
         show();
         setOverlaySize(composite.getSize().x, composite.getSize().y);
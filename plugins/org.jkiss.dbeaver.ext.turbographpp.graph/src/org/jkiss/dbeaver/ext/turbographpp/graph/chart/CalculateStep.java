@@ -49,11 +49,11 @@ public class CalculateStep {
     protected static void calcStep(Date min, Date max, LinkedHashMap<String, Long> stepData) {
         long minTime = min.getTime();
         long maxTime = max.getTime();
-        long step = (maxTime - minTime) / GraphChart.MAX_STEP;
+        long step = (maxTime - minTime) / HistogramBins.MAX_BINS;
         final long day = 1000 * 60 * 60 * 24;
 
         if (step > 0) {
-            for (int i = 0; i < GraphChart.MAX_STEP; i++) {
+            for (int i = 0; i < HistogramBins.MAX_BINS; i++) {
                 long start = minTime + i * step;
                 long end = start + step;
                 if (i > 0) {
@@ -62,7 +62,7 @@ public class CalculateStep {
                 SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
                 String startStr = format.format(new Date(start));
                 String endStr = format.format(new Date(end));
-                stepData.put(startStr + GraphChart.STEP_RANGE_SEPARATOR + endStr, (long) 0);
+                stepData.put(startStr + HistogramBins.RANGE_SEPARATOR + endStr, (long) 0);
             }
         } else {
             SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
@@ -79,7 +79,7 @@ public class CalculateStep {
         if (maxStep.compareTo(BigDecimal.valueOf(0.1)) <= 0) {
             maxStep = BigDecimal.valueOf(1);
         } else {
-            maxStep = BigDecimal.valueOf(GraphChart.MAX_STEP);
+            maxStep = BigDecimal.valueOf(HistogramBins.MAX_BINS);
         }
 
         int count = maxStep.intValue();
@@ -95,7 +95,7 @@ public class CalculateStep {
             BigDecimal end = start.add(step);
 
             stepData.put(
-                    df.format(start) + GraphChart.STEP_RANGE_SEPARATOR + df.format(end), (long) 0);
+                    df.format(start) + HistogramBins.RANGE_SEPARATOR + df.format(end), (long) 0);
 
             if (end.compareTo(max) >= 0) {
                 break;
@@ -105,8 +105,8 @@ public class CalculateStep {
 
     protected static void calcStep(long min, long max, LinkedHashMap<String, Long> stepData) {
         long maxStep = max - min;
-        if (maxStep >= GraphChart.MAX_STEP) {
-            maxStep = GraphChart.MAX_STEP;
+        if (maxStep >= HistogramBins.MAX_BINS) {
+            maxStep = HistogramBins.MAX_BINS;
         }
 
         if (max - min == 0) {
@@ -124,7 +124,7 @@ public class CalculateStep {
             long start = min + i * step;
             long end = start + step;
 
-            if (maxStep < GraphChart.MAX_STEP) {
+            if (maxStep < HistogramBins.MAX_BINS) {
                 end = start;
             } else {
                 if (i > 0) {
@@ -136,7 +136,7 @@ public class CalculateStep {
                 end = max;
             }
 
-            stepData.put(start + GraphChart.STEP_RANGE_SEPARATOR + end, (long) 0);
+            stepData.put(start + HistogramBins.RANGE_SEPARATOR + end, (long) 0);
         }
     }
 }
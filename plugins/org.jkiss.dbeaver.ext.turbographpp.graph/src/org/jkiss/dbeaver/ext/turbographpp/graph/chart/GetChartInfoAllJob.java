@@ -16,7 +16,6 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.graph.chart;
 
-import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -25,12 +24,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.jkiss.dbeaver.ext.turbographpp.model.TurboGraphPPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSource;
-import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCException;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
-import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
@@ -75,41 +69,36 @@ public class GetChartInfoAllJob extends AbstractJob {
 
         monitor.beginTask("Update GraphDB Type info", 1);
         try {
-            String[] temp;
-            long count = 0;
             stepData.clear();
 
             graphChart.UILock();
 
-            List<Long> valList = new ArrayList<>();
             min = 0;
             max = 0;
 
-            boolean ret = getMinMaxInfo(monitor);
-
-            if (!ret) {
+            GraphChartStatistics.Statistics statistics;
+            try {
+                statistics =
+                        GraphChartStatistics.getInstance(dataSource)
+                                .getStatistics(monitor, infoLabel, infoProperty);
+            } catch (DBCException e) {
+                e.printStackTrace();
                 return Status.CANCEL_STATUS;
             }
 
-            CalculateStep.calcStep(min, max, stepData);
-
-            int index = 0;
-            int step = 1;
-
-            for (String key : stepData.keySet()) {
-                index = key.lastIndexOf(GraphChart.STEP_RANGE_SEPARATOR);
-                if (index > 0) {
-                    temp = new String[2];
-                    temp[0] = key.substring(0, index);
-                    temp[1] = key.substring(index + 1, key.length());
-                    count = getNumofStepInfo(monitor, stepData.size(), temp[0], temp[1], step);
-                    stepData.put(key, count);
-                } else {
-                    count = getNumofStepInfo(monitor, stepData.size(), key, key, step);
-                    stepData.put(key, count);
-                }
-                step++;
+            if (statistics.getMin() == null) {
+                // no node has the property
+                graphChart.runUpdateChart(stepData);
+                return Status.OK_STATUS;
+            }
+
+            if (!checkSupportType(statistics.getMin().getClass().getSimpleName())) {
+                DBWorkbench.getPlatformUI().showError("Chart Error", "not support Type");
+                return Status.CANCEL_STATUS;
             }
+
+            setMinMax(statistics.getMin(), statistics.getMax());
+            stepData.putAll(statistics.getStepData());
             graphChart.runUpdateChart(stepData);
         } finally {
             monitor.done();
@@ -119,96 +108,6 @@ public class GetChartInfoAllJob extends AbstractJob {
         return Status.OK_STATUS;
     }
 
-    public boolean getMinMaxInfo(DBRProgressMonitor monitor) {
-        // Object min = 0, max = 0;
-        Object retMin = 0, retMax = 0;
-        StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append("MATCH (n:" + infoLabel + ")");
-        queryBuilder.append(" WITH MIN(n." + infoProperty + ") as MINVALUE,");
-        queryBuilder.append(" MAX(n." + infoProperty + ") as MAXVALUE");
-        queryBuilder.append(" RETURN MINVALUE, MAXVALUE");
-
-        String query = queryBuilder.toString();
-        try (JDBCSession session =
-                DBUtils.openMetaSession(monitor, dataSource, "Get Min, Max Value")) {
-            JDBCPreparedStatement dbStat = session.prepareStatement(query);
-            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-                while (dbResult.next()) {
-                    retMin = JDBCUtils.safeGetObject(dbResult, 1);
-                    retMax = JDBCUtils.safeGetObject(dbResult, 2);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (dbStat != null) dbStat.close();
-            }
-        } catch (DBCException | SQLException e) {
-            e.printStackTrace();
-        }
-
-        if (!checkSupportType(retMin.getClass().getSimpleName())) {
-            DBWorkbench.getPlatformUI().showError("Chart Error", "not support Type");
-            return false;
-        }
-
-        setMinMax(retMin, retMax);
-        return true;
-    }
-
-    protected long getNumofStepInfo(
-            DBRProgressMonitor monitor, int size, String fromVal, String toVal, int step) {
-        long count = 0;
-        String fromOperator;
-        String toOperator;
-
-        if (fromVal.indexOf("-") > 0) {
-            fromVal = "date('" + fromVal + "')";
-            toVal = "date('" + toVal + "')";
-        }
-
-        if (isTurboGraph) {
-            if (fromVal.indexOf("-") == 0) {
-                fromVal = String.valueOf("0" + fromVal);
-            }
-            if (toVal.indexOf("-") == 0) {
-                toVal = String.valueOf("0" + toVal);
-            }
-        }
-
-        fromOperator = " >= ";
-        toOperator = " <= ";
-
-        if (fromVal.contains(".") && step > 1) {
-            fromOperator = " > ";
-        }
-
-        StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append("MATCH (n:" + infoLabel + ")");
-        queryBuilder.append(" WHERE n." + infoProperty + fromOperator + fromVal);
-        queryBuilder.append(" AND n." + infoProperty + toOperator + toVal);
-        queryBuilder.append(" RETURN COUNT(*) AS node_count");
-
-        String query = queryBuilder.toString();
-        try (JDBCSession session =
-                DBUtils.openMetaSession(monitor, dataSource, "Get Min, Max Value")) {
-            JDBCPreparedStatement dbStat = session.prepareStatement(query);
-            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-                while (dbResult.next()) {
-                    count = JDBCUtils.safeGetLong(dbResult, 1);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (dbStat != null) dbStat.close();
-            }
-        } catch (DBCException | SQLException e) {
-            e.printStackTrace();
-            return 0;
-        }
-
-        return count;
-    }
-
     private boolean checkSupportType(String simpleTypeName) {
 
         if (dataSource.isTurboGraph()) {
@@ -35,6 +35,13 @@ import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
+/**
+ * Histogram of a property over the nodes of the current query result.
+ *
+ * <p>The binning is pushed into a single Cypher aggregation returning one row per bin, with the
+ * minimum and maximum values. When the server cannot run it, the property values are streamed
+ * and binned on the client in one pass, see {@link HistogramBins.Builder}.
+ */
 public class GetChartInfoQueryJob extends AbstractJob {
     protected DBPDataSource dataSource;
     protected GraphChart graphChart;
@@ -44,12 +51,10 @@ public class GetChartInfoQueryJob extends AbstractJob {
     private long min;
     private long max;
 
-    private LinkedHashMap<String, Long> stepData = new LinkedHashMap<>();
+    private boolean serverHistogram = true;
 
     private List<String> retVars = new ArrayList<>();
 
-    private final String STEP_RANGE_SEPARATOR = "-";
-
     public GetChartInfoQueryJob(
             String jobName,
             DBPDataSource datasource,
@@ -66,6 +71,16 @@ public class GetChartInfoQueryJob extends AbstractJob {
         this.currentQuery = query;
     }
 
+    /**
+     * Enables or disables the server-side binning; when disabled, values are always binned on the
+     * client.
+     *
+     * @param serverHistogram true to bin in the database
+     */
+    public void setServerHistogram(boolean serverHistogram) {
+        this.serverHistogram = serverHistogram;
+    }
+
     @Override
     protected IStatus run(DBRProgressMonitor monitor) {
 
@@ -75,11 +90,8 @@ public class GetChartInfoQueryJob extends AbstractJob {
 
         monitor.beginTask("Update GraphDB Type info", 1);
         try {
-            String[] temp;
-            long count = 0;
             min = 0;
             max = 0;
-            stepData.clear();
 
             graphChart.UILock();
 
@@ -88,34 +100,33 @@ public class GetChartInfoQueryJob extends AbstractJob {
             }
 
             retVars = getVariable(currentQuery);
-            List<Long> valList = new ArrayList<>();
-
-            boolean ret = getMinMaxInfo(monitor, valList);
 
+            HistogramBins bins = null;
+            boolean ret = false;
+            if (serverHistogram) {
+                try {
+                    bins = getServerHistogram(monitor);
+                    ret = true;
+                } catch (DBCException | SQLException e) {
+                    // not supported by this server, bin on the client
+                    e.printStackTrace();
+                }
+            }
             if (!ret) {
-                return Status.CANCEL_STATUS;
+                try {
+                    bins = getClientHistogram(monitor);
+                } catch (DBCException | SQLException e) {
+                    e.printStackTrace();
+                    return Status.CANCEL_STATUS;
+                }
             }
 
-            int index = 0;
-
-            for (String key : stepData.keySet()) {
-                index = key.lastIndexOf(STEP_RANGE_SEPARATOR);
-                if (index > 1) {
-                    temp = new String[2];
-                    temp[0] = key.substring(0, index - 1);
-                    temp[1] = key.substring(index, key.length());
-                    count =
-                            getNumofStepInfo(
-                                    monitor, valList, Long.valueOf(temp[0]), Long.valueOf(temp[1]));
-                    stepData.put(key, count);
-                } else {
-                    count =
-                            getNumofStepInfo(
-                                    monitor, valList, Long.valueOf(key), Long.valueOf(key));
-                    stepData.put(key, count);
-                }
+            if (bins != null) {
+                setMinMax(bins.getMin(), bins.getMax());
+                graphChart.runUpdateChart(bins.toStepData());
+            } else {
+                graphChart.runUpdateChart(new LinkedHashMap<>());
             }
-            graphChart.runUpdateChart(stepData);
         } finally {
             monitor.done();
             graphChart.UIUnLock();
@@ -124,124 +135,119 @@ public class GetChartInfoQueryJob extends AbstractJob {
         return Status.OK_STATUS;
     }
 
-    public boolean getMinMaxInfo(DBRProgressMonitor monitor, List<Long> valList) {
+    /**
+     * Computes the range and the bin counts in one query.
+     *
+     * @return bins, or null if no node has the property
+     */
+    protected HistogramBins getServerHistogram(DBRProgressMonitor monitor)
+            throws DBCException, SQLException {
+        String valueAsString = nodeAsString("Val", currentQuery);
+        String valuesAsString = nodeAsString("Vals", currentQuery);
+        String minAsString = nodeAsString("MinVal", currentQuery);
+        String maxAsString = nodeAsString("MaxVal", currentQuery);
+        String binAsString = nodeAsString("Bin", currentQuery);
 
         StringBuilder queryBuilder = new StringBuilder();
-        String collectAsString = nodeAsString("AllNodes", currentQuery.toString());
-        String rowAsString = nodeAsString("Nodes", currentQuery.toString());
-        String midRetAsString = nodeAsString("MiddleRet", currentQuery.toString());
-        String LastRetAsString = nodeAsString("LastRet", currentQuery.toString());
-        queryBuilder.append(getCurrentQueryWithOutReturn(currentQuery)).append(" WITH ");
-        boolean first = true;
-        Iterator<String> itr = retVars.iterator();
-        while (itr.hasNext()) {
-            String variable = itr.next();
-            if (first) {
-                first = false;
-            } else {
-                queryBuilder.append(" + ");
+        appendPropertyValues(queryBuilder, valueAsString);
+        queryBuilder
+                .append(" WITH COLLECT(" + valueAsString + ") AS " + valuesAsString)
+                .append(", MIN(" + valueAsString + ") AS " + minAsString)
+                .append(", MAX(" + valueAsString + ") AS " + maxAsString)
+                .append(" UNWIND " + valuesAsString + " AS " + valueAsString)
+                .append(" WITH " + minAsString + ", " + maxAsString + ", ")
+                .append(HistogramBins.cypherBin(valueAsString, minAsString, maxAsString))
+                .append(" AS " + binAsString)
+                .append(" RETURN " + minAsString + ", " + maxAsString + ", " + binAsString)
+                .append(", COUNT(*)");
+
+        HistogramBins bins = null;
+        try (JDBCSession session =
+                DBUtils.openMetaSession(monitor, dataSource, "Get Histogram")) {
+            try (JDBCPreparedStatement dbStat = session.prepareStatement(queryBuilder.toString());
+                    JDBCResultSet dbResult = dbStat.executeQuery()) {
+                while (dbResult.next()) {
+                    if (bins == null) {
+                        bins =
+                                new HistogramBins(
+                                        JDBCUtils.safeGetLong(dbResult, 1),
+                                        JDBCUtils.safeGetLong(dbResult, 2));
+                    }
+                    bins.addCount(
+                            JDBCUtils.safeGetInt(dbResult, 3), JDBCUtils.safeGetLong(dbResult, 4));
+                }
             }
-            queryBuilder.append(" COLLECT(" + variable + ")");
         }
+        return bins;
+    }
 
-        queryBuilder
-                .append(" AS ")
-                .append(collectAsString)
-                .append(" WITH ")
-                .append("[" + rowAsString + " IN " + collectAsString)
-                .append(" WHERE " + rowAsString + ":" + infoLabel + "]")
-                .append(" AS " + midRetAsString)
-                .append(" UNWIND " + midRetAsString + " AS " + LastRetAsString)
-                .append(" RETURN " + LastRetAsString + "." + infoProperty);
-
-        first = true;
-
-        String query = queryBuilder.toString();
+    /**
+     * Streams the property values into the bins, without keeping them.
+     *
+     * @return bins, or null if no node has an integer value of the property
+     */
+    protected HistogramBins getClientHistogram(DBRProgressMonitor monitor)
+            throws DBCException, SQLException {
+        String valueAsString = nodeAsString("Val", currentQuery);
+        StringBuilder queryBuilder = new StringBuilder();
+        appendPropertyValues(queryBuilder, valueAsString);
+        queryBuilder.append(" RETURN " + valueAsString);
 
+        HistogramBins.Builder bins = new HistogramBins.Builder();
         try (JDBCSession session =
-                DBUtils.openMetaSession(monitor, dataSource, "Get Min, Max Value")) {
-            JDBCPreparedStatement dbStat = session.prepareStatement(query);
-            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                DBUtils.openMetaSession(monitor, dataSource, "Get Property Values")) {
+            try (JDBCPreparedStatement dbStat = session.prepareStatement(queryBuilder.toString());
+                    JDBCResultSet dbResult = dbStat.executeQuery()) {
                 while (dbResult.next()) {
+                    if (monitor.isCanceled()) {
+                        return null;
+                    }
                     Object temp = JDBCUtils.safeGetObject(dbResult, 1);
-                    if (temp != null) {
-                        long val = Long.valueOf(String.valueOf(temp));
-                        valList.add(val);
-
-                        if (first) {
-                            min = max = val;
-                            first = false;
-                        }
-                        if (min > val) {
-                            min = val;
-                        }
-
-                        if (max < val) {
-                            max = val;
+                    long val;
+                    if (temp instanceof Number) {
+                        val = ((Number) temp).longValue();
+                    } else if (temp != null) {
+                        try {
+                            val = Long.parseLong(String.valueOf(temp));
+                        } catch (NumberFormatException e) {
+                            continue;
                         }
+                    } else {
+                        continue;
                     }
+                    bins.add(val);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (dbStat != null) dbStat.close();
             }
-        } catch (DBCException | SQLException e) {
-            e.printStackTrace();
-            return false;
         }
-
-        calcStep(min, max);
-
-        return true;
+        return bins.build();
     }
 
-    protected long getNumofStepInfo(
-            DBRProgressMonitor monitor, List<Long> valList, long fromVal, long toVal) {
-        long result = 0;
-        Iterator<Long> itr = valList.iterator();
+    /* The current query up to RETURN, then the integer property values of the labeled nodes */
+    private void appendPropertyValues(StringBuilder queryBuilder, String valueAsString) {
+        String collectAsString = nodeAsString("AllNodes", currentQuery);
+        String rowAsString = nodeAsString("Nodes", currentQuery);
+        queryBuilder.append(getCurrentQueryWithOutReturn(currentQuery)).append(" WITH ");
+        boolean first = true;
+        Iterator<String> itr = retVars.iterator();
         while (itr.hasNext()) {
-            long val = itr.next();
-            if (fromVal <= val && toVal >= val) {
-                result++;
-                itr.remove();
+            String variable = itr.next();
+            if (first) {
+                first = false;
+            } else {
+                queryBuilder.append(" + ");
             }
+            queryBuilder.append(" COLLECT(" + variable + ")");
         }
-        return result;
-    }
 
-    protected void calcStep(long min, long max) {
-        final int maxStep = 10;
-        long current = 0;
-        long totalStep = 0, quotient = 0, remainder = 0;
-        String key = "";
-        current = min;
-        if (max != 0) {
-            totalStep = max - min;
-        }
-        quotient = totalStep / 10;
-        remainder = totalStep % 10;
-        if (totalStep >= 10) {
-            for (int i = 0; i < maxStep; i++) {
-                if (remainder > 0) {
-                    key = String.valueOf(current) + STEP_RANGE_SEPARATOR;
-                    current += quotient + 1;
-                    key += String.valueOf(current);
-                } else {
-                    key = String.valueOf(current) + STEP_RANGE_SEPARATOR;
-                    current += quotient;
-                    key += String.valueOf(current);
-                }
-                remainder--;
-                stepData.put(key, (long) 0);
-            }
-        } else {
-            for (int i = 0; i < totalStep; i++) {
-                key = String.valueOf(current);
-                current += 1;
-                stepData.put(key, (long) 0);
-            }
-        }
+        queryBuilder
+                .append(" AS ")
+                .append(collectAsString)
+                .append(" UNWIND " + collectAsString + " AS " + rowAsString)
+                .append(" WITH " + rowAsString)
+                .append(" WHERE " + rowAsString + ":" + infoLabel)
+                .append(" AND " + rowAsString + "." + infoProperty + " IS NOT NULL")
+                .append(" WITH toInteger(" + rowAsString + "." + infoProperty + ")")
+                .append(" AS " + valueAsString);
     }
 
     protected String getCurrentQueryWithOutReturn(String query) {
@@ -81,8 +81,8 @@ import org.jkiss.dbeaver.runtime.DBWorkbench;
 
 public class GraphChart extends MoveBox {
 
-    public static final String STEP_RANGE_SEPARATOR = "~";
-    public static final int MAX_STEP = 10;
+    public static final String STEP_RANGE_SEPARATOR = HistogramBins.RANGE_SEPARATOR;
+    public static final int MAX_STEP = HistogramBins.MAX_BINS;
 
     private final FXGraph graph;
 
@@ -0,0 +1,331 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.chart;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jkiss.dbeaver.ext.turbographpp.model.TurboGraphPPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvent;
+import org.jkiss.dbeaver.model.DBPEventListener;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+/**
+ * Label/property statistics of a data source for the chart box: value range and bucket counts.
+ *
+ * <p>The counts of all buckets are computed by a single aggregate query, one <code>SUM(CASE ...)
+ * </code> column per bucket; servers that reject it fall back to one count query per bucket.
+ * Results are cached per data source for {@link #CACHE_TTL} milliseconds, and dropped when the
+ * data source connects, disconnects or is refreshed. Refreshing a label drops only its entries.
+ */
+public class GraphChartStatistics implements DBPEventListener {
+
+    public static final long CACHE_TTL = 5 * 60 * 1000;
+
+    private static final Map<DBPDataSourceContainer, GraphChartStatistics> instances =
+            new HashMap<>();
+
+    private final TurboGraphPPDataSource dataSource;
+    private final Map<String, Statistics> cache = new ConcurrentHashMap<>();
+
+    /** Value range of a property and node count per bucket. */
+    public static class Statistics {
+        private final Object min;
+        private final Object max;
+        private final LinkedHashMap<String, Long> stepData;
+        private final long loadTime;
+
+        private Statistics(Object min, Object max, LinkedHashMap<String, Long> stepData) {
+            this.min = min;
+            this.max = max;
+            this.stepData = stepData;
+            this.loadTime = System.currentTimeMillis();
+        }
+
+        /** Returns the minimum value, null if no node has the property. */
+        public Object getMin() {
+            return min;
+        }
+
+        public Object getMax() {
+            return max;
+        }
+
+        /** Returns a copy of the bucket labels, as made by {@link CalculateStep}, and counts. */
+        public LinkedHashMap<String, Long> getStepData() {
+            return new LinkedHashMap<>(stepData);
+        }
+    }
+
+    private GraphChartStatistics(TurboGraphPPDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Returns the statistics service of a data source, created on first use.
+     *
+     * @param dataSource data source
+     * @return statistics service
+     */
+    public static GraphChartStatistics getInstance(TurboGraphPPDataSource dataSource) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        synchronized (instances) {
+            GraphChartStatistics statistics = instances.get(container);
+            if (statistics == null || statistics.dataSource != dataSource) {
+                if (statistics != null) {
+                    container.getRegistry().removeDataSourceListener(statistics);
+                }
+                statistics = new GraphChartStatistics(dataSource);
+                instances.put(container, statistics);
+                container.getRegistry().addDataSourceListener(statistics);
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * Returns the statistics of a label property, from the cache when they are recent enough.
+     *
+     * @param monitor progress monitor
+     * @param label node label
+     * @param property property name
+     * @return statistics
+     * @throws DBCException if the range cannot be read
+     */
+    public Statistics getStatistics(DBRProgressMonitor monitor, String label, String property)
+            throws DBCException {
+        String key = label + ":" + property;
+        Statistics statistics = cache.get(key);
+        if (statistics != null
+                && System.currentTimeMillis() - statistics.loadTime < CACHE_TTL) {
+            return statistics;
+        }
+
+        Object[] minMax = getMinMax(monitor, label, property);
+        LinkedHashMap<String, Long> stepData = new LinkedHashMap<>();
+        if (minMax[0] != null && minMax[1] != null) {
+            CalculateStep.calcStep(minMax[0], minMax[1], stepData);
+        }
+        if (!stepData.isEmpty()) {
+            try {
+                getStepCounts(monitor, label, property, stepData);
+            } catch (DBCException | SQLException e) {
+                // aggregate not supported by this server, count bucket by bucket
+                e.printStackTrace();
+                getStepCountsEach(monitor, label, property, stepData);
+            }
+        }
+
+        statistics = new Statistics(minMax[0], minMax[1], stepData);
+        cache.put(key, statistics);
+        return statistics;
+    }
+
+    /** Drops all cached statistics. */
+    public void invalidate() {
+        cache.clear();
+    }
+
+    /**
+     * Drops the cached statistics of a label.
+     *
+     * @param label node label
+     */
+    public void invalidate(String label) {
+        cache.keySet().removeIf(key -> key.startsWith(label + ":"));
+    }
+
+    @Override
+    public void handleDataSourceEvent(DBPEvent event) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        DBSObject object = event.getObject();
+        if (DBUtils.getContainer(object) != container) {
+            return;
+        }
+        switch (event.getAction()) {
+            case OBJECT_UPDATE:
+                if (object == container && event.getEnabled() != null) {
+                    // connect or disconnect
+                    invalidate();
+                } else if (object == dataSource) {
+                    // data source refresh
+                    invalidate();
+                }
+                break;
+            case OBJECT_SELECT:
+                // selection with enabled flag is a refresh
+                if (Boolean.TRUE.equals(event.getEnabled())) {
+                    if (object instanceof DBSEntity) {
+                        invalidate(object.getName());
+                    } else if (object == container || object == dataSource) {
+                        invalidate();
+                    }
+                }
+                break;
+            case OBJECT_REMOVE:
+                if (object == container) {
+                    synchronized (instances) {
+                        instances.remove(container);
+                    }
+                    container.getRegistry().removeDataSourceListener(this);
+                    invalidate();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Object[] getMinMax(DBRProgressMonitor monitor, String label, String property)
+            throws DBCException {
+        Object[] minMax = new Object[2];
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder.append("MATCH (n:" + label + ")");
+        queryBuilder.append(" WITH MIN(n." + property + ") as MINVALUE,");
+        queryBuilder.append(" MAX(n." + property + ") as MAXVALUE");
+        queryBuilder.append(" RETURN MINVALUE, MAXVALUE");
+
+        try (JDBCSession session =
+                        DBUtils.openMetaSession(monitor, dataSource, "Get Min, Max Value");
+                JDBCPreparedStatement dbStat = session.prepareStatement(queryBuilder.toString());
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            while (dbResult.next()) {
+                minMax[0] = JDBCUtils.safeGetObject(dbResult, 1);
+                minMax[1] = JDBCUtils.safeGetObject(dbResult, 2);
+            }
+        } catch (SQLException e) {
+            throw new DBCException(e, dataSource);
+        }
+        return minMax;
+    }
+
+    /* Counts every bucket with one aggregate query */
+    private void getStepCounts(
+            DBRProgressMonitor monitor,
+            String label,
+            String property,
+            LinkedHashMap<String, Long> stepData)
+            throws DBCException, SQLException {
+        List<String> keys = new ArrayList<>(stepData.keySet());
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder.append("MATCH (n:" + label + ")");
+        queryBuilder.append(" RETURN ");
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                queryBuilder.append(", ");
+            }
+            queryBuilder.append("SUM(CASE WHEN ");
+            appendStepCondition(queryBuilder, property, keys.get(i), i + 1);
+            queryBuilder.append(" THEN 1 ELSE 0 END)");
+        }
+
+        try (JDBCSession session =
+                        DBUtils.openMetaSession(monitor, dataSource, "Get Chart Statistics");
+                JDBCPreparedStatement dbStat = session.prepareStatement(queryBuilder.toString());
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            if (dbResult.next()) {
+                for (int i = 0; i < keys.size(); i++) {
+                    stepData.put(keys.get(i), JDBCUtils.safeGetLong(dbResult, i + 1));
+                }
+            }
+        }
+    }
+
+    /* Counts the buckets one query at a time */
+    private void getStepCountsEach(
+            DBRProgressMonitor monitor,
+            String label,
+            String property,
+            LinkedHashMap<String, Long> stepData) {
+        int step = 1;
+        for (String key : stepData.keySet()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            StringBuilder queryBuilder = new StringBuilder();
+            queryBuilder.append("MATCH (n:" + label + ") WHERE ");
+            appendStepCondition(queryBuilder, property, key, step);
+            queryBuilder.append(" RETURN COUNT(*) AS node_count");
+
+            long count = 0;
+            try (JDBCSession session =
+                            DBUtils.openMetaSession(monitor, dataSource, "Get Chart Bucket Count");
+                    JDBCPreparedStatement dbStat =
+                            session.prepareStatement(queryBuilder.toString());
+                    JDBCResultSet dbResult = dbStat.executeQuery()) {
+                while (dbResult.next()) {
+                    count = JDBCUtils.safeGetLong(dbResult, 1);
+                }
+            } catch (DBCException | SQLException e) {
+                e.printStackTrace();
+            }
+            stepData.put(key, count);
+            step++;
+        }
+    }
+
+    /* Condition of a bucket key made by CalculateStep; step is the 1-based bucket position */
+    private void appendStepCondition(
+            StringBuilder queryBuilder, String property, String key, int step) {
+        String fromVal;
+        String toVal;
+        int index = key.lastIndexOf(GraphChart.STEP_RANGE_SEPARATOR);
+        if (index > 0) {
+            fromVal = key.substring(0, index);
+            toVal = key.substring(index + 1);
+        } else {
+            fromVal = toVal = key;
+        }
+
+        String fromOperator = " >= ";
+        String toOperator = " <= ";
+
+        if (fromVal.contains(".") && step > 1) {
+            fromOperator = " > ";
+        }
+
+        if (fromVal.indexOf("-") > 0) {
+            fromVal = "date('" + fromVal + "')";
+            toVal = "date('" + toVal + "')";
+        }
+
+        if (dataSource.isTurboGraph()) {
+            if (fromVal.indexOf("-") == 0) {
+                fromVal = "0" + fromVal;
+            }
+            if (toVal.indexOf("-") == 0) {
+                toVal = "0" + toVal;
+            }
+        }
+
+        queryBuilder.append("n." + property + fromOperator + fromVal);
+        queryBuilder.append(" AND n." + property + toOperator + toVal);
+    }
+}
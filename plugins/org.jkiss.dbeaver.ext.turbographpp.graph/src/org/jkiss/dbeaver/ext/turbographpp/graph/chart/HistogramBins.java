@@ -0,0 +1,223 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.chart;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Equal-width bins of integer values, at most {@link #MAX_BINS} of them.
+ *
+ * <p>Bin <code>i</code> holds the values from <code>min + i * width</code> to <code>
+ * min + (i + 1) * width - 1</code>, where <code>width = (max - min) / MAX_BINS + 1</code>. The
+ * width only needs integer division, so the same binning can be computed by a Cypher query; see
+ * {@link #cypherBin(String, String, String)}.
+ */
+public class HistogramBins {
+
+    /** Number of bars of the chart. */
+    public static final int MAX_BINS = 10;
+    /** Separator of the first and last value of a bin label. */
+    public static final String RANGE_SEPARATOR = "~";
+
+    private final long min;
+    private final long max;
+    private final long width;
+    private final long[] counts;
+
+    /**
+     * Bins a stream of values in one pass, without keeping them.
+     *
+     * <p>The final bins depend on the range of all the values, so values are first counted in
+     * {@link #FINE_BINS} provisional bins of a power of two width, aligned to multiples of that
+     * width. When a value falls outside of them, the width is doubled until the range fits and
+     * the counts are merged pairwise, which is exact. {@link #build()} then maps the provisional
+     * bins to the final ones.
+     *
+     * <p>The result is exact while the range is smaller than {@link #FINE_BINS}. For wider
+     * ranges a provisional bin may straddle two final bins; it is counted in the bin holding
+     * its middle, so a final bin count may be off by the values of one provisional bin at each
+     * of its ends, i.e. within a width of about 1/200 of a final bin.
+     */
+    public static class Builder {
+
+        static final int FINE_BINS = 4096;
+
+        private long[] fine = new long[FINE_BINS];
+        /* Width of the provisional bins, and index of the first one in multiples of it */
+        private long fineWidth = 1;
+        private long base;
+        private long min;
+        private long max;
+        private long count = 0;
+
+        public void add(long value) {
+            if (count == 0) {
+                base = value;
+                min = max = value;
+            } else if (value < min || value > max) {
+                long index = Math.floorDiv(value, fineWidth) - base;
+                if (index < 0 || index >= FINE_BINS) {
+                    rebin(Math.min(min, value), Math.max(max, value));
+                }
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            fine[(int) (Math.floorDiv(value, fineWidth) - base)]++;
+            count++;
+        }
+
+        /**
+         * Returns the bins of the values added so far.
+         *
+         * @return bins, or null if no value was added
+         */
+        public HistogramBins build() {
+            if (count == 0) {
+                return null;
+            }
+            HistogramBins bins = new HistogramBins(min, max);
+            for (int i = 0; i < FINE_BINS; i++) {
+                if (fine[i] == 0) {
+                    continue;
+                }
+                long start = Math.max((base + i) * fineWidth, min);
+                long end = Math.min((base + i) * fineWidth + (fineWidth - 1), max);
+                bins.counts[bins.binOf(start + (end - start) / 2)] += fine[i];
+            }
+            return bins;
+        }
+
+        /* Widens the provisional bins until [low, high] fits into them */
+        private void rebin(long low, long high) {
+            long width = fineWidth;
+            while (Math.floorDiv(high, width) - Math.floorDiv(low, width) >= FINE_BINS) {
+                width *= 2;
+            }
+            long ratio = width / fineWidth;
+            long newBase = Math.floorDiv(low, width);
+            long[] rebinned = new long[FINE_BINS];
+            for (int i = 0; i < FINE_BINS; i++) {
+                if (fine[i] != 0) {
+                    rebinned[(int) (Math.floorDiv(base + i, ratio) - newBase)] += fine[i];
+                }
+            }
+            fine = rebinned;
+            fineWidth = width;
+            base = newBase;
+        }
+    }
+
+    public HistogramBins(long min, long max) {
+        this.min = min;
+        this.max = max;
+        this.width = (max - min) / MAX_BINS + 1;
+        this.counts = new long[(int) ((max - min) / width + 1)];
+    }
+
+    /**
+     * Bins values in two passes over a primitive array: one for the range, one for the counts.
+     * Use a {@link Builder} when the values are not all at hand.
+     *
+     * @param values values, only the first <code>size</code> are used
+     * @param size number of values
+     * @return bins of the values, or null if there are none
+     */
+    public static HistogramBins of(long[] values, int size) {
+        if (size == 0) {
+            return null;
+        }
+        long min = values[0];
+        long max = values[0];
+        for (int i = 1; i < size; i++) {
+            long value = values[i];
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        HistogramBins bins = new HistogramBins(min, max);
+        for (int i = 0; i < size; i++) {
+            bins.counts[bins.binOf(values[i])]++;
+        }
+        return bins;
+    }
+
+    /**
+     * Returns the Cypher expression of the bin of a value, matching {@link #binOf(long)}.
+     *
+     * @param value value expression
+     * @param min expression of the minimum value
+     * @param max expression of the maximum value
+     * @return bin index expression
+     */
+    public static String cypherBin(String value, String min, String max) {
+        return "(" + value + " - " + min + ") / ((" + max + " - " + min + ") / "
+                + MAX_BINS + " + 1)";
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public int binOf(long value) {
+        return (int) ((value - min) / width);
+    }
+
+    public void add(long value) {
+        counts[binOf(value)]++;
+    }
+
+    /**
+     * Adds a count computed elsewhere, e.g., by the database.
+     *
+     * @param bin bin index; out of range indexes are ignored
+     * @param count number of values in the bin
+     */
+    public void addCount(int bin, long count) {
+        if (bin >= 0 && bin < counts.length) {
+            counts[bin] += count;
+        }
+    }
+
+    /**
+     * Returns the chart data: bin labels, like <code>10~19</code>, mapped to counts.
+     *
+     * @return chart data in bin order
+     */
+    public LinkedHashMap<String, Long> toStepData() {
+        LinkedHashMap<String, Long> stepData = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            long start = min + i * width;
+            long end = Math.min(start + width - 1, max);
+            String key =
+                    start == end
+                            ? String.valueOf(start)
+                            : start + RANGE_SEPARATOR + end;
+            stepData.put(key, counts[i]);
+        }
+        return stepData;
+    }
+}
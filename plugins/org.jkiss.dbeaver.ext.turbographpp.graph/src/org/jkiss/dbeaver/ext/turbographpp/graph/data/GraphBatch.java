@@ -0,0 +1,125 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Nodes and edges decoded from result rows, added to the graph together by {@link
+ * org.jkiss.dbeaver.ext.turbographpp.graph.FXGraph#addBatch(GraphBatch)}.
+ */
+public class GraphBatch {
+
+    public static class NodeData {
+        private final String id;
+        private final List<String> labels;
+        private final LinkedHashMap<String, Object> attr;
+
+        NodeData(String id, List<String> labels, LinkedHashMap<String, Object> attr) {
+            this.id = id;
+            this.labels = labels;
+            this.attr = attr;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public List<String> getLabels() {
+            return labels;
+        }
+
+        public LinkedHashMap<String, Object> getAttr() {
+            return attr;
+        }
+    }
+
+    public static class EdgeData {
+        private final String id;
+        private final List<String> types;
+        private final String startNodeID;
+        private final String endNodeID;
+        private final LinkedHashMap<String, Object> attr;
+
+        EdgeData(
+                String id,
+                List<String> types,
+                String startNodeID,
+                String endNodeID,
+                LinkedHashMap<String, Object> attr) {
+            this.id = id;
+            this.types = types;
+            this.startNodeID = startNodeID;
+            this.endNodeID = endNodeID;
+            this.attr = attr;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public List<String> getTypes() {
+            return types;
+        }
+
+        public String getStartNodeID() {
+            return startNodeID;
+        }
+
+        public String getEndNodeID() {
+            return endNodeID;
+        }
+
+        public LinkedHashMap<String, Object> getAttr() {
+            return attr;
+        }
+    }
+
+    private final List<NodeData> nodes = new ArrayList<>();
+    private final List<EdgeData> edges = new ArrayList<>();
+
+    public void addNode(String id, List<String> labels, LinkedHashMap<String, Object> attr) {
+        nodes.add(new NodeData(id, labels, attr));
+    }
+
+    public void addEdge(
+            String id,
+            List<String> types,
+            String startNodeID,
+            String endNodeID,
+            LinkedHashMap<String, Object> attr) {
+        edges.add(new EdgeData(id, types, startNodeID, endNodeID, attr));
+    }
+
+    public List<NodeData> getNodes() {
+        return nodes;
+    }
+
+    public List<EdgeData> getEdges() {
+        return edges;
+    }
+
+    public int size() {
+        return nodes.size() + edges.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty() && edges.isEmpty();
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.AnalyticsGraph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysisResult;
+
+/**
+ * Nodes of an oversized result that are not drawn one by one, grouped into clusters.
+ *
+ * <p>Each cluster is drawn as a single vertex showing its member count, and the relationships of
+ * the hidden nodes are merged into one {@link Link} per pair of drawn vertices and type. Expanding
+ * a cluster releases its members a page at a time, so the drawn graph grows with what the user
+ * opens rather than with the size of the result.
+ */
+public class GraphClusters {
+
+    /** Prefix of the ids of the cluster vertices. */
+    public static final String CLUSTER_ID_PREFIX = "cluster:";
+    /** Prefix of the ids of the merged relationships. */
+    public static final String LINK_ID_PREFIX = "cluster-link:";
+
+    /** Property holding the text shown on a cluster vertex. */
+    public static final String PROPERTY_NAME = "name";
+    /** Property holding the number of merged nodes or relationships. */
+    public static final String PROPERTY_COUNT = "count";
+
+    // smaller communities share the last cluster, so few clusters are drawn
+    private static final int MAX_COMMUNITY_CLUSTERS = 50;
+
+    public enum Grouping {
+        /** One cluster per set of labels. */
+        LABEL,
+        /** One cluster per community found by label propagation. */
+        COMMUNITY
+    }
+
+    public static class Cluster {
+        private final String id;
+        private final String title;
+        private List<String> labels;
+        private final LinkedHashSet<String> members = new LinkedHashSet<>();
+
+        Cluster(String id, String title, List<String> labels) {
+            this.id = id;
+            this.title = title;
+            this.labels = labels;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /** Returns the labels of the members, or of most members for a community. */
+        public List<String> getLabels() {
+            return labels;
+        }
+
+        /** Returns the text shown on the cluster vertex. */
+        public String getName() {
+            return title + " (" + members.size() + ")";
+        }
+
+        public int size() {
+            return members.size();
+        }
+    }
+
+    /** Relationships of one type between two drawn vertices, one of them at least a cluster. */
+    public static class Link {
+        private final String id;
+        private final String startId;
+        private final String endId;
+        private final String type;
+        private int count;
+
+        Link(String id, String startId, String endId, String type) {
+            this.id = id;
+            this.startId = startId;
+            this.endId = endId;
+            this.type = type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getStartId() {
+            return startId;
+        }
+
+        public String getEndId() {
+            return endId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    // hidden nodes in result order, and the relationships with a hidden or unread end
+    private final Map<String, GraphBatch.NodeData> nodes = new LinkedHashMap<>();
+    private final Map<String, GraphBatch.EdgeData> edges = new LinkedHashMap<>();
+
+    private final Map<String, Cluster> clusters = new LinkedHashMap<>();
+    private final Map<String, Cluster> clusterOf = new HashMap<>();
+
+    private Grouping grouping = Grouping.LABEL;
+    private boolean active = false;
+
+    /** Returns true once a node or relationship was hidden, until {@link #clear()}. */
+    public boolean isActive() {
+        return active;
+    }
+
+    public Grouping getGrouping() {
+        return grouping;
+    }
+
+    /** Returns the number of hidden nodes. */
+    public int size() {
+        return nodes.size();
+    }
+
+    /** Returns the hidden nodes, in result order. */
+    public Collection<GraphBatch.NodeData> getNodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    /** Returns the kept relationships, with a hidden or unread end. */
+    public Collection<GraphBatch.EdgeData> getEdges() {
+        return Collections.unmodifiableCollection(edges.values());
+    }
+
+    public Collection<Cluster> getClusters() {
+        return Collections.unmodifiableCollection(clusters.values());
+    }
+
+    public Cluster getCluster(String clusterId) {
+        return clusters.get(clusterId);
+    }
+
+    /**
+     * Hides a node in the cluster of its labels.
+     *
+     * @param node decoded node
+     * @return false if the node was already hidden
+     */
+    public boolean addNode(GraphBatch.NodeData node) {
+        active = true;
+        if (nodes.putIfAbsent(node.getId(), node) != null) {
+            return false;
+        }
+        assign(node.getId(), labelCluster(node.getLabels()));
+        return true;
+    }
+
+    /**
+     * Keeps a relationship until both its ends are drawn.
+     *
+     * @param edge decoded relationship
+     * @return false if the relationship was already kept
+     */
+    public boolean addEdge(GraphBatch.EdgeData edge) {
+        active = true;
+        return edges.putIfAbsent(edge.getId(), edge) == null;
+    }
+
+    /**
+     * Takes a node out of its cluster, to draw it.
+     *
+     * @param nodeId id of the node
+     * @return the node, or null if it was not hidden
+     */
+    public GraphBatch.NodeData release(String nodeId) {
+        GraphBatch.NodeData node = nodes.remove(nodeId);
+        Cluster cluster = clusterOf.remove(nodeId);
+        if (cluster != null) {
+            cluster.members.remove(nodeId);
+            if (cluster.members.isEmpty()) {
+                clusters.remove(cluster.id);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Takes the next members out of a cluster, to draw them. The cluster is removed with its last
+     * member.
+     *
+     * @param clusterId id of the cluster vertex
+     * @param limit maximum number of members to take
+     * @return released nodes
+     */
+    public List<GraphBatch.NodeData> expand(String clusterId, int limit) {
+        List<GraphBatch.NodeData> released = new ArrayList<>();
+        Cluster cluster = clusters.get(clusterId);
+        if (cluster == null) {
+            return released;
+        }
+        Iterator<String> itr = cluster.members.iterator();
+        while (itr.hasNext() && released.size() < Math.max(1, limit)) {
+            String nodeId = itr.next();
+            itr.remove();
+            clusterOf.remove(nodeId);
+            released.add(nodes.remove(nodeId));
+        }
+        if (cluster.members.isEmpty()) {
+            clusters.remove(clusterId);
+        }
+        return released;
+    }
+
+    /**
+     * Takes out the kept relationships whose ends are both drawn.
+     *
+     * @param drawn tells whether a node is drawn
+     * @return relationships to draw
+     */
+    public List<GraphBatch.EdgeData> releaseEdges(Predicate<String> drawn) {
+        List<GraphBatch.EdgeData> released = new ArrayList<>();
+        Iterator<GraphBatch.EdgeData> itr = edges.values().iterator();
+        while (itr.hasNext()) {
+            GraphBatch.EdgeData edge = itr.next();
+            if (drawn.test(edge.getStartNodeID()) && drawn.test(edge.getEndNodeID())) {
+                released.add(edge);
+                itr.remove();
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Merges the kept relationships by the drawn vertices they connect and by type. Relationships
+     * inside a cluster, or with an end not read yet, are left out.
+     *
+     * @param drawn tells whether a node is drawn
+     * @return merged relationships
+     */
+    public List<Link> getLinks(Predicate<String> drawn) {
+        Map<String, Link> links = new LinkedHashMap<>();
+        for (GraphBatch.EdgeData edge : edges.values()) {
+            Cluster startCluster = clusterOf.get(edge.getStartNodeID());
+            Cluster endCluster = clusterOf.get(edge.getEndNodeID());
+            if (startCluster == endCluster) {
+                // inside a cluster, or between drawn nodes
+                continue;
+            }
+            String startId = startCluster != null ? startCluster.id : edge.getStartNodeID();
+            String endId = endCluster != null ? endCluster.id : edge.getEndNodeID();
+            if ((startCluster == null && !drawn.test(startId))
+                    || (endCluster == null && !drawn.test(endId))) {
+                continue;
+            }
+            String type =
+                    edge.getTypes() == null || edge.getTypes().isEmpty()
+                            ? ""
+                            : edge.getTypes().get(0);
+            String id = LINK_ID_PREFIX + startId + "|" + type + "|" + endId;
+            Link link = links.get(id);
+            if (link == null) {
+                link = new Link(id, startId, endId, type);
+                links.put(id, link);
+            }
+            link.count++;
+        }
+        return new ArrayList<>(links.values());
+    }
+
+    /**
+     * Returns the hidden nodes and the relationships between them, to find their communities.
+     *
+     * @return graph of node ids and relationship ids
+     */
+    public TurboGraphArray<String, String> buildGraph() {
+        TurboGraphArray<String, String> graph = new TurboGraphArray<>();
+        for (String nodeId : nodes.keySet()) {
+            graph.insertVertex(nodeId);
+        }
+        for (GraphBatch.EdgeData edge : edges.values()) {
+            if (nodes.containsKey(edge.getStartNodeID())
+                    && nodes.containsKey(edge.getEndNodeID())) {
+                graph.insertEdge(edge.getStartNodeID(), edge.getEndNodeID(), edge.getId());
+            }
+        }
+        return graph;
+    }
+
+    /** Groups the hidden nodes by their labels. */
+    public void groupByLabel() {
+        clusters.clear();
+        clusterOf.clear();
+        for (GraphBatch.NodeData node : nodes.values()) {
+            assign(node.getId(), labelCluster(node.getLabels()));
+        }
+        grouping = Grouping.LABEL;
+    }
+
+    /**
+     * Groups the hidden nodes by community. Nodes hidden after the graph was built go to the
+     * cluster of their labels.
+     *
+     * @param graph snapshot of {@link #buildGraph()}
+     * @param result communities of the snapshot
+     */
+    public void groupByCommunity(AnalyticsGraph<String> graph, GraphAnalysisResult result) {
+        clusters.clear();
+        clusterOf.clear();
+        for (int i = 0; i < result.size(); i++) {
+            String nodeId = graph.vertex(i).element();
+            if (!nodes.containsKey(nodeId)) {
+                // drawn while the communities were computed
+                continue;
+            }
+            int group = Math.min(result.getGroup(i), MAX_COMMUNITY_CLUSTERS - 1);
+            String id = CLUSTER_ID_PREFIX + "community:" + group;
+            Cluster cluster = clusters.get(id);
+            if (cluster == null) {
+                String title = "#" + (group + 1);
+                if (group == MAX_COMMUNITY_CLUSTERS - 1) {
+                    title += "+";
+                }
+                cluster = new Cluster(id, title, null);
+                clusters.put(id, cluster);
+            }
+            assign(nodeId, cluster);
+        }
+        for (Cluster cluster : clusters.values()) {
+            cluster.labels = mostCommonLabels(cluster);
+        }
+        for (GraphBatch.NodeData node : nodes.values()) {
+            if (!clusterOf.containsKey(node.getId())) {
+                assign(node.getId(), labelCluster(node.getLabels()));
+            }
+        }
+        grouping = Grouping.COMMUNITY;
+    }
+
+    public void clear() {
+        nodes.clear();
+        edges.clear();
+        clusters.clear();
+        clusterOf.clear();
+        grouping = Grouping.LABEL;
+        active = false;
+    }
+
+    private Cluster labelCluster(List<String> labels) {
+        String title = labels == null || labels.isEmpty() ? "" : String.join(":", labels);
+        String id = CLUSTER_ID_PREFIX + "label:" + title;
+        Cluster cluster = clusters.get(id);
+        if (cluster == null) {
+            cluster = new Cluster(id, title, labels != null ? labels : new ArrayList<>());
+            clusters.put(id, cluster);
+        }
+        return cluster;
+    }
+
+    private void assign(String nodeId, Cluster cluster) {
+        cluster.members.add(nodeId);
+        clusterOf.put(nodeId, cluster);
+    }
+
+    private List<String> mostCommonLabels(Cluster cluster) {
+        Map<List<String>, Integer> counts = new HashMap<>();
+        List<String> best = new ArrayList<>();
+        int bestCount = 0;
+        for (String nodeId : cluster.members) {
+            List<String> labels = nodes.get(nodeId).getLabels();
+            if (labels == null) {
+                continue;
+            }
+            int count = counts.merge(labels, 1, Integer::sum);
+            if (count > bestCount) {
+                best = labels;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Paging state of the relationships fetched around one node.
+ *
+ * <p>Pages are read in relationship id order and the next page starts after the last id read, so
+ * a page costs the same however far the expansion went, unlike <code>SKIP</code>.
+ */
+public class NeighborExpansion {
+
+    /** Directions of the expanded relationships, seen from the anchor node. */
+    public enum Direction {
+        BOTH("-", "-"),
+        OUTGOING("-", "->"),
+        INCOMING("<-", "-");
+
+        private final String left;
+        private final String right;
+
+        Direction(String left, String right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private final String anchorId;
+    private final long anchorKey;
+    private final Direction direction;
+    private final List<String> types;
+    private final int pageSize;
+
+    private long lastEdgeId = -1;
+    private boolean hasMore = true;
+
+    /**
+     * @param anchorId id of the expanded node
+     * @param direction relationship direction
+     * @param types relationship types to follow, empty for all
+     * @param pageSize relationships per page
+     * @exception IllegalArgumentException if the node id is not a database id
+     */
+    public NeighborExpansion(
+            String anchorId, Direction direction, List<String> types, int pageSize) {
+        try {
+            this.anchorKey = Long.parseLong(anchorId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Node id is not numeric: " + anchorId, e);
+        }
+        this.anchorId = anchorId;
+        this.direction = direction;
+        this.types = types == null ? Collections.emptyList() : new ArrayList<>(types);
+        this.pageSize = pageSize;
+    }
+
+    public String getAnchorId() {
+        return anchorId;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public List<String> getTypes() {
+        return types;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** Returns false once a page came back shorter than the page size. */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Moves past a fetched page.
+     *
+     * @param lastEdgeId id of the last relationship of the page
+     * @param count relationships in the page
+     */
+    public void advance(long lastEdgeId, int count) {
+        if (count > 0) {
+            this.lastEdgeId = lastEdgeId;
+        }
+        this.hasMore = count >= pageSize;
+    }
+
+    /**
+     * Returns true if this expansion follows the same relationships as the given parameters.
+     */
+    public boolean isSameFilter(Direction direction, List<String> types) {
+        return this.direction == direction
+                && this.types.equals(types == null ? Collections.emptyList() : types);
+    }
+
+    /**
+     * Builds the query of the next page. Columns: relationship id, type, start and end node ids and
+     * properties, then the neighbor id, labels and properties. In both directions a self-loop
+     * matches twice, so the matches are made distinct before the page is cut.
+     *
+     * @return Cypher query
+     */
+    public String buildQuery() {
+        StringBuilder query = new StringBuilder("MATCH (a)");
+        query.append(direction.left).append("[r");
+        for (int i = 0; i < types.size(); i++) {
+            query.append(i == 0 ? ":" : "|").append(quoteName(types.get(i)));
+        }
+        query.append("]").append(direction.right).append("(b)");
+        query.append(" WHERE id(a) = ").append(anchorKey);
+        if (lastEdgeId >= 0) {
+            query.append(" AND id(r) > ").append(lastEdgeId);
+        }
+        if (direction == Direction.BOTH) {
+            query.append(" WITH DISTINCT r, b");
+        }
+        query.append(" RETURN id(r), type(r), id(startNode(r)), id(endNode(r)), properties(r),")
+                .append(" id(b), labels(b), properties(b)")
+                .append(" ORDER BY id(r) LIMIT ")
+                .append(pageSize);
+        return query.toString();
+    }
+
+    private static String quoteName(String name) {
+        return "`" + name.replace("`", "``") + "`";
+    }
+}
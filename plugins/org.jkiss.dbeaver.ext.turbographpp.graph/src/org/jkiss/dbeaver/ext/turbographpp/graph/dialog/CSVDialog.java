@@ -28,6 +28,7 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.DirectoryDialog;
@@ -35,6 +36,7 @@ import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 import org.jkiss.dbeaver.ext.turbographpp.graph.internal.GraphMessages;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphExportFormat;
 
 public class CSVDialog extends TitleAreaDialog {
 
@@ -42,10 +44,13 @@ public class CSVDialog extends TitleAreaDialog {
     private Text FileName;
     private Text txtNodeFileName;
     private Text txtEdgeFileName;
+    private Combo formatCombo;
+    private Label nodeLabel;
 
     private String folderPath;
     private String nodeFileName;
     private String edgeFileName;
+    private GraphExportFormat format = GraphExportFormat.CSV;
 
     public CSVDialog(Shell parentShell) {
         super(parentShell);
@@ -115,13 +120,27 @@ public class CSVDialog extends TitleAreaDialog {
                         + LocalTime.now().getSecond());
         FileName.setLayoutData(gd1);
 
-        Label nodeLabel = new Label(container, SWT.NONE);
+        Label formatLabel = new Label(container, SWT.NONE);
+        formatLabel.setText(GraphMessages.fxgraph_export_csv_dialog_label_format);
+
+        GridData gd2 = new GridData();
+        gd2.grabExcessHorizontalSpace = true;
+        gd2.horizontalAlignment = GridData.FILL;
+        gd2.horizontalSpan = 3;
+
+        formatCombo = new Combo(container, SWT.DROP_DOWN | SWT.READ_ONLY);
+        for (GraphExportFormat exportFormat : GraphExportFormat.values()) {
+            formatCombo.add(exportFormat.getTitle());
+        }
+        formatCombo.select(format.ordinal());
+        formatCombo.setLayoutData(gd2);
+
+        nodeLabel = new Label(container, SWT.NONE);
         nodeLabel.setText(GraphMessages.fxgraph_export_csv_dialog_label_node);
 
         txtNodeFileName = new Text(container, SWT.BORDER);
         txtNodeFileName.setLayoutData(gd1);
         txtNodeFileName.setEnabled(false);
-        txtNodeFileName.setText(FileName.getText() + "_Node.csv");
 
         Label edgeLabel = new Label(container, SWT.NONE);
         edgeLabel.setText(GraphMessages.fxgraph_export_csv_dialog_label_edge);
@@ -129,20 +148,42 @@ public class CSVDialog extends TitleAreaDialog {
         txtEdgeFileName = new Text(container, SWT.BORDER);
         txtEdgeFileName.setLayoutData(gd1);
         txtEdgeFileName.setEnabled(false);
-        txtEdgeFileName.setText(FileName.getText() + "_Edge.csv");
 
         FileName.addModifyListener(
                 new ModifyListener() {
                     @Override
                     public void modifyText(ModifyEvent e) {
-                        txtNodeFileName.setText(FileName.getText() + "_Node.csv");
-                        txtEdgeFileName.setText(FileName.getText() + "_Edge.csv");
+                        updateFileNames();
+                    }
+                });
+
+        formatCombo.addSelectionListener(
+                new SelectionAdapter() {
+                    @Override
+                    public void widgetSelected(SelectionEvent e) {
+                        format = GraphExportFormat.values()[formatCombo.getSelectionIndex()];
+                        updateFileNames();
                     }
                 });
 
+        updateFileNames();
+
         return area;
     }
 
+    private void updateFileNames() {
+        if (format.isSplitFiles()) {
+            nodeLabel.setText(GraphMessages.fxgraph_export_csv_dialog_label_node);
+            txtNodeFileName.setText(FileName.getText() + "_Node" + format.getExtension());
+            txtEdgeFileName.setText(FileName.getText() + "_Edge" + format.getExtension());
+        } else {
+            nodeLabel.setText(GraphMessages.fxgraph_export_csv_dialog_label_graph);
+            txtNodeFileName.setText(FileName.getText() + format.getExtension());
+            txtEdgeFileName.setText("");
+        }
+        nodeLabel.getParent().layout();
+    }
+
     @Override
     protected boolean isResizable() {
         return true;
@@ -153,7 +194,7 @@ public class CSVDialog extends TitleAreaDialog {
     private void saveInput() {
         folderPath = FolderPath.getText();
         nodeFileName = txtNodeFileName.getText();
-        edgeFileName = txtEdgeFileName.getText();
+        edgeFileName = format.isSplitFiles() ? txtEdgeFileName.getText() : null;
     }
 
     @Override
@@ -184,7 +225,12 @@ public class CSVDialog extends TitleAreaDialog {
         return nodeFileName;
     }
 
+    /** Returns the edge file name, null if the format writes a single file. */
     public String getEdgeFileName() {
         return edgeFileName;
     }
+
+    public GraphExportFormat getFormat() {
+        return format;
+    }
 }
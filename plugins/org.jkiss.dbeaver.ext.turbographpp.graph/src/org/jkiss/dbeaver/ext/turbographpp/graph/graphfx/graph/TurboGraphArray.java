@@ -0,0 +1,805 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Directed graph stored in primitive arrays, meant for large query results.
+ *
+ * <p>Vertices and edges get an int id. Edge end points are kept in <code>int[]</code> columns and
+ * each vertex holds growable <code>int[]</code> lists of its outgoing and incoming edge ids, so an
+ * element costs a handful of array slots instead of several objects. Elements are indexed by
+ * hash maps for O(1) lookup; {@link #areAdjacent} and {@link #getEdge} scan the smaller of the two
+ * adjacency lists involved instead of every edge.
+ *
+ * <p>The graph is read-mostly: readers share a {@link StampedLock} read lock, writers take the
+ * write lock. The collections returned by {@link #vertices()} and {@link #edges()} are immutable
+ * snapshots cached until the next modification, so they can be iterated from any thread.
+ *
+ * <p>Removed ids are not reused; the arrays are compacted once more than half of the slots are
+ * free, which keeps iteration in insertion order.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class TurboGraphArray<V, E> implements Graph<V, E> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int REMOVED = -1;
+    private static final int[] NO_EDGES = new int[0];
+
+    private final StampedLock lock = new StampedLock();
+
+    /* Vertices, indexed by vertex id. Handles are kept in Object[] (see vertexHandle) */
+    private Object[] vertexHandles = new Object[INITIAL_CAPACITY];
+    private int[][] outEdges = new int[INITIAL_CAPACITY][];
+    private int[][] inEdges = new int[INITIAL_CAPACITY][];
+    private int[] outCount = new int[INITIAL_CAPACITY];
+    private int[] inCount = new int[INITIAL_CAPACITY];
+    private int vertexSlots = 0;
+    private int vertexCount = 0;
+
+    /* Edges, indexed by edge id. Handles are kept in Object[] (see edgeHandle) */
+    private Object[] edgeHandles = new Object[INITIAL_CAPACITY];
+    private int[] edgeSource = new int[INITIAL_CAPACITY];
+    private int[] edgeTarget = new int[INITIAL_CAPACITY];
+    private int edgeSlots = 0;
+    private int edgeCount = 0;
+
+    private final Map<V, VertexHandle> vertexIndex = new HashMap<>();
+    private final Map<E, EdgeHandle> edgeIndex = new HashMap<>();
+
+    /* Snapshots returned by vertices() and edges(), dropped on every modification */
+    private volatile List<Vertex<V>> vertexView = null;
+    private volatile List<FxEdge<E, V>> edgeView = null;
+
+    private int lastweight = 0;
+    private int pathCount = 0;
+    private String lastPathString = "";
+
+    /**
+     * Vertex reference handed out by the graph. Two handles are equal if their elements are equal,
+     * as in {@link TurboGraphList}.
+     */
+    private class VertexHandle implements Vertex<V> {
+        private int id;
+        private V element;
+
+        private VertexHandle(int id, V element) {
+            this.id = id;
+            this.element = element;
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "Vertex{" + element + "}";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return element.equals(((TurboGraphArray<?, ?>.VertexHandle) o).element);
+        }
+
+        @Override
+        public int hashCode() {
+            return element.hashCode();
+        }
+    }
+
+    /**
+     * Edge reference handed out by the graph. The end points are read from the id columns, so a
+     * removed edge no longer reports them; two handles are equal if their elements are equal.
+     */
+    private class EdgeHandle implements FxEdge<E, V> {
+        private int id;
+        private E element;
+
+        private EdgeHandle(int id, E element) {
+            this.id = id;
+            this.element = element;
+        }
+
+        @Override
+        public E element() {
+            return element;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Vertex<V>[] vertices() {
+            long stamp = lock.readLock();
+            try {
+                Vertex<V>[] vertices = new Vertex[2];
+                if (id != REMOVED) {
+                    vertices[0] = vertexHandle(edgeSource[id]);
+                    vertices[1] = vertexHandle(edgeTarget[id]);
+                }
+                return vertices;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public String toString() {
+            Vertex<V>[] vertices = vertices();
+            return "Edge from " + vertices[0] + " to " + vertices[1] + " with weight of " + element;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return element.equals(((TurboGraphArray<?, ?>.EdgeHandle) o).element);
+        }
+
+        @Override
+        public int hashCode() {
+            return element.hashCode();
+        }
+    }
+
+    public void clear() {
+        clearElement();
+    }
+
+    @Override
+    public void clearElement() {
+        long stamp = lock.writeLock();
+        try {
+            vertexHandles = new Object[INITIAL_CAPACITY];
+            outEdges = new int[INITIAL_CAPACITY][];
+            inEdges = new int[INITIAL_CAPACITY][];
+            outCount = new int[INITIAL_CAPACITY];
+            inCount = new int[INITIAL_CAPACITY];
+            vertexSlots = vertexCount = 0;
+
+            edgeHandles = new Object[INITIAL_CAPACITY];
+            edgeSource = new int[INITIAL_CAPACITY];
+            edgeTarget = new int[INITIAL_CAPACITY];
+            edgeSlots = edgeCount = 0;
+
+            vertexIndex.clear();
+            edgeIndex.clear();
+            modified();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int numVertices() {
+        long stamp = lock.tryOptimisticRead();
+        int count = vertexCount;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = vertexCount;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int numEdges() {
+        long stamp = lock.tryOptimisticRead();
+        int count = edgeCount;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = edgeCount;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        List<Vertex<V>> view = vertexView;
+        if (view == null) {
+            long stamp = lock.readLock();
+            try {
+                view = vertexView;
+                if (view == null) {
+                    List<Vertex<V>> list = new ArrayList<>(vertexCount);
+                    for (int i = 0; i < vertexSlots; i++) {
+                        if (vertexHandles[i] != null) {
+                            list.add(vertexHandle(i));
+                        }
+                    }
+                    view = Collections.unmodifiableList(list);
+                    vertexView = view;
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public Collection<FxEdge<E, V>> edges() {
+        List<FxEdge<E, V>> view = edgeView;
+        if (view == null) {
+            long stamp = lock.readLock();
+            try {
+                view = edgeView;
+                if (view == null) {
+                    List<FxEdge<E, V>> list = new ArrayList<>(edgeCount);
+                    for (int i = 0; i < edgeSlots; i++) {
+                        if (edgeHandles[i] != null) {
+                            list.add(edgeHandle(i));
+                        }
+                    }
+                    view = Collections.unmodifiableList(list);
+                    edgeView = view;
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public Collection<FxEdge<E, V>> incomingEdges(Vertex<V> v) throws InvalidVertexException {
+        long stamp = lock.readLock();
+        try {
+            int id = validateVertex(v).id;
+            return edgeList(inEdges[id], inCount[id]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Collection<FxEdge<E, V>> outboundEdges(Vertex<V> v) throws InvalidVertexException {
+        long stamp = lock.readLock();
+        try {
+            int id = validateVertex(v).id;
+            return edgeList(outEdges[id], outCount[id]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, FxEdge<E, V> e)
+            throws InvalidVertexException, InvalidEdgeException {
+        long stamp = lock.readLock();
+        try {
+            int vertex = validateVertex(v).id;
+            int edge = validateEdge(e).id;
+            if (edgeSource[edge] == vertex) {
+                return vertexHandle(edgeTarget[edge]);
+            } else if (edgeTarget[edge] == vertex) {
+                return vertexHandle(edgeSource[edge]);
+            } else {
+                throw new InvalidEdgeException("v is not incident to this edge.");
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean areAdjacent(Vertex<V> outbound, Vertex<V> inbound)
+            throws InvalidVertexException {
+        long stamp = lock.readLock();
+        try {
+            return findEdge(validateVertex(outbound).id, validateVertex(inbound).id) != REMOVED;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public FxEdge<E, V> getEdge(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        long stamp = lock.readLock();
+        try {
+            int edge = findEdge(validateVertex(u).id, validateVertex(v).id);
+            return edge == REMOVED ? null : edgeHandle(edge);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Vertex<V> insertVertex(V element) throws InvalidVertexException {
+        long stamp = lock.writeLock();
+        try {
+            if (vertexIndex.containsKey(element)) {
+                throw new InvalidVertexException("A vertex with this element already exists.");
+            }
+            if (vertexSlots == vertexHandles.length) {
+                growVertices(vertexSlots * 2);
+            }
+            int id = vertexSlots++;
+            VertexHandle vertex = new VertexHandle(id, element);
+            vertexHandles[id] = vertex;
+            outEdges[id] = NO_EDGES;
+            inEdges[id] = NO_EDGES;
+            outCount[id] = 0;
+            inCount[id] = 0;
+            vertexCount++;
+            vertexIndex.put(element, vertex);
+            modified();
+            return vertex;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public FxEdge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E element)
+            throws InvalidVertexException, InvalidEdgeException {
+        long stamp = lock.writeLock();
+        try {
+            return addEdge(validateVertex(u), validateVertex(v), element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public FxEdge<E, V> insertEdge(V uElement, V vElement, E element)
+            throws InvalidVertexException, InvalidEdgeException {
+        long stamp = lock.writeLock();
+        try {
+            return addEdge(
+                    validateVertex(vertexIndex.get(uElement)),
+                    validateVertex(vertexIndex.get(vElement)),
+                    element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V removeVertex(Vertex<V> v) throws InvalidVertexException {
+        long stamp = lock.writeLock();
+        try {
+            VertexHandle vertex = validateVertex(v);
+            int id = vertex.id;
+            while (outCount[id] > 0) {
+                deleteEdge(outEdges[id][outCount[id] - 1]);
+            }
+            while (inCount[id] > 0) {
+                deleteEdge(inEdges[id][inCount[id] - 1]);
+            }
+
+            vertexHandles[id] = null;
+            outEdges[id] = null;
+            inEdges[id] = null;
+            vertex.id = REMOVED;
+            vertexCount--;
+            vertexIndex.remove(vertex.element);
+
+            if (vertexSlots > INITIAL_CAPACITY && vertexSlots > 2 * vertexCount) {
+                compactVertices();
+            }
+            if (edgeSlots > INITIAL_CAPACITY && edgeSlots > 2 * edgeCount) {
+                compactEdges();
+            }
+            modified();
+            return vertex.element;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public E removeEdge(FxEdge<E, V> e) throws InvalidEdgeException {
+        long stamp = lock.writeLock();
+        try {
+            EdgeHandle edge = validateEdge(e);
+            deleteEdge(edge.id);
+            if (edgeSlots > INITIAL_CAPACITY && edgeSlots > 2 * edgeCount) {
+                compactEdges();
+            }
+            modified();
+            return edge.element;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
+        long stamp = lock.writeLock();
+        try {
+            if (vertexIndex.containsKey(newElement)) {
+                throw new InvalidVertexException("There's already a vertex with this element.");
+            }
+            VertexHandle vertex = validateVertex(v);
+            V oldElement = vertex.element;
+            vertexIndex.remove(oldElement);
+            vertex.element = newElement;
+            vertexIndex.put(newElement, vertex);
+            return oldElement;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public E replace(FxEdge<E, V> e, E newElement) throws InvalidEdgeException {
+        long stamp = lock.writeLock();
+        try {
+            if (edgeIndex.containsKey(newElement)) {
+                throw new InvalidEdgeException("There's already an edge with this element.");
+            }
+            EdgeHandle edge = validateEdge(e);
+            E oldElement = edge.element;
+            edgeIndex.remove(oldElement);
+            edge.element = newElement;
+            edgeIndex.put(newElement, edge);
+            return oldElement;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the vertex storing the given element.
+     *
+     * @param element vertex element
+     * @return the vertex, or null if no vertex stores this element
+     */
+    public Vertex<V> getVertex(V element) {
+        long stamp = lock.readLock();
+        try {
+            return vertexIndex.get(element);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the edge storing the given element.
+     *
+     * @param element edge element
+     * @return the edge, or null if no edge stores this element
+     */
+    public FxEdge<E, V> getEdge(E element) {
+        long stamp = lock.readLock();
+        try {
+            return edgeIndex.get(element);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the current id of a vertex. Ids are in <code>[0, vertexIdBound())</code> and may
+     * change when vertices are removed.
+     *
+     * @param v vertex of this graph
+     * @return vertex id
+     * @exception InvalidVertexException if the vertex is invalid for the graph
+     */
+    public int vertexId(Vertex<V> v) throws InvalidVertexException {
+        long stamp = lock.readLock();
+        try {
+            return validateVertex(v).id;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     *
+     * @param id vertex id
+     * @return the vertex, or null if the id is free
+     */
+    public Vertex<V> vertexAt(int id) {
+        long stamp = lock.readLock();
+        try {
+            return id >= 0 && id < vertexSlots ? vertexHandle(id) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the exclusive upper bound of the vertex ids in use.
+     *
+     * @return id bound
+     */
+    public int vertexIdBound() {
+        long stamp = lock.readLock();
+        try {
+            return vertexSlots;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb =
+                new StringBuilder(
+                        String.format(
+                                "[Graph with %d vertices and %d edges]\n",
+                                numVertices(), numEdges()));
+
+        sb.append("--- Vertices: \n");
+        for (Vertex<V> v : vertices()) {
+            sb.append("\t").append(v.toString()).append("\n");
+        }
+        sb.append("\n--- Edges: \n");
+        for (FxEdge<E, V> e : edges()) {
+            sb.append("\t").append(e.toString()).append("\n");
+        }
+
+        return sb.append("\n").toString();
+    }
+
+    public int getLastWeight() {
+        return lastweight;
+    }
+
+    public void setlastWeight(int value) {
+        lastweight = value;
+    }
+
+    public int getPathCount() {
+        return pathCount;
+    }
+
+    public void setPathCount(int value) {
+        pathCount = value;
+    }
+
+    public String getLastPathString() {
+        return lastPathString;
+    }
+
+    public void addLastPathString(String path) {
+        lastPathString = lastPathString + path;
+    }
+
+    public void clearLastPathString() {
+        lastPathString = "";
+    }
+
+    /* All the methods below must be called with the lock held */
+
+    private EdgeHandle addEdge(VertexHandle source, VertexHandle target, E element)
+            throws InvalidEdgeException {
+        EdgeHandle existing = edgeIndex.get(element);
+        if (existing != null) {
+            // Same as TurboGraphList: the new edge replaces the one stored with this element
+            deleteEdge(existing.id);
+        }
+        if (edgeSlots == edgeHandles.length) {
+            growEdges(edgeSlots * 2);
+        }
+        int id = edgeSlots++;
+        EdgeHandle edge = new EdgeHandle(id, element);
+        edgeHandles[id] = edge;
+        edgeSource[id] = source.id;
+        edgeTarget[id] = target.id;
+        edgeCount++;
+        edgeIndex.put(element, edge);
+
+        outEdges[source.id] = append(outEdges[source.id], outCount[source.id]++, id);
+        inEdges[target.id] = append(inEdges[target.id], inCount[target.id]++, id);
+        modified();
+        return edge;
+    }
+
+    private void deleteEdge(int id) {
+        int source = edgeSource[id];
+        int target = edgeTarget[id];
+        outCount[source] = delete(outEdges[source], outCount[source], id);
+        inCount[target] = delete(inEdges[target], inCount[target], id);
+
+        EdgeHandle edge = edgeHandle(id);
+        edgeHandles[id] = null;
+        edge.id = REMOVED;
+        edgeCount--;
+        edgeIndex.remove(edge.element);
+    }
+
+    private int findEdge(int source, int target) {
+        if (outCount[source] <= inCount[target]) {
+            int[] edges = outEdges[source];
+            for (int k = 0; k < outCount[source]; k++) {
+                if (edgeTarget[edges[k]] == target) {
+                    return edges[k];
+                }
+            }
+        } else {
+            int[] edges = inEdges[target];
+            for (int k = 0; k < inCount[target]; k++) {
+                if (edgeSource[edges[k]] == source) {
+                    return edges[k];
+                }
+            }
+        }
+        return REMOVED;
+    }
+
+    private List<FxEdge<E, V>> edgeList(int[] edges, int count) {
+        List<FxEdge<E, V>> list = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            list.add(edgeHandle(edges[k]));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /* The only place where the stored handles are cast back to their generic type */
+    @SuppressWarnings("unchecked")
+    private VertexHandle vertexHandle(int id) {
+        return (VertexHandle) vertexHandles[id];
+    }
+
+    @SuppressWarnings("unchecked")
+    private EdgeHandle edgeHandle(int id) {
+        return (EdgeHandle) edgeHandles[id];
+    }
+
+    private void modified() {
+        vertexView = null;
+        edgeView = null;
+    }
+
+    private void growVertices(int capacity) {
+        vertexHandles = Arrays.copyOf(vertexHandles, capacity);
+        outEdges = Arrays.copyOf(outEdges, capacity);
+        inEdges = Arrays.copyOf(inEdges, capacity);
+        outCount = Arrays.copyOf(outCount, capacity);
+        inCount = Arrays.copyOf(inCount, capacity);
+    }
+
+    private void growEdges(int capacity) {
+        edgeHandles = Arrays.copyOf(edgeHandles, capacity);
+        edgeSource = Arrays.copyOf(edgeSource, capacity);
+        edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+    }
+
+    /* Renumbers the vertices to close the gaps left by removed ones, keeping their order */
+    private void compactVertices() {
+        int[] newId = new int[vertexSlots];
+        int next = 0;
+        for (int i = 0; i < vertexSlots; i++) {
+            if (vertexHandles[i] == null) {
+                newId[i] = REMOVED;
+                continue;
+            }
+            newId[i] = next;
+            vertexHandles[next] = vertexHandles[i];
+            vertexHandle(next).id = next;
+            outEdges[next] = outEdges[i];
+            inEdges[next] = inEdges[i];
+            outCount[next] = outCount[i];
+            inCount[next] = inCount[i];
+            next++;
+        }
+        Arrays.fill(vertexHandles, next, vertexSlots, null);
+        Arrays.fill(outEdges, next, vertexSlots, null);
+        Arrays.fill(inEdges, next, vertexSlots, null);
+        vertexSlots = next;
+
+        for (int e = 0; e < edgeSlots; e++) {
+            if (edgeHandles[e] != null) {
+                edgeSource[e] = newId[edgeSource[e]];
+                edgeTarget[e] = newId[edgeTarget[e]];
+            }
+        }
+    }
+
+    /* Renumbers the edges to close the gaps left by removed ones, keeping their order */
+    private void compactEdges() {
+        int[] newId = new int[edgeSlots];
+        int next = 0;
+        for (int e = 0; e < edgeSlots; e++) {
+            if (edgeHandles[e] == null) {
+                newId[e] = REMOVED;
+                continue;
+            }
+            newId[e] = next;
+            edgeHandles[next] = edgeHandles[e];
+            edgeHandle(next).id = next;
+            edgeSource[next] = edgeSource[e];
+            edgeTarget[next] = edgeTarget[e];
+            next++;
+        }
+        Arrays.fill(edgeHandles, next, edgeSlots, null);
+        edgeSlots = next;
+
+        for (int i = 0; i < vertexSlots; i++) {
+            if (vertexHandles[i] == null) {
+                continue;
+            }
+            for (int k = 0; k < outCount[i]; k++) {
+                outEdges[i][k] = newId[outEdges[i][k]];
+            }
+            for (int k = 0; k < inCount[i]; k++) {
+                inEdges[i][k] = newId[inEdges[i][k]];
+            }
+        }
+    }
+
+    private static int[] append(int[] list, int count, int value) {
+        if (count == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, count * 2));
+        }
+        list[count] = value;
+        return list;
+    }
+
+    /* Removes a value keeping the order of the others, returns the new count */
+    private static int delete(int[] list, int count, int value) {
+        for (int k = count - 1; k >= 0; k--) {
+            if (list[k] == value) {
+                System.arraycopy(list, k + 1, list, k, count - k - 1);
+                return count - 1;
+            }
+        }
+        return count;
+    }
+
+    /* validate that this vertex belongs to the graph */
+    private VertexHandle validateVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null) throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof TurboGraphArray.VertexHandle)) {
+            throw new InvalidVertexException("Not a vertex.");
+        }
+
+        int id = ((TurboGraphArray<?, ?>.VertexHandle) v).id;
+        if (id == REMOVED || id >= vertexSlots || vertexHandles[id] != v) {
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        }
+        return vertexHandle(id);
+    }
+
+    /* validate that this edge belongs to the graph */
+    private EdgeHandle validateEdge(FxEdge<E, V> e) throws InvalidEdgeException {
+        if (e == null) throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof TurboGraphArray.EdgeHandle)) {
+            throw new InvalidEdgeException("Not an edge.");
+        }
+
+        int id = ((TurboGraphArray<?, ?>.EdgeHandle) e).id;
+        if (id == REMOVED || id >= edgeSlots || edgeHandles[id] != e) {
+            throw new InvalidEdgeException("Edge does not belong to this graph.");
+        }
+        return edgeHandle(id);
+    }
+}
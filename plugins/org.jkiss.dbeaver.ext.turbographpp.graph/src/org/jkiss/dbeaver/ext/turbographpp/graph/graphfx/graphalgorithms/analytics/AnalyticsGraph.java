@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Graph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+
+/**
+ * Immutable snapshot of the structure of a directed {@link Graph}, for the analytics.
+ *
+ * <p>Vertices are numbered from 0. Successors and predecessors are kept in CSR form: the
+ * successors of vertex <code>v</code> are <code>successors[outStart[v] .. outStart[v + 1])</code>,
+ * with one entry per edge, so parallel edges appear several times. The snapshot is taken on the
+ * thread that owns the graph and can then be read from any thread.
+ *
+ * @param <V> Vertex type
+ */
+public class AnalyticsGraph<V> {
+
+    private final List<Vertex<V>> vertices;
+
+    private final int[] outStart;
+    private final int[] successors;
+    private final int[] inStart;
+    private final int[] predecessors;
+
+    private AnalyticsGraph(List<Vertex<V>> vertices, int[] edgeSource, int[] edgeTarget) {
+        this.vertices = vertices;
+
+        int n = vertices.size();
+        this.outStart = new int[n + 1];
+        this.successors = new int[edgeSource.length];
+        this.inStart = new int[n + 1];
+        this.predecessors = new int[edgeSource.length];
+        buildCsr(edgeSource, edgeTarget, outStart, successors);
+        buildCsr(edgeTarget, edgeSource, inStart, predecessors);
+    }
+
+    /**
+     * Takes a snapshot of a graph.
+     *
+     * @param graph graph to analyze
+     * @return snapshot of the graph
+     */
+    public static <V, E> AnalyticsGraph<V> build(Graph<V, E> graph) {
+        List<Vertex<V>> vertices = new ArrayList<>(graph.vertices());
+        Map<Vertex<V>, Integer> vertexIndex = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            vertexIndex.put(vertices.get(i), i);
+        }
+
+        Collection<FxEdge<E, V>> edges = graph.edges();
+        int[] edgeSource = new int[edges.size()];
+        int[] edgeTarget = new int[edges.size()];
+        int count = 0;
+        for (FxEdge<E, V> edge : edges) {
+            Vertex<V>[] ends = edge.vertices();
+            Integer source = vertexIndex.get(ends[0]);
+            Integer target = vertexIndex.get(ends[1]);
+            if (source == null || target == null) {
+                continue;
+            }
+            edgeSource[count] = source;
+            edgeTarget[count] = target;
+            count++;
+        }
+        if (count < edgeSource.length) {
+            edgeSource = trim(edgeSource, count);
+            edgeTarget = trim(edgeTarget, count);
+        }
+        return new AnalyticsGraph<>(vertices, edgeSource, edgeTarget);
+    }
+
+    /** Returns the number of vertices. */
+    public int size() {
+        return vertices.size();
+    }
+
+    /** Returns the number of edges. */
+    public int edgeCount() {
+        return successors.length;
+    }
+
+    /**
+     * Returns the vertex of an index.
+     *
+     * @param index vertex index
+     * @return vertex of the snapshotted graph
+     */
+    public Vertex<V> vertex(int index) {
+        return vertices.get(index);
+    }
+
+    public int outDegree(int v) {
+        return outStart[v + 1] - outStart[v];
+    }
+
+    public int inDegree(int v) {
+        return inStart[v + 1] - inStart[v];
+    }
+
+    int[] outStart() {
+        return outStart;
+    }
+
+    int[] successors() {
+        return successors;
+    }
+
+    int[] inStart() {
+        return inStart;
+    }
+
+    int[] predecessors() {
+        return predecessors;
+    }
+
+    /* Groups the <code>to</code> endpoints of the edges by their <code>from</code> endpoint */
+    private static void buildCsr(int[] from, int[] to, int[] start, int[] list) {
+        for (int e = 0; e < from.length; e++) {
+            start[from[e] + 1]++;
+        }
+        for (int v = 0; v + 1 < start.length; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] next = start.clone();
+        for (int e = 0; e < from.length; e++) {
+            list[next[from[e]]++] = to[e];
+        }
+    }
+
+    private static int[] trim(int[] array, int length) {
+        int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics;
+
+/** Analyses offered by {@link GraphAnalytics}. */
+public enum GraphAnalysis {
+    /** Number of incoming and outgoing edges. */
+    DEGREE(false),
+    /** Brandes betweenness on shortest paths, estimated from sampled sources on large graphs. */
+    BETWEENNESS(false),
+    /** PageRank with the usual 0.85 damping factor. */
+    PAGERANK(false),
+    /** Connected components, ignoring the edge directions. */
+    COMPONENTS(true),
+    /** Strongly connected components. */
+    STRONG_COMPONENTS(true),
+    /** Communities found by label propagation, ignoring the edge directions. */
+    COMMUNITIES(true);
+
+    private final boolean grouping;
+
+    GraphAnalysis(boolean grouping) {
+        this.grouping = grouping;
+    }
+
+    /** Returns true if the analysis groups the vertices, false if it scores them. */
+    public boolean isGrouping() {
+        return grouping;
+    }
+
+    /**
+     * Runs the analysis.
+     *
+     * @param analytics engine holding the graph
+     * @return score or group of each vertex
+     * @exception java.util.concurrent.CancellationException if the engine was canceled
+     */
+    public GraphAnalysisResult run(GraphAnalytics<?> analytics) {
+        switch (this) {
+            case DEGREE:
+                return GraphAnalysisResult.ofScores(this, analytics.degree());
+            case BETWEENNESS:
+                return GraphAnalysisResult.ofScores(this, analytics.betweenness());
+            case PAGERANK:
+                return GraphAnalysisResult.ofScores(this, analytics.pageRank());
+            case COMPONENTS:
+                return GraphAnalysisResult.ofGroups(this, analytics.components());
+            case STRONG_COMPONENTS:
+                return GraphAnalysisResult.ofGroups(this, analytics.strongComponents());
+            case COMMUNITIES:
+                return GraphAnalysisResult.ofGroups(this, analytics.labelPropagation());
+            default:
+                throw new IllegalStateException(name());
+        }
+    }
+}
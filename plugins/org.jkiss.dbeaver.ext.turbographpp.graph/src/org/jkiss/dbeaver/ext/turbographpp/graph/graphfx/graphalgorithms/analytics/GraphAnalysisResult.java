@@ -0,0 +1,135 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Result of a {@link GraphAnalysis}, indexed like the vertices of its {@link AnalyticsGraph}.
+ *
+ * <p>Centralities give a score per vertex; component and community detection give a group per
+ * vertex. Groups are numbered by decreasing size, so group 0 is the largest one.
+ */
+public class GraphAnalysisResult {
+
+    private final GraphAnalysis analysis;
+    private final double[] scores;
+    private final double maxScore;
+    private final int[] groups;
+    private final int[] groupSizes;
+
+    private GraphAnalysisResult(
+            GraphAnalysis analysis, double[] scores, int[] groups, int[] groupSizes) {
+        this.analysis = analysis;
+        this.scores = scores;
+        this.groups = groups;
+        this.groupSizes = groupSizes;
+
+        double max = 0;
+        if (scores != null) {
+            for (double score : scores) {
+                max = Math.max(max, score);
+            }
+        }
+        this.maxScore = max;
+    }
+
+    static GraphAnalysisResult ofScores(GraphAnalysis analysis, double[] scores) {
+        return new GraphAnalysisResult(analysis, scores, null, null);
+    }
+
+    /**
+     * Renumbers arbitrary group ids by decreasing group size.
+     *
+     * @param analysis analysis that computed the groups
+     * @param groupIds group id of each vertex, between 0 and the vertex count; overwritten
+     */
+    static GraphAnalysisResult ofGroups(GraphAnalysis analysis, int[] groupIds) {
+        int n = groupIds.length;
+        int[] size = new int[n];
+        for (int id : groupIds) {
+            size[id]++;
+        }
+
+        int count = 0;
+        for (int id = 0; id < n; id++) {
+            if (size[id] > 0) {
+                count++;
+            }
+        }
+        Integer[] order = new Integer[count];
+        count = 0;
+        for (int id = 0; id < n; id++) {
+            if (size[id] > 0) {
+                order[count++] = id;
+            }
+        }
+        // larger first, then by id so the numbering is stable
+        Arrays.sort(order, (a, b) -> size[a] != size[b] ? size[b] - size[a] : a - b);
+
+        int[] rank = new int[n];
+        int[] groupSizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            rank[order[i]] = i;
+            groupSizes[i] = size[order[i]];
+        }
+        for (int v = 0; v < n; v++) {
+            groupIds[v] = rank[groupIds[v]];
+        }
+        return new GraphAnalysisResult(analysis, null, groupIds, groupSizes);
+    }
+
+    public GraphAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /** Returns the number of analyzed vertices. */
+    public int size() {
+        return scores != null ? scores.length : groups.length;
+    }
+
+    /** Returns true if the result is a grouping, false if it is a score per vertex. */
+    public boolean isGrouping() {
+        return groups != null;
+    }
+
+    public double getScore(int vertex) {
+        return scores[vertex];
+    }
+
+    /**
+     * Returns the score of a vertex relative to the highest score.
+     *
+     * @param vertex vertex index
+     * @return score between 0 and 1
+     */
+    public double getNormalizedScore(int vertex) {
+        return maxScore > 0 ? scores[vertex] / maxScore : 0;
+    }
+
+    public int getGroup(int vertex) {
+        return groups[vertex];
+    }
+
+    public int getGroupCount() {
+        return groupSizes.length;
+    }
+
+    public int getGroupSize(int group) {
+        return groupSizes[group];
+    }
+}
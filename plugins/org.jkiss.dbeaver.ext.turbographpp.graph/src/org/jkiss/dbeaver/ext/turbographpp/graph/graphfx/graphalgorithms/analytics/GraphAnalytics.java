@@ -0,0 +1,563 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Centralities, components and communities of an {@link AnalyticsGraph}.
+ *
+ * <p>Betweenness, PageRank and label propagation split their work into vertex ranges run on the
+ * given {@link ForkJoinPool}; degrees and components are linear and computed on the calling
+ * thread. Every method checks the cancel flag between steps and throws a {@link
+ * CancellationException} once it is raised.
+ *
+ * @param <V> Vertex type
+ */
+public class GraphAnalytics<V> {
+
+    /* Sources of the betweenness estimate on graphs larger than that */
+    public static final int DEFAULT_BETWEENNESS_SOURCES = 512;
+
+    public static final double DEFAULT_DAMPING = 0.85;
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+    public static final int DEFAULT_PAGERANK_ITERATIONS = 100;
+    public static final int DEFAULT_PROPAGATION_ITERATIONS = 30;
+
+    /* Smallest vertex range given to a task */
+    private static final int PARALLEL_CHUNK = 1024;
+
+    private static final long SEED = 42;
+
+    private final AnalyticsGraph<V> graph;
+    private final ForkJoinPool pool;
+    private final BooleanSupplier canceled;
+
+    /**
+     * @param graph snapshot to analyze
+     * @param pool pool running the parallel steps
+     * @param canceled returns true once the computation must stop
+     */
+    public GraphAnalytics(AnalyticsGraph<V> graph, ForkJoinPool pool, BooleanSupplier canceled) {
+        this.graph = graph;
+        this.pool = pool;
+        this.canceled = canceled;
+    }
+
+    public AnalyticsGraph<V> getGraph() {
+        return graph;
+    }
+
+    /** Returns the number of incoming and outgoing edges of each vertex. */
+    public double[] degree() {
+        int n = graph.size();
+        double[] degree = new double[n];
+        for (int v = 0; v < n; v++) {
+            degree[v] = graph.outDegree(v) + graph.inDegree(v);
+        }
+        return degree;
+    }
+
+    /** Returns the betweenness of each vertex, estimated on large graphs. */
+    public double[] betweenness() {
+        return betweenness(DEFAULT_BETWEENNESS_SOURCES);
+    }
+
+    /**
+     * Computes the betweenness with Brandes' algorithm. Each source is a breadth-first search
+     * followed by the accumulation of the dependencies in reverse order. When the graph has more
+     * than <code>maxSources</code> vertices, only that many random sources are searched and the
+     * result is scaled up, which keeps the ranking of the hubs at a fraction of the cost.
+     *
+     * @param maxSources largest number of searched sources
+     * @return betweenness of each vertex
+     */
+    public double[] betweenness(int maxSources) {
+        int n = graph.size();
+        int[] sources = new int[n];
+        for (int v = 0; v < n; v++) {
+            sources[v] = v;
+        }
+        int count = n;
+        if (n > maxSources) {
+            // partial shuffle, the first maxSources entries are a uniform sample
+            Random random = new Random(SEED);
+            for (int i = 0; i < maxSources; i++) {
+                int j = i + random.nextInt(n - i);
+                int tmp = sources[i];
+                sources[i] = sources[j];
+                sources[j] = tmp;
+            }
+            count = maxSources;
+        }
+        if (count == 0) {
+            return new double[0];
+        }
+
+        int leaf = Math.max(1, count / (pool.getParallelism() * 4));
+        double[] result = pool.invoke(new BetweennessTask(sources, 0, count, leaf));
+        if (count < n) {
+            double scale = (double) n / count;
+            for (int v = 0; v < n; v++) {
+                result[v] *= scale;
+            }
+        }
+        return result;
+    }
+
+    /** Returns the PageRank of each vertex with the default parameters. */
+    public double[] pageRank() {
+        return pageRank(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_PAGERANK_ITERATIONS);
+    }
+
+    /**
+     * Computes the PageRank by power iteration. Each vertex pulls the rank of its predecessors,
+     * so the vertex ranges are updated without synchronization; the rank of vertices without
+     * outgoing edges is spread over all vertices.
+     *
+     * @param damping probability of following an edge
+     * @param tolerance sum of the rank changes under which the iteration stops
+     * @param maxIterations largest number of iterations
+     * @return rank of each vertex, summing to 1
+     */
+    public double[] pageRank(double damping, double tolerance, int maxIterations) {
+        int n = graph.size();
+        if (n == 0) {
+            return new double[0];
+        }
+        int[] inStart = graph.inStart();
+        int[] predecessors = graph.predecessors();
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            checkCanceled();
+            double dangling = 0;
+            for (int v = 0; v < n; v++) {
+                int outDegree = graph.outDegree(v);
+                if (outDegree == 0) {
+                    dangling += rank[v];
+                    share[v] = 0;
+                } else {
+                    share[v] = rank[v] / outDegree;
+                }
+            }
+
+            double base = (1 - damping + damping * dangling) / n;
+            final double[] updated = next;
+            parallelFor(
+                    n,
+                    (from, to) -> {
+                        for (int v = from; v < to; v++) {
+                            double sum = 0;
+                            for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+                                sum += share[predecessors[k]];
+                            }
+                            updated[v] = base + damping * sum;
+                        }
+                        return 0;
+                    });
+
+            double change = 0;
+            for (int v = 0; v < n; v++) {
+                change += Math.abs(next[v] - rank[v]);
+            }
+            double[] tmp = rank;
+            rank = next;
+            next = tmp;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the connected components, ignoring the edge directions, with a union-find.
+     *
+     * @return component id of each vertex
+     */
+    public int[] components() {
+        int n = graph.size();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+
+        int[] outStart = graph.outStart();
+        int[] successors = graph.successors();
+        for (int v = 0; v < n; v++) {
+            for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                int a = find(parent, v);
+                int b = find(parent, successors[k]);
+                if (a != b) {
+                    if (size[a] < size[b]) {
+                        int tmp = a;
+                        a = b;
+                        b = tmp;
+                    }
+                    parent[b] = a;
+                    size[a] += size[b];
+                }
+            }
+        }
+        checkCanceled();
+
+        for (int v = 0; v < n; v++) {
+            parent[v] = find(parent, v);
+        }
+        return parent;
+    }
+
+    /**
+     * Finds the strongly connected components with Tarjan's algorithm, using an explicit stack so
+     * long paths do not overflow the thread stack.
+     *
+     * @return component id of each vertex
+     */
+    public int[] strongComponents() {
+        int n = graph.size();
+        int[] outStart = graph.outStart();
+        int[] successors = graph.successors();
+
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];
+        int callSize = 0;
+        int nextIndex = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            checkCanceled();
+            callVertex[0] = root;
+            callEdge[0] = outStart[root];
+            callSize = 1;
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (callSize > 0) {
+                int v = callVertex[callSize - 1];
+                int k = callEdge[callSize - 1];
+                if (k < outStart[v + 1]) {
+                    callEdge[callSize - 1] = k + 1;
+                    int w = successors[k];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callVertex[callSize] = w;
+                        callEdge[callSize] = outStart[w];
+                        callSize++;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // all successors visited
+                callSize--;
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                if (callSize > 0) {
+                    int parent = callVertex[callSize - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return component;
+    }
+
+    /** Returns the communities found by label propagation with the default iteration limit. */
+    public int[] labelPropagation() {
+        return labelPropagation(DEFAULT_PROPAGATION_ITERATIONS);
+    }
+
+    /**
+     * Finds communities by label propagation, ignoring the edge directions. Every vertex starts
+     * with its own label and repeatedly takes the label most frequent among its neighbors, keeping
+     * its own on a tie; other ties are broken by a hash of the label and the vertex, so no label
+     * is favored everywhere. Vertex ranges are updated in parallel and in place, so a vertex already
+     * sees the labels updated earlier in the round; this converges much faster than synchronous
+     * rounds and does not oscillate on bipartite parts of the graph.
+     *
+     * @param maxIterations largest number of rounds
+     * @return community id of each vertex
+     */
+    public int[] labelPropagation(int maxIterations) {
+        int n = graph.size();
+        int[] outStart = graph.outStart();
+        int[] successors = graph.successors();
+        int[] inStart = graph.inStart();
+        int[] predecessors = graph.predecessors();
+
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, graph.outDegree(v) + graph.inDegree(v));
+        }
+        final int bufferSize = maxDegree;
+
+        // written by several workers: a stale read only delays the propagation of a label
+        int[] labels = new int[n];
+        for (int v = 0; v < n; v++) {
+            labels[v] = v;
+        }
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            checkCanceled();
+            final int round = iteration;
+            long changed =
+                    parallelFor(
+                            n,
+                            (from, to) -> {
+                                int[] votes = new int[bufferSize];
+                                long count = 0;
+                                for (int v = from; v < to; v++) {
+                                    int size = 0;
+                                    for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                                        if (successors[k] != v) {
+                                            votes[size++] = labels[successors[k]];
+                                        }
+                                    }
+                                    for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+                                        if (predecessors[k] != v) {
+                                            votes[size++] = labels[predecessors[k]];
+                                        }
+                                    }
+                                    int label =
+                                            mostFrequent(
+                                                    votes, size, labels[v], v * 31 + round);
+                                    if (label != labels[v]) {
+                                        labels[v] = label;
+                                        count++;
+                                    }
+                                }
+                                return count;
+                            });
+            if (changed == 0) {
+                break;
+            }
+        }
+        return labels;
+    }
+
+    /* Most frequent value of votes[0 .. size), preferring own, then the lowest hash */
+    private static int mostFrequent(int[] votes, int size, int own, int salt) {
+        Arrays.sort(votes, 0, size);
+        int best = own;
+        int bestCount = 0;
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && votes[j] == votes[i]) {
+                j++;
+            }
+            int count = j - i;
+            if (count > bestCount
+                    || (count == bestCount
+                            && best != own
+                            && (votes[i] == own || hash(votes[i], salt) < hash(best, salt)))) {
+                best = votes[i];
+                bestCount = count;
+            }
+            i = j;
+        }
+        return best;
+    }
+
+    private static int hash(int value, int salt) {
+        int h = (value ^ salt) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private void checkCanceled() {
+        if (canceled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+
+    /* Runs the action on vertex ranges in the pool and sums what the ranges return */
+    private long parallelFor(int size, RangeAction action) {
+        if (size == 0) {
+            return 0;
+        }
+        int chunk = Math.max(PARALLEL_CHUNK, size / (pool.getParallelism() * 4));
+        return pool.invoke(new RangeTask(action, 0, size, chunk));
+    }
+
+    @FunctionalInterface
+    private interface RangeAction {
+        long apply(int from, int to);
+    }
+
+    private static class RangeTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        RangeTask(RangeAction action, int from, int to, int chunk) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= chunk) {
+                return action.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(action, from, middle, chunk);
+            left.fork();
+            long right = new RangeTask(action, middle, to, chunk).compute();
+            return left.join() + right;
+        }
+    }
+
+    /* Dependencies accumulated from the sources [from, to), summed over the subtasks */
+    private class BetweennessTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        BetweennessTask(int[] sources, int from, int to, int leaf) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= leaf) {
+                return accumulate();
+            }
+            int middle = (from + to) >>> 1;
+            BetweennessTask left = new BetweennessTask(sources, from, middle, leaf);
+            left.fork();
+            double[] result = new BetweennessTask(sources, middle, to, leaf).compute();
+            double[] other = left.join();
+            for (int v = 0; v < result.length; v++) {
+                result[v] += other[v];
+            }
+            return result;
+        }
+
+        private double[] accumulate() {
+            int n = graph.size();
+            int[] outStart = graph.outStart();
+            int[] successors = graph.successors();
+            int[] inStart = graph.inStart();
+            int[] predecessors = graph.predecessors();
+
+            double[] centrality = new double[n];
+            int[] distance = new int[n];
+            double[] paths = new double[n];
+            double[] dependency = new double[n];
+            int[] order = new int[n];
+            Arrays.fill(distance, -1);
+
+            for (int i = from; i < to; i++) {
+                checkCanceled();
+                int source = sources[i];
+
+                // breadth-first search, counting the shortest paths
+                int visited = 0;
+                distance[source] = 0;
+                paths[source] = 1;
+                order[visited++] = source;
+                for (int head = 0; head < visited; head++) {
+                    int v = order[head];
+                    for (int k = outStart[v]; k < outStart[v + 1]; k++) {
+                        int w = successors[k];
+                        if (distance[w] < 0) {
+                            distance[w] = distance[v] + 1;
+                            order[visited++] = w;
+                        }
+                        if (distance[w] == distance[v] + 1) {
+                            paths[w] += paths[v];
+                        }
+                    }
+                }
+
+                // dependencies, farthest vertices first
+                for (int j = visited - 1; j > 0; j--) {
+                    int w = order[j];
+                    double factor = (1 + dependency[w]) / paths[w];
+                    for (int k = inStart[w]; k < inStart[w + 1]; k++) {
+                        int v = predecessors[k];
+                        if (distance[v] >= 0 && distance[v] == distance[w] - 1) {
+                            dependency[v] += paths[v] * factor;
+                        }
+                    }
+                    centrality[w] += dependency[w];
+                }
+
+                for (int j = 0; j < visited; j++) {
+                    int v = order[j];
+                    distance[v] = -1;
+                    paths[v] = 0;
+                    dependency[v] = 0;
+                }
+            }
+            return centrality;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertex ids keyed by a <code>long</code>, with decrease-key. Vertices are
+ * inserted only when reached, and {@link #clear()} costs the number of queued vertices, not the
+ * capacity.
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] position;
+    private final long[] key;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long minKey() {
+        return key[heap[0]];
+    }
+
+    /* Inserts the vertex, or lowers its key if it is queued with a higher one */
+    void offer(int vertex, long newKey) {
+        int index = position[vertex];
+        if (index < 0) {
+            index = size++;
+            heap[index] = vertex;
+            position[vertex] = index;
+        } else if (newKey >= key[vertex]) {
+            return;
+        }
+        key[vertex] = newKey;
+        siftUp(index);
+    }
+
+    int poll() {
+        int vertex = heap[0];
+        position[vertex] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return vertex;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int vertex = heap[index];
+        long k = key[vertex];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (key[heap[parent]] <= k) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
+    }
+
+    private void siftDown(int index) {
+        int vertex = heap[index];
+        long k = key[vertex];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (k <= key[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = vertex;
+        position[vertex] = index;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Graph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+
+/**
+ * Immutable snapshot of a directed {@link Graph} for path searches.
+ *
+ * <p>Vertices and edges are numbered from 0; edge weights are parsed once when the snapshot is
+ * built. Outgoing and incoming edges are kept in CSR form: the outgoing edge ids of vertex <code>v
+ * </code> are <code>outEdges[outStart[v] .. outStart[v + 1])</code>.
+ *
+ * @param <V> Vertex type
+ * @param <E> Edge type
+ */
+public class ShortestPathGraph<V, E> {
+
+    private final List<Vertex<V>> vertices;
+    private final Map<Vertex<V>, Integer> vertexIndex;
+    private final List<FxEdge<E, V>> edges;
+
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+
+    private final int[] outStart;
+    private final int[] outEdges;
+    private final int[] inStart;
+    private final int[] inEdges;
+
+    private ShortestPathGraph(
+            List<Vertex<V>> vertices,
+            Map<Vertex<V>, Integer> vertexIndex,
+            List<FxEdge<E, V>> edges,
+            int[] edgeSource,
+            int[] edgeTarget,
+            int[] edgeWeight) {
+        this.vertices = vertices;
+        this.vertexIndex = vertexIndex;
+        this.edges = edges;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+
+        int n = vertices.size();
+        this.outStart = new int[n + 1];
+        this.outEdges = new int[edgeSource.length];
+        this.inStart = new int[n + 1];
+        this.inEdges = new int[edgeSource.length];
+        buildCsr(edgeSource, outStart, outEdges);
+        buildCsr(edgeTarget, inStart, inEdges);
+    }
+
+    /**
+     * Takes a snapshot of a graph.
+     *
+     * @param graph graph to search
+     * @param weight weight of an edge element; must not be negative
+     * @return snapshot of the graph
+     * @exception IllegalArgumentException if an edge has a negative weight
+     */
+    public static <V, E> ShortestPathGraph<V, E> build(Graph<V, E> graph, ToIntFunction<E> weight) {
+        Collection<Vertex<V>> graphVertices = graph.vertices();
+        List<Vertex<V>> vertices = new ArrayList<>(graphVertices);
+        Map<Vertex<V>, Integer> vertexIndex = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            vertexIndex.put(vertices.get(i), i);
+        }
+
+        Collection<FxEdge<E, V>> graphEdges = graph.edges();
+        List<FxEdge<E, V>> edges = new ArrayList<>(graphEdges.size());
+        int[] edgeSource = new int[graphEdges.size()];
+        int[] edgeTarget = new int[graphEdges.size()];
+        int[] edgeWeight = new int[graphEdges.size()];
+        for (FxEdge<E, V> edge : graphEdges) {
+            Vertex<V>[] ends = edge.vertices();
+            Integer source = vertexIndex.get(ends[0]);
+            Integer target = vertexIndex.get(ends[1]);
+            if (source == null || target == null) {
+                continue;
+            }
+            int w = weight.applyAsInt(edge.element());
+            if (w < 0) {
+                throw new IllegalArgumentException("Negative edge weight: " + edge);
+            }
+            int id = edges.size();
+            edges.add(edge);
+            edgeSource[id] = source;
+            edgeTarget[id] = target;
+            edgeWeight[id] = w;
+        }
+
+        int m = edges.size();
+        return new ShortestPathGraph<>(
+                vertices,
+                vertexIndex,
+                edges,
+                trim(edgeSource, m),
+                trim(edgeTarget, m),
+                trim(edgeWeight, m));
+    }
+
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * Returns the id of a vertex in this snapshot.
+     *
+     * @param vertex graph vertex
+     * @return vertex id, or -1 if the vertex was not in the graph
+     */
+    public int indexOf(Vertex<V> vertex) {
+        Integer index = vertexIndex.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    public Vertex<V> vertex(int id) {
+        return vertices.get(id);
+    }
+
+    public FxEdge<E, V> edge(int id) {
+        return edges.get(id);
+    }
+
+    public int source(int edge) {
+        return edgeSource[edge];
+    }
+
+    public int target(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public int weight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    /* CSR accessors, shared with the searches of this package */
+
+    int[] outStart() {
+        return outStart;
+    }
+
+    int[] outEdges() {
+        return outEdges;
+    }
+
+    int[] inStart() {
+        return inStart;
+    }
+
+    int[] inEdges() {
+        return inEdges;
+    }
+
+    int[] edgeSource() {
+        return edgeSource;
+    }
+
+    int[] edgeTarget() {
+        return edgeTarget;
+    }
+
+    int[] edgeWeight() {
+        return edgeWeight;
+    }
+
+    private static void buildCsr(int[] endpoint, int[] start, int[] list) {
+        for (int e = 0; e < endpoint.length; e++) {
+            start[endpoint[e] + 1]++;
+        }
+        for (int v = 0; v + 1 < start.length; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] next = start.clone();
+        for (int e = 0; e < endpoint.length; e++) {
+            list[next[endpoint[e]]++] = e;
+        }
+    }
+
+    private static int[] trim(int[] array, int length) {
+        if (array.length == length) {
+            return array;
+        }
+        int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path;
+
+import java.util.Arrays;
+
+/**
+ * Landmark distances for A* searches (ALT).
+ *
+ * <p>For a landmark <code>L</code>, the triangle inequality gives <code>
+ * d(v, t) &gt;= d(L, t) - d(L, v)</code> and <code>d(v, t) &gt;= d(v, L) - d(t, L)</code>; the
+ * heuristic is the best of these bounds over all landmarks. Landmarks are picked farthest-first,
+ * which spreads them on the border of the graph where the bounds are tightest.
+ *
+ * <p>Precomputing costs two full Dijkstra searches per landmark, so it pays off when several
+ * queries run on the same snapshot.
+ */
+public class ShortestPathLandmarks {
+
+    private static final long UNREACHABLE = ShortestPathSearch.UNREACHABLE;
+
+    private final long[][] from;
+    private final long[][] to;
+    private final int count;
+
+    /**
+     * Selects the landmarks and computes their distances.
+     *
+     * @param search search on the graph
+     * @param maxCount number of landmarks, fewer if the graph runs out of distinct ones
+     */
+    public ShortestPathLandmarks(ShortestPathSearch search, int maxCount) {
+        int n = search.getGraph().vertexCount();
+        from = new long[Math.min(maxCount, n)][];
+        to = new long[from.length][];
+
+        // farthest-first: the next landmark is the vertex farthest from the ones already chosen
+        long[] nearest = new long[n];
+        Arrays.fill(nearest, UNREACHABLE);
+        int used = 0;
+        int landmark = 0;
+        while (used < from.length) {
+            from[used] = search.distances(landmark, false);
+            to[used] = search.distances(landmark, true);
+
+            int next = -1;
+            long farthest = 0;
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], Math.min(from[used][v], to[used][v]));
+                // unreachable vertices are farthest of all, so disconnected parts get a landmark
+                if (nearest[v] > farthest) {
+                    farthest = nearest[v];
+                    next = v;
+                }
+            }
+            used++;
+            if (next < 0) {
+                break;
+            }
+            landmark = next;
+        }
+        count = used;
+    }
+
+    public int getLandmarkCount() {
+        return count;
+    }
+
+    /**
+     * Returns the lower bound of the distance to a target.
+     *
+     * @param target target vertex id
+     * @return heuristic for {@link ShortestPathSearch#aStar}
+     */
+    public ShortestPathSearch.Heuristic toward(int target) {
+        return vertex -> {
+            long bound = 0;
+            for (int l = 0; l < count; l++) {
+                long[] fromL = from[l];
+                long[] toL = to[l];
+                if (fromL[target] != UNREACHABLE && fromL[vertex] != UNREACHABLE) {
+                    bound = Math.max(bound, fromL[target] - fromL[vertex]);
+                }
+                if (toL[vertex] != UNREACHABLE && toL[target] != UNREACHABLE) {
+                    bound = Math.max(bound, toL[vertex] - toL[target]);
+                }
+            }
+            return bound;
+        };
+    }
+}
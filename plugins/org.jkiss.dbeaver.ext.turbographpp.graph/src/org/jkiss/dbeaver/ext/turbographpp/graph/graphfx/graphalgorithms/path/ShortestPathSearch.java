@@ -0,0 +1,460 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Point-to-point shortest path searches on a {@link ShortestPathGraph}.
+ *
+ * <p>All searches insert vertices in the queue only when they are reached and stop as soon as the
+ * target is settled. Distances and parent edges live in primitive arrays that are reused between
+ * searches; a generation stamp marks which entries belong to the current search, so starting a
+ * search does not clear them.
+ *
+ * <p>An instance is not thread-safe; it can run any number of searches on its graph.
+ */
+public class ShortestPathSearch {
+
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /** Lower bound of the distance from a vertex to the target of an A* search. */
+    public interface Heuristic {
+
+        /**
+         * Estimates the remaining distance. Must never overestimate it, and must be consistent:
+         * <code>estimate(u) &lt;= weight(u, v) + estimate(v)</code> for every edge.
+         *
+         * @param vertex vertex id
+         * @return lower bound of the distance to the target
+         */
+        public long estimate(int vertex);
+    }
+
+    /** A path of the graph, given by its vertex and edge ids. */
+    public static final class Path {
+        private final long weight;
+        private final int[] vertices;
+        private final int[] edges;
+
+        Path(long weight, int[] vertices, int[] edges) {
+            this.weight = weight;
+            this.vertices = vertices;
+            this.edges = edges;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        /** Returns the vertex ids from source to target. The array must not be modified. */
+        public int[] getVertices() {
+            return vertices;
+        }
+
+        /** Returns the edge ids from source to target. The array must not be modified. */
+        public int[] getEdges() {
+            return edges;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Path path = (Path) o;
+            return vertices[0] == path.vertices[0] && Arrays.equals(edges, path.edges);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * vertices[0] + Arrays.hashCode(edges);
+        }
+
+        @Override
+        public String toString() {
+            return "Path" + Arrays.toString(vertices) + " weight " + weight;
+        }
+    }
+
+    private static final Comparator<Path> PATH_ORDER =
+            Comparator.comparingLong(Path::getWeight).thenComparingInt(p -> p.edges.length);
+
+    /* Per-direction search state */
+    private static final class Side {
+        private final long[] distance;
+        private final int[] parentEdge;
+        private final int[] reached;
+        private final IndexedMinHeap queue;
+        private int generation = 0;
+
+        private Side(int size) {
+            distance = new long[size];
+            parentEdge = new int[size];
+            reached = new int[size];
+            queue = new IndexedMinHeap(size);
+        }
+
+        private void reset() {
+            queue.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                generation = 1;
+            }
+        }
+
+        private boolean isReached(int vertex) {
+            return reached[vertex] == generation;
+        }
+
+        private void reach(int vertex, long newDistance, int edge) {
+            distance[vertex] = newDistance;
+            parentEdge[vertex] = edge;
+            reached[vertex] = generation;
+        }
+    }
+
+    private final ShortestPathGraph<?, ?> graph;
+    private final int[] outStart;
+    private final int[] outEdges;
+    private final int[] inStart;
+    private final int[] inEdges;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+
+    private final Side forward;
+    private final Side backward;
+
+    public ShortestPathSearch(ShortestPathGraph<?, ?> graph) {
+        this.graph = graph;
+        this.outStart = graph.outStart();
+        this.outEdges = graph.outEdges();
+        this.inStart = graph.inStart();
+        this.inEdges = graph.inEdges();
+        this.edgeSource = graph.edgeSource();
+        this.edgeTarget = graph.edgeTarget();
+        this.edgeWeight = graph.edgeWeight();
+        this.forward = new Side(graph.vertexCount());
+        this.backward = new Side(graph.vertexCount());
+    }
+
+    public ShortestPathGraph<?, ?> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Dijkstra's algorithm, stopping when the target is reached.
+     *
+     * @param source source vertex id
+     * @param target target vertex id
+     * @return the shortest path, or null if the target cannot be reached
+     */
+    public Path dijkstra(int source, int target) {
+        return search(source, target, null, null, null);
+    }
+
+    /**
+     * A* search: Dijkstra's algorithm guided towards the target by a lower bound of the remaining
+     * distance, e.g., {@link ShortestPathLandmarks#toward(int)}.
+     *
+     * @param source source vertex id
+     * @param target target vertex id
+     * @param heuristic consistent lower bound of the distance to <code>target</code>
+     * @return the shortest path, or null if the target cannot be reached
+     */
+    public Path aStar(int source, int target, Heuristic heuristic) {
+        return search(source, target, heuristic, null, null);
+    }
+
+    /**
+     * Bidirectional Dijkstra: grows a forward search from the source and a backward search from
+     * the target, always expanding the smaller frontier, until no shorter meeting point can exist.
+     *
+     * @param source source vertex id
+     * @param target target vertex id
+     * @return the shortest path, or null if the target cannot be reached
+     */
+    public Path bidirectional(int source, int target) {
+        if (source == target) {
+            return new Path(0, new int[] {source}, new int[0]);
+        }
+
+        Side f = forward;
+        Side b = backward;
+        f.reset();
+        b.reset();
+        f.reach(source, 0, -1);
+        f.queue.offer(source, 0);
+        b.reach(target, 0, -1);
+        b.queue.offer(target, 0);
+
+        long best = UNREACHABLE;
+        int meet = -1;
+        while (!f.queue.isEmpty() && !b.queue.isEmpty()) {
+            if (f.queue.minKey() + b.queue.minKey() >= best) {
+                break;
+            }
+            if (f.queue.size() <= b.queue.size()) {
+                int u = f.queue.poll();
+                long du = f.distance[u];
+                for (int k = outStart[u]; k < outStart[u + 1]; k++) {
+                    int e = outEdges[k];
+                    int v = edgeTarget[e];
+                    long dv = du + edgeWeight[e];
+                    if (!f.isReached(v) || dv < f.distance[v]) {
+                        f.reach(v, dv, e);
+                        f.queue.offer(v, dv);
+                        if (b.isReached(v) && dv + b.distance[v] < best) {
+                            best = dv + b.distance[v];
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int u = b.queue.poll();
+                long du = b.distance[u];
+                for (int k = inStart[u]; k < inStart[u + 1]; k++) {
+                    int e = inEdges[k];
+                    int v = edgeSource[e];
+                    long dv = du + edgeWeight[e];
+                    if (!b.isReached(v) || dv < b.distance[v]) {
+                        b.reach(v, dv, e);
+                        b.queue.offer(v, dv);
+                        if (f.isReached(v) && dv + f.distance[v] < best) {
+                            best = dv + f.distance[v];
+                            meet = v;
+                        }
+                    }
+                }
+            }
+        }
+        if (meet < 0) {
+            return null;
+        }
+
+        // source .. meet from the forward parents, meet .. target from the backward ones
+        int forwardLength = 0;
+        for (int v = meet; v != source; v = edgeSource[f.parentEdge[v]]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int v = meet; v != target; v = edgeTarget[b.parentEdge[v]]) {
+            backwardLength++;
+        }
+
+        int[] edges = new int[forwardLength + backwardLength];
+        int[] vertices = new int[edges.length + 1];
+        int v = meet;
+        vertices[forwardLength] = meet;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            edges[i] = f.parentEdge[v];
+            v = edgeSource[edges[i]];
+            vertices[i] = v;
+        }
+        v = meet;
+        for (int i = forwardLength; i < edges.length; i++) {
+            edges[i] = b.parentEdge[v];
+            v = edgeTarget[edges[i]];
+            vertices[i + 1] = v;
+        }
+        return new Path(best, vertices, edges);
+    }
+
+    /**
+     * Yen's algorithm: the <code>k</code> shortest loopless paths, by increasing weight.
+     *
+     * @param source source vertex id
+     * @param target target vertex id
+     * @param k maximum number of paths
+     * @return up to <code>k</code> paths, empty if the target cannot be reached
+     */
+    public List<Path> kShortest(int source, int target, int k) {
+        List<Path> paths = new ArrayList<>();
+        Path first = search(source, target, null, null, null);
+        if (first == null || k <= 0) {
+            return paths;
+        }
+        paths.add(first);
+
+        boolean[] bannedVertex = new boolean[graph.vertexCount()];
+        boolean[] bannedEdge = new boolean[graph.edgeCount()];
+        PriorityQueue<Path> candidates = new PriorityQueue<>(PATH_ORDER);
+        Set<Path> known = new HashSet<>();
+        known.add(first);
+
+        while (paths.size() < k) {
+            Path previous = paths.get(paths.size() - 1);
+            long rootWeight = 0;
+            for (int i = 0; i < previous.edges.length; i++) {
+                int spur = previous.vertices[i];
+
+                // forbid the next edge of every found path sharing this root
+                for (Path path : paths) {
+                    if (path.edges.length > i && sharesRoot(path, previous, i)) {
+                        bannedEdge[path.edges[i]] = true;
+                    }
+                }
+                // and the root vertices, so that the spur path stays loopless
+                for (int j = 0; j < i; j++) {
+                    bannedVertex[previous.vertices[j]] = true;
+                }
+
+                Path spurPath = search(spur, target, null, bannedVertex, bannedEdge);
+                if (spurPath != null) {
+                    Path candidate = join(previous, i, rootWeight, spurPath);
+                    if (known.add(candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+
+                for (Path path : paths) {
+                    if (path.edges.length > i) {
+                        bannedEdge[path.edges[i]] = false;
+                    }
+                }
+                for (int j = 0; j < i; j++) {
+                    bannedVertex[previous.vertices[j]] = false;
+                }
+                rootWeight += edgeWeight[previous.edges[i]];
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            paths.add(candidates.poll());
+        }
+        return paths;
+    }
+
+    /**
+     * Computes the distance from, or to, a vertex to every other vertex.
+     *
+     * @param vertex vertex id
+     * @param reverse false for the distances from <code>vertex</code>, true for the distances to
+     *     it
+     * @return distances indexed by vertex id, {@link #UNREACHABLE} if there is no path
+     */
+    public long[] distances(int vertex, boolean reverse) {
+        int[] start = reverse ? inStart : outStart;
+        int[] list = reverse ? inEdges : outEdges;
+        int[] next = reverse ? edgeSource : edgeTarget;
+
+        Side side = forward;
+        side.reset();
+        side.reach(vertex, 0, -1);
+        side.queue.offer(vertex, 0);
+        while (!side.queue.isEmpty()) {
+            int u = side.queue.poll();
+            long du = side.distance[u];
+            for (int k = start[u]; k < start[u + 1]; k++) {
+                int e = list[k];
+                int v = next[e];
+                long dv = du + edgeWeight[e];
+                if (!side.isReached(v) || dv < side.distance[v]) {
+                    side.reach(v, dv, e);
+                    side.queue.offer(v, dv);
+                }
+            }
+        }
+
+        long[] distances = new long[graph.vertexCount()];
+        for (int v = 0; v < distances.length; v++) {
+            distances[v] = side.isReached(v) ? side.distance[v] : UNREACHABLE;
+        }
+        return distances;
+    }
+
+    /* Single-direction search, A* when a heuristic is given, skipping banned vertices and edges */
+    private Path search(
+            int source,
+            int target,
+            Heuristic heuristic,
+            boolean[] bannedVertex,
+            boolean[] bannedEdge) {
+        Side f = forward;
+        f.reset();
+        f.reach(source, 0, -1);
+        f.queue.offer(source, heuristic == null ? 0 : heuristic.estimate(source));
+
+        while (!f.queue.isEmpty()) {
+            int u = f.queue.poll();
+            if (u == target) {
+                return pathTo(f, source, target);
+            }
+            long du = f.distance[u];
+            for (int k = outStart[u]; k < outStart[u + 1]; k++) {
+                int e = outEdges[k];
+                if (bannedEdge != null && bannedEdge[e]) {
+                    continue;
+                }
+                int v = edgeTarget[e];
+                if (bannedVertex != null && bannedVertex[v]) {
+                    continue;
+                }
+                long dv = du + edgeWeight[e];
+                if (!f.isReached(v) || dv < f.distance[v]) {
+                    f.reach(v, dv, e);
+                    f.queue.offer(v, heuristic == null ? dv : dv + heuristic.estimate(v));
+                }
+            }
+        }
+        return null;
+    }
+
+    private Path pathTo(Side side, int source, int target) {
+        int length = 0;
+        for (int v = target; v != source; v = edgeSource[side.parentEdge[v]]) {
+            length++;
+        }
+        int[] edges = new int[length];
+        int[] vertices = new int[length + 1];
+        int v = target;
+        vertices[length] = target;
+        for (int i = length - 1; i >= 0; i--) {
+            edges[i] = side.parentEdge[v];
+            v = edgeSource[edges[i]];
+            vertices[i] = v;
+        }
+        return new Path(side.distance[target], vertices, edges);
+    }
+
+    /* Whether the first rootLength edges of both paths are the same */
+    private static boolean sharesRoot(Path path, Path root, int rootLength) {
+        for (int j = 0; j < rootLength; j++) {
+            if (path.edges[j] != root.edges[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path join(Path root, int rootLength, long rootWeight, Path spur) {
+        int[] edges = new int[rootLength + spur.edges.length];
+        System.arraycopy(root.edges, 0, edges, 0, rootLength);
+        System.arraycopy(spur.edges, 0, edges, rootLength, spur.edges.length);
+        int[] vertices = new int[edges.length + 1];
+        System.arraycopy(root.vertices, 0, vertices, 0, rootLength);
+        System.arraycopy(spur.vertices, 0, vertices, rootLength, spur.vertices.length);
+        return new Path(rootWeight + spur.weight, vertices, edges);
+    }
+}
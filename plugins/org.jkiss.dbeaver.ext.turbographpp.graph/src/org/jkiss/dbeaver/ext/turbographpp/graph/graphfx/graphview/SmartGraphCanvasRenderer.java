@@ -0,0 +1,815 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.CubicCurve;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.QuadCurve;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.transform.Scale;
+
+/**
+ * Draws the vertices and edges of a {@link SmartGraphPanel} onto a single {@link Canvas}.
+ *
+ * <p>The vertex and edge nodes of the panel stay the model of the graph: positions, radius,
+ * inline styles, labels and arrows are read from them, so selection, highlight and layout work as
+ * in the scene graph mode. Only the nodes are not part of the scene, which removes the per-node
+ * CSS, layout and picking cost.
+ *
+ * <p>The canvas covers the visible part of the panel at screen resolution and is redrawn at most
+ * once per frame, when the graph or the viewport changed. The level of detail depends on the zoom:
+ *
+ * <ul>
+ *   <li>vertices and edges outside the viewport are skipped;
+ *   <li>labels, arrows and dashes are dropped under {@link
+ *       SmartGraphProperties#getCanvasLabelMinZoom()};
+ *   <li>under {@link SmartGraphProperties#getCanvasAggregateMaxZoom()}, edges are bundled per
+ *       pair of screen cells and drawn as one line whose width grows with the bundle size.
+ * </ul>
+ *
+ * @param <V> Type of element stored at a vertex
+ * @param <E> Type of element stored at an edge
+ */
+final class SmartGraphCanvasRenderer<V, E> {
+
+    /* larger canvases exceed the texture size of most graphic cards */
+    private static final int MAX_CANVAS_SIZE = 8192;
+    /* vertices smaller than this on screen are drawn as a square dot */
+    private static final double DOT_RADIUS_PX = 1.5;
+    /* cell size, on screen, of the edge bundles */
+    private static final double AGGREGATE_CELL_PX = 8;
+    /* distance, on screen, under which a click selects an edge */
+    private static final double EDGE_PICK_PX = 4;
+    private static final double POINT_TO_PIXEL = 96.0 / 72.0;
+    private static final int STYLE_CACHE_SIZE = 1024;
+
+    private static final Color AGGREGATE_EDGE_COLOR = Color.web("#000000", 0.35);
+
+    private final SmartGraphPanel<V, E> panel;
+    private final Collection<SmartGraphVertexNode<V>> vertices;
+    private final Collection<SmartGraphEdgeBase<E, V>> edges;
+    private final double labelMinZoom;
+    private final double aggregateMaxZoom;
+    private final double arrowSize;
+
+    private final Canvas canvas = new Canvas();
+    private final Scale canvasScale = new Scale(1, 1);
+    private final AnimationTimer timer;
+    private boolean dirty = true;
+
+    /* viewport of the last redraw, in panel coordinates */
+    private double viewX;
+    private double viewY;
+    private double viewWidth;
+    private double viewHeight;
+    private double viewZoom;
+
+    private final VertexGrid<V> grid = new VertexGrid<>();
+    private boolean gridDirty = true;
+    private final List<SmartGraphEdgeBase<E, V>> visibleEdges = new ArrayList<>();
+    private final Map<String, CanvasStyle> styles = new HashMap<>();
+    private final Map<String, CanvasStyle> highlightedVertexStyles = new HashMap<>();
+    private final Map<String, CanvasStyle> highlightedEdgeStyles = new HashMap<>();
+
+    SmartGraphCanvasRenderer(
+            SmartGraphPanel<V, E> panel,
+            Collection<SmartGraphVertexNode<V>> vertices,
+            Collection<SmartGraphEdgeBase<E, V>> edges,
+            SmartGraphProperties properties) {
+        this.panel = panel;
+        this.vertices = vertices;
+        this.edges = edges;
+        this.labelMinZoom = properties.getCanvasLabelMinZoom();
+        this.aggregateMaxZoom = properties.getCanvasAggregateMaxZoom();
+        this.arrowSize = properties.getEdgeArrowSize();
+
+        canvas.setManaged(false);
+        canvas.setMouseTransparent(true);
+        canvas.getTransforms().add(canvasScale);
+
+        timer =
+                new AnimationTimer() {
+                    @Override
+                    public void handle(long now) {
+                        if (dirty || viewportChanged()) {
+                            redraw();
+                        }
+                    }
+                };
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    void start() {
+        invalidate();
+        timer.start();
+    }
+
+    void stop() {
+        timer.stop();
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /** Schedules a redraw for the next frame. */
+    void invalidate() {
+        dirty = true;
+        gridDirty = true;
+    }
+
+    /**
+     * Returns the vertex or edge under a scene position, vertices first.
+     *
+     * @param sceneX x-coordinate in the scene
+     * @param sceneY y-coordinate in the scene
+     * @return vertex or edge node, null if none
+     */
+    Node pick(double sceneX, double sceneY) {
+        Point2D p = panel.sceneToLocal(sceneX, sceneY);
+        if (p == null) {
+            return null;
+        }
+        if (gridDirty) {
+            grid.build(vertices);
+            gridDirty = false;
+        }
+
+        SmartGraphVertexNode<V> vertex = grid.find(p.getX(), p.getY());
+        if (vertex != null) {
+            return vertex;
+        }
+
+        double zoom = viewZoom > 0 ? viewZoom : 1;
+        SmartGraphEdgeBase<E, V> best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (SmartGraphEdgeBase<E, V> edge : visibleEdges) {
+            double tolerance = edgeStyle(edge).strokeWidth / 2 + EDGE_PICK_PX / zoom;
+            double distance = distanceToEdge(edge, p.getX(), p.getY());
+            if (distance <= tolerance && distance < bestDistance) {
+                best = edge;
+                bestDistance = distance;
+            }
+        }
+        return (Node) best;
+    }
+
+    /* Computes the visible part of the panel; false if the panel is not displayed */
+    private boolean updateViewport() {
+        Scene scene = panel.getScene();
+        if (scene == null || panel.getWidth() <= 0 || panel.getHeight() <= 0) {
+            return false;
+        }
+        Bounds visible =
+                panel.sceneToLocal(new BoundingBox(0, 0, scene.getWidth(), scene.getHeight()));
+        if (visible == null) {
+            return false;
+        }
+        double minX = Math.max(0, visible.getMinX());
+        double minY = Math.max(0, visible.getMinY());
+        double maxX = Math.min(panel.getWidth(), visible.getMaxX());
+        double maxY = Math.min(panel.getHeight(), visible.getMaxY());
+        viewX = minX;
+        viewY = minY;
+        viewWidth = Math.max(0, maxX - minX);
+        viewHeight = Math.max(0, maxY - minY);
+        viewZoom = panel.getLocalToSceneTransform().getMxx();
+        return viewWidth > 0 && viewHeight > 0 && viewZoom > 0;
+    }
+
+    private boolean viewportChanged() {
+        double x = viewX, y = viewY, w = viewWidth, h = viewHeight, zoom = viewZoom;
+        return updateViewport()
+                && (x != viewX
+                        || y != viewY
+                        || w != viewWidth
+                        || h != viewHeight
+                        || zoom != viewZoom);
+    }
+
+    private void redraw() {
+        dirty = false;
+        visibleEdges.clear();
+        if (!updateViewport()) {
+            return;
+        }
+
+        double zoom = viewZoom;
+        // the canvas has screen resolution and is scaled back to panel coordinates
+        double pixelZoom = Math.min(zoom, MAX_CANVAS_SIZE / Math.max(viewWidth, viewHeight));
+        canvas.setWidth(Math.ceil(viewWidth * pixelZoom));
+        canvas.setHeight(Math.ceil(viewHeight * pixelZoom));
+        canvas.relocate(viewX, viewY);
+        canvasScale.setX(1 / pixelZoom);
+        canvasScale.setY(1 / pixelZoom);
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setTransform(pixelZoom, 0, 0, pixelZoom, -viewX * pixelZoom, -viewY * pixelZoom);
+
+        if (gridDirty) {
+            grid.build(vertices);
+            gridDirty = false;
+        }
+
+        boolean details = zoom >= labelMinZoom;
+        double maxX = viewX + viewWidth;
+        double maxY = viewY + viewHeight;
+
+        // edges below the vertices
+        if (zoom < aggregateMaxZoom) {
+            drawAggregatedEdges(gc, zoom, maxX, maxY);
+        } else {
+            for (SmartGraphEdgeBase<E, V> edge : edges) {
+                if (isEdgeVisible(edge, maxX, maxY)) {
+                    visibleEdges.add(edge);
+                    drawEdge(gc, edge, details);
+                }
+            }
+        }
+
+        List<SmartGraphVertexNode<V>> visibleVertices =
+                grid.query(viewX, viewY, maxX, maxY, new ArrayList<>());
+        for (SmartGraphVertexNode<V> vertex : visibleVertices) {
+            drawVertex(gc, vertex, zoom);
+        }
+
+        if (details) {
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            for (SmartGraphEdgeBase<E, V> edge : visibleEdges) {
+                drawEdgeLabel(gc, edge);
+            }
+            for (SmartGraphVertexNode<V> vertex : visibleVertices) {
+                drawVertexLabel(gc, vertex);
+            }
+        }
+    }
+
+    private void drawVertex(GraphicsContext gc, SmartGraphVertexNode<V> vertex, double zoom) {
+        CanvasStyle style = vertexStyle(vertex);
+        double x = vertex.getCenterX();
+        double y = vertex.getCenterY();
+        double r = vertex.getRadius();
+
+        gc.setGlobalAlpha(style.opacity);
+        if (r * zoom < DOT_RADIUS_PX) {
+            gc.setFill(style.stroke != null ? style.stroke : style.fill);
+            double size = DOT_RADIUS_PX / zoom;
+            gc.fillRect(x - size, y - size, size * 2, size * 2);
+            return;
+        }
+
+        if (style.fill != null) {
+            gc.setFill(style.fill);
+            gc.fillOval(x - r, y - r, r * 2, r * 2);
+        }
+        if (style.stroke != null && style.strokeWidth > 0) {
+            // vertex strokes are of type inside
+            double w = Math.min(style.strokeWidth, r);
+            double sr = r - w / 2;
+            gc.setStroke(style.stroke);
+            gc.setLineWidth(w);
+            gc.setLineDashes((double[]) null);
+            gc.strokeOval(x - sr, y - sr, sr * 2, sr * 2);
+        }
+    }
+
+    private void drawVertexLabel(GraphicsContext gc, SmartGraphVertexNode<V> vertex) {
+        SmartLabel label = vertex.getAttachedLabel();
+        if (label == null || label.getText() == null || label.getText().isEmpty()) {
+            return;
+        }
+        CanvasStyle style = getStyle(label.getStyle());
+        gc.setGlobalAlpha(1);
+        gc.setFill(Color.BLACK);
+        gc.setFont(style.getFont(true));
+        gc.fillText(label.getText(), vertex.getCenterX(), vertex.getCenterY());
+    }
+
+    private void drawEdge(GraphicsContext gc, SmartGraphEdgeBase<E, V> edge, boolean details) {
+        CanvasStyle style = edgeStyle(edge);
+        gc.setGlobalAlpha(style.opacity);
+        gc.setStroke(style.stroke != null ? style.stroke : Color.BLACK);
+        gc.setLineWidth(style.strokeWidth);
+        gc.setLineDashes(details ? style.dashes : null);
+
+        if (edge instanceof Line) {
+            Line line = (Line) edge;
+            gc.strokeLine(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
+        } else if (edge instanceof QuadCurve) {
+            QuadCurve curve = (QuadCurve) edge;
+            gc.beginPath();
+            gc.moveTo(curve.getStartX(), curve.getStartY());
+            gc.quadraticCurveTo(
+                    curve.getControlX(), curve.getControlY(), curve.getEndX(), curve.getEndY());
+            gc.stroke();
+        } else if (edge instanceof CubicCurve) {
+            CubicCurve curve = (CubicCurve) edge;
+            gc.beginPath();
+            gc.moveTo(curve.getStartX(), curve.getStartY());
+            gc.bezierCurveTo(
+                    curve.getControlX1(),
+                    curve.getControlY1(),
+                    curve.getControlX2(),
+                    curve.getControlY2(),
+                    curve.getEndX(),
+                    curve.getEndY());
+            gc.stroke();
+        }
+
+        SmartArrow arrow = edge.getAttachedArrow();
+        if (details && arrow != null) {
+            drawArrow(gc, arrow);
+        }
+    }
+
+    /* The arrow node keeps its position and rotation bound to the edge, even out of the scene */
+    private void drawArrow(GraphicsContext gc, SmartArrow arrow) {
+        CanvasStyle style = getStyle(arrow.getStyle());
+        Point2D tip = arrow.localToParent(0, 0);
+        Point2D left = arrow.localToParent(-arrowSize, arrowSize);
+        Point2D right = arrow.localToParent(-arrowSize, -arrowSize);
+
+        gc.setGlobalAlpha(style.opacity);
+        gc.setStroke(style.stroke != null ? style.stroke : Color.BLACK);
+        gc.setLineWidth(style.strokeWidth);
+        gc.setLineDashes((double[]) null);
+        gc.strokeLine(tip.getX(), tip.getY(), left.getX(), left.getY());
+        gc.strokeLine(tip.getX(), tip.getY(), right.getX(), right.getY());
+    }
+
+    private void drawEdgeLabel(GraphicsContext gc, SmartGraphEdgeBase<E, V> edge) {
+        SmartLabel label = edge.getAttachedLabel();
+        if (label == null || label.getText() == null || label.getText().isEmpty()) {
+            return;
+        }
+        Point2D mid = midPoint(edge);
+        if (mid == null) {
+            return;
+        }
+        CanvasStyle style = getStyle(label.getStyle());
+        gc.save();
+        gc.setGlobalAlpha(1);
+        gc.setFill(Color.BLACK);
+        gc.setFont(style.getFont(false));
+        gc.translate(mid.getX(), mid.getY());
+        gc.rotate(label.getRotate());
+        gc.fillText(label.getText(), 0, 0);
+        gc.restore();
+    }
+
+    /*
+     * Bundles the visible edges by the screen cells of their ends. Emphasized edges, such as
+     * highlighted ones, are still drawn one by one so they stay visible.
+     */
+    private void drawAggregatedEdges(GraphicsContext gc, double zoom, double maxX, double maxY) {
+        double cell = AGGREGATE_CELL_PX / zoom;
+        Map<Long, int[]> bundles = new HashMap<>();
+        List<SmartGraphEdgeBase<E, V>> emphasized = new ArrayList<>();
+
+        for (SmartGraphEdgeBase<E, V> edge : edges) {
+            if (!isEdgeVisible(edge, maxX, maxY)) {
+                continue;
+            }
+            visibleEdges.add(edge);
+            if (edgeStyle(edge).opacity >= 1) {
+                emphasized.add(edge);
+                continue;
+            }
+            Point2D[] ends = ends(edge);
+            int a = cellKey(ends[0], cell);
+            int b = cellKey(ends[1], cell);
+            if (a == b) {
+                continue;
+            }
+            long key =
+                    a < b
+                            ? ((long) a << 32) | (b & 0xFFFFFFFFL)
+                            : ((long) b << 32) | (a & 0xFFFFFFFFL);
+            int[] count = bundles.get(key);
+            if (count == null) {
+                bundles.put(key, new int[] {1});
+            } else {
+                count[0]++;
+            }
+        }
+
+        gc.setStroke(AGGREGATE_EDGE_COLOR);
+        gc.setLineDashes((double[]) null);
+        gc.setGlobalAlpha(1);
+        for (Map.Entry<Long, int[]> bundle : bundles.entrySet()) {
+            int a = (int) (bundle.getKey() >>> 32);
+            int b = (int) (long) bundle.getKey();
+            double widthPx = 1 + Math.log(bundle.getValue()[0]) / Math.log(2);
+            gc.setLineWidth(widthPx / zoom);
+            gc.strokeLine(
+                    cellCenter((short) (a >> 16), cell),
+                    cellCenter((short) a, cell),
+                    cellCenter((short) (b >> 16), cell),
+                    cellCenter((short) b, cell));
+        }
+
+        for (SmartGraphEdgeBase<E, V> edge : emphasized) {
+            drawEdge(gc, edge, false);
+        }
+    }
+
+    /* Packs the cell column and row into an int; cells 65536 apart share a key */
+    private static int cellKey(Point2D p, double cell) {
+        int col = (int) Math.floor(p.getX() / cell);
+        int row = (int) Math.floor(p.getY() / cell);
+        return (col << 16) | (row & 0xFFFF);
+    }
+
+    private static double cellCenter(short index, double cell) {
+        return (index + 0.5) * cell;
+    }
+
+    private boolean isEdgeVisible(SmartGraphEdgeBase<E, V> edge, double maxX, double maxY) {
+        Point2D[] ends = ends(edge);
+        double minEdgeX = Math.min(ends[0].getX(), ends[1].getX());
+        double maxEdgeX = Math.max(ends[0].getX(), ends[1].getX());
+        double minEdgeY = Math.min(ends[0].getY(), ends[1].getY());
+        double maxEdgeY = Math.max(ends[0].getY(), ends[1].getY());
+        if (edge instanceof QuadCurve) {
+            QuadCurve curve = (QuadCurve) edge;
+            minEdgeX = Math.min(minEdgeX, curve.getControlX());
+            maxEdgeX = Math.max(maxEdgeX, curve.getControlX());
+            minEdgeY = Math.min(minEdgeY, curve.getControlY());
+            maxEdgeY = Math.max(maxEdgeY, curve.getControlY());
+        } else if (edge instanceof CubicCurve) {
+            CubicCurve curve = (CubicCurve) edge;
+            minEdgeX = Math.min(minEdgeX, Math.min(curve.getControlX1(), curve.getControlX2()));
+            maxEdgeX = Math.max(maxEdgeX, Math.max(curve.getControlX1(), curve.getControlX2()));
+            minEdgeY = Math.min(minEdgeY, Math.min(curve.getControlY1(), curve.getControlY2()));
+            maxEdgeY = Math.max(maxEdgeY, Math.max(curve.getControlY1(), curve.getControlY2()));
+        }
+        return maxEdgeX >= viewX && minEdgeX <= maxX && maxEdgeY >= viewY && minEdgeY <= maxY;
+    }
+
+    private static Point2D[] ends(SmartGraphEdgeBase<?, ?> edge) {
+        if (edge instanceof Line) {
+            Line line = (Line) edge;
+            return new Point2D[] {
+                new Point2D(line.getStartX(), line.getStartY()),
+                new Point2D(line.getEndX(), line.getEndY())
+            };
+        } else if (edge instanceof QuadCurve) {
+            QuadCurve curve = (QuadCurve) edge;
+            return new Point2D[] {
+                new Point2D(curve.getStartX(), curve.getStartY()),
+                new Point2D(curve.getEndX(), curve.getEndY())
+            };
+        } else {
+            CubicCurve curve = (CubicCurve) edge;
+            return new Point2D[] {
+                new Point2D(curve.getStartX(), curve.getStartY()),
+                new Point2D(curve.getEndX(), curve.getEndY())
+            };
+        }
+    }
+
+    /* Point at the middle of the edge, where its label goes */
+    private static Point2D midPoint(SmartGraphEdgeBase<?, ?> edge) {
+        if (edge instanceof Line) {
+            Line line = (Line) edge;
+            return new Point2D(
+                    (line.getStartX() + line.getEndX()) / 2,
+                    (line.getStartY() + line.getEndY()) / 2);
+        } else if (edge instanceof QuadCurve) {
+            QuadCurve c = (QuadCurve) edge;
+            return new Point2D(
+                    0.25 * c.getStartX() + 0.5 * c.getControlX() + 0.25 * c.getEndX(),
+                    0.25 * c.getStartY() + 0.5 * c.getControlY() + 0.25 * c.getEndY());
+        } else if (edge instanceof CubicCurve) {
+            CubicCurve c = (CubicCurve) edge;
+            return new Point2D(
+                    0.125 * (c.getStartX() + c.getEndX())
+                            + 0.375 * (c.getControlX1() + c.getControlX2()),
+                    0.125 * (c.getStartY() + c.getEndY())
+                            + 0.375 * (c.getControlY1() + c.getControlY2()));
+        }
+        return null;
+    }
+
+    /* Distance from a point to the edge; curves are approximated by a few segments */
+    private static double distanceToEdge(SmartGraphEdgeBase<?, ?> edge, double x, double y) {
+        if (edge instanceof Line) {
+            Line line = (Line) edge;
+            return distanceToSegment(
+                    x, y, line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
+        }
+
+        final int steps = 16;
+        double distance = Double.MAX_VALUE;
+        Point2D previous = curvePoint(edge, 0);
+        for (int i = 1; i <= steps; i++) {
+            Point2D next = curvePoint(edge, (double) i / steps);
+            distance =
+                    Math.min(
+                            distance,
+                            distanceToSegment(
+                                    x,
+                                    y,
+                                    previous.getX(),
+                                    previous.getY(),
+                                    next.getX(),
+                                    next.getY()));
+            previous = next;
+        }
+        return distance;
+    }
+
+    private static Point2D curvePoint(SmartGraphEdgeBase<?, ?> edge, double t) {
+        double u = 1 - t;
+        if (edge instanceof QuadCurve) {
+            QuadCurve c = (QuadCurve) edge;
+            return new Point2D(
+                    u * u * c.getStartX() + 2 * u * t * c.getControlX() + t * t * c.getEndX(),
+                    u * u * c.getStartY() + 2 * u * t * c.getControlY() + t * t * c.getEndY());
+        }
+        CubicCurve c = (CubicCurve) edge;
+        return new Point2D(
+                u * u * u * c.getStartX()
+                        + 3 * u * u * t * c.getControlX1()
+                        + 3 * u * t * t * c.getControlX2()
+                        + t * t * t * c.getEndX(),
+                u * u * u * c.getStartY()
+                        + 3 * u * u * t * c.getControlY1()
+                        + 3 * u * t * t * c.getControlY2()
+                        + t * t * t * c.getEndY());
+    }
+
+    private static double distanceToSegment(
+            double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / lengthSq;
+        t = Math.max(0, Math.min(1, t));
+        double px = x1 + t * dx - x;
+        double py = y1 + t * dy - y;
+        return Math.sqrt(px * px + py * py);
+    }
+
+    private CanvasStyle getStyle(String css) {
+        return getStyle(styles, css, null);
+    }
+
+    /* Highlighted nodes keep their inline style; the highlight is drawn on top of it */
+    private CanvasStyle vertexStyle(SmartGraphVertexNode<V> vertex) {
+        if (SmartStyleProxy.isHighlighted(vertex)) {
+            return getStyle(
+                    highlightedVertexStyles, vertex.getStyle(), SmartStyleProxy.HIGHLIGHT_VERTEX);
+        }
+        return getStyle(vertex.getStyle());
+    }
+
+    private CanvasStyle edgeStyle(SmartGraphEdgeBase<E, V> edge) {
+        Node node = (Node) edge;
+        if (SmartStyleProxy.isHighlighted(node)) {
+            return getStyle(
+                    highlightedEdgeStyles, node.getStyle(), SmartStyleProxy.HIGHLIGHT_EDGE);
+        }
+        return getStyle(node.getStyle());
+    }
+
+    private static CanvasStyle getStyle(
+            Map<String, CanvasStyle> cache, String css, String overlay) {
+        String key = css == null ? "" : css;
+        CanvasStyle style = cache.get(key);
+        if (style == null) {
+            if (cache.size() >= STYLE_CACHE_SIZE) {
+                cache.clear();
+            }
+            style = CanvasStyle.parse(overlay == null ? key : key + ";" + overlay);
+            cache.put(key, style);
+        }
+        return style;
+    }
+
+    /**
+     * The properties of an inline style, as set through {@link SmartStyleProxy}, that the canvas
+     * can draw. Unknown properties and values are ignored.
+     */
+    static final class CanvasStyle {
+        Color fill = Color.BLACK;
+        Color stroke = null;
+        double strokeWidth = 1;
+        double[] dashes = null;
+        double opacity = 1;
+        double fontSize = 0;
+        private Font boldFont;
+        private Font normalFont;
+
+        static CanvasStyle parse(String css) {
+            CanvasStyle style = new CanvasStyle();
+            for (String declaration : css.split(";")) {
+                int colon = declaration.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = declaration.substring(0, colon).trim();
+                String value = declaration.substring(colon + 1).trim();
+                try {
+                    switch (name) {
+                        case "-fx-fill":
+                            style.fill = "transparent".equals(value) ? null : Color.web(value);
+                            break;
+                        case "-fx-stroke":
+                            style.stroke = Color.web(value);
+                            break;
+                        case "-fx-stroke-width":
+                            style.strokeWidth = Double.parseDouble(value);
+                            break;
+                        case "-fx-stroke-dash-array":
+                            String[] parts = value.split("\\s+");
+                            style.dashes = new double[parts.length];
+                            for (int i = 0; i < parts.length; i++) {
+                                style.dashes[i] = Double.parseDouble(parts[i]);
+                            }
+                            break;
+                        case "-fx-opacity":
+                            style.opacity = Double.parseDouble(value);
+                            break;
+                        case "-fx-font":
+                            // e.g. bold 8pt "sans-serif"
+                            for (String token : value.split("\\s+")) {
+                                if (token.endsWith("pt")) {
+                                    style.fontSize =
+                                            Double.parseDouble(
+                                                            token.substring(0, token.length() - 2))
+                                                    * POINT_TO_PIXEL;
+                                }
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // keep the default of a malformed value
+                }
+            }
+            return style;
+        }
+
+        Font getFont(boolean bold) {
+            if (bold) {
+                if (boldFont == null) {
+                    boldFont =
+                            Font.font(
+                                    "sans-serif",
+                                    FontWeight.BOLD,
+                                    fontSize > 0
+                                            ? fontSize
+                                            : SmartStyleProxy.DEFAULT_VERTEX_LABEL_SIZE
+                                                    * POINT_TO_PIXEL);
+                }
+                return boldFont;
+            }
+            if (normalFont == null) {
+                normalFont =
+                        Font.font(
+                                "sans-serif",
+                                FontWeight.NORMAL,
+                                fontSize > 0
+                                        ? fontSize
+                                        : SmartStyleProxy.DEFAULT_EDGE_LABEL_SIZE
+                                                * POINT_TO_PIXEL);
+            }
+            return normalFont;
+        }
+    }
+
+    /**
+     * Uniform grid of the vertices, used for viewport culling and hit-testing. Cells are at least
+     * as large as the widest vertex, so a vertex containing a point has its center in the cell of
+     * the point or in one of the eight around it.
+     */
+    static final class VertexGrid<V> {
+        private static final double MIN_CELL_SIZE = 16;
+
+        private final Map<Long, List<SmartGraphVertexNode<V>>> cells = new HashMap<>();
+        private double cellSize = MIN_CELL_SIZE;
+
+        void build(Collection<SmartGraphVertexNode<V>> vertices) {
+            cells.clear();
+            double maxRadius = 0;
+            for (SmartGraphVertexNode<V> vertex : vertices) {
+                maxRadius = Math.max(maxRadius, vertex.getRadius());
+            }
+            cellSize = Math.max(MIN_CELL_SIZE, maxRadius * 2);
+            for (SmartGraphVertexNode<V> vertex : vertices) {
+                long key = key(cell(vertex.getCenterX()), cell(vertex.getCenterY()));
+                List<SmartGraphVertexNode<V>> list = cells.get(key);
+                if (list == null) {
+                    list = new ArrayList<>(4);
+                    cells.put(key, list);
+                }
+                list.add(vertex);
+            }
+        }
+
+        /* Returns the vertex containing the point, the closest one if several do */
+        SmartGraphVertexNode<V> find(double x, double y) {
+            int col = cell(x);
+            int row = cell(y);
+            SmartGraphVertexNode<V> best = null;
+            double bestDistance = Double.MAX_VALUE;
+            for (int c = col - 1; c <= col + 1; c++) {
+                for (int r = row - 1; r <= row + 1; r++) {
+                    List<SmartGraphVertexNode<V>> list = cells.get(key(c, r));
+                    if (list == null) {
+                        continue;
+                    }
+                    for (SmartGraphVertexNode<V> vertex : list) {
+                        double dx = vertex.getCenterX() - x;
+                        double dy = vertex.getCenterY() - y;
+                        double distance = dx * dx + dy * dy;
+                        double radius = vertex.getRadius();
+                        if (distance <= radius * radius && distance < bestDistance) {
+                            best = vertex;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /* Adds the vertices that may overlap a rectangle */
+        List<SmartGraphVertexNode<V>> query(
+                double minX,
+                double minY,
+                double maxX,
+                double maxY,
+                List<SmartGraphVertexNode<V>> result) {
+            int minCol = cell(minX) - 1;
+            int maxCol = cell(maxX) + 1;
+            int minRow = cell(minY) - 1;
+            int maxRow = cell(maxY) + 1;
+            long area = (long) (maxCol - minCol + 1) * (maxRow - minRow + 1);
+            if (area > cells.size()) {
+                // zoomed out: fewer occupied cells than cells in the viewport
+                for (Map.Entry<Long, List<SmartGraphVertexNode<V>>> entry : cells.entrySet()) {
+                    int col = (int) (entry.getKey() >> 32);
+                    int row = (int) (long) entry.getKey();
+                    if (col >= minCol && col <= maxCol && row >= minRow && row <= maxRow) {
+                        result.addAll(entry.getValue());
+                    }
+                }
+            } else {
+                for (int c = minCol; c <= maxCol; c++) {
+                    for (int r = minRow; r <= maxRow; r++) {
+                        List<SmartGraphVertexNode<V>> list = cells.get(key(c, r));
+                        if (list != null) {
+                            result.addAll(list);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int cell(double coordinate) {
+            return (int) Math.floor(coordinate / cellSize);
+        }
+
+        private static long key(int col, int row) {
+            return ((long) col << 32) | (row & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -97,6 +97,7 @@ public class SmartGraphEdgeCurve<E, V> extends QuadCurve implements SmartGraphEd
         this.underlyingEdge = edge;
 
         styleProxy = new SmartStyleProxy(this);
+        styleProxy.addStyleClass(SmartStyleProxy.EDGE_CLASS);
         styleProxy.setStyle(SmartStyleProxy.DEFAULT_EDGE);
 
         // bind start and end positions to vertices centers through properties
@@ -79,7 +79,7 @@ public class SmartGraphEdgeCurveSelf<E, V> extends CubicCurve implements SmartGr
         this.underlyingEdge = edge;
 
         styleProxy = new SmartStyleProxy(this);
-        // styleProxy.addStyleClass("edge");
+        styleProxy.addStyleClass(SmartStyleProxy.EDGE_CLASS);
         styleProxy.setStyle(SmartStyleProxy.DEFAULT_EDGE);
 
         // bind start and end positions to vertices centers through properties
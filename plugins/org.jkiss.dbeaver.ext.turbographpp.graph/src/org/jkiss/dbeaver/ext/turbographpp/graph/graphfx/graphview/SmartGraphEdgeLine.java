@@ -64,7 +64,7 @@ public class SmartGraphEdgeLine<E, V> extends Line implements SmartGraphEdgeBase
         this.underlyingEdge = edge;
 
         styleProxy = new SmartStyleProxy(this);
-        // styleProxy.addStyleClass("edge");
+        styleProxy.addStyleClass(SmartStyleProxy.EDGE_CLASS);
         styleProxy.setStyle(SmartStyleProxy.DEFAULT_EDGE);
 
         // bind start and end positions to vertices centers through properties
@@ -25,17 +25,17 @@
 package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview;
 
 import static org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.UtilitiesJavaFX.pick;
-import static org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.UtilitiesPoint2D.attractiveForce;
-import static org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.UtilitiesPoint2D.repellingForce;
 
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -50,16 +50,19 @@ import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
+import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Text;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
@@ -67,6 +70,12 @@ import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Graph;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartBarnesHutForceLayout;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartForceLayout;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartLayoutModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartLayoutSnapshot;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartLayoutWorker;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartSpringForceLayout;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartPlacementStrategy;
 import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartRandomPlacementStrategy;
 
@@ -95,11 +104,10 @@ public class SmartGraphPanel<V, E> extends Pane {
     private final Graph<V, E> theGraph;
     private final SmartPlacementStrategy placementStrategy;
     private final Map<Vertex<V>, SmartGraphVertexNode<V>> vertexNodes;
-    private final Map<FxEdge<E, V>, SmartGraphEdgeBase> edgeNodes;
-    private final Map<String, SmartGraphEdgeBase> edgeNodesForID;
+    private final Map<FxEdge<E, V>, SmartGraphEdgeBase<E, V>> edgeNodes;
+    private final Map<String, SmartGraphEdgeBase<E, V>> edgeNodesForID;
     private Map<FxEdge<E, V>, Tuple<Vertex<V>>> connections;
     private final Map<Tuple<SmartGraphVertexNode>, Integer> placedEdges = new HashMap<>();
-    private Set<Vertex<V>> visitedVertexList = new HashSet<>();
     private boolean initialized = false;
     private final boolean edgesWithArrows;
 
@@ -119,14 +127,46 @@ public class SmartGraphPanel<V, E> extends Pane {
      */
     public final BooleanProperty automaticLayoutProperty;
     private AnimationTimer timer;
-    private final double repulsionForce;
-    private final double attractionForce;
-    private final double attractionScale;
+    private final SmartForceLayout springLayout;
+    private final SmartForceLayout barnesHutLayout;
+    private SmartForceLayout forceLayout = null;
+    private SmartLayoutWorker layoutWorker = null;
+    private final List<SmartGraphVertexNode<V>> layoutVertices = new ArrayList<>();
+    private boolean layoutModelDirty = true;
+    private long layoutVersion = 0;
+    // positions last set by the automatic layout, to detect vertices moved by the user
+    private double[] layoutX = new double[0];
+    private double[] layoutY = new double[0];
+    // vertices put back at a remembered position, left in place by the next automatic layout
+    private final Set<SmartGraphVertexNode<V>> pinnedVertices = new HashSet<>();
+
+    // Steps in a row under the convergence threshold before the automatic layout stops
+    private static final int AUTOMATIC_LAYOUT_STABLE_FRAMES = 30;
 
-    // This value was obtained experimentally
-    private static final int AUTOMATIC_LAYOUT_ITERATIONS = 10;
+    /*
+    RENDERING
+     */
+    /** How the graph is drawn: a scene graph node per element, or a single canvas. */
+    public enum RenderMode {
+        NODES,
+        CANVAS
+    }
 
+    private RenderMode renderMode = RenderMode.NODES;
+    private SmartGraphCanvasRenderer<V, E> canvasRenderer = null;
+    private final InvalidationListener canvasInvalidation = observable -> invalidateCanvas();
+    // vertex dragged with the mouse in canvas mode
+    private SmartGraphVertexNode<V> canvasDragVertex = null;
+    private double canvasDragDeltaX = 0;
+    private double canvasDragDeltaY = 0;
+
+    /*
+    HIGHLIGHT
+     */
     private Vertex<V> highlighNode = null;
+    private final Set<SmartGraphVertexNode<V>> highlightedVertices = new HashSet<>();
+    private final Set<SmartGraphEdgeBase<E, V>> highlightedEdges = new HashSet<>();
+    private int highlightDepth;
 
     private double vertexPosionX = 0;
     private double vertexPosionY = 0;
@@ -208,16 +248,26 @@ public class SmartGraphPanel<V, E> extends Pane {
                 placementStrategy != null ? placementStrategy : new SmartRandomPlacementStrategy();
 
         this.edgesWithArrows = this.graphProperties.getUseEdgeArrow();
-
-        this.repulsionForce = this.graphProperties.getRepulsionForce();
-        this.attractionForce = this.graphProperties.getAttractionForce();
-        this.attractionScale = this.graphProperties.getAttractionScale();
+        this.highlightDepth = this.graphProperties.getHighlightDepth();
+
+        this.springLayout =
+                new SmartSpringForceLayout(
+                        graphProperties.getRepulsionForce(),
+                        graphProperties.getAttractionForce(),
+                        graphProperties.getAttractionScale());
+        this.barnesHutLayout =
+                new SmartBarnesHutForceLayout(
+                        graphProperties.getRepulsionForce(),
+                        graphProperties.getAttractionForce(),
+                        graphProperties.getAttractionScale(),
+                        graphProperties.getBarnesHutTheta());
 
         vertexNodes = new HashMap<>();
         edgeNodes = new HashMap<>();
         edgeNodesForID = new HashMap<>();
         connections = new HashMap<>();
 
+        getStylesheets().add(SmartStyleProxy.HIGHLIGHT_STYLESHEET);
         enableMouseListener();
 
         // automatic layout initializations
@@ -234,20 +284,240 @@ public class SmartGraphPanel<V, E> extends Pane {
         this.automaticLayoutProperty.addListener(
                 (observable, oldValue, newValue) -> {
                     if (newValue) {
+                        // vertices may have been placed while the layout was off
+                        layoutModelDirty = true;
+                        getLayoutWorker().start();
                         timer.start();
                     } else {
                         timer.stop();
+                        if (layoutWorker != null) {
+                            layoutWorker.stop();
+                        }
+                        // later layouts, asked by the user, move every vertex
+                        if (!pinnedVertices.isEmpty()) {
+                            pinnedVertices.clear();
+                            layoutModelDirty = true;
+                        }
                     }
                 });
     }
 
+    /**
+     * Called every frame while the automatic layout is on. The simulation itself runs on the
+     * {@link SmartLayoutWorker}; this only feeds it the changes made on the UI side and applies
+     * the latest computed positions.
+     */
     private synchronized void runLayoutIteration() {
-        for (int i = 0; i < AUTOMATIC_LAYOUT_ITERATIONS; i++) {
-            resetForces();
-            computeForces();
-            updateForces();
+        if (vertexNodes.isEmpty()) {
+            return;
+        }
+
+        SmartLayoutWorker worker = getLayoutWorker();
+        if (layoutModelDirty) {
+            submitLayoutModel(worker);
+        } else {
+            submitMovedVertices(worker);
+        }
+        worker.setBounds(getLayoutBounds().getWidth(), getLayoutBounds().getHeight());
+
+        SmartLayoutSnapshot snapshot = worker.poll();
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            if (snapshot.getVersion() != layoutVersion) {
+                // computed for a model that was replaced since, its convergence means nothing
+                return;
+            }
+            double[] x = snapshot.x();
+            double[] y = snapshot.y();
+            for (int i = 0; i < layoutVertices.size(); i++) {
+                SmartGraphVertexNode<V> v = layoutVertices.get(i);
+                v.setPosition(x[i], y[i]);
+                layoutX[i] = v.getCenterX();
+                layoutY[i] = v.getCenterY();
+            }
+            // stop the timer once the simulation has settled
+            if (snapshot.isConverged()) {
+                setAutomaticLayout(false);
+            }
+        } finally {
+            worker.release(snapshot);
+        }
+    }
+
+    private SmartLayoutWorker getLayoutWorker() {
+        if (layoutWorker == null) {
+            layoutWorker =
+                    new SmartLayoutWorker(
+                            graphProperties.getConvergenceThreshold(),
+                            AUTOMATIC_LAYOUT_STABLE_FRAMES);
+        }
+        return layoutWorker;
+    }
+
+    /**
+     * Hands a new model of the plotted vertices, with their current positions and adjacency, to
+     * the layout worker.
+     */
+    private void submitLayoutModel(SmartLayoutWorker worker) {
+        layoutVertices.clear();
+        layoutVertices.addAll(vertexNodes.values());
+        int size = layoutVertices.size();
+
+        Map<SmartGraphVertexNode<V>, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < size; i++) {
+            index.put(layoutVertices.get(i), i);
+        }
+
+        int[] adjacencyStart = new int[size + 1];
+        List<Integer> adjacency = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (SmartGraphVertexNode<V> adjacent : layoutVertices.get(i).getAdjacentVertices()) {
+                Integer j = index.get(adjacent);
+                if (j != null) {
+                    adjacency.add(j);
+                }
+            }
+            adjacencyStart[i + 1] = adjacency.size();
+        }
+
+        SmartLayoutModel model = new SmartLayoutModel();
+        model.resize(size);
+        model.setAdjacency(
+                adjacencyStart, adjacency.stream().mapToInt(Integer::intValue).toArray());
+        model.setBounds(getLayoutBounds().getWidth(), getLayoutBounds().getHeight());
+
+        layoutX = new double[size];
+        layoutY = new double[size];
+        for (int i = 0; i < size; i++) {
+            SmartGraphVertexNode<V> v = layoutVertices.get(i);
+            model.setVertex(i, v.getCenterX(), v.getCenterY(), v.getRadius());
+            model.setFixed(i, pinnedVertices.contains(v));
+            layoutX[i] = v.getCenterX();
+            layoutY[i] = v.getCenterY();
+        }
+
+        worker.submit(model, selectForceLayout(size), ++layoutVersion);
+        layoutModelDirty = false;
+    }
+
+    /** Forwards to the layout worker the vertices moved by the user since the last frame. */
+    private void submitMovedVertices(SmartLayoutWorker worker) {
+        for (int i = 0; i < layoutVertices.size(); i++) {
+            SmartGraphVertexNode<V> v = layoutVertices.get(i);
+            if (v.getCenterX() != layoutX[i] || v.getCenterY() != layoutY[i]) {
+                layoutX[i] = v.getCenterX();
+                layoutY[i] = v.getCenterY();
+                worker.moveVertex(layoutVersion, i, layoutX[i], layoutY[i]);
+            }
+        }
+    }
+
+    private SmartForceLayout selectForceLayout(int vertexCount) {
+        if (forceLayout != null) {
+            return forceLayout;
+        }
+
+        switch (graphProperties.getLayoutEngine()) {
+            case SmartGraphProperties.LAYOUT_ENGINE_SPRING:
+                return springLayout;
+            case SmartGraphProperties.LAYOUT_ENGINE_BARNES_HUT:
+                return barnesHutLayout;
+            default:
+                return vertexCount >= graphProperties.getBarnesHutMinVertices()
+                        ? barnesHutLayout
+                        : springLayout;
+        }
+    }
+
+    /**
+     * Sets the force-directed engine used by the automatic layout.
+     *
+     * @param forceLayout engine to use, null to pick one from the {@link SmartGraphProperties}
+     */
+    public synchronized void setForceLayout(SmartForceLayout forceLayout) {
+        this.forceLayout = forceLayout;
+        this.layoutModelDirty = true;
+    }
+
+    /**
+     * Returns how the graph is drawn.
+     *
+     * @return render mode
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Switches between one scene graph node per element and a single canvas. In canvas mode the
+     * vertex and edge nodes are kept, with their styles and labels, but are not part of the scene.
+     *
+     * @param mode render mode
+     * @see SmartGraphProperties#getCanvasMinElements()
+     */
+    public void setRenderMode(RenderMode mode) {
+        if (mode == renderMode) {
+            return;
+        }
+        renderMode = mode;
+        canvasDragVertex = null;
+
+        this.getChildren().clear();
+        if (mode == RenderMode.CANVAS) {
+            attachCanvas();
+        } else {
+            if (canvasRenderer != null) {
+                canvasRenderer.stop();
+            }
+            for (SmartGraphEdgeBase<E, V> e : edgeNodes.values()) {
+                addChildToBack((Node) e);
+                if (e.getAttachedArrow() != null) {
+                    addChild(e.getAttachedArrow());
+                }
+                if (e.getAttachedLabel() != null) {
+                    addChild(e.getAttachedLabel());
+                }
+            }
+            for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+                addChild(v);
+                if (v.getAttachedLabel() != null) {
+                    addChild(v.getAttachedLabel());
+                }
+            }
+        }
+    }
+
+    private void attachCanvas() {
+        if (canvasRenderer == null) {
+            canvasRenderer =
+                    new SmartGraphCanvasRenderer<>(
+                            this, vertexNodes.values(), edgeNodes.values(), graphProperties);
+        }
+        if (!this.getChildren().contains(canvasRenderer.getCanvas())) {
+            this.getChildren().add(canvasRenderer.getCanvas());
+        }
+        canvasRenderer.start();
+    }
+
+    private void invalidateCanvas() {
+        if (renderMode == RenderMode.CANVAS && canvasRenderer != null) {
+            canvasRenderer.invalidate();
+        }
+    }
+
+    /* Scene graph children are only used in nodes mode */
+    private void addChild(Node node) {
+        if (renderMode == RenderMode.NODES) {
+            this.getChildren().add(node);
+        }
+    }
+
+    private void addChildToBack(Node node) {
+        if (renderMode == RenderMode.NODES) {
+            this.getChildren().add(0, node);
         }
-        applyForces();
     }
 
     /**
@@ -277,6 +547,10 @@ public class SmartGraphPanel<V, E> extends Pane {
             // throw new IllegalStateException("Already initialized. Use update() method instead.");
         }
 
+        if (renderMode == RenderMode.CANVAS) {
+            attachCanvas();
+        }
+
         initNodes();
 
         if (placementStrategy != null) {
@@ -292,12 +566,47 @@ public class SmartGraphPanel<V, E> extends Pane {
                             this.vertexNodes.values());
 
             // start automatic layout
-            timer.start();
+            setAutomaticLayout(true);
         }
+        restorePositions();
 
         this.initialized = true;
     }
 
+    /*
+     * Moves the vertices of nodes with a last position back there and pins them, so the automatic
+     * layout only places the other vertices.
+     */
+    private void restorePositions() {
+        pinnedVertices.clear();
+        for (SmartGraphVertexNode<V> vertexNode : vertexNodes.values()) {
+            Object element = vertexNode.getUnderlyingVertex().element();
+            if (element instanceof CypherNode) {
+                CypherNode node = (CypherNode) element;
+                if (node.getLastPositionX() != -1 && node.getLastPositionY() != -1) {
+                    vertexNode.setPosition(node.getLastPositionX(), node.getLastPositionY());
+                    pinnedVertices.add(vertexNode);
+                }
+            }
+        }
+        layoutModelDirty = true;
+    }
+
+    /**
+     * Moves the vertices whose nodes got a last position after the panel was initialized, and
+     * pins them like {@link #init()} does.
+     */
+    public void restoreLastPositions() {
+        if (initialized) {
+            restorePositions();
+        }
+    }
+
+    /** Returns the number of vertices kept at their remembered position by the next layout. */
+    public int getPinnedVertexCount() {
+        return pinnedVertices.size();
+    }
+
     /**
      * Returns the property used to toggle the automatic layout of vertices.
      *
@@ -397,6 +706,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         removeNodes();
         insertNodes();
         // updateLabels();
+        invalidateCanvas();
     }
 
     public synchronized void updateLabel() {
@@ -440,6 +750,7 @@ public class SmartGraphPanel<V, E> extends Pane {
     NODES CREATION/UPDATES
      */
     private void initNodes() {
+        layoutModelDirty = true;
         double radius = 0;
         /* create vertex graphical representations */
         for (Vertex<V> vertex : listOfVertices()) {
@@ -481,7 +792,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 graphVertexIn.addAdjacentVertex(graphVertexOppositeOut);
                 graphVertexOppositeOut.addAdjacentVertex(graphVertexIn);
 
-                SmartGraphEdgeBase graphEdge =
+                SmartGraphEdgeBase<E, V> graphEdge =
                         createEdge(edge, graphVertexIn, graphVertexOppositeOut);
 
                 /* Track Edges already placed */
@@ -491,7 +802,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 if (this.edgesWithArrows) {
                     SmartArrow arrow = new SmartArrow(this.graphProperties.getEdgeArrowSize());
                     graphEdge.attachArrow(arrow);
-                    this.getChildren().add(arrow);
+                    addChild(arrow);
                 }
 
                 edgesToPlace.remove(edge);
@@ -506,7 +817,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         }
     }
 
-    private SmartGraphEdgeBase createEdge(
+    private SmartGraphEdgeBase<E, V> createEdge(
             FxEdge<E, V> edge,
             SmartGraphVertexNode<V> graphVertexInbound,
             SmartGraphVertexNode<V> graphVertexOutbound) {
@@ -519,7 +830,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         if (counter != null) {
             edgeIndex = counter;
         }
-        SmartGraphEdgeBase graphEdge;
+        SmartGraphEdgeBase<E, V> graphEdge;
 
         if (getTotalEdgesBetween(
                         graphVertexInbound.getUnderlyingVertex(),
@@ -527,11 +838,11 @@ public class SmartGraphPanel<V, E> extends Pane {
                 > 1) {
             if (graphVertexInbound == graphVertexOutbound) {
                 graphEdge =
-                        new SmartGraphEdgeCurveSelf(
+                        new SmartGraphEdgeCurveSelf<>(
                                 edge, graphVertexInbound, graphVertexOutbound, edgeIndex);
             } else {
                 graphEdge =
-                        new SmartGraphEdgeCurve(
+                        new SmartGraphEdgeCurve<>(
                                 edge, graphVertexInbound, graphVertexOutbound, edgeIndex);
             }
         } else {
@@ -544,7 +855,11 @@ public class SmartGraphPanel<V, E> extends Pane {
     }
 
     private void addVertex(SmartGraphVertexNode<V> v) {
-        this.getChildren().add(v);
+        addChild(v);
+        v.centerXProperty().addListener(canvasInvalidation);
+        v.centerYProperty().addListener(canvasInvalidation);
+        v.radiusProperty().addListener(canvasInvalidation);
+        v.styleProperty().addListener(canvasInvalidation);
 
         String labelText = generateVertexLabel(v.getUnderlyingVertex().element());
 
@@ -558,7 +873,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
             // label.addStyleClass("vertex-label");
             label.setStyle(SmartStyleProxy.DEFAULT_VERTEX_LABEL);
-            this.getChildren().add(label);
+            addChild(label);
             v.attachLabel(label);
         }
 
@@ -569,9 +884,10 @@ public class SmartGraphPanel<V, E> extends Pane {
         }
     }
 
-    private void addEdge(SmartGraphEdgeBase e, FxEdge<E, V> edge) {
+    private void addEdge(SmartGraphEdgeBase<E, V> e, FxEdge<E, V> edge) {
         // edges to the back
-        this.getChildren().add(0, (Node) e);
+        addChildToBack((Node) e);
+        ((Node) e).styleProperty().addListener(canvasInvalidation);
         edgeNodes.put(edge, e);
         if (e.getUnderlyingEdge().element() instanceof CypherEdge) {
             CypherEdge tempElement = (CypherEdge) e.getUnderlyingEdge().element();
@@ -590,12 +906,13 @@ public class SmartGraphPanel<V, E> extends Pane {
 
             // label.addStyleClass("edge-label");
             label.setStyle(SmartStyleProxy.DEFAULT_EDGE_LABEL);
-            this.getChildren().add(label);
+            addChild(label);
             e.attachLabel(label);
         }
     }
 
     private void insertNodes() {
+        layoutModelDirty = true;
         Collection<Vertex<V>> unplottedVertices = unplottedVertices();
 
         List<SmartGraphVertexNode<V>> newVertices = null;
@@ -694,12 +1011,12 @@ public class SmartGraphPanel<V, E> extends Pane {
                 graphVertexOut.addAdjacentVertex(graphVertexIn);
                 graphVertexIn.addAdjacentVertex(graphVertexOut);
 
-                SmartGraphEdgeBase graphEdge = createEdge(edge, graphVertexIn, graphVertexOut);
+                SmartGraphEdgeBase<E, V> graphEdge = createEdge(edge, graphVertexIn, graphVertexOut);
 
                 if (this.edgesWithArrows) {
                     SmartArrow arrow = new SmartArrow(this.graphProperties.getEdgeArrowSize());
                     graphEdge.attachArrow(arrow);
-                    this.getChildren().add(arrow);
+                    addChild(arrow);
                 }
 
                 /* Track edges */
@@ -716,10 +1033,11 @@ public class SmartGraphPanel<V, E> extends Pane {
     }
 
     private void removeNodes() {
+        layoutModelDirty = true;
         // remove edges (graphical elements) that were removed from the underlying graph
         Collection<FxEdge<E, V>> removedEdges = removedEdges();
         for (FxEdge<E, V> e : removedEdges) {
-            SmartGraphEdgeBase edgeToRemove = edgeNodes.get(e);
+            SmartGraphEdgeBase<E, V> edgeToRemove = edgeNodes.get(e);
             edgeNodes.remove(e);
             removeEdge(edgeToRemove); // remove from panel
 
@@ -742,12 +1060,14 @@ public class SmartGraphPanel<V, E> extends Pane {
         Collection<Vertex<V>> removedVertices = removedVertices();
         for (Vertex<V> removedVertex : removedVertices) {
             SmartGraphVertexNode<V> removed = vertexNodes.remove(removedVertex);
+            pinnedVertices.remove(removed);
             removeVertex(removed);
         }
     }
 
-    private void removeEdge(SmartGraphEdgeBase e) {
+    private void removeEdge(SmartGraphEdgeBase<E, V> e) {
         getChildren().remove((Node) e);
+        highlightedEdges.remove(e);
 
         SmartArrow attachedArrow = e.getAttachedArrow();
         if (attachedArrow != null) {
@@ -762,6 +1082,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
     private void removeVertex(SmartGraphVertexNode v) {
         getChildren().remove(v);
+        highlightedVertices.remove(v);
 
         Text attachedLabel = v.getAttachedLabel();
         if (attachedLabel != null) {
@@ -787,7 +1108,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         theGraph.edges()
                 .forEach(
                         (e) -> {
-                            SmartGraphEdgeBase edgeNode = edgeNodes.get(e);
+                            SmartGraphEdgeBase<E, V> edgeNode = edgeNodes.get(e);
                             if (edgeNode != null) {
                                 SmartLabel label = edgeNode.getAttachedLabel();
                                 if (label != null) {
@@ -796,6 +1117,8 @@ public class SmartGraphPanel<V, E> extends Pane {
                                 }
                             }
                         });
+
+        invalidateCanvas();
     }
 
     /** Updates All Edge Arrow For changed radius. */
@@ -803,7 +1126,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         theGraph.edges()
                 .forEach(
                         (e) -> {
-                            SmartGraphEdgeBase edgeNode = edgeNodes.get(e);
+                            SmartGraphEdgeBase<E, V> edgeNode = edgeNodes.get(e);
                             if (edgeNode != null) {
                                 edgeNode.updateArrowPosition();
                             }
@@ -881,82 +1204,6 @@ public class SmartGraphPanel<V, E> extends Pane {
         return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
     }
 
-    /*
-     * AUTOMATIC LAYOUT
-     */
-    private void computeForces() {
-        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
-            for (SmartGraphVertexNode<V> other : vertexNodes.values()) {
-                if (v == other) {
-                    continue; // NOP
-                }
-
-                // double k = Math.sqrt(getWidth() * getHeight() / graphVertexMap.size());
-                Point2D repellingForce =
-                        repellingForce(
-                                v.getUpdatedPosition(),
-                                other.getUpdatedPosition(),
-                                this.repulsionForce);
-
-                double deltaForceX = 0, deltaForceY = 0;
-
-                // compute attractive and reppeling forces
-                // opt to use internal areAdjacent check, because a vertex can be removed from
-                // the underlying graph before we have the chance to remove it from our
-                // internal data structure
-                if (areAdjacent(v, other)) {
-
-                    Point2D attractiveForce =
-                            attractiveForce(
-                                    v.getUpdatedPosition(),
-                                    other.getUpdatedPosition(),
-                                    vertexNodes.size(),
-                                    this.attractionForce,
-                                    this.attractionScale);
-
-                    deltaForceX = attractiveForce.getX() + repellingForce.getX();
-                    deltaForceY = attractiveForce.getY() + repellingForce.getY();
-                } else {
-                    deltaForceX = repellingForce.getX();
-                    deltaForceY = repellingForce.getY();
-                }
-
-                v.addForceVector(deltaForceX, deltaForceY);
-            }
-        }
-    }
-
-    private boolean areAdjacent(SmartGraphVertexNode<V> v, SmartGraphVertexNode<V> u) {
-        return v.isAdjacentTo(u);
-    }
-
-    private void updateForces() {
-        vertexNodes
-                .values()
-                .forEach(
-                        (v) -> {
-                            v.updateDelta();
-                        });
-    }
-
-    private void applyForces() {
-        vertexNodes
-                .values()
-                .forEach(
-                        (v) -> {
-                            v.moveFromForces();
-                        });
-    }
-
-    private void resetForces() {
-        vertexNodes
-                .values()
-                .forEach(
-                        (v) -> {
-                            v.resetForces();
-                        });
-    }
-
     private int getTotalEdgesBetween(Vertex<V> v, Vertex<V> u) {
         // TODO: It may be necessary to adjust this method if you use another Graph
         // variant, e.g., Digraph (directed graph)
@@ -1035,9 +1282,9 @@ public class SmartGraphPanel<V, E> extends Pane {
         List<FxEdge<E, V>> removed = new LinkedList<>();
 
         Collection<FxEdge<E, V>> graphEdges = theGraph.edges();
-        Collection<SmartGraphEdgeBase> plotted = edgeNodes.values();
+        Collection<SmartGraphEdgeBase<E, V>> plotted = edgeNodes.values();
 
-        for (SmartGraphEdgeBase e : plotted) {
+        for (SmartGraphEdgeBase<E, V> e : plotted) {
             if (!graphEdges.contains(e.getUnderlyingEdge())) {
                 removed.add(e.getUnderlyingEdge());
             }
@@ -1180,12 +1427,12 @@ public class SmartGraphPanel<V, E> extends Pane {
      * @return stylable element (label)
      */
     public SmartStylableNode getStylableLabel(FxEdge<E, V> e) {
-        SmartGraphEdgeBase edge = edgeNodes.get(e);
+        SmartGraphEdgeBase<E, V> edge = edgeNodes.get(e);
 
         return edge != null ? edge.getStylableLabel() : null;
     }
 
-    public SmartGraphEdgeBase getGraphEdgeBase(String eID) {
+    public SmartGraphEdgeBase<E, V> getGraphEdgeBase(String eID) {
         return edgeNodesForID.get(eID);
     }
 
@@ -1212,11 +1459,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 (mouseEvent) -> {
                     if (mouseEvent.getButton().equals(MouseButton.PRIMARY)) {
 
-                        Node node =
-                                pick(
-                                        SmartGraphPanel.this,
-                                        mouseEvent.getSceneX(),
-                                        mouseEvent.getSceneY());
+                        Node node = pickNode(mouseEvent.getSceneX(), mouseEvent.getSceneY());
 
                         if (node == null) {
                             return;
@@ -1266,12 +1509,80 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         setOnMouseMoved(
                 (mouseEvent) -> {
-                    Node node = mouseEvent.getPickResult().getIntersectedNode();
+                    Node node;
+                    if (renderMode == RenderMode.CANVAS) {
+                        node = pickNode(mouseEvent.getSceneX(), mouseEvent.getSceneY());
+                        setCursor(node instanceof SmartGraphVertex ? Cursor.HAND : null);
+                    } else {
+                        node = mouseEvent.getPickResult().getIntersectedNode();
+                    }
                     if (node instanceof SmartGraphVertex) {
                         vertexPosionX = ((SmartGraphVertex) node).getPositionCenterX();
                         vertexPosionY = ((SmartGraphVertex) node).getPositionCenterY();
                     }
                 });
+
+        enableCanvasDrag();
+    }
+
+    /* Topmost vertex or edge at a scene position */
+    private Node pickNode(double sceneX, double sceneY) {
+        if (renderMode == RenderMode.CANVAS && canvasRenderer != null) {
+            return canvasRenderer.pick(sceneX, sceneY);
+        }
+        return pick(SmartGraphPanel.this, sceneX, sceneY);
+    }
+
+    /*
+     * Vertices drag themselves in nodes mode; in canvas mode they are not in the scene, so the
+     * panel drags the vertex under the mouse.
+     */
+    private void enableCanvasDrag() {
+        addEventHandler(
+                MouseEvent.MOUSE_PRESSED,
+                (mouseEvent) -> {
+                    if (renderMode != RenderMode.CANVAS
+                            || !mouseEvent.isPrimaryButtonDown()
+                            || !graphProperties.getVertexAllowUserMove()) {
+                        return;
+                    }
+                    Node node = pickNode(mouseEvent.getSceneX(), mouseEvent.getSceneY());
+                    if (node instanceof SmartGraphVertexNode) {
+                        canvasDragVertex =
+                                vertexNodes.get(
+                                        ((SmartGraphVertexNode<?>) node).getUnderlyingVertex());
+                        canvasDragDeltaX = canvasDragVertex.getCenterX() - mouseEvent.getX();
+                        canvasDragDeltaY = canvasDragVertex.getCenterY() - mouseEvent.getY();
+                        setCursor(Cursor.MOVE);
+                        mouseEvent.consume();
+                    }
+                });
+
+        addEventHandler(
+                MouseEvent.MOUSE_DRAGGED,
+                (mouseEvent) -> {
+                    if (canvasDragVertex == null || !mouseEvent.isPrimaryButtonDown()) {
+                        return;
+                    }
+                    double radius = canvasDragVertex.getRadius();
+                    double x = mouseEvent.getX() + canvasDragDeltaX;
+                    double y = mouseEvent.getY() + canvasDragDeltaY;
+                    canvasDragVertex.setCenterX(
+                            Math.max(radius, Math.min(getWidth() - radius, x)));
+                    canvasDragVertex.setCenterY(
+                            Math.max(radius, Math.min(getHeight() - radius, y)));
+                    mouseEvent.consume();
+                });
+
+        addEventHandler(
+                MouseEvent.MOUSE_RELEASED,
+                (mouseEvent) -> {
+                    if (canvasDragVertex != null) {
+                        canvasDragVertex = null;
+                        setCursor(Cursor.HAND);
+                        mouseEvent.consume();
+                    }
+                });
     }
 
     /**
@@ -1331,25 +1642,75 @@ public class SmartGraphPanel<V, E> extends Pane {
                         + Node.getUnderlyingVertex().element().getFillColor());
     }
 
-    public void doDefaultEdgeStyle(SmartGraphEdgeBase edge) {
+    public void doDefaultEdgeStyle(SmartGraphEdgeBase<E, V> edge) {
         edge.setStyle(SmartStyleProxy.DEFAULT_EDGE);
     }
 
-    public void doHighlightEdgeStyle(SmartGraphEdgeBase edge) {
+    public void doHighlightEdgeStyle(SmartGraphEdgeBase<E, V> edge) {
         edge.setStyle(SmartStyleProxy.HIGHLIGHT_EDGE);
     }
 
+    /**
+     * Highlights the vertices reached from <code>vertex</code> through outbound edges, up to the
+     * highlight depth, and the edges that reach them. Any previous highlight is cleared.
+     *
+     * <p>The walk is breadth first, so each vertex is visited once, and the nodes are highlighted
+     * through the {@link SmartStyleProxy#HIGHLIGHTED} state, leaving their inline style untouched.
+     *
+     * @param vertex vertex to start from
+     */
     public void setHighlight(Vertex<V> vertex) {
+        setUnHighlight();
+        SmartGraphVertexNode<V> startNode = vertexNodes.get(vertex);
+        if (startNode == null) {
+            return;
+        }
         highlighNode = vertex;
-        doHighlight(highlighNode, true);
-        visitedVertexList.clear();
+        highlightedVertices.add(startNode);
+
+        List<Vertex<V>> frontier = new ArrayList<>();
+        frontier.add(vertex);
+        for (int hop = 0;
+                !frontier.isEmpty() && (highlightDepth <= 0 || hop < highlightDepth);
+                hop++) {
+            List<Vertex<V>> next = new ArrayList<>();
+            for (Vertex<V> v : frontier) {
+                for (FxEdge<E, V> edge : theGraph.outboundEdges(v)) {
+                    SmartGraphEdgeBase<E, V> edgeNode = edgeNodes.get(edge);
+                    if (edgeNode != null) {
+                        highlightedEdges.add(edgeNode);
+                    }
+                    Vertex<V> target = edge.vertices()[1];
+                    SmartGraphVertexNode<V> targetNode = vertexNodes.get(target);
+                    if (targetNode != null && highlightedVertices.add(targetNode)) {
+                        next.add(target);
+                    }
+                }
+            }
+            frontier = next;
+        }
+
+        for (SmartGraphVertexNode<V> v : highlightedVertices) {
+            SmartStyleProxy.setHighlighted(v, true);
+        }
+        for (SmartGraphEdgeBase<E, V> e : highlightedEdges) {
+            SmartStyleProxy.setHighlighted((Node) e, true);
+        }
+        invalidateCanvas();
     }
 
     public void setUnHighlight() {
         if (highlighNode != null) {
-            doHighlight(highlighNode, false);
+            for (SmartGraphVertexNode<V> v : highlightedVertices) {
+                SmartStyleProxy.setHighlighted(v, false);
+            }
+            for (SmartGraphEdgeBase<E, V> e : highlightedEdges) {
+                SmartStyleProxy.setHighlighted((Node) e, false);
+            }
+            highlightedVertices.clear();
+            highlightedEdges.clear();
             highlighNode = null;
-            visitedVertexList.clear();
+            invalidateCanvas();
         }
     }
 
@@ -1360,70 +1721,46 @@ public class SmartGraphPanel<V, E> extends Pane {
         return true;
     }
 
-    private void doHighlight(Vertex<V> vertex, boolean highlight) {
-        String vertexStyle, edgeStyle;
-        if (highlight) {
-            vertexStyle = SmartStyleProxy.HIGHLIGHT_VERTEX;
-        } else {
-            vertexStyle = SmartStyleProxy.DEFAULT_VERTEX;
-        }
-
-        SmartGraphVertexNode<V> graphVertexIn = vertexNodes.get(vertex);
-
-        if (graphVertexIn.getUnderlyingVertex().element() instanceof CypherNode) {
-            CypherNode node = (CypherNode) graphVertexIn.getUnderlyingVertex().element();
-            // Set Vertex Style
-            graphVertexIn.setStyle(vertexStyle + node.getFillColor());
-        }
-
-        Iterable<FxEdge<E, V>> incidentEdges = theGraph.outboundEdges(vertex);
-        for (FxEdge<E, V> edge : incidentEdges) {
-            // Set Edge Style
-            if (highlight) {
-                edgeStyle = SmartStyleProxy.HIGHLIGHT_EDGE;
-            } else {
-                if (edge.element() instanceof CypherEdge) {
-                    CypherEdge cyperEdge = (CypherEdge) edge.element();
-                    edgeStyle =
-                            SmartStyleProxy.getEdgeStyleInputValue(
-                                    cyperEdge.getLineColor(),
-                                    cyperEdge.getLineStyle(),
-                                    cyperEdge.getLineStrength());
-                } else {
-                    edgeStyle = SmartStyleProxy.DEFAULT_EDGE;
-                }
-            }
-            getStylableEdge(edge).setStyle(edgeStyle);
-
-            Vertex<V> oppositeVertex = theGraph.opposite(vertex, edge);
-
-            SmartGraphVertexNode<V> graphVertexOppositeOut = vertexNodes.get(oppositeVertex);
-            if (graphVertexOppositeOut.getUnderlyingVertex().element() instanceof CypherNode) {
-                CypherNode node =
-                        (CypherNode) graphVertexOppositeOut.getUnderlyingVertex().element();
-                // Set Vertex Style
-                graphVertexOppositeOut.setStyle(vertexStyle + node.getFillColor());
-            }
+    /**
+     * Sets how many hops from the highlighted vertex are highlighted. Applies to the next {@link
+     * #setHighlight(Vertex)}.
+     *
+     * @param depth maximum number of hops; 0 or less for no limit
+     * @see SmartGraphProperties#getHighlightDepth()
+     */
+    public void setHighlightDepth(int depth) {
+        this.highlightDepth = depth;
+    }
 
-            if (!visitedVertexList.contains(graphVertexOppositeOut.getUnderlyingVertex())) {
-                visitedVertexList.add(graphVertexOppositeOut.getUnderlyingVertex());
-                doHighlight(graphVertexOppositeOut.getUnderlyingVertex(), highlight);
-            }
-        }
+    public int getHighlightDepth() {
+        return highlightDepth;
     }
 
     public void clear() {
         highlighNode = null;
+        highlightedVertices.clear();
+        highlightedEdges.clear();
     }
     
     public void free() {
+        setAutomaticLayout(false);
         theGraph.clearElement();
         vertexNodes.clear();
         edgeNodes.clear();
         edgeNodesForID.clear();
         connections.clear();
         placedEdges.clear();
-        visitedVertexList.clear();
+        highlightedVertices.clear();
+        highlightedEdges.clear();
+        layoutVertices.clear();
+        pinnedVertices.clear();
+        layoutModelDirty = true;
+        canvasDragVertex = null;
+        invalidateCanvas();
+        if (layoutWorker != null) {
+            layoutWorker.shutdown();
+            layoutWorker = null;
+        }
     }
 
     public void setSmartPlacementStrategy(SmartPlacementStrategy placementStrategy) {
@@ -76,6 +76,41 @@ public class SmartGraphProperties {
     private static final double DEFAULT_ATTRACTION_SCALE = 100;
     private static final String PROPERTY_ATTRACTION_SCALE = "layout.attraction-scale";
 
+    public static final String LAYOUT_ENGINE_AUTO = "auto";
+    public static final String LAYOUT_ENGINE_SPRING = "spring";
+    public static final String LAYOUT_ENGINE_BARNES_HUT = "barnes-hut";
+    private static final String DEFAULT_LAYOUT_ENGINE = LAYOUT_ENGINE_AUTO;
+    private static final String PROPERTY_LAYOUT_ENGINE = "layout.engine";
+
+    private static final int DEFAULT_BARNES_HUT_MIN_VERTICES = 500;
+    private static final String PROPERTY_BARNES_HUT_MIN_VERTICES =
+            "layout.barnes-hut.min-vertices";
+
+    private static final double DEFAULT_BARNES_HUT_THETA = 0.8;
+    private static final String PROPERTY_BARNES_HUT_THETA = "layout.barnes-hut.theta";
+
+    private static final double DEFAULT_CONVERGENCE_THRESHOLD = 0.1;
+    private static final String PROPERTY_CONVERGENCE_THRESHOLD = "layout.convergence-threshold";
+
+    private static final int DEFAULT_CANVAS_MIN_ELEMENTS = 3000;
+    private static final String PROPERTY_CANVAS_MIN_ELEMENTS = "render.canvas.min-elements";
+
+    private static final double DEFAULT_CANVAS_LABEL_MIN_ZOOM = 0.5;
+    private static final String PROPERTY_CANVAS_LABEL_MIN_ZOOM = "render.canvas.label-min-zoom";
+
+    private static final double DEFAULT_CANVAS_AGGREGATE_MAX_ZOOM = 0.2;
+    private static final String PROPERTY_CANVAS_AGGREGATE_MAX_ZOOM =
+            "render.canvas.aggregate-max-zoom";
+
+    private static final int DEFAULT_HIGHLIGHT_DEPTH = 3;
+    private static final String PROPERTY_HIGHLIGHT_DEPTH = "highlight.depth";
+
+    private static final int DEFAULT_CLUSTER_MIN_VERTICES = 2000;
+    private static final String PROPERTY_CLUSTER_MIN_VERTICES = "cluster.min-vertices";
+
+    private static final int DEFAULT_CLUSTER_EXPAND_SIZE = 100;
+    private static final String PROPERTY_CLUSTER_EXPAND_SIZE = "cluster.expand-size";
+
     private static final String DEFAULT_FILE = "smartgraph.properties";
     private Properties properties;
 
@@ -168,6 +203,110 @@ public class SmartGraphProperties {
         return getDoubleProperty(PROPERTY_ATTRACTION_SCALE, DEFAULT_ATTRACTION_SCALE);
     }
 
+    /**
+     * Returns a property that indicates the force-directed engine of the automatic layout: {@link
+     * #LAYOUT_ENGINE_SPRING}, {@link #LAYOUT_ENGINE_BARNES_HUT} or {@link #LAYOUT_ENGINE_AUTO},
+     * which picks Barnes-Hut from {@link #getBarnesHutMinVertices()} vertices on.
+     *
+     * @return corresponding property value
+     */
+    public String getLayoutEngine() {
+        return properties.getProperty(PROPERTY_LAYOUT_ENGINE, DEFAULT_LAYOUT_ENGINE).trim();
+    }
+
+    /**
+     * Returns a property that indicates the number of vertices from which the automatic engine
+     * switches to the Barnes-Hut approximation.
+     *
+     * @return corresponding property value
+     */
+    public int getBarnesHutMinVertices() {
+        return (int)
+                getDoubleProperty(
+                        PROPERTY_BARNES_HUT_MIN_VERTICES, DEFAULT_BARNES_HUT_MIN_VERTICES);
+    }
+
+    /**
+     * Returns a property that indicates the accuracy of the Barnes-Hut approximation, 0 being
+     * exact.
+     *
+     * @return corresponding property value
+     */
+    public double getBarnesHutTheta() {
+        return getDoubleProperty(PROPERTY_BARNES_HUT_THETA, DEFAULT_BARNES_HUT_THETA);
+    }
+
+    /**
+     * Returns a property that indicates the mean vertex displacement, in pixels, under which the
+     * automatic layout is considered stable and stops.
+     *
+     * @return corresponding property value
+     */
+    public double getConvergenceThreshold() {
+        return getDoubleProperty(PROPERTY_CONVERGENCE_THRESHOLD, DEFAULT_CONVERGENCE_THRESHOLD);
+    }
+
+    /**
+     * Returns a property that indicates the number of vertices and edges from which the graph is
+     * drawn on a canvas instead of one scene graph node per element.
+     *
+     * @return corresponding property value
+     */
+    public int getCanvasMinElements() {
+        return (int) getDoubleProperty(PROPERTY_CANVAS_MIN_ELEMENTS, DEFAULT_CANVAS_MIN_ELEMENTS);
+    }
+
+    /**
+     * Returns a property that indicates the zoom level under which the canvas drops labels, arrows
+     * and dashes.
+     *
+     * @return corresponding property value
+     */
+    public double getCanvasLabelMinZoom() {
+        return getDoubleProperty(PROPERTY_CANVAS_LABEL_MIN_ZOOM, DEFAULT_CANVAS_LABEL_MIN_ZOOM);
+    }
+
+    /**
+     * Returns a property that indicates the zoom level under which the canvas bundles edges that
+     * connect the same screen areas.
+     *
+     * @return corresponding property value
+     */
+    public double getCanvasAggregateMaxZoom() {
+        return getDoubleProperty(
+                PROPERTY_CANVAS_AGGREGATE_MAX_ZOOM, DEFAULT_CANVAS_AGGREGATE_MAX_ZOOM);
+    }
+
+    /**
+     * Returns a property that indicates how many hops from a highlighted vertex are highlighted;
+     * 0 or less for no limit.
+     *
+     * @return corresponding property value
+     */
+    public int getHighlightDepth() {
+        return (int) getDoubleProperty(PROPERTY_HIGHLIGHT_DEPTH, DEFAULT_HIGHLIGHT_DEPTH);
+    }
+
+    /**
+     * Returns a property that indicates the number of vertices from which a result is collapsed
+     * into clusters instead of drawing every vertex; 0 or less to never cluster.
+     *
+     * @return corresponding property value
+     */
+    public int getClusterMinVertices() {
+        return (int) getDoubleProperty(PROPERTY_CLUSTER_MIN_VERTICES, DEFAULT_CLUSTER_MIN_VERTICES);
+    }
+
+    /**
+     * Returns a property that indicates how many vertices are drawn each time a cluster is
+     * expanded.
+     *
+     * @return corresponding property value
+     */
+    public int getClusterExpandSize() {
+        return (int) getDoubleProperty(PROPERTY_CLUSTER_EXPAND_SIZE, DEFAULT_CLUSTER_EXPAND_SIZE);
+    }
+
     /**
      * Returns a property that indicates whether a vertex has a tooltip installed.
      *
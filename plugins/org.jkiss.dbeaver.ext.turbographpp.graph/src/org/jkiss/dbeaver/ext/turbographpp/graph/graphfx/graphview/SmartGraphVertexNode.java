@@ -25,6 +25,7 @@
 package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import javafx.beans.value.ChangeListener;
@@ -56,12 +57,6 @@ public class SmartGraphVertexNode<T> extends Circle
     private SmartLabel attachedLabel = null;
     private boolean isDragging = false;
 
-    /*
-    Automatic layout functionality members
-     */
-    private final PointVector forceVector = new PointVector(0, 0);
-    private final PointVector updatedPosition = new PointVector(0, 0);
-
     /* Styling proxy */
     private final SmartStyleProxy styleProxy;
 
@@ -89,7 +84,7 @@ public class SmartGraphVertexNode<T> extends Circle
         this.adjacentVertices = new HashSet<>();
 
         styleProxy = new SmartStyleProxy(this);
-        // styleProxy.addStyleClass("vertex");
+        styleProxy.addStyleClass(SmartStyleProxy.VERTEX_CLASS);
         styleProxy.setStyle(
                 "-fx-stroke-width: 4;"
                         + " -fx-stroke: #61B5F1;"
@@ -173,6 +168,15 @@ public class SmartGraphVertexNode<T> extends Circle
         return this.adjacentVertices.contains(v);
     }
 
+    /**
+     * Returns the vertices adjacent to this instance.
+     *
+     * @return read-only view of the adjacent vertices
+     */
+    public Collection<SmartGraphVertexNode<T>> getAdjacentVertices() {
+        return Collections.unmodifiableSet(this.adjacentVertices);
+    }
+
     /**
      * Returns the current position of the instance in pixels.
      *
@@ -217,71 +221,6 @@ public class SmartGraphVertexNode<T> extends Circle
         setPosition(p.getX(), p.getY());
     }
 
-    /** Resets the current computed external force vector. */
-    public void resetForces() {
-        forceVector.x = forceVector.y = 0;
-        updatedPosition.x = getCenterX();
-        updatedPosition.y = getCenterY();
-    }
-
-    /**
-     * Adds the vector represented by <code>(x,y)</code> to the current external force vector.
-     *
-     * @param x x-component of the force vector
-     * @param y y-component of the force vector
-     */
-    public void addForceVector(double x, double y) {
-        forceVector.x += x;
-        forceVector.y += y;
-    }
-
-    /**
-     * Returns the current external force vector.
-     *
-     * @return force vector
-     */
-    public Point2D getForceVector() {
-        return new Point2D(forceVector.x, forceVector.y);
-    }
-
-    /**
-     * Returns the future position of the vertex.
-     *
-     * @return future position
-     */
-    public Point2D getUpdatedPosition() {
-        return new Point2D(updatedPosition.x, updatedPosition.y);
-    }
-
-    /**
-     * Updates the future position according to the current internal force vector.
-     *
-     * @see SmartGraphPanel#updateForces()
-     */
-    public void updateDelta() {
-        updatedPosition.x = updatedPosition.x /* + speed*/ + forceVector.x;
-        updatedPosition.y = updatedPosition.y + forceVector.y;
-    }
-
-    /**
-     * Moves the vertex position to the computed future position.
-     *
-     * <p>Moves are constrained within the parent pane dimensions.
-     *
-     * @see SmartGraphPanel#applyForces()
-     */
-    public void moveFromForces() {
-
-        // limit movement to parent bounds
-        double height = getParent().getLayoutBounds().getHeight();
-        double width = getParent().getLayoutBounds().getWidth();
-
-        updatedPosition.x = boundCenterCoordinate(updatedPosition.x, 0, width);
-        updatedPosition.y = boundCenterCoordinate(updatedPosition.y, 0, height);
-
-        setPosition(updatedPosition.x, updatedPosition.y);
-    }
-
     /** Make a node movable by dragging it around with the mouse primary button. */
     private void enableDrag() {
         final PointVector dragDelta = new PointVector(0, 0);
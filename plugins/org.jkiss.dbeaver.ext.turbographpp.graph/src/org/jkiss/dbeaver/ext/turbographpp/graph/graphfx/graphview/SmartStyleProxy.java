@@ -24,6 +24,8 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview;
 
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
 import javafx.scene.shape.Shape;
 
 /**
@@ -37,6 +39,23 @@ import javafx.scene.shape.Shape;
  */
 public class SmartStyleProxy implements SmartStylableNode {
 
+    /** Style class of the vertex nodes. */
+    public static final String VERTEX_CLASS = "vertex";
+
+    /** Style class of the edge nodes. */
+    public static final String EDGE_CLASS = "edge";
+
+    /**
+     * State of the vertices and edges reached by {@link SmartGraphPanel#setHighlight}. Its rules are
+     * in <code>highlight.css</code> and take precedence over the inline styles, so toggling it
+     * neither replaces nor re-parses the inline style of a node.
+     */
+    public static final PseudoClass HIGHLIGHTED = PseudoClass.getPseudoClass("highlighted");
+
+    /** Stylesheet holding the rules of the {@link #HIGHLIGHTED} state. */
+    public static final String HIGHLIGHT_STYLESHEET =
+            SmartStyleProxy.class.getResource("highlight.css").toExternalForm();
+
     public static final String DEFAULT_VERTEX = "-fx-stroke-type: inside;";
 
     public static final String HIGHLIGHT_VERTEX =
@@ -107,6 +126,20 @@ public class SmartStyleProxy implements SmartStylableNode {
         return client.getStyleClass().remove(cssClass);
     }
 
+    /**
+     * Sets or clears the {@link #HIGHLIGHTED} state of a vertex or edge node.
+     *
+     * @param node vertex or edge node
+     * @param highlighted true to highlight the node
+     */
+    public static void setHighlighted(Node node, boolean highlighted) {
+        node.pseudoClassStateChanged(HIGHLIGHTED, highlighted);
+    }
+
+    public static boolean isHighlighted(Node node) {
+        return node.getPseudoClassStates().contains(HIGHLIGHTED);
+    }
+
     public static String getEdgeStyleInputValue(String Color, String style, String weight) {
         return "-fx-stroke-width: "
                 + DEFAULT_EDGE_LINE_WEIGHT
@@ -91,7 +91,8 @@ public class UtilitiesPoint2D {
      * @param globalCount Global number of nodes
      * @return Computed attractive force
      */
-    static double attractiveFunction(double distance, int globalCount, double force, double scale) {
+    public static double attractiveFunction(
+            double distance, int globalCount, double force, double scale) {
         if (distance < 1) {
             distance = 1;
         }
@@ -129,7 +130,7 @@ public class UtilitiesPoint2D {
      * @param distance Distance between two nodes
      * @return Computed repelling force
      */
-    static double repellingFunction(double distance, double scale) {
+    public static double repellingFunction(double distance, double scale) {
         if (distance < 1) {
             distance = 1;
         }
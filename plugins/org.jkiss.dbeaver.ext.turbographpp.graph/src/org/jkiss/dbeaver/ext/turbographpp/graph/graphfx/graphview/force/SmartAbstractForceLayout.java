@@ -0,0 +1,228 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.UtilitiesPoint2D;
+
+/**
+ * Common part of the force-directed engines: spring attraction along edges and the final move
+ * step. Subclasses only provide the repulsion between vertices.
+ *
+ * <p>The force functions are the ones of {@link UtilitiesPoint2D}, so every engine produces the
+ * same kind of layout as the original vertex-by-vertex simulation.
+ *
+ * <p>When a step is run from inside a {@link java.util.concurrent.ForkJoinPool}, the force
+ * computation is split into vertex ranges processed by the workers of that pool.
+ */
+public abstract class SmartAbstractForceLayout implements SmartForceLayout {
+
+    /* Largest move allowed in a step; it cools down every step so the simulation settles. */
+    private static final double INITIAL_TEMPERATURE = 100;
+    private static final double COOLING_FACTOR = 0.98;
+
+    /* Vertices per task when the forces are computed in parallel */
+    private static final int PARALLEL_CHUNK = 256;
+
+    protected final double repulsionForce;
+    protected final double attractionForce;
+    protected final double attractionScale;
+
+    private double[] forceX = new double[0];
+    private double[] forceY = new double[0];
+    private double temperature = INITIAL_TEMPERATURE;
+
+    protected SmartAbstractForceLayout(
+            double repulsionForce, double attractionForce, double attractionScale) {
+        this.repulsionForce = repulsionForce;
+        this.attractionForce = attractionForce;
+        this.attractionScale = attractionScale;
+    }
+
+    @Override
+    public void reset() {
+        temperature = INITIAL_TEMPERATURE;
+    }
+
+    @Override
+    public double step(SmartLayoutModel model) {
+        int size = model.size();
+        if (size == 0) {
+            return 0;
+        }
+
+        if (forceX.length < size) {
+            forceX = new double[size];
+            forceY = new double[size];
+        } else {
+            Arrays.fill(forceX, 0, size, 0);
+            Arrays.fill(forceY, 0, size, 0);
+        }
+
+        prepare(model);
+        if (size > PARALLEL_CHUNK && ForkJoinTask.inForkJoinPool()) {
+            new ForceTask(model, 0, size, forceX, forceY).invoke();
+        } else {
+            computeForces(model, 0, size, forceX, forceY);
+        }
+
+        double displacement = applyForces(model, forceX, forceY, temperature);
+        temperature *= COOLING_FACTOR;
+        return displacement;
+    }
+
+    /**
+     * Called once per step before any force is computed.
+     *
+     * @param model model of the current step
+     */
+    protected void prepare(SmartLayoutModel model) {}
+
+    /**
+     * Accumulates the repulsion applied to the vertices <code>[from, to)</code>.
+     *
+     * @param model model of the current step
+     * @param from first vertex index, inclusive
+     * @param to last vertex index, exclusive
+     * @param forceX x-components of the accumulated forces
+     * @param forceY y-components of the accumulated forces
+     */
+    protected abstract void computeRepulsion(
+            SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY);
+
+    /**
+     * Accumulates repulsion and attraction for the vertices <code>[from, to)</code>. Only reads
+     * positions, so disjoint ranges can be processed concurrently.
+     */
+    protected void computeForces(
+            SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY) {
+        computeRepulsion(model, from, to, forceX, forceY);
+        computeAttraction(model, from, to, forceX, forceY);
+    }
+
+    protected void computeAttraction(
+            SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY) {
+        double[] x = model.x();
+        double[] y = model.y();
+        int[] start = model.adjacencyStart();
+        int[] adjacency = model.adjacency();
+        int size = model.size();
+
+        for (int i = from; i < to; i++) {
+            double fx = 0, fy = 0;
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int j = adjacency[k];
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance == 0) {
+                    continue;
+                }
+                double factor =
+                        UtilitiesPoint2D.attractiveFunction(
+                                distance, size, attractionForce, attractionScale);
+                fx += dx / distance * factor;
+                fy += dy / distance * factor;
+            }
+            forceX[i] += fx;
+            forceY[i] += fy;
+        }
+    }
+
+    /**
+     * Returns the factor that, multiplied by the offset <code>(dx, dy)</code> towards a point mass,
+     * gives the repulsion of that mass.
+     *
+     * @param distance length of the offset
+     * @param mass number of vertices aggregated at the point
+     * @return repulsion factor, or zero for coincident points
+     */
+    protected final double repellingFactor(double distance, double mass) {
+        if (distance == 0) {
+            return 0;
+        }
+        return -UtilitiesPoint2D.repellingFunction(distance, repulsionForce) * mass / distance;
+    }
+
+    private double applyForces(
+            SmartLayoutModel model, double[] forceX, double[] forceY, double maxMove) {
+        double[] x = model.x();
+        double[] y = model.y();
+        int size = model.size();
+        double displacement = 0;
+        int moved = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (model.isFixed(i)) {
+                continue;
+            }
+            moved++;
+            double oldX = x[i];
+            double oldY = y[i];
+            double fx = forceX[i];
+            double fy = forceY[i];
+            double length = Math.sqrt(fx * fx + fy * fy);
+            if (length > maxMove) {
+                fx = fx / length * maxMove;
+                fy = fy / length * maxMove;
+            }
+            model.moveBounded(i, oldX + fx, oldY + fy);
+            double dx = x[i] - oldX;
+            double dy = y[i] - oldY;
+            displacement += Math.sqrt(dx * dx + dy * dy);
+        }
+
+        return moved == 0 ? 0 : displacement / moved;
+    }
+
+    private class ForceTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SmartLayoutModel model;
+        private final int from;
+        private final int to;
+        private final double[] forceX;
+        private final double[] forceY;
+
+        private ForceTask(
+                SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY) {
+            this.model = model;
+            this.from = from;
+            this.to = to;
+            this.forceX = forceX;
+            this.forceY = forceY;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                computeForces(model, from, to, forceX, forceY);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ForceTask(model, from, middle, forceX, forceY),
+                    new ForceTask(model, middle, to, forceX, forceY));
+        }
+    }
+}
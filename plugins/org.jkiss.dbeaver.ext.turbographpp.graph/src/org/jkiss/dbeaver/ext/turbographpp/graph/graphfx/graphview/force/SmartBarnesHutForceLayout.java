@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+/**
+ * Spring layout with Barnes-Hut approximated repulsion, O(n log n) per step.
+ *
+ * <p>Vertices are grouped in a {@link SmartQuadTree}; a cell whose size seen from a vertex is
+ * below <code>theta</code> acts as a single mass placed at its center of mass. A theta of 0 gives
+ * the exact all-pairs result.
+ */
+public class SmartBarnesHutForceLayout extends SmartAbstractForceLayout {
+
+    public static final double DEFAULT_THETA = 0.8;
+
+    private final double theta;
+    private final SmartQuadTree tree = new SmartQuadTree();
+
+    public SmartBarnesHutForceLayout(
+            double repulsionForce, double attractionForce, double attractionScale) {
+        this(repulsionForce, attractionForce, attractionScale, DEFAULT_THETA);
+    }
+
+    public SmartBarnesHutForceLayout(
+            double repulsionForce, double attractionForce, double attractionScale, double theta) {
+        super(repulsionForce, attractionForce, attractionScale);
+        this.theta = theta;
+    }
+
+    @Override
+    protected void prepare(SmartLayoutModel model) {
+        tree.build(model.x(), model.y(), model.size());
+    }
+
+    @Override
+    protected void computeRepulsion(
+            SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY) {
+        double[] x = model.x();
+        double[] y = model.y();
+        int[] stack = new int[SmartQuadTree.MAX_DEPTH * 4 + 8];
+
+        for (int i = from; i < to; i++) {
+            double xi = x[i], yi = y[i];
+            double fx = 0, fy = 0;
+
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                double mass = tree.mass(node);
+                if (mass == 0) {
+                    continue;
+                }
+
+                double comX = tree.sumX(node);
+                double comY = tree.sumY(node);
+                int body = tree.body(node);
+
+                if (body >= 0) {
+                    if (body == i || (mass > 1 && tree.contains(node, xi, yi))) {
+                        // exclude the vertex itself from a (possibly merged) leaf
+                        if (mass == 1) {
+                            continue;
+                        }
+                        comX -= xi;
+                        comY -= yi;
+                        mass -= 1;
+                    }
+                    double dx = comX / mass - xi;
+                    double dy = comY / mass - yi;
+                    double factor = repellingFactor(Math.sqrt(dx * dx + dy * dy), mass);
+                    fx += dx * factor;
+                    fy += dy * factor;
+                    continue;
+                }
+
+                double dx = comX / mass - xi;
+                double dy = comY / mass - yi;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance > 0 && tree.cellSize(node) / distance < theta) {
+                    double factor = repellingFactor(distance, mass);
+                    fx += dx * factor;
+                    fy += dy * factor;
+                } else {
+                    for (int quadrant = 0; quadrant < 4; quadrant++) {
+                        int child = tree.child(node, quadrant);
+                        if (child != 0) {
+                            stack[top++] = child;
+                        }
+                    }
+                }
+            }
+
+            forceX[i] += fx;
+            forceY[i] += fy;
+        }
+    }
+}
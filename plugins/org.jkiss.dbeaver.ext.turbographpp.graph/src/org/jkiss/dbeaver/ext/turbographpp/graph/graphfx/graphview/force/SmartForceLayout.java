@@ -0,0 +1,37 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+/**
+ * Force-directed layout engine used by the automatic layout of the graph panel.
+ *
+ * <p>Implementations work on a {@link SmartLayoutModel} only, so they do not touch the JavaFX
+ * scene graph and can be exercised without a running toolkit.
+ */
+public interface SmartForceLayout {
+
+    /**
+     * Runs one simulation step, moving the vertices of the model in place.
+     *
+     * @param model vertices, adjacency and bounds to lay out
+     * @return mean displacement of the vertices in this step, in pixels
+     */
+    public double step(SmartLayoutModel model);
+
+    /** Restarts the simulation, e.g., when the automatic layout is switched on again. */
+    public void reset();
+}
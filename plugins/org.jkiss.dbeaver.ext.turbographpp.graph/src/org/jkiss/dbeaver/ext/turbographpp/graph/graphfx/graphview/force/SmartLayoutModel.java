@@ -0,0 +1,142 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+import java.util.Arrays;
+
+/**
+ * Primitive snapshot of the vertices handled by a {@link SmartForceLayout}.
+ *
+ * <p>Vertices are addressed by their index in <code>[0, size)</code>. Adjacency is kept in CSR
+ * form: the neighbors of vertex <code>i</code> are <code>
+ * adjacency[adjacencyStart[i] .. adjacencyStart[i + 1])</code>. Fixed vertices push and pull the
+ * others but are never moved by the layout.
+ */
+public class SmartLayoutModel {
+
+    private int size;
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] radius = new double[0];
+    private boolean[] fixed = new boolean[0];
+    private int[] adjacencyStart = new int[1];
+    private int[] adjacency = new int[0];
+
+    private double width;
+    private double height;
+
+    /**
+     * Resizes the vertex buffers, keeping the current content of the retained slots.
+     *
+     * @param size number of vertices
+     */
+    public void resize(int size) {
+        if (x.length < size) {
+            int capacity = Math.max(size, x.length + (x.length >> 1));
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            fixed = Arrays.copyOf(fixed, capacity);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Replaces the adjacency of the model.
+     *
+     * @param adjacencyStart offsets into <code>adjacency</code>, <code>size + 1</code> entries
+     * @param adjacency concatenated neighbor indexes
+     */
+    public void setAdjacency(int[] adjacencyStart, int[] adjacency) {
+        this.adjacencyStart = adjacencyStart;
+        this.adjacency = adjacency;
+    }
+
+    public void setBounds(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /** Sets a vertex, which is movable until {@link #setFixed} is called. */
+    public void setVertex(int index, double x, double y, double radius) {
+        this.x[index] = x;
+        this.y[index] = y;
+        this.radius[index] = radius;
+        this.fixed[index] = false;
+    }
+
+    public void setFixed(int index, boolean fixed) {
+        this.fixed[index] = fixed;
+    }
+
+    public boolean isFixed(int index) {
+        return fixed[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] y() {
+        return y;
+    }
+
+    public double[] radius() {
+        return radius;
+    }
+
+    public int[] adjacencyStart() {
+        return adjacencyStart;
+    }
+
+    public int[] adjacency() {
+        return adjacency;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Moves a vertex, keeping its whole circle inside the model bounds.
+     *
+     * @param index vertex index
+     * @param newX new center x-coordinate
+     * @param newY new center y-coordinate
+     */
+    public void moveBounded(int index, double newX, double newY) {
+        x[index] = bound(newX, radius[index], width);
+        y[index] = bound(newY, radius[index], height);
+    }
+
+    private static double bound(double value, double radius, double max) {
+        if (value < radius) {
+            return radius;
+        } else if (value > max - radius) {
+            return max - radius;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+/**
+ * Vertex positions published by a {@link SmartLayoutWorker} after a simulation step.
+ *
+ * <p>Snapshots are recycled: once the positions are applied, hand the snapshot back with {@link
+ * SmartLayoutWorker#release(SmartLayoutSnapshot)} and do not keep references to its arrays.
+ */
+public final class SmartLayoutSnapshot {
+
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private int size;
+    private long version;
+    private double displacement;
+    private boolean converged;
+
+    SmartLayoutSnapshot() {}
+
+    void copyFrom(SmartLayoutModel model, long version, double displacement, boolean converged) {
+        size = model.size();
+        if (x.length < size) {
+            x = new double[size];
+            y = new double[size];
+        }
+        System.arraycopy(model.x(), 0, x, 0, size);
+        System.arraycopy(model.y(), 0, y, 0, size);
+        this.version = version;
+        this.displacement = displacement;
+        this.converged = converged;
+    }
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] y() {
+        return y;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the version given to {@link SmartLayoutWorker#submit} for the model this snapshot
+     * was computed from.
+     *
+     * @return model version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public double getDisplacement() {
+        return displacement;
+    }
+
+    /**
+     * Returns whether the simulation settled with this step; the worker stops afterwards.
+     *
+     * @return true if converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a {@link SmartForceLayout} on a background thread.
+ *
+ * <p>The UI thread hands over a model with {@link #submit}, then every frame picks the latest
+ * positions with {@link #poll()} and gives the snapshot back with {@link #release}. The worker
+ * computes the next step while the previous one is displayed, and waits for it to be picked up
+ * before publishing another one, so the simulation advances at most one step per frame.
+ *
+ * <p>Steps run inside a {@link ForkJoinPool}, which lets the engines split the force computation
+ * across cores.
+ */
+public class SmartLayoutWorker {
+
+    private static final Logger LOG = Logger.getLogger(SmartLayoutWorker.class.getName());
+
+    private final double convergenceThreshold;
+    private final int stableSteps;
+    private final ForkJoinPool pool;
+    private final Thread thread;
+
+    /* State shared with the UI thread, guarded by lock */
+    private final Object lock = new Object();
+    private boolean running = false;
+    private boolean shutdown = false;
+    private boolean resetRequested = false;
+    private SmartLayoutModel pendingModel = null;
+    private SmartForceLayout pendingLayout = null;
+    private long pendingVersion;
+    private final List<Move> pendingMoves = new ArrayList<>();
+    private double width;
+    private double height;
+
+    /* Latest unread snapshot, and a consumed one ready for reuse */
+    private final AtomicReference<SmartLayoutSnapshot> published = new AtomicReference<>();
+    private final AtomicReference<SmartLayoutSnapshot> recycled = new AtomicReference<>();
+
+    /* Worker thread only */
+    private SmartLayoutModel model = null;
+    private SmartForceLayout layout = null;
+    private long version;
+    private int stableCount = 0;
+
+    /**
+     * Creates and starts an idle worker.
+     *
+     * @param convergenceThreshold mean displacement under which a step counts as stable
+     * @param stableSteps stable steps in a row after which the worker stops by itself
+     */
+    public SmartLayoutWorker(double convergenceThreshold, int stableSteps) {
+        this.convergenceThreshold = convergenceThreshold;
+        this.stableSteps = stableSteps;
+        // leave a core to the UI thread
+        this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        this.thread = new Thread(this::run, "Graph layout worker");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Replaces the simulated vertices. The worker takes ownership of the model: the caller must
+     * not modify it afterwards.
+     *
+     * @param model vertices, adjacency and bounds to lay out
+     * @param layout engine to run on this model
+     * @param version tag copied to the snapshots computed from this model
+     */
+    public void submit(SmartLayoutModel model, SmartForceLayout layout, long version) {
+        synchronized (lock) {
+            pendingModel = model;
+            pendingLayout = layout;
+            pendingVersion = version;
+            pendingMoves.clear();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Moves a vertex from outside the simulation, e.g., when the user drags it.
+     *
+     * @param version version of the model the index refers to
+     * @param index vertex index
+     * @param x new center x-coordinate
+     * @param y new center y-coordinate
+     */
+    public void moveVertex(long version, int index, double x, double y) {
+        synchronized (lock) {
+            pendingMoves.add(new Move(version, index, x, y));
+        }
+    }
+
+    public void setBounds(double width, double height) {
+        synchronized (lock) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /** Starts, or restarts with the initial temperature, the simulation. */
+    public void start() {
+        synchronized (lock) {
+            running = true;
+            resetRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    /** Pauses the simulation after the current step. */
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+        }
+    }
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Returns the latest snapshot not read yet, if any.
+     *
+     * @return snapshot to apply and then {@link #release}, or null
+     */
+    public SmartLayoutSnapshot poll() {
+        SmartLayoutSnapshot snapshot = published.getAndSet(null);
+        if (snapshot != null) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gives back a snapshot returned by {@link #poll()} once its positions have been applied.
+     *
+     * @param snapshot consumed snapshot
+     */
+    public void release(SmartLayoutSnapshot snapshot) {
+        recycled.set(snapshot);
+    }
+
+    /** Stops the worker thread and its pool. The worker cannot be restarted. */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            running = false;
+            lock.notifyAll();
+        }
+        pool.shutdownNow();
+    }
+
+    private void run() {
+        while (true) {
+            synchronized (lock) {
+                while (!shutdown && !canStep()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+                takePending();
+            }
+
+            double displacement;
+            try {
+                displacement = pool.submit(() -> layout.step(model)).join();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Automatic layout step failed", e);
+                stop();
+                continue;
+            }
+
+            stableCount = displacement < convergenceThreshold ? stableCount + 1 : 0;
+            boolean converged = stableCount >= stableSteps;
+            if (converged) {
+                stop();
+            }
+            publish(displacement, converged);
+        }
+    }
+
+    private boolean canStep() {
+        return running
+                && (model != null || pendingModel != null)
+                && published.get() == null;
+    }
+
+    private void takePending() {
+        if (pendingModel != null) {
+            model = pendingModel;
+            layout = pendingLayout;
+            version = pendingVersion;
+            pendingModel = null;
+            pendingLayout = null;
+        }
+        if (resetRequested) {
+            layout.reset();
+            stableCount = 0;
+            resetRequested = false;
+        }
+        for (Move move : pendingMoves) {
+            if (move.version == version && move.index < model.size()) {
+                model.x()[move.index] = move.x;
+                model.y()[move.index] = move.y;
+            }
+        }
+        pendingMoves.clear();
+        model.setBounds(width, height);
+    }
+
+    private void publish(double displacement, boolean converged) {
+        SmartLayoutSnapshot snapshot = recycled.getAndSet(null);
+        if (snapshot == null) {
+            snapshot = new SmartLayoutSnapshot();
+        }
+        snapshot.copyFrom(model, version, displacement, converged);
+        published.set(snapshot);
+    }
+
+    private static final class Move {
+        private final long version;
+        private final int index;
+        private final double x;
+        private final double y;
+
+        private Move(long version, int index, double x, double y) {
+            this.version = version;
+            this.index = index;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+import java.util.Arrays;
+
+/**
+ * Array based point quadtree with the mass and center of mass of every cell, as needed by the
+ * Barnes-Hut approximation. The tree is rebuilt on every step and reuses its buffers.
+ *
+ * <p>Once built the tree is read-only, so it can be queried from several threads.
+ */
+class SmartQuadTree {
+
+    /* Coincident vertices would subdivide forever; they are merged into one leaf instead. */
+    static final int MAX_DEPTH = 24;
+
+    static final int EMPTY = -1;
+    static final int INTERNAL = -2;
+
+    private int nodeCount;
+
+    /* four children per node, 0 when missing (the root is never a child) */
+    private int[] children = new int[0];
+    /* vertex index of a leaf, EMPTY or INTERNAL */
+    private int[] body = new int[0];
+    private double[] mass = new double[0];
+    private double[] sumX = new double[0];
+    private double[] sumY = new double[0];
+    private double[] cellX = new double[0];
+    private double[] cellY = new double[0];
+    private double[] cellSize = new double[0];
+
+    void build(double[] x, double[] y, int size) {
+        nodeCount = 0;
+        if (size == 0) {
+            return;
+        }
+        ensureCapacity(size * 2 + 1);
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double extent = Math.max(Math.max(maxX - minX, maxY - minY), 1) * 1.0001;
+
+        newNode(minX, minY, extent);
+        for (int i = 0; i < size; i++) {
+            insert(i, x[i], y[i], x, y);
+        }
+    }
+
+    private void insert(int index, double px, double py, double[] x, double[] y) {
+        int node = 0;
+        int depth = 0;
+
+        while (true) {
+            double nodeMass = mass[node];
+            mass[node] = nodeMass + 1;
+            sumX[node] += px;
+            sumY[node] += py;
+
+            if (nodeMass == 0) {
+                body[node] = index;
+                return;
+            }
+
+            if (body[node] >= 0) {
+                if (depth >= MAX_DEPTH) {
+                    // merged leaf, keeps the first vertex as representative
+                    return;
+                }
+                int resident = body[node];
+                body[node] = INTERNAL;
+                int child = childFor(node, x[resident], y[resident]);
+                mass[child] = 1;
+                sumX[child] = x[resident];
+                sumY[child] = y[resident];
+                body[child] = resident;
+            }
+
+            node = childFor(node, px, py);
+            depth++;
+        }
+    }
+
+    /* Returns the child of node containing (px, py), creating it when missing. */
+    private int childFor(int node, double px, double py) {
+        double half = cellSize[node] / 2;
+        int quadrant = 0;
+        double childX = cellX[node], childY = cellY[node];
+        if (px >= childX + half) {
+            quadrant |= 1;
+            childX += half;
+        }
+        if (py >= childY + half) {
+            quadrant |= 2;
+            childY += half;
+        }
+
+        int slot = node * 4 + quadrant;
+        int child = children[slot];
+        if (child == 0) {
+            child = newNode(childX, childY, half);
+            children[slot] = child;
+        }
+        return child;
+    }
+
+    private int newNode(double x, double y, double size) {
+        if (nodeCount == body.length) {
+            ensureCapacity(nodeCount * 2);
+        }
+        int node = nodeCount++;
+        Arrays.fill(children, node * 4, node * 4 + 4, 0);
+        body[node] = EMPTY;
+        mass[node] = 0;
+        sumX[node] = 0;
+        sumY[node] = 0;
+        cellX[node] = x;
+        cellY[node] = y;
+        cellSize[node] = size;
+        return node;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (body.length >= capacity) {
+            return;
+        }
+        children = Arrays.copyOf(children, capacity * 4);
+        body = Arrays.copyOf(body, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        cellSize = Arrays.copyOf(cellSize, capacity);
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int child(int node, int quadrant) {
+        return children[node * 4 + quadrant];
+    }
+
+    int body(int node) {
+        return body[node];
+    }
+
+    double mass(int node) {
+        return mass[node];
+    }
+
+    double sumX(int node) {
+        return sumX[node];
+    }
+
+    double sumY(int node) {
+        return sumY[node];
+    }
+
+    double cellSize(int node) {
+        return cellSize[node];
+    }
+
+    boolean contains(int node, double px, double py) {
+        return px >= cellX[node]
+                && px < cellX[node] + cellSize[node]
+                && py >= cellY[node]
+                && py < cellY[node] + cellSize[node];
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force;
+
+/**
+ * Exact spring layout: every vertex is repelled by every other vertex, O(n^2) per step.
+ *
+ * <p>Best quality for small graphs; use {@link SmartBarnesHutForceLayout} for large ones.
+ */
+public class SmartSpringForceLayout extends SmartAbstractForceLayout {
+
+    public SmartSpringForceLayout(
+            double repulsionForce, double attractionForce, double attractionScale) {
+        super(repulsionForce, attractionForce, attractionScale);
+    }
+
+    @Override
+    protected void computeRepulsion(
+            SmartLayoutModel model, int from, int to, double[] forceX, double[] forceY) {
+        double[] x = model.x();
+        double[] y = model.y();
+        int size = model.size();
+
+        for (int i = from; i < to; i++) {
+            double xi = x[i], yi = y[i];
+            double fx = 0, fy = 0;
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double factor = repellingFactor(Math.sqrt(dx * dx + dy * dy), 1);
+                fx += dx * factor;
+                fy += dy * factor;
+            }
+            forceX[i] += fx;
+            forceY[i] += fy;
+        }
+    }
+}
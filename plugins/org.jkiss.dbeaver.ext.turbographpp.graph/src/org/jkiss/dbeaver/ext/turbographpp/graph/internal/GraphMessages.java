@@ -32,9 +32,12 @@ public class GraphMessages extends NLS {
     public static String fxgraph_export_csv_dialog_label_filename;
     public static String fxgraph_export_csv_dialog_label_node;
     public static String fxgraph_export_csv_dialog_label_edge;
+    public static String fxgraph_export_csv_dialog_label_graph;
+    public static String fxgraph_export_csv_dialog_label_format;
     public static String fxgraph_export_csv_dialog_directory_dialog_title;
     public static String shortest_guidebox_title;
     public static String shortest_guidebox_properties_label;
+    public static String shortest_guidebox_paths_label;
     public static String designbox_title;
     public static String designbox_table_col_item;
     public static String designbox_table_col_value;
@@ -76,6 +79,23 @@ public class GraphMessages extends NLS {
     public static String context_menu_unhighlight;
     public static String context_menu_delete;
     public static String context_menu_design;
+    public static String context_menu_expand;
+    public static String context_menu_expand_both;
+    public static String context_menu_expand_outgoing;
+    public static String context_menu_expand_incoming;
+    public static String context_menu_expand_next;
+    public static String context_menu_analyze;
+    public static String context_menu_analyze_degree;
+    public static String context_menu_analyze_betweenness;
+    public static String context_menu_analyze_pagerank;
+    public static String context_menu_analyze_components;
+    public static String context_menu_analyze_strong_components;
+    public static String context_menu_analyze_communities;
+    public static String context_menu_analyze_reset;
+    public static String context_menu_cluster;
+    public static String context_menu_cluster_expand;
+    public static String context_menu_cluster_by_label;
+    public static String context_menu_cluster_by_community;
     public static String layout_horizontal_tree_tool_tip;
     public static String layout_vertical_tree_tool_tip;
     public static String layout_grid_tool_tip;
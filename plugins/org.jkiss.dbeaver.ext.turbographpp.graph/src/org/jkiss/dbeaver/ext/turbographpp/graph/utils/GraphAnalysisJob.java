@@ -0,0 +1,76 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.swt.widgets.Display;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.AnalyticsGraph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysis;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysisResult;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalytics;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+/**
+ * Runs a {@link GraphAnalysis} on a snapshot of the graph in the background and hands the result
+ * to the UI thread.
+ */
+public class GraphAnalysisJob extends AbstractJob {
+
+    private final GraphAnalysis analysis;
+    private final AnalyticsGraph<?> graph;
+    private final Consumer<GraphAnalysisResult> resultConsumer;
+
+    /**
+     * @param analysis analysis to run
+     * @param graph snapshot taken on the UI thread
+     * @param resultConsumer called on the UI thread with the result, unless the job is canceled
+     */
+    public GraphAnalysisJob(
+            GraphAnalysis analysis,
+            AnalyticsGraph<?> graph,
+            Consumer<GraphAnalysisResult> resultConsumer) {
+        super("Graph analysis");
+        setUser(true);
+        this.analysis = analysis;
+        this.graph = graph;
+        this.resultConsumer = resultConsumer;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        monitor.beginTask("Analyze " + graph.size() + " nodes", 1);
+        // leave a core to the UI thread
+        ForkJoinPool pool =
+                new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            GraphAnalysisResult result =
+                    analysis.run(new GraphAnalytics<>(graph, pool, monitor::isCanceled));
+            Display.getDefault().asyncExec(() -> resultConsumer.accept(result));
+        } catch (CancellationException e) {
+            return Status.CANCEL_STATUS;
+        } finally {
+            pool.shutdown();
+            monitor.done();
+        }
+        return Status.OK_STATUS;
+    }
+}
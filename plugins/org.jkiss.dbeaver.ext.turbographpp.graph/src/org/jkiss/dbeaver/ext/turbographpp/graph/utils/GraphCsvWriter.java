@@ -0,0 +1,117 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+
+/**
+ * Writes nodes or edges as CSV rows, one element per line, under a header of fixed columns
+ * followed by the property columns.
+ */
+public class GraphCsvWriter {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+    private final Collection<String> keys;
+
+    /**
+     * @param writer target writer, buffered by the caller
+     * @param keys property keys, one column each
+     */
+    public GraphCsvWriter(Writer writer, Collection<String> keys) {
+        this.writer = writer;
+        this.keys = keys;
+    }
+
+    public void writeNodeHeader() throws IOException {
+        writer.write("ID,Label");
+        writeHeader();
+    }
+
+    public void writeNode(CypherNode node) throws IOException {
+        writeValue(node.getID());
+        writer.write(',');
+        writeValue(node.getLabels().isEmpty() ? "" : node.getLabels().get(0));
+        writeProperties(node.getProperties());
+    }
+
+    public void writeEdgeHeader() throws IOException {
+        writer.write("ID,Type,StartNodeID,EndNodeID");
+        writeHeader();
+    }
+
+    public void writeEdge(CypherEdge edge) throws IOException {
+        writeValue(edge.getID());
+        writer.write(',');
+        writeValue(edge.getTypes().isEmpty() ? "" : edge.getTypes().get(0));
+        writer.write(',');
+        writeValue(edge.getStartNodeID());
+        writer.write(',');
+        writeValue(edge.getEndNodeID());
+        writeProperties(edge.getProperties());
+    }
+
+    private void writeHeader() throws IOException {
+        for (String key : keys) {
+            writer.write(',');
+            writeValue(key);
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeProperties(Map<String, Object> properties) throws IOException {
+        for (String key : keys) {
+            writer.write(',');
+            Object value = properties.get(key);
+            if (value != null) {
+                writeValue(value.toString());
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    /* Quotes the value only when it holds a separator, a quote or a line break */
+    private void writeValue(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
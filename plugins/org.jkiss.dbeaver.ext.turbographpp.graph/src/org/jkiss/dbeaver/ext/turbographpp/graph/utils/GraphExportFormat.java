@@ -0,0 +1,50 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+/** File formats of {@link GraphExporter}. */
+public enum GraphExportFormat {
+    /** One file for the nodes and one for the edges, with a column per property key. */
+    CSV("CSV", ".csv", true),
+    /** GraphML document with a typed key per property. */
+    GRAPHML("GraphML", ".graphml", false),
+    /** One JSON object per node and per edge, one per line. */
+    JSONL("JSON Lines", ".jsonl", false);
+
+    private final String title;
+    private final String extension;
+    private final boolean splitFiles;
+
+    GraphExportFormat(String title, String extension, boolean splitFiles) {
+        this.title = title;
+        this.extension = extension;
+        this.splitFiles = splitFiles;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Returns true if nodes and edges are written to separate files. */
+    public boolean isSplitFiles() {
+        return splitFiles;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+/** Runs a {@link GraphExporter} in the background. */
+public class GraphExportJob extends AbstractJob {
+
+    private final GraphExporter exporter;
+    private final Path file;
+    private final Path edgeFile;
+
+    /**
+     * @param exporter exporter holding the elements
+     * @param file target file, the node file for formats with separate edge files
+     * @param edgeFile edge file, null for formats that write a single file
+     */
+    public GraphExportJob(GraphExporter exporter, Path file, Path edgeFile) {
+        super("Export graph to " + exporter.getFormat().getTitle());
+        setUser(true);
+        this.exporter = exporter;
+        this.file = file;
+        this.edgeFile = edgeFile;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        try {
+            if (!exporter.export(monitor, file, edgeFile)) {
+                return Status.CANCEL_STATUS;
+            }
+        } catch (IOException e) {
+            // reported by the job manager, this is a user job
+            return GeneralUtils.makeExceptionStatus("Can't write " + file.getFileName(), e);
+        }
+        return Status.OK_STATUS;
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphClusters;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphDataModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+/**
+ * Writes the nodes and edges of a graph to files, element by element.
+ *
+ * <p>Nothing but the element list is held in memory: rows go straight to buffered file writers.
+ * The formats that declare their columns up front (CSV, GraphML) take the union of the property
+ * keys in a single pass before writing.
+ */
+public class GraphExporter {
+
+    private static final String GRAPHML_NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+    private static final int PROGRESS_STEP = 1000;
+
+    private final GraphExportFormat format;
+    private final List<CypherNode> nodes;
+    private final List<CypherEdge> edges;
+
+    /**
+     * Takes the elements to export. The lists are copied, so the graph may change once this
+     * returns.
+     *
+     * @param format file format
+     * @param vertices graph vertices
+     * @param edges graph edges
+     */
+    public GraphExporter(
+            GraphExportFormat format,
+            Collection<Vertex<CypherNode>> vertices,
+            Collection<FxEdge<CypherEdge, CypherNode>> edges) {
+        this.format = format;
+        this.nodes = new ArrayList<>(vertices.size());
+        for (Vertex<CypherNode> vertex : vertices) {
+            this.nodes.add(vertex.element());
+        }
+        this.edges = new ArrayList<>(edges.size());
+        for (FxEdge<CypherEdge, CypherNode> edge : edges) {
+            this.edges.add(edge.element());
+        }
+    }
+
+    /**
+     * Takes the result elements of a graph: the drawn nodes and edges, and the nodes hidden in
+     * clusters. Cluster vertices and their merged links are not in the data model, so they are
+     * never exported. A kept relationship is exported when both its ends are.
+     *
+     * @param format file format
+     * @param model drawn nodes and edges
+     * @param clusters hidden nodes and relationships
+     */
+    public GraphExporter(GraphExportFormat format, GraphDataModel model, GraphClusters clusters) {
+        this(format, model.getNodes().values(), model.getEdges().values());
+        Set<String> nodeIds = new HashSet<>(model.getNodes().keySet());
+        for (GraphBatch.NodeData node : clusters.getNodes()) {
+            if (nodeIds.add(node.getId())) {
+                this.nodes.add(
+                        new CypherNode(node.getId(), node.getLabels(), node.getAttr(), "", 0));
+            }
+        }
+        for (GraphBatch.EdgeData edge : clusters.getEdges()) {
+            if (model.getEdge(edge.getId()) == null
+                    && nodeIds.contains(edge.getStartNodeID())
+                    && nodeIds.contains(edge.getEndNodeID())) {
+                this.edges.add(
+                        new CypherEdge(
+                                edge.getId(),
+                                edge.getTypes(),
+                                edge.getAttr(),
+                                edge.getStartNodeID(),
+                                edge.getEndNodeID()));
+            }
+        }
+    }
+
+    public GraphExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes the graph.
+     *
+     * @param monitor progress monitor, checked for cancellation between elements
+     * @param file target file; the node file when the format splits nodes and edges
+     * @param edgeFile edge file when the format splits nodes and edges, ignored otherwise
+     * @return false if the export was canceled, the files are then removed
+     * @throws IOException if a file cannot be written
+     */
+    public boolean export(DBRProgressMonitor monitor, Path file, Path edgeFile)
+            throws IOException {
+        int total = nodes.size() + edges.size();
+        monitor.beginTask("Export graph", format == GraphExportFormat.JSONL ? total : total * 2);
+        boolean completed = false;
+        try {
+            switch (format) {
+                case CSV:
+                    completed = writeCsv(monitor, file, edgeFile);
+                    break;
+                case GRAPHML:
+                    completed = writeGraphML(monitor, file);
+                    break;
+                case JSONL:
+                    completed = writeJsonLines(monitor, file);
+                    break;
+                default:
+                    throw new IOException("Unsupported export format: " + format);
+            }
+        } finally {
+            monitor.done();
+            if (!completed) {
+                Files.deleteIfExists(file);
+                if (edgeFile != null && format.isSplitFiles()) {
+                    Files.deleteIfExists(edgeFile);
+                }
+            }
+        }
+        return completed;
+    }
+
+    private boolean writeCsv(DBRProgressMonitor monitor, Path nodeFile, Path edgeFile)
+            throws IOException {
+        monitor.subTask("Collect property keys");
+        Map<String, String> nodeKeys = collectNodeKeys(monitor);
+        Map<String, String> edgeKeys = collectEdgeKeys(monitor);
+        if (monitor.isCanceled()) {
+            return false;
+        }
+
+        monitor.subTask("Write nodes");
+        try (BufferedWriter writer = Files.newBufferedWriter(nodeFile, StandardCharsets.UTF_8)) {
+            GraphCsvWriter csv = new GraphCsvWriter(writer, nodeKeys.keySet());
+            if (!nodes.isEmpty()) {
+                csv.writeNodeHeader();
+            }
+            int count = 0;
+            for (CypherNode node : nodes) {
+                csv.writeNode(node);
+                if (!worked(monitor, ++count)) {
+                    return false;
+                }
+            }
+        }
+
+        monitor.subTask("Write edges");
+        try (BufferedWriter writer = Files.newBufferedWriter(edgeFile, StandardCharsets.UTF_8)) {
+            GraphCsvWriter csv = new GraphCsvWriter(writer, edgeKeys.keySet());
+            if (!edges.isEmpty()) {
+                csv.writeEdgeHeader();
+            }
+            int count = 0;
+            for (CypherEdge edge : edges) {
+                csv.writeEdge(edge);
+                if (!worked(monitor, ++count)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean writeGraphML(DBRProgressMonitor monitor, Path file) throws IOException {
+        monitor.subTask("Collect property keys");
+        Map<String, String> nodeKeys = collectNodeKeys(monitor);
+        Map<String, String> edgeKeys = collectEdgeKeys(monitor);
+        if (monitor.isCanceled()) {
+            return false;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            try {
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeCharacters("\n");
+                xml.writeStartElement("graphml");
+                xml.writeDefaultNamespace(GRAPHML_NAMESPACE);
+                xml.writeCharacters("\n");
+
+                // property keys are numbered, names may not be valid XML ids
+                writeGraphMLKey(xml, "labels", "node", "labels", "string");
+                int index = 0;
+                for (Map.Entry<String, String> key : nodeKeys.entrySet()) {
+                    writeGraphMLKey(xml, "n" + index++, "node", key.getKey(), key.getValue());
+                }
+                writeGraphMLKey(xml, "type", "edge", "type", "string");
+                index = 0;
+                for (Map.Entry<String, String> key : edgeKeys.entrySet()) {
+                    writeGraphMLKey(xml, "e" + index++, "edge", key.getKey(), key.getValue());
+                }
+
+                xml.writeStartElement("graph");
+                xml.writeAttribute("id", "G");
+                xml.writeAttribute("edgedefault", "directed");
+                xml.writeCharacters("\n");
+
+                monitor.subTask("Write nodes");
+                int count = 0;
+                for (CypherNode node : nodes) {
+                    xml.writeStartElement("node");
+                    xml.writeAttribute("id", node.getID());
+                    writeGraphMLData(xml, "labels", ":" + String.join(":", node.getLabels()));
+                    writeGraphMLProperties(xml, "n", nodeKeys, node.getProperties());
+                    xml.writeEndElement();
+                    xml.writeCharacters("\n");
+                    if (!worked(monitor, ++count)) {
+                        return false;
+                    }
+                }
+
+                monitor.subTask("Write edges");
+                count = 0;
+                for (CypherEdge edge : edges) {
+                    xml.writeStartElement("edge");
+                    xml.writeAttribute("id", edge.getID());
+                    xml.writeAttribute("source", edge.getStartNodeID());
+                    xml.writeAttribute("target", edge.getEndNodeID());
+                    writeGraphMLData(xml, "type", String.join(":", edge.getTypes()));
+                    writeGraphMLProperties(xml, "e", edgeKeys, edge.getProperties());
+                    xml.writeEndElement();
+                    xml.writeCharacters("\n");
+                    if (!worked(monitor, ++count)) {
+                        return false;
+                    }
+                }
+
+                xml.writeEndElement();
+                xml.writeCharacters("\n");
+                xml.writeEndElement();
+                xml.writeEndDocument();
+                xml.flush();
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        return true;
+    }
+
+    private static void writeGraphMLKey(
+            XMLStreamWriter xml, String id, String domain, String name, String type)
+            throws XMLStreamException {
+        xml.writeEmptyElement("key");
+        xml.writeAttribute("id", id);
+        xml.writeAttribute("for", domain);
+        xml.writeAttribute("attr.name", name);
+        xml.writeAttribute("attr.type", type);
+        xml.writeCharacters("\n");
+    }
+
+    private static void writeGraphMLProperties(
+            XMLStreamWriter xml,
+            String prefix,
+            Map<String, String> keys,
+            Map<String, Object> properties)
+            throws XMLStreamException {
+        int index = 0;
+        for (String key : keys.keySet()) {
+            Object value = properties.get(key);
+            if (value != null) {
+                writeGraphMLData(xml, prefix + index, value.toString());
+            }
+            index++;
+        }
+    }
+
+    private static void writeGraphMLData(XMLStreamWriter xml, String key, String value)
+            throws XMLStreamException {
+        xml.writeStartElement("data");
+        xml.writeAttribute("key", key);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    private boolean writeJsonLines(DBRProgressMonitor monitor, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            // lenient mode lets one writer put several top-level values in the file
+            JsonWriter json = new JsonWriter(writer);
+            json.setLenient(true);
+
+            monitor.subTask("Write nodes");
+            int count = 0;
+            for (CypherNode node : nodes) {
+                json.beginObject();
+                json.name("type").value("node");
+                json.name("id").value(node.getID());
+                json.name("labels").beginArray();
+                for (String label : node.getLabels()) {
+                    json.value(label);
+                }
+                json.endArray();
+                writeJsonProperties(json, node.getProperties());
+                json.endObject();
+                writer.write('\n');
+                if (!worked(monitor, ++count)) {
+                    return false;
+                }
+            }
+
+            monitor.subTask("Write edges");
+            count = 0;
+            for (CypherEdge edge : edges) {
+                json.beginObject();
+                json.name("type").value("relationship");
+                json.name("id").value(edge.getID());
+                json.name("label").value(edge.getTypes().isEmpty() ? "" : edge.getTypes().get(0));
+                json.name("start").value(edge.getStartNodeID());
+                json.name("end").value(edge.getEndNodeID());
+                writeJsonProperties(json, edge.getProperties());
+                json.endObject();
+                writer.write('\n');
+                if (!worked(monitor, ++count)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeJsonProperties(JsonWriter json, Map<String, Object> properties)
+            throws IOException {
+        json.name("properties").beginObject();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            json.name(property.getKey());
+            Object value = property.getValue();
+            if (value == null) {
+                json.nullValue();
+            } else if (value instanceof Number) {
+                json.value((Number) value);
+            } else if (value instanceof Boolean) {
+                json.value((Boolean) value);
+            } else {
+                json.value(value.toString());
+            }
+        }
+        json.endObject();
+    }
+
+    private Map<String, String> collectNodeKeys(DBRProgressMonitor monitor) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        int count = 0;
+        for (CypherNode node : nodes) {
+            addKeys(keys, node.getProperties());
+            if (!worked(monitor, ++count)) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    private Map<String, String> collectEdgeKeys(DBRProgressMonitor monitor) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        int count = 0;
+        for (CypherEdge edge : edges) {
+            addKeys(keys, edge.getProperties());
+            if (!worked(monitor, ++count)) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    /* Adds the keys of an element, with the GraphML type of their values */
+    private static void addKeys(Map<String, String> keys, Map<String, Object> properties) {
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            String type = getGraphMLType(property.getValue());
+            String known = keys.putIfAbsent(property.getKey(), type);
+            if (known != null && !known.equals(type)) {
+                keys.put(property.getKey(), "string");
+            }
+        }
+    }
+
+    private static String getGraphMLType(Object value) {
+        if (value instanceof Integer
+                || value instanceof Long
+                || value instanceof Short
+                || value instanceof Byte) {
+            return "long";
+        } else if (value instanceof Double || value instanceof Float) {
+            return "double";
+        } else if (value instanceof Boolean) {
+            return "boolean";
+        }
+        return "string";
+    }
+
+    /* Reports progress every PROGRESS_STEP elements; returns false once canceled */
+    private static boolean worked(DBRProgressMonitor monitor, int count) {
+        if (count % PROGRESS_STEP == 0) {
+            monitor.worked(PROGRESS_STEP);
+            return !monitor.isCanceled();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.swt.widgets.Display;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+/** Posts the graph to a viewer with {@link SendHttp} in the background. */
+public class GraphPublishJob extends AbstractJob {
+
+    private final String url;
+    private final List<CypherNode> nodes;
+    private final List<CypherEdge> edges;
+    private final boolean gzip;
+    private final Runnable onSent;
+
+    /**
+     * Takes the elements to send. The lists are copied, so the graph may change once this
+     * returns.
+     *
+     * @param url http or https URL
+     * @param vertices graph vertices
+     * @param edges graph edges
+     * @param gzip compress the request body
+     * @param onSent called on the UI thread once the viewer accepted the graph, may be null
+     */
+    public GraphPublishJob(
+            String url,
+            Collection<Vertex<CypherNode>> vertices,
+            Collection<FxEdge<CypherEdge, CypherNode>> edges,
+            boolean gzip,
+            Runnable onSent) {
+        super("Send graph to " + url);
+        setUser(true);
+        this.url = url;
+        this.nodes = new ArrayList<>(vertices.size());
+        for (Vertex<CypherNode> vertex : vertices) {
+            this.nodes.add(vertex.element());
+        }
+        this.edges = new ArrayList<>(edges.size());
+        for (FxEdge<CypherEdge, CypherNode> edge : edges) {
+            this.edges.add(edge.element());
+        }
+        this.gzip = gzip;
+        this.onSent = onSent;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        monitor.beginTask("Send graph", nodes.size() + edges.size());
+        try {
+            if (!SendHttp.getInstance().send(monitor, url, nodes, edges, gzip)) {
+                return Status.CANCEL_STATUS;
+            }
+        } catch (IOException e) {
+            // reported by the job manager, this is a user job
+            return GeneralUtils.makeExceptionStatus("Can't send graph to " + url, e);
+        } finally {
+            monitor.done();
+        }
+        if (onSent != null) {
+            Display.getDefault().asyncExec(onSent);
+        }
+        return Status.OK_STATUS;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.swt.widgets.Display;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+/**
+ * Vertex positions of the graphs drawn for a query, kept in the workspace so that running the
+ * query again or reopening the editor draws the graph where it was left.
+ *
+ * <p>A layout is keyed by the data source and the normalized query text, and maps node IDs to
+ * coordinates. Each layout is a small binary file holding the key, then the ID and the float
+ * coordinates of every vertex. Layouts are evicted least recently used first once there are more
+ * than {@link #MAX_LAYOUTS} of them or they take more than {@link #MAX_TOTAL_BYTES}.
+ *
+ * <p>Files are read and written by background jobs. When a layout is saved several times before
+ * its job runs, only the last version is written.
+ */
+public class LayoutPositionCache {
+
+    private static final Log log = Log.getLog(LayoutPositionCache.class);
+
+    public static final int MAX_LAYOUTS = 200;
+    public static final long MAX_TOTAL_BYTES = 32L * 1024 * 1024;
+    // larger graphs are not saved, their file alone would evict most of the others
+    public static final int MAX_VERTICES = 100_000;
+
+    private static final String FOLDER_NAME = "graph-layouts";
+    private static final String FILE_EXTENSION = ".layout";
+    private static final int MAGIC = 0x54474C59;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_STRING_BYTES = 1 << 24;
+
+    private static LayoutPositionCache instance;
+
+    private final Path folder;
+    // file name to file size, least recently used first
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    // layouts saved but not written yet, by key
+    private final Map<String, Map<String, double[]>> pending = new HashMap<>();
+    private long totalBytes = 0;
+    private boolean indexed = false;
+
+    public LayoutPositionCache(Path folder) {
+        this.folder = folder;
+    }
+
+    /** Returns the cache of the current workspace. */
+    public static synchronized LayoutPositionCache getInstance() {
+        if (instance == null) {
+            Path metadata = DBWorkbench.getPlatform().getWorkspace().getMetadataFolder().toPath();
+            instance = new LayoutPositionCache(metadata.resolve(FOLDER_NAME));
+        }
+        return instance;
+    }
+
+    /**
+     * Makes the key of a layout. Comments, blank runs and a trailing semicolon are ignored, so
+     * the same query reformatted keeps its layout.
+     *
+     * @param dataSourceId ID of the data source container
+     * @param query query text
+     * @return layout key
+     */
+    public static String makeKey(String dataSourceId, String query) {
+        StringBuilder key = new StringBuilder(dataSourceId.length() + query.length() + 1);
+        key.append(dataSourceId).append('\n');
+        int start = key.length();
+        char quote = 0;
+        boolean blank = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (quote != 0) {
+                key.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (c == '/' && i + 1 < query.length() && query.charAt(i + 1) == '/') {
+                while (i < query.length() && query.charAt(i) != '\n') {
+                    i++;
+                }
+                blank = true;
+                continue;
+            }
+            if (c == '/' && i + 1 < query.length() && query.charAt(i + 1) == '*') {
+                int end = query.indexOf("*/", i + 2);
+                i = end < 0 ? query.length() : end + 1;
+                blank = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                blank = true;
+                continue;
+            }
+            if (blank && key.length() > start) {
+                key.append(' ');
+            }
+            blank = false;
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            key.append(c);
+        }
+        if (key.length() > start && key.charAt(key.length() - 1) == ';') {
+            key.setLength(key.length() - 1);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Reads a layout in the background.
+     *
+     * @param key layout key, see {@link #makeKey}
+     * @param consumer called on the UI thread with the position <code>{x, y}</code> by node ID,
+     *     or with null if there is no layout for the key
+     */
+    public void load(String key, Consumer<Map<String, double[]>> consumer) {
+        new LoadJob(key, consumer).schedule();
+    }
+
+    /**
+     * Reads a layout. This may list the folder and read the file, do not call it on the UI
+     * thread.
+     *
+     * @param key layout key, see {@link #makeKey}
+     * @return position <code>{x, y}</code> by node ID, or null if there is no layout for the key
+     */
+    public synchronized Map<String, double[]> load(String key) {
+        Map<String, double[]> unwritten = pending.get(key);
+        if (unwritten != null) {
+            return unwritten;
+        }
+        index();
+        String name = fileName(key);
+        if (files.get(name) == null) {
+            return null;
+        }
+        Path file = folder.resolve(name);
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (!key.equals(readString(in))) {
+                // hash collision: the file belongs to another query
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, double[]> positions = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String id = readString(in);
+                positions.put(id, new double[] {in.readFloat(), in.readFloat()});
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return positions;
+        } catch (IOException e) {
+            log.debug("Can't read graph layout " + file, e);
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a layout in the background, replacing the previous layout of the key.
+     *
+     * @param key layout key, see {@link #makeKey}
+     * @param positions position <code>{x, y}</code> by node ID
+     */
+    public synchronized void save(String key, Map<String, double[]> positions) {
+        if (positions.isEmpty() || positions.size() > MAX_VERTICES) {
+            return;
+        }
+        pending.put(key, positions);
+        new SaveJob(key).schedule();
+    }
+
+    /* Writes the last layout saved for the key; nothing if another job wrote it already */
+    synchronized void write(String key) throws IOException {
+        Map<String, double[]> positions = pending.remove(key);
+        if (positions == null) {
+            return;
+        }
+        index();
+        Files.createDirectories(folder);
+        String name = fileName(key);
+        Path file = folder.resolve(name);
+        Path temp = folder.resolve(name + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, key);
+            out.writeInt(positions.size());
+            for (Map.Entry<String, double[]> entry : positions.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeFloat((float) entry.getValue()[0]);
+                out.writeFloat((float) entry.getValue()[1]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+
+        Long previous = files.put(name, Files.size(file));
+        totalBytes += files.get(name) - (previous == null ? 0 : previous);
+        evict();
+    }
+
+    /* Drops the least recently used layouts above the caps */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while ((files.size() > MAX_LAYOUTS || totalBytes > MAX_TOTAL_BYTES)
+                && files.size() > 1
+                && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            try {
+                Files.deleteIfExists(folder.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.debug("Can't delete graph layout " + eldest.getKey(), e);
+            }
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void remove(String name) {
+        Long size = files.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(folder.resolve(name));
+        } catch (IOException e) {
+            log.debug("Can't delete graph layout " + name, e);
+        }
+    }
+
+    /* Lists the layout files once, oldest first, so the LRU order survives restarts */
+    private void index() {
+        if (indexed) {
+            return;
+        }
+        indexed = true;
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(folder, "*" + FILE_EXTENSION)) {
+            for (Path file : stream) {
+                found.add(file);
+            }
+        } catch (IOException e) {
+            log.debug("Can't list graph layouts in " + folder, e);
+            return;
+        }
+        found.sort(Comparator.comparingLong(LayoutPositionCache::lastModified));
+        for (Path file : found) {
+            try {
+                long size = Files.size(file);
+                files.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            } catch (IOException e) {
+                log.debug("Can't read graph layout " + file, e);
+            }
+        }
+        evict();
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /* 64-bit FNV-1a hash of the key; the key itself is checked when the file is read */
+    private static String fileName(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString(hash) + FILE_EXTENSION;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupted string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private class LoadJob extends AbstractJob {
+
+        private final String key;
+        private final Consumer<Map<String, double[]>> consumer;
+
+        LoadJob(String key, Consumer<Map<String, double[]>> consumer) {
+            super("Load graph layout");
+            setSystem(true);
+            this.key = key;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            Map<String, double[]> positions = load(key);
+            Display.getDefault().asyncExec(() -> consumer.accept(positions));
+            return Status.OK_STATUS;
+        }
+    }
+
+    private class SaveJob extends AbstractJob {
+
+        private final String key;
+
+        SaveJob(String key) {
+            super("Save graph layout");
+            setSystem(true);
+            this.key = key;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                write(key);
+            } catch (IOException e) {
+                log.debug("Can't save graph layout", e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.swt.widgets.Display;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.NeighborExpansion;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+
+/**
+ * Fetches the next page of a {@link NeighborExpansion} and hands the relationships and neighbor
+ * nodes to the UI thread as a {@link GraphBatch}. The expansion is advanced on the UI thread too,
+ * so it is only read here.
+ */
+public class NeighborExpandJob extends AbstractJob {
+
+    /** Relationships and neighbors of one page. */
+    public static class Page {
+        private final GraphBatch batch = new GraphBatch();
+        private long lastEdgeId = -1;
+        private int count;
+
+        public GraphBatch getBatch() {
+            return batch;
+        }
+
+        public long getLastEdgeId() {
+            return lastEdgeId;
+        }
+
+        /** Returns the number of relationships read. */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private final DBPDataSource dataSource;
+    private final NeighborExpansion expansion;
+    private final String query;
+    private final Consumer<Page> pageConsumer;
+
+    /**
+     * @param dataSource data source of the displayed result
+     * @param expansion expansion to continue
+     * @param pageConsumer called on the UI thread with the page, unless the job fails
+     */
+    public NeighborExpandJob(
+            DBPDataSource dataSource, NeighborExpansion expansion, Consumer<Page> pageConsumer) {
+        super("Expand node " + expansion.getAnchorId());
+        setUser(true);
+        this.dataSource = dataSource;
+        this.expansion = expansion;
+        this.query = expansion.buildQuery();
+        this.pageConsumer = pageConsumer;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        if (dataSource == null) {
+            return Status.CANCEL_STATUS;
+        }
+        monitor.beginTask("Read neighbors of node " + expansion.getAnchorId(), 1);
+        Page page = new Page();
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Expand node")) {
+            try (JDBCPreparedStatement dbStat = session.prepareStatement(query);
+                    JDBCResultSet dbResult = dbStat.executeQuery()) {
+                while (dbResult.next()) {
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    readRow(dbResult, page);
+                }
+            }
+        } catch (DBCException | SQLException e) {
+            DBWorkbench.getPlatformUI()
+                    .showError(
+                            "Expand node",
+                            "Can't read the neighbors of node " + expansion.getAnchorId(),
+                            e);
+            return Status.CANCEL_STATUS;
+        } finally {
+            monitor.done();
+        }
+
+        Display.getDefault().asyncExec(() -> pageConsumer.accept(page));
+        return Status.OK_STATUS;
+    }
+
+    private static void readRow(JDBCResultSet dbResult, Page page) throws SQLException {
+        String edgeId = toId(JDBCUtils.safeGetObject(dbResult, 1));
+        List<String> types = toList(JDBCUtils.safeGetObject(dbResult, 2));
+        String startId = toId(JDBCUtils.safeGetObject(dbResult, 3));
+        String endId = toId(JDBCUtils.safeGetObject(dbResult, 4));
+        LinkedHashMap<String, Object> edgeProperties =
+                toProperties(JDBCUtils.safeGetObject(dbResult, 5));
+        String nodeId = toId(JDBCUtils.safeGetObject(dbResult, 6));
+        List<String> labels = toList(JDBCUtils.safeGetObject(dbResult, 7));
+        LinkedHashMap<String, Object> nodeProperties =
+                toProperties(JDBCUtils.safeGetObject(dbResult, 8));
+        if (edgeId == null || nodeId == null) {
+            return;
+        }
+
+        page.batch.addNode(nodeId, labels, nodeProperties);
+        page.batch.addEdge(edgeId, types, startId, endId, edgeProperties);
+        page.count++;
+        try {
+            page.lastEdgeId = Long.parseLong(edgeId);
+        } catch (NumberFormatException e) {
+            // ids are read in order, the previous one still bounds the next page
+        }
+    }
+
+    private static String toId(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return String.valueOf(((Number) value).longValue());
+        }
+        return String.valueOf(value).replaceAll("[\\[\\]]", "").trim();
+    }
+
+    /* Labels come back as a list, or as "[A, B]" from drivers that return text */
+    private static List<String> toList(Object value) {
+        List<String> list = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                list.add(String.valueOf(item));
+            }
+        } else if (value != null) {
+            for (String item : String.valueOf(value).replaceAll("[\\[\\]]", "").split(",")) {
+                if (!item.trim().isEmpty()) {
+                    list.add(item.trim());
+                }
+            }
+        }
+        return list;
+    }
+
+    private static LinkedHashMap<String, Object> toProperties(Object value) {
+        LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                properties.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
+        return properties;
+    }
+}
@@ -16,177 +16,210 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import java.io.BufferedReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
-import java.util.HashMap;
-
+import java.util.Collection;
+import java.util.zip.GZIPOutputStream;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
-
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
-import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
-import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
+/**
+ * Posts the graph to a viewer as <code>{"nodes":[...],"links":[...]}</code>.
+ *
+ * <p>The body is written by a streaming {@link JsonWriter} into a chunked request, optionally
+ * gzip compressed, so memory use does not depend on the graph size. Elements go out in batches of
+ * {@link #BATCH_SIZE}: each batch is flushed to the socket, which blocks while the server does
+ * not keep up, and the monitor is checked for cancellation in between.
+ *
+ * <p>The shared instance keeps its SSL settings; connections to the same server are reused by the
+ * keep-alive pool of {@link HttpURLConnection}, which needs each response to be read to the end.
+ */
 public class SendHttp {
 
-    public static boolean sendPost(
-            String requestUrl,
-            HashMap<String, Vertex<CypherNode>> requestNode,
-            HashMap<String, FxEdge<CypherEdge, CypherNode>> requestEdge) {
-        try {
-            X509TrustManager trustManager =
-                    new X509TrustManager() {
-                        public void checkClientTrusted(X509Certificate[] xcs, String string)
-                                throws CertificateException {}
-
-                        public void checkServerTrusted(X509Certificate[] xcs, String string)
-                                throws CertificateException {}
-
-                        public X509Certificate[] getAcceptedIssuers() {
-                            return new X509Certificate[0];
-                        }
-                    };
-            SSLContext context = SSLContext.getInstance("TLS");
-            context.init(null, new TrustManager[] {trustManager}, new SecureRandom());
-
-            HttpsURLConnection.setDefaultSSLSocketFactory(context.getSocketFactory());
-            HttpsURLConnection.setDefaultHostnameVerifier(
-                    new HostnameVerifier() {
-                        public boolean verify(String hostname, SSLSession session) {
-                            return true;
-                        }
-                    });
-
-            URL url = new URL(requestUrl);
-            HttpsURLConnection httpConn = null;
-            httpConn = (HttpsURLConnection) url.openConnection();
-            httpConn.setRequestMethod("POST");
-            httpConn.setRequestProperty("Content-Type", "application/json");
-            httpConn.setDoOutput(true);
-
-            OutputStreamWriter wr = null;
-            wr = new OutputStreamWriter(httpConn.getOutputStream(), "UTF-8");
-
-            wr.write(makeJsonData(requestNode, requestEdge));
-            wr.flush();
-            wr.close();
-
-            InputStreamReader isr = new InputStreamReader(httpConn.getInputStream(), "UTF-8");
-            BufferedReader br = new BufferedReader(isr);
-
-            isr.close();
-            br.close();
-
-        } catch (MalformedURLException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        } catch (KeyManagementException e) {
-            e.printStackTrace();
-        }
+    public static final int BATCH_SIZE = 1000;
 
-        return true;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CONNECT_TIMEOUT = 10 * 1000;
+    private static final int READ_TIMEOUT = 60 * 1000;
+
+    private static SendHttp instance;
+
+    private final SSLSocketFactory socketFactory;
+    private final HostnameVerifier hostnameVerifier;
+
+    private SendHttp() throws GeneralSecurityException {
+        // the viewer usually runs locally with a self-signed certificate
+        X509TrustManager trustManager =
+                new X509TrustManager() {
+                    public void checkClientTrusted(X509Certificate[] xcs, String string) {}
+
+                    public void checkServerTrusted(X509Certificate[] xcs, String string) {}
+
+                    public X509Certificate[] getAcceptedIssuers() {
+                        return new X509Certificate[0];
+                    }
+                };
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[] {trustManager}, new SecureRandom());
+        this.socketFactory = context.getSocketFactory();
+        this.hostnameVerifier = (hostname, session) -> true;
+    }
+
+    /**
+     * Returns the shared client.
+     *
+     * @return client
+     * @throws IOException if TLS is not available
+     */
+    public static synchronized SendHttp getInstance() throws IOException {
+        if (instance == null) {
+            try {
+                instance = new SendHttp();
+            } catch (GeneralSecurityException e) {
+                throw new IOException("TLS initialization failed", e);
+            }
+        }
+        return instance;
     }
 
-    public static boolean sendPostHttp(
+    /**
+     * Posts the nodes and edges.
+     *
+     * @param monitor progress monitor, one unit of work per element
+     * @param requestUrl http or https URL
+     * @param nodes nodes to send
+     * @param edges edges to send
+     * @param gzip compress the request body
+     * @return false if the monitor was canceled before the whole graph was sent
+     * @throws IOException if the request fails or the server answers with an error
+     */
+    public boolean send(
+            DBRProgressMonitor monitor,
             String requestUrl,
-            HashMap<String, Vertex<CypherNode>> requestNode,
-            HashMap<String, FxEdge<CypherEdge, CypherNode>> requestEdge) {
-        try {
-            URL url = new URL(requestUrl);
-            HttpURLConnection httpConn = null;
-            httpConn = (HttpURLConnection) url.openConnection();
-            httpConn.setRequestMethod("POST");
-            httpConn.setRequestProperty("Content-Type", "application/json");
-            httpConn.setDoOutput(true);
-
-            OutputStreamWriter wr = null;
-            wr = new OutputStreamWriter(httpConn.getOutputStream(), "UTF-8");
-
-            wr.write(makeJsonData(requestNode, requestEdge));
-            wr.flush();
-            wr.close();
-
-            InputStreamReader isr = new InputStreamReader(httpConn.getInputStream(), "UTF-8");
-            BufferedReader br = new BufferedReader(isr);
-
-            isr.close();
-            br.close();
-
-        } catch (MalformedURLException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+            Collection<CypherNode> nodes,
+            Collection<CypherEdge> edges,
+            boolean gzip)
+            throws IOException {
+        HttpURLConnection httpConn = (HttpURLConnection) new URL(requestUrl).openConnection();
+        if (httpConn instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) httpConn).setSSLSocketFactory(socketFactory);
+            ((HttpsURLConnection) httpConn).setHostnameVerifier(hostnameVerifier);
+        }
+        httpConn.setRequestMethod("POST");
+        httpConn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+        if (gzip) {
+            httpConn.setRequestProperty("Content-Encoding", "gzip");
         }
+        httpConn.setConnectTimeout(CONNECT_TIMEOUT);
+        httpConn.setReadTimeout(READ_TIMEOUT);
+        httpConn.setChunkedStreamingMode(CHUNK_SIZE);
+        httpConn.setDoOutput(true);
 
-        return true;
+        boolean sent = false;
+        try {
+            OutputStream out = new BufferedOutputStream(httpConn.getOutputStream(), CHUNK_SIZE);
+            if (gzip) {
+                out = new GZIPOutputStream(out, CHUNK_SIZE, true);
+            }
+            JsonWriter json = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (!writeGraph(monitor, json, nodes, edges)) {
+                // not closed: that would end the request as if the body was complete
+                return false;
+            }
+            json.close();
+            sent = true;
+
+            int responseCode = httpConn.getResponseCode();
+            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                drain(httpConn.getErrorStream());
+                throw new IOException(
+                        "Server returned " + responseCode + " " + httpConn.getResponseMessage());
+            }
+            drain(httpConn.getInputStream());
+            return true;
+        } finally {
+            if (!sent) {
+                // a half-sent request can't go back to the pool
+                httpConn.disconnect();
+            }
+        }
     }
 
-    private static String makeJsonData(
-            HashMap<String, Vertex<CypherNode>> requestNode,
-            HashMap<String, FxEdge<CypherEdge, CypherNode>> requestEdge) {
-        long beforeTime = System.currentTimeMillis();
-
-        Gson gson = new Gson();
-        String retString = "";
+    private boolean writeGraph(
+            DBRProgressMonitor monitor,
+            JsonWriter json,
+            Collection<CypherNode> nodes,
+            Collection<CypherEdge> edges)
+            throws IOException {
         int count = 0;
-
-        retString += "{\"nodes\":[";
-        for (String nodeKey : requestNode.keySet()) {
-            JsonObject jsonData = new JsonObject();
-            count++;
-            jsonData.addProperty("id", requestNode.get(nodeKey).element().getID());
-            jsonData.addProperty("label", requestNode.get(nodeKey).element().getLabelsString());
-            jsonData.addProperty("display", requestNode.get(nodeKey).element().getDisplay());
-            // jsonData.addProperty("label", 1);
-            // retString += "{";
-            retString += gson.toJson(jsonData);
-            // retString += "},";
-            if (requestNode.size() != count) {
-                retString += ",";
+        json.beginObject();
+
+        json.name("nodes").beginArray();
+        for (CypherNode node : nodes) {
+            json.beginObject();
+            json.name("id").value(node.getID());
+            json.name("label").value(node.getLabelsString());
+            json.name("display").value(node.getDisplay());
+            json.endObject();
+            if (++count % BATCH_SIZE == 0 && !flushBatch(monitor, json)) {
+                return false;
             }
         }
-        retString += "],";
-
-        retString += "\"links\":[";
-        count = 0;
-        for (String edgeKey : requestEdge.keySet()) {
-            JsonObject jsonData = new JsonObject();
-            count++;
-            jsonData.addProperty("id", requestEdge.get(edgeKey).element().getID());
-            jsonData.addProperty("type", requestEdge.get(edgeKey).element().getTypes().toString());
-            jsonData.addProperty("source", requestEdge.get(edgeKey).element().getStartNodeID());
-            jsonData.addProperty("target", requestEdge.get(edgeKey).element().getEndNodeID());
-            retString += gson.toJson(jsonData);
-            if (requestEdge.size() != count) {
-                retString += ",";
+        json.endArray();
+
+        json.name("links").beginArray();
+        for (CypherEdge edge : edges) {
+            json.beginObject();
+            json.name("id").value(edge.getID());
+            json.name("type").value(edge.getTypes().toString());
+            json.name("source").value(edge.getStartNodeID());
+            json.name("target").value(edge.getEndNodeID());
+            json.endObject();
+            if (++count % BATCH_SIZE == 0 && !flushBatch(monitor, json)) {
+                return false;
             }
         }
-        retString += "]}";
+        json.endArray();
 
-        long afterTime = System.currentTimeMillis();
-        long secDiffTime = (afterTime - beforeTime);
-        // System.out.println("(m) : " + secDiffTime);
+        json.endObject();
+        monitor.worked(count % BATCH_SIZE);
+        return true;
+    }
 
-        return retString;
+    /* Pushes the batch to the socket; blocks until the server has taken the previous chunks */
+    private static boolean flushBatch(DBRProgressMonitor monitor, JsonWriter json)
+            throws IOException {
+        json.flush();
+        monitor.worked(BATCH_SIZE);
+        return !monitor.isCanceled();
+    }
+
+    private static void drain(InputStream stream) throws IOException {
+        if (stream == null) {
+            return;
+        }
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[4096];
+            while (in.read(buffer) >= 0) {
+                // discard
+            }
+        }
     }
 }
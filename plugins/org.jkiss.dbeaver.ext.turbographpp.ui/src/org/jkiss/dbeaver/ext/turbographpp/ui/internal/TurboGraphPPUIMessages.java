@@ -49,6 +49,19 @@ public class TurboGraphPPUIMessages extends NLS {
     public static String visualization_to_csv_file_button_tool_tip;
     public static String visualization_next_data_button_tool_tip;
     public static String visualization_all_data_button_tool_tip;
+    public static String plan_config_dialog_title;
+    public static String plan_config_settings_group;
+    public static String plan_config_profile_label;
+    public static String plan_config_profile_tip;
+    public static String plan_column_operator;
+    public static String plan_column_rows;
+    public static String plan_column_db_hits;
+    public static String plan_column_time;
+    public static String plan_column_time_percent;
+    public static String plan_hot_operator;
+    public static String plan_compare_action;
+    public static String plan_compare_error;
+    public static String plan_compare_header;
 
     static {
         // initialize resource bundle
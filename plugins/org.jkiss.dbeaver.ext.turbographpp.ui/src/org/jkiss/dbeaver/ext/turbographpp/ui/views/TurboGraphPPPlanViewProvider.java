@@ -16,18 +16,32 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.ui.views;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IContributionManager;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.ui.IWorkbenchPart;
 import org.jkiss.dbeaver.ext.turbographpp.model.plan.TurboGraphPPExecutionPlan;
+import org.jkiss.dbeaver.ext.turbographpp.ui.internal.TurboGraphPPUIMessages;
 import org.jkiss.dbeaver.model.exec.plan.DBCPlan;
+import org.jkiss.dbeaver.model.exec.plan.DBCQueryPlanner;
+import org.jkiss.dbeaver.model.exec.plan.DBCQueryPlannerSerializable;
 import org.jkiss.dbeaver.model.sql.SQLQuery;
-import org.jkiss.dbeaver.ui.editors.sql.plan.simple.SQLPlanViewProviderSimple;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.ui.DBeaverIcons;
+import org.jkiss.dbeaver.ui.UIIcon;
+import org.jkiss.dbeaver.ui.editors.sql.SQLPlanSaveProvider;
+import org.jkiss.dbeaver.utils.GeneralUtils;
 
-public class TurboGraphPPPlanViewProvider extends SQLPlanViewProviderSimple {
+public class TurboGraphPPPlanViewProvider extends SQLPlanSaveProvider {
 
-    
     @Override
     public Viewer createPlanViewer(IWorkbenchPart workbenchPart, Composite parent) {
         TurboGraphPlanText treeViewer = new TurboGraphPlanText(workbenchPart, parent);
@@ -35,15 +49,19 @@ public class TurboGraphPPPlanViewProvider extends SQLPlanViewProviderSimple {
     }
 
     @Override
-    public void visualizeQueryPlan(Viewer viewer, SQLQuery query, DBCPlan plan) {        
-        query.setText(((TurboGraphPPExecutionPlan) plan).getPlanQueryString());
+    public void visualizeQueryPlan(Viewer viewer, SQLQuery query, DBCPlan plan) {
         fillPlan(query, plan);
         showPlan(viewer, query, plan);
     }
 
     @Override
-    public void contributeActions(Viewer viewer, IContributionManager contributionManager, SQLQuery lastQuery, DBCPlan lastPlan) {
-     
+    public void contributeActions(
+            Viewer viewer,
+            IContributionManager contributionManager,
+            SQLQuery lastQuery,
+            DBCPlan lastPlan) {
+        super.contributeActions(viewer, contributionManager, lastQuery, lastPlan);
+        contributionManager.add(new CompareAction((TurboGraphPlanText) viewer));
     }
 
     @Override
@@ -51,4 +69,51 @@ public class TurboGraphPPPlanViewProvider extends SQLPlanViewProviderSimple {
         TurboGraphPlanText treeViewer = (TurboGraphPlanText) viewer;
         treeViewer.showPlan(query, plan);
     }
-}
\ No newline at end of file
+
+    /* Loads a saved plan and shows the current plan against it */
+    private static class CompareAction extends Action {
+
+        private final TurboGraphPlanText viewer;
+
+        CompareAction(TurboGraphPlanText viewer) {
+            super(
+                    TurboGraphPPUIMessages.plan_compare_action,
+                    DBeaverIcons.getImageDescriptor(UIIcon.COMPARE));
+            this.viewer = viewer;
+        }
+
+        @Override
+        public void run() {
+            SQLQuery query = viewer.getQuery();
+            if (query == null || !(viewer.getPlan() instanceof TurboGraphPPExecutionPlan)) {
+                return;
+            }
+            DBCQueryPlanner planner =
+                    GeneralUtils.adapt(query.getDataSource(), DBCQueryPlanner.class);
+            if (!(planner instanceof DBCQueryPlannerSerializable)) {
+                return;
+            }
+
+            FileDialog fd = new FileDialog(viewer.getControl().getShell(), SWT.OPEN | SWT.SINGLE);
+            fd.setText(TurboGraphPPUIMessages.plan_compare_action);
+            fd.setFilterExtensions(SQLPlanSaveProvider.EXT);
+            String selected = fd.open();
+            if (selected == null) {
+                return;
+            }
+            try (Reader r = new FileReader(selected)) {
+                DBCPlan baseline = ((DBCQueryPlannerSerializable) planner).deserialize(r);
+                if (baseline instanceof TurboGraphPPExecutionPlan) {
+                    viewer.showComparison(
+                            (TurboGraphPPExecutionPlan) baseline, new File(selected).getName());
+                }
+            } catch (IOException | InvocationTargetException e) {
+                DBWorkbench.getPlatformUI()
+                        .showError(
+                                TurboGraphPPUIMessages.plan_compare_action,
+                                TurboGraphPPUIMessages.plan_compare_error,
+                                GeneralUtils.getRootCause(e));
+            }
+        }
+    }
+}
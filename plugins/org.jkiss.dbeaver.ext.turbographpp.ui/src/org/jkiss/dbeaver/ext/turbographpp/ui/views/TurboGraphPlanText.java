@@ -16,30 +16,51 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.ui.views;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IWorkbenchPart;
+import org.jkiss.dbeaver.ext.turbographpp.model.plan.TurboGraphPPExecutionPlan;
+import org.jkiss.dbeaver.ext.turbographpp.model.plan.TurboGraphPPPlanNodePlain;
+import org.jkiss.dbeaver.ext.turbographpp.ui.internal.TurboGraphPPUIMessages;
 import org.jkiss.dbeaver.model.exec.plan.DBCPlan;
 import org.jkiss.dbeaver.model.sql.SQLQuery;
 import org.jkiss.dbeaver.ui.UIUtils;
+import org.jkiss.utils.CommonUtils;
 
+/**
+ * Shows a plan as an indented operator table. Profiled plans get the rows, db hits and time of
+ * each operator, with the hot operators in bold red, and can be compared with a saved plan.
+ */
 public class TurboGraphPlanText extends Viewer {
-    private Text sqlText;
+
+    private static final int MAX_OPERATOR_WIDTH = 60;
+    private static final String INDENT = "  ";
+
+    private StyledText sqlText;
     private SQLQuery plan;
+    private DBCPlan lastPlan;
 
     public TurboGraphPlanText(final IWorkbenchPart workbenchPart, Composite parent) {
         super();
         Composite composite = UIUtils.createPlaceholder(parent, 1);
         composite.setLayoutData(new GridData(GridData.FILL_BOTH));
         sqlText =
-                new Text(
+                new StyledText(
                         composite,
-                        SWT.BORDER | SWT.MULTI | SWT.WRAP | SWT.V_SCROLL | SWT.READ_ONLY);
+                        SWT.BORDER | SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL | SWT.READ_ONLY);
+        sqlText.setFont(JFaceResources.getTextFont());
         sqlText.setLayoutData(new GridData(GridData.FILL_BOTH));
     }
 
@@ -76,6 +97,206 @@ public class TurboGraphPlanText extends Viewer {
 
     void showPlan(SQLQuery query, DBCPlan plan) {
         this.plan = query;
-        this.sqlText.setText(query.getText());
+        this.lastPlan = plan;
+        if (!(plan instanceof TurboGraphPPExecutionPlan)
+                || ((TurboGraphPPExecutionPlan) plan).getPlanNodes(null).isEmpty()) {
+            String text = plan == null ? null : plan.getPlanQueryString();
+            sqlText.setText(CommonUtils.notEmpty(text));
+            return;
+        }
+        List<Row> rows = new ArrayList<>();
+        for (TurboGraphPPPlanNodePlain node : ((TurboGraphPPExecutionPlan) plan).flatten()) {
+            rows.add(
+                    new Row(
+                            node,
+                            formatRows(node),
+                            formatDbHits(node),
+                            formatTime(node),
+                            CommonUtils.notEmpty(node.getTimePercent())));
+        }
+        render(null, rows);
+    }
+
+    DBCPlan getPlan() {
+        return lastPlan;
+    }
+
+    /**
+     * Shows the current plan against a saved one. Operators are matched by their position in the
+     * plan; an operator whose type changed shows both types.
+     *
+     * @param baseline saved plan
+     * @param name name of the saved plan
+     */
+    void showComparison(TurboGraphPPExecutionPlan baseline, String name) {
+        if (!(lastPlan instanceof TurboGraphPPExecutionPlan)) {
+            return;
+        }
+        List<TurboGraphPPPlanNodePlain> after = ((TurboGraphPPExecutionPlan) lastPlan).flatten();
+        List<TurboGraphPPPlanNodePlain> before = baseline.flatten();
+
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < Math.max(before.size(), after.size()); i++) {
+            TurboGraphPPPlanNodePlain b = i < before.size() ? before.get(i) : null;
+            TurboGraphPPPlanNodePlain a = i < after.size() ? after.get(i) : null;
+            TurboGraphPPPlanNodePlain node = a != null ? a : b;
+            String operator = null;
+            if (a != null && b != null && !a.getNodeType().equals(b.getNodeType())) {
+                operator = b.getNodeType() + " -> " + a.getNodeType();
+            }
+            rows.add(
+                    new Row(
+                            node,
+                            operator,
+                            compare(
+                                    b == null ? null : formatRows(b),
+                                    a == null ? null : formatRows(a)),
+                            compare(
+                                    b == null ? null : formatDbHits(b),
+                                    a == null ? null : formatDbHits(a)),
+                            compare(
+                                    b == null ? null : formatTime(b),
+                                    a == null ? null : formatTime(a)),
+                            compare(
+                                    b == null ? null : b.getTimePercent(),
+                                    a == null ? null : a.getTimePercent())));
+        }
+        render(NLS.bind(TurboGraphPPUIMessages.plan_compare_header, name), rows);
+    }
+
+    private void render(String header, List<Row> rows) {
+        int operatorWidth = TurboGraphPPUIMessages.plan_column_operator.length();
+        int[] widths = {
+            TurboGraphPPUIMessages.plan_column_rows.length(),
+            TurboGraphPPUIMessages.plan_column_db_hits.length(),
+            TurboGraphPPUIMessages.plan_column_time.length(),
+            TurboGraphPPUIMessages.plan_column_time_percent.length()
+        };
+        for (Row row : rows) {
+            operatorWidth = Math.max(operatorWidth, row.operator.length());
+            for (int c = 0; c < widths.length; c++) {
+                widths[c] = Math.max(widths[c], row.values[c].length());
+            }
+        }
+        operatorWidth = Math.min(operatorWidth, MAX_OPERATOR_WIDTH);
+
+        StringBuilder text = new StringBuilder();
+        if (header != null) {
+            text.append(header).append(System.lineSeparator()).append(System.lineSeparator());
+        }
+        appendLine(
+                text,
+                TurboGraphPPUIMessages.plan_column_operator,
+                operatorWidth,
+                new String[] {
+                    TurboGraphPPUIMessages.plan_column_rows,
+                    TurboGraphPPUIMessages.plan_column_db_hits,
+                    TurboGraphPPUIMessages.plan_column_time,
+                    TurboGraphPPUIMessages.plan_column_time_percent
+                },
+                widths);
+
+        List<StyleRange> hotRanges = new ArrayList<>();
+        for (Row row : rows) {
+            int start = text.length();
+            appendLine(text, row.operator, operatorWidth, row.values, widths);
+            String extra = row.node.getExtra();
+            if (!CommonUtils.isEmptyTrimmed(extra)) {
+                text.append("  ").append(extra.trim());
+            }
+            if (row.node.isHot()) {
+                text.append("  [").append(TurboGraphPPUIMessages.plan_hot_operator).append(']');
+                StyleRange range = new StyleRange();
+                range.start = start;
+                range.length = text.length() - start;
+                range.foreground = sqlText.getDisplay().getSystemColor(SWT.COLOR_RED);
+                range.fontStyle = SWT.BOLD;
+                hotRanges.add(range);
+            }
+            text.append(System.lineSeparator());
+        }
+
+        sqlText.setText(text.toString());
+        sqlText.setStyleRanges(hotRanges.toArray(new StyleRange[0]));
+    }
+
+    private static void appendLine(
+            StringBuilder text, String operator, int operatorWidth, String[] values, int[] widths) {
+        if (operator.length() > operatorWidth) {
+            operator = operator.substring(0, operatorWidth - 3) + "...";
+        }
+        text.append(pad(operator, operatorWidth, false));
+        for (int c = 0; c < values.length; c++) {
+            text.append("  ").append(pad(values[c], widths[c], true));
+        }
+    }
+
+    private static String pad(String value, int width, boolean right) {
+        String padding = String.join("", Collections.nCopies(width - value.length(), " "));
+        return right ? padding + value : value + padding;
+    }
+
+    private static String compare(String before, String after) {
+        before = CommonUtils.notEmpty(before);
+        after = CommonUtils.notEmpty(after);
+        if (before.equals(after)) {
+            return after;
+        }
+        return (before.isEmpty() ? "-" : before) + " -> " + (after.isEmpty() ? "-" : after);
+    }
+
+    private static String formatRows(TurboGraphPPPlanNodePlain node) {
+        Number rows = node.getNodeRowCount();
+        return rows == null ? CommonUtils.notEmpty(node.getRow()) : String.valueOf(rows);
+    }
+
+    private static String formatDbHits(TurboGraphPPPlanNodePlain node) {
+        Number hits = node.getNodeCost();
+        return hits == null ? "" : String.valueOf(hits.longValue());
+    }
+
+    private static String formatTime(TurboGraphPPPlanNodePlain node) {
+        Double time = node.getNodeDuration();
+        return time == null
+                ? CommonUtils.notEmpty(node.getTime())
+                : String.format(Locale.ROOT, "%.3f", time);
+    }
+
+    private static int depth(TurboGraphPPPlanNodePlain node) {
+        int depth = 0;
+        for (TurboGraphPPPlanNodePlain p = node.getParent(); p != null; p = p.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /* One operator line: the indented operator followed by the statistic columns */
+    private static class Row {
+        final TurboGraphPPPlanNodePlain node;
+        final String operator;
+        final String[] values;
+
+        Row(
+                TurboGraphPPPlanNodePlain node,
+                String rows,
+                String dbHits,
+                String time,
+                String percent) {
+            this(node, null, rows, dbHits, time, percent);
+        }
+
+        Row(
+                TurboGraphPPPlanNodePlain node,
+                String operator,
+                String rows,
+                String dbHits,
+                String time,
+                String percent) {
+            this.node = node;
+            this.operator =
+                    String.join("", Collections.nCopies(depth(node), INDENT))
+                            + (operator == null ? node.getNodeType() : operator);
+            this.values = new String[] {rows, dbHits, time, CommonUtils.notEmpty(percent)};
+        }
     }
 }
@@ -25,6 +25,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.swt.SWT;
@@ -57,6 +60,7 @@ import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.ext.turbographpp.graph.FXGraph;
 import org.jkiss.dbeaver.ext.turbographpp.graph.GraphBase.LayoutStyle;
 import org.jkiss.dbeaver.ext.turbographpp.graph.data.DataRowID;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
 import org.jkiss.dbeaver.ext.turbographpp.ui.internal.TurboGraphPPUIMessages;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBUtils;
@@ -64,6 +68,8 @@ import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.impl.data.DBDValueError;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
 import org.jkiss.dbeaver.ui.UIIcon;
 import org.jkiss.dbeaver.ui.UIStyles;
@@ -136,6 +142,26 @@ public class VisualizationPresentation extends AbstractPresentation implements I
 
     private int graphTapIndex = FXGraph.GRAPH_TAP;
     private boolean isAddMoreData = false;
+
+    // rows decoded per batch by the ingest job
+    private static final int INGEST_BATCH_ROWS = 1000;
+
+    private GraphIngestJob ingestJob;
+    private int ingestGeneration = 0;
+
+    // ingest jobs of one presentation run one after another, in the order segments arrived
+    private final ISchedulingRule ingestRule =
+            new ISchedulingRule() {
+                @Override
+                public boolean contains(ISchedulingRule rule) {
+                    return rule == this;
+                }
+
+                @Override
+                public boolean isConflicting(ISchedulingRule rule) {
+                    return rule == this;
+                }
+            };
     
     @Override
     public void createPresentation(
@@ -193,6 +219,8 @@ public class VisualizationPresentation extends AbstractPresentation implements I
 
     @Override
     public void dispose() {
+        cancelIngest();
+
         if (monoFont != null) {
             UIUtils.dispose(monoFont);
             monoFont = null;
@@ -243,6 +271,7 @@ public class VisualizationPresentation extends AbstractPresentation implements I
         fetchEndButton.setEnabled(controller.isHasMoreData());
 
         if (refreshMetadata) {
+            cancelIngest();
             lastReadRowCount = 0;
             if (visualGraph != null) {
                 visualGraph.clearGraph();
@@ -538,6 +567,10 @@ public class VisualizationPresentation extends AbstractPresentation implements I
 
     private void ShowVisualizaion(boolean refreshMetadata, boolean append) {
         dataSet(refreshMetadata, append);
+    }
+
+    /* Draws the graph once the first batch of a fetch is in, or defers it to the graph tab */
+    private void showGraph(boolean refreshMetadata, boolean append) {
         if (graphTapIndex == FXGraph.GRAPH_TAP) {
             drawGraph(refreshMetadata, append);
             isAddMoreData = false;
@@ -550,130 +583,312 @@ public class VisualizationPresentation extends AbstractPresentation implements I
         }
     }
 
-    private boolean addNeo4jNode(
-            ResultSetModel model, DBDAttributeBinding attr, ResultSetRow row, String cellString) {
-        Object cellValue = model.getCellValue(attr, row);
+    /* Row element decoded by the ingest job, kept for selection in the result set */
+    private static class RowRef {
+        final String id;
+        final DBDAttributeBinding attr;
+        final ResultSetRow row;
+        final String displayString;
+
+        RowRef(String id, DBDAttributeBinding attr, ResultSetRow row, String displayString) {
+            this.id = id;
+            this.attr = attr;
+            this.row = row;
+            this.displayString = displayString;
+        }
+    }
 
-        final String ID_KEY = NODE_EDGE_ID;
-        final String LABEL_KEY = NODE_LABEL;
+    /* Values of a result row, copied on the UI thread for the ingest job */
+    private static class RowSnapshot {
+        // handed back to the UI thread for selection, never read by the job
+        final ResultSetRow row;
+        final Object[] values;
+        // values of the Neo4j node and relationship columns, by visible attribute index
+        final Object[] cells;
+
+        RowSnapshot(ResultSetRow row, Object[] values, Object[] cells) {
+            this.row = row;
+            this.values = values;
+            this.cells = cells;
+        }
+    }
 
-        LinkedHashMap<String, Object> attrList = new LinkedHashMap<>();
-        String id = "";
-        List<String> labels;
+    private static class IngestBatch {
+        final GraphBatch graphBatch = new GraphBatch();
+        final List<RowRef> nodeRefs = new ArrayList<>();
+        final List<RowRef> edgeRefs = new ArrayList<>();
+    }
 
-        if (cellValue instanceof LinkedHashMap) {
-            attrList.putAll((LinkedHashMap) cellValue);
+    /**
+     * Decodes result rows into graph batches off the UI thread. The job reads only row snapshots
+     * made on the UI thread, never the result set model. Each batch is handed to the UI thread
+     * synchronously, so decoding never runs more than one batch ahead of the graph. Elements
+     * already in the graph are skipped by {@link FXGraph#addBatch(GraphBatch)}.
+     */
+    private class GraphIngestJob extends AbstractJob {
+        private final int generation;
+        private final boolean refreshMetadata;
+        private final boolean append;
+        private final List<DBDAttributeBinding> attrs;
+        private final List<RowSnapshot> rows;
+        private final List<Object> nodeRowData;
+        private final List<Object> edgeRowData;
+        private final DBDDisplayFormat displayFormat;
+        private final boolean nativeNumeric;
+        private final boolean showNullValues;
+        private final StringBuilder cellBuffer = new StringBuilder();
+
+        // UI thread only
+        private boolean drawn = false;
+
+        GraphIngestJob(
+                boolean refreshMetadata,
+                boolean append,
+                List<DBDAttributeBinding> attrs,
+                List<RowSnapshot> rows,
+                List<Object> nodeRowData,
+                List<Object> edgeRowData,
+                DBDDisplayFormat displayFormat) {
+            super("Load graph elements");
+            setUser(false);
+            setRule(ingestRule);
+            this.generation = ingestGeneration;
+            this.refreshMetadata = refreshMetadata;
+            this.append = append;
+            this.attrs = attrs;
+            this.rows = rows;
+            this.nodeRowData = nodeRowData;
+            this.edgeRowData = edgeRowData;
+            this.displayFormat = displayFormat;
+            this.nativeNumeric =
+                    controller
+                            .getPreferenceStore()
+                            .getBoolean(ModelPreferences.RESULT_NATIVE_NUMERIC_FORMAT);
+            this.showNullValues = showNulls;
         }
 
-        String regex = "[\\[\\]]";
-        id = String.valueOf(attrList.get(ID_KEY)).replaceAll(regex, "");
-        if (attrList.get(LABEL_KEY) instanceof String) {
-            List<String> tempLabels = new ArrayList<>();
-            tempLabels.add(String.valueOf(attrList.get(LABEL_KEY)));
-            labels = tempLabels;
-        } else {
-            labels = (List<String>) attrList.get(LABEL_KEY);
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            monitor.beginTask("Load graph elements", rows.size());
+            int start = 0;
+            do {
+                int end = Math.min(rows.size(), start + INGEST_BATCH_ROWS);
+                IngestBatch batch = new IngestBatch();
+                // nodes first, edges whose nodes come in a later batch wait in the graph
+                for (int i = start; i < end; i++) {
+                    decodeRow(rows.get(i), nodeRowData, batch);
+                }
+                for (int i = start; i < end; i++) {
+                    decodeRow(rows.get(i), edgeRowData, batch);
+                }
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                UIUtils.syncExec(() -> applyBatch(this, batch));
+                monitor.worked(end - start);
+                start = end;
+            } while (start < rows.size() && !monitor.isCanceled());
+            if (!monitor.isCanceled()) {
+                UIUtils.syncExec(() -> fetchEnded(this));
+            }
+            monitor.done();
+            return Status.OK_STATUS;
         }
 
-        attrList.remove(ID_KEY);
-        attrList.remove(LABEL_KEY);
+        private void decodeRow(RowSnapshot row, List<Object> rowData, IngestBatch batch) {
+            for (Object obj : rowData) {
+                if (obj instanceof NEO4JRowData) {
+                    NEO4JRowData data = (NEO4JRowData) obj;
+                    if (data.isEdge) {
+                        decodeNeo4jEdge(data, row, batch);
+                    } else {
+                        decodeNeo4jNode(data, row, batch);
+                    }
+                } else if (obj instanceof TurboRowData) {
+                    TurboRowData data = (TurboRowData) obj;
+                    if (data.isEdge) {
+                        decodeTurboEdge(data, row, batch);
+                    } else {
+                        decodeTurboNode(data, row, batch);
+                    }
+                }
+            }
+        }
 
-        DBDAttributeNodeList.put(id, attr);
-        resultSetRowNodeList.put(id, row);
-        displayStringNodeList.put(id, cellString);
-        return visualGraph.addNode(id, labels, attrList) == null ? false : true;
-    }
+        private void decodeNeo4jNode(NEO4JRowData data, RowSnapshot row, IngestBatch batch) {
+            DBDAttributeBinding attr = data.attr;
+            Object cellValue = row.cells[data.idx];
+            if (!(cellValue instanceof Map)) {
+                return;
+            }
+            Map<?, ?> cellMap = (Map<?, ?>) cellValue;
 
-    private boolean addNeo4jEdge(
-            ResultSetModel model, DBDAttributeBinding attr, ResultSetRow row, String cellString) {
-        final String ID_KEY = NODE_EDGE_ID;
-        final String LABEL_KEY = EDGE_TYPE;
-        final String SID_KEY = NEO4J_EDGE_START_ID;
-        final String TID_KEY = NEO4J_EDGE_END_ID;
+            String id = stripBrackets(cellMap.get(NODE_EDGE_ID));
 
-        LinkedHashMap<String, Object> attrList = new LinkedHashMap<>();
-        Object cellValue = model.getCellValue(attr, row);
+            LinkedHashMap<String, Object> attrList = new LinkedHashMap<>();
+            attrList.putAll((Map<String, Object>) cellMap);
+            List<String> labels = toLabelList(attrList.remove(NODE_LABEL));
+            attrList.remove(NODE_EDGE_ID);
 
-        String id = "", sId = "", tId = "";
-        List<String> types;
+            batch.graphBatch.addNode(id, labels, attrList);
+            batch.nodeRefs.add(new RowRef(id, attr, row.row, getCellString(attr, cellValue)));
+        }
 
-        if (cellValue instanceof LinkedHashMap) {
-            attrList.putAll((LinkedHashMap) cellValue);
-        } else {
-            return false;
+        private void decodeNeo4jEdge(NEO4JRowData data, RowSnapshot row, IngestBatch batch) {
+            DBDAttributeBinding attr = data.attr;
+            Object cellValue = row.cells[data.idx];
+            if (!(cellValue instanceof Map)) {
+                return;
+            }
+            Map<?, ?> cellMap = (Map<?, ?>) cellValue;
+
+            String id = stripBrackets(cellMap.get(NODE_EDGE_ID));
+
+            LinkedHashMap<String, Object> attrList = new LinkedHashMap<>();
+            attrList.putAll((Map<String, Object>) cellMap);
+            List<String> types = toLabelList(attrList.remove(EDGE_TYPE));
+            String sId = stripBrackets(attrList.remove(NEO4J_EDGE_START_ID));
+            String tId = stripBrackets(attrList.remove(NEO4J_EDGE_END_ID));
+            attrList.remove(NODE_EDGE_ID);
+
+            batch.graphBatch.addEdge(id, types, sId, tId, attrList);
+            batch.edgeRefs.add(new RowRef(id, attr, row.row, getCellString(attr, cellValue)));
         }
 
-        String regex = "[\\[\\]]";
-        id = String.valueOf(attrList.get(ID_KEY)).replaceAll(regex, "");
-        if (attrList.get(LABEL_KEY) instanceof String) {
-            List<String> tempTypes = new ArrayList<>();
-            tempTypes.add(String.valueOf(attrList.get(LABEL_KEY)));
-            types = tempTypes;
-        } else {
-            types = (List<String>) attrList.get(LABEL_KEY);
+        private void decodeTurboNode(TurboRowData data, RowSnapshot row, IngestBatch batch) {
+            Object[] values = row.values;
+            String id = values[data.startIdx].toString();
+
+            List<String> multiLabel = new ArrayList<>(); // temp
+            multiLabel.add(data.label);
+            LinkedHashMap<String, Object> attrMap = new LinkedHashMap<>();
+            for (int j = data.startIdx + 1; j <= data.endIdx; j++) {
+                attrMap.put(attrs.get(j).getLabel(), values[j]);
+            }
+            batch.graphBatch.addNode(id, multiLabel, attrMap);
         }
-        sId = String.valueOf(attrList.get(SID_KEY)).replaceAll(regex, "");
-        tId = String.valueOf(attrList.get(TID_KEY)).replaceAll(regex, "");
 
-        attrList.remove(ID_KEY);
-        attrList.remove(LABEL_KEY);
-        attrList.remove(SID_KEY);
-        attrList.remove(TID_KEY);
+        private void decodeTurboEdge(TurboRowData data, RowSnapshot row, IngestBatch batch) {
+            Object[] values = row.values;
+            String id = values[data.startIdx].toString();
+
+            List<String> multiLabel = new ArrayList<>(); // temp
+            multiLabel.add(data.label);
+            String sid = values[data.startIdx + 1].toString();
+            String tid = values[data.startIdx + 2].toString();
+            LinkedHashMap<String, Object> attrMap = new LinkedHashMap<>();
+            for (int j = data.startIdx + 3; j <= data.endIdx; j++) {
+                attrMap.put(attrs.get(j).getLabel(), values[j]);
+            }
+            batch.graphBatch.addEdge(id, multiLabel, sid, tid, attrMap);
+        }
 
-        DBDAttributeEdgeList.put(id, attr);
-        resultSetRowEdgeList.put(id, row);
-        displayStringEdgeList.put(id, cellString);
+        private String getCellString(DBDAttributeBinding attr, Object cellValue) {
+            if (cellValue instanceof DBDValueError) {
+                return ((DBDValueError) cellValue).getErrorTitle();
+            }
+            DBDDisplayFormat format = displayFormat;
+            if (cellValue instanceof Number && nativeNumeric) {
+                format = DBDDisplayFormat.NATIVE;
+            }
 
-        return visualGraph.addEdge(id, types, sId, tId, attrList) == null ? false : true;
-    }
+            String displayString =
+                    attr.getValueHandler().getValueDisplayString(attr, cellValue, format);
 
-    StringBuilder fixBuffer = new StringBuilder();
+            if (displayString.isEmpty() && showNullValues && DBUtils.isNullValue(cellValue)) {
+                displayString = DBConstants.NULL_VALUE_LABEL;
+            }
 
-    private String getCellString(
-            ResultSetModel model,
-            DBDAttributeBinding attr,
-            ResultSetRow row,
-            DBDDisplayFormat displayFormat) {
-        Object cellValue = model.getCellValue(attr, row);
-        if (cellValue instanceof DBDValueError) {
-            return ((DBDValueError) cellValue).getErrorTitle();
+            cellBuffer.setLength(0);
+            for (int i = 0; i < displayString.length(); i++) {
+                char c = displayString.charAt(i);
+                switch (c) {
+                    case '\n':
+                        c = CommonUtils.PARAGRAPH_CHAR;
+                        break;
+                    case '\r':
+                        continue;
+                    case 0:
+                    case 255:
+                    case '\t':
+                        c = ' ';
+                        break;
+                }
+                if (c < ' ' /* || (c > 127 && c < 255) */) {
+                    c = ' ';
+                }
+                cellBuffer.append(c);
+            }
+
+            return cellBuffer.toString();
         }
-        if (cellValue instanceof Number
-                && controller
-                        .getPreferenceStore()
-                        .getBoolean(ModelPreferences.RESULT_NATIVE_NUMERIC_FORMAT)) {
-            displayFormat = DBDDisplayFormat.NATIVE;
+    }
+
+    private static String stripBrackets(Object value) {
+        return String.valueOf(value).replaceAll("[\\[\\]]", "");
+    }
+
+    private static List<String> toLabelList(Object value) {
+        if (value instanceof List) {
+            return (List<String>) value;
         }
+        List<String> labels = new ArrayList<>();
+        labels.add(String.valueOf(value));
+        return labels;
+    }
 
-        String displayString =
-                attr.getValueHandler().getValueDisplayString(attr, cellValue, displayFormat);
+    /* Drops the edges left without end nodes, unless more rows can still bring the nodes */
+    private void fetchEnded(GraphIngestJob job) {
+        if (job.generation != ingestGeneration
+                || visualGraph == null
+                || controller.isHasMoreData()) {
+            return;
+        }
+        visualGraph.dropPendingEdges();
+    }
 
-        if (displayString.isEmpty() && showNulls && DBUtils.isNullValue(cellValue)) {
-            displayString = DBConstants.NULL_VALUE_LABEL;
+    /*
+     * Applies a decoded batch on the UI thread; batches of a cancelled fetch are dropped.
+     * An element repeated in the result keeps the row it was first read from.
+     */
+    private void applyBatch(GraphIngestJob job, IngestBatch batch) {
+        if (job.generation != ingestGeneration
+                || visualGraph == null
+                || resultLabel == null
+                || resultLabel.isDisposed()) {
+            return;
         }
 
-        fixBuffer.setLength(0);
-        for (int i = 0; i < displayString.length(); i++) {
-            char c = displayString.charAt(i);
-            switch (c) {
-                case '\n':
-                    c = CommonUtils.PARAGRAPH_CHAR;
-                    break;
-                case '\r':
-                    continue;
-                case 0:
-                case 255:
-                case '\t':
-                    c = ' ';
-                    break;
+        for (RowRef ref : batch.nodeRefs) {
+            if (resultSetRowNodeList.putIfAbsent(ref.id, ref.row) == null) {
+                DBDAttributeNodeList.put(ref.id, ref.attr);
+                displayStringNodeList.put(ref.id, ref.displayString);
             }
-            if (c < ' ' /* || (c > 127 && c < 255) */) {
-                c = ' ';
+        }
+        for (RowRef ref : batch.edgeRefs) {
+            if (resultSetRowEdgeList.putIfAbsent(ref.id, ref.row) == null) {
+                DBDAttributeEdgeList.put(ref.id, ref.attr);
+                displayStringEdgeList.put(ref.id, ref.displayString);
             }
-            fixBuffer.append(c);
         }
 
-        return fixBuffer.toString();
+        visualGraph.addBatch(batch.graphBatch);
+
+        if (!job.drawn) {
+            job.drawn = true;
+            showGraph(job.refreshMetadata, job.append);
+        }
+
+        resultLabel.setText(
+                "Node : " + visualGraph.getNumNodes() + " Edge : " + visualGraph.getNumEdges());
+    }
+
+    private void cancelIngest() {
+        ingestGeneration++;
+        if (ingestJob != null) {
+            ingestJob.cancel();
+            ingestJob = null;
+        }
     }
 
     @Override
@@ -979,64 +1194,42 @@ public class VisualizationPresentation extends AbstractPresentation implements I
             }
         }
 
-        for (int i = lastReadRowCount; i < allRows.size(); i++) { // Add Node
-            ResultSetRow row = allRows.get(i);
-            for (Object obj : nodeRowData) {
-                if (obj instanceof NEO4JRowData) {
-                    NEO4JRowData data = (NEO4JRowData) obj;
-                    String displayString = getCellString(model, data.attr, row, displayFormat);
-                    addNeo4jNode(model, data.attr, row, displayString);
-                } else if (obj instanceof TurboRowData) {
-                    TurboRowData data = (TurboRowData) obj;
-                    List<String> multiLabel = new ArrayList<>(); // temp
-                    multiLabel.add(data.label);
-                    LinkedHashMap<String, Object> attrMap = new LinkedHashMap<>();
-                    String id = "";
-                    for (int j = data.startIdx; j <= data.endIdx; j++) {
-                        if (j == data.startIdx) {
-                            id = row.getValues()[j].toString();
-                        } else {
-                            attrMap.put(attrs.get(j).getLabel(), row.getValues()[j]);
-                        }
-                    }
-                    visualGraph.addNode(id, multiLabel, attrMap);
-                }
+        // the model belongs to the UI thread, the job decodes copies of the new rows
+        List<NEO4JRowData> neo4jColumns = new ArrayList<>();
+        for (Object obj : nodeRowData) {
+            if (obj instanceof NEO4JRowData) {
+                neo4jColumns.add((NEO4JRowData) obj);
             }
         }
-
-        for (int i = lastReadRowCount; i < allRows.size(); i++) { // Add Edge
-            ResultSetRow row = allRows.get(i);
-            for (Object obj : edgeRowData) {
-                if (obj instanceof NEO4JRowData) {
-                    NEO4JRowData data = (NEO4JRowData) obj;
-                    String displayString = getCellString(model, data.attr, row, displayFormat);
-                    addNeo4jEdge(model, data.attr, row, displayString);
-                } else if (obj instanceof TurboRowData) {
-                    TurboRowData data = (TurboRowData) obj;
-                    List<String> multiLabel = new ArrayList<>(); // temp
-                    multiLabel.add(data.label);
-                    LinkedHashMap<String, Object> attrMap = new LinkedHashMap<>();
-                    String id = "", sid = "", tid = "";
-                    for (int j = data.startIdx; j <= data.endIdx; j++) {
-                        if (j == data.startIdx) {
-                            id = row.getValues()[j].toString();
-                            j++;
-                            sid = row.getValues()[j].toString();
-                            j++;
-                            tid = row.getValues()[j].toString();
-                        } else {
-                            attrMap.put(attrs.get(j).getLabel(), row.getValues()[j]);
-                        }
-                    }
-                    visualGraph.addEdge(id, multiLabel, sid, tid, attrMap);
+        for (Object obj : edgeRowData) {
+            if (obj instanceof NEO4JRowData) {
+                neo4jColumns.add((NEO4JRowData) obj);
+            }
+        }
+        List<RowSnapshot> newRows = new ArrayList<>();
+        for (ResultSetRow row :
+                allRows.subList(Math.min(lastReadRowCount, allRows.size()), allRows.size())) {
+            Object[] cells = null;
+            if (!neo4jColumns.isEmpty()) {
+                cells = new Object[attrs.size()];
+                for (NEO4JRowData column : neo4jColumns) {
+                    cells[column.idx] = model.getCellValue(column.attr, row);
                 }
             }
+            newRows.add(new RowSnapshot(row, row.getValues().clone(), cells));
         }
-
         lastReadRowCount = allRows.size();
-        
-        resultLabel.setText(
-                "Node : " + visualGraph.getNumNodes() + " Edge : " + visualGraph.getNumEdges());
+
+        ingestJob =
+                new GraphIngestJob(
+                        refreshMetadata,
+                        append,
+                        new ArrayList<>(attrs),
+                        newRows,
+                        nodeRowData,
+                        edgeRowData,
+                        displayFormat);
+        ingestJob.schedule();
     }
 
     private void drawGraph(boolean refreshMetadata, boolean append) {
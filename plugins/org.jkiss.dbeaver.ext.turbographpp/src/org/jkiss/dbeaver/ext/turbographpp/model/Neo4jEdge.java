@@ -16,23 +16,16 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.model;
 
-import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.ext.generic.model.GenericStructContainer;
 import org.jkiss.dbeaver.ext.generic.model.GenericTableColumn;
 import org.jkiss.dbeaver.model.DBUtils;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
-import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
@@ -49,6 +42,11 @@ public class Neo4jEdge extends TurboGraphPPView {
         this.dataSource = (TurboGraphPPDataSource) container.getDataSource();
     }
 
+    public Neo4jEdge(GenericStructContainer container, String edgeType) {
+        this(container, edgeType, null);
+        setPersisted(true);
+    }
+
     public boolean equals(Object obj) {
         if (obj instanceof Neo4jEdge) {
             Neo4jEdge temp = (Neo4jEdge) obj;
@@ -93,6 +91,7 @@ public class Neo4jEdge extends TurboGraphPPView {
     @Override
     public DBSObject refreshObject(DBRProgressMonitor monitor) throws DBException {
         properties = null;
+        dataSource.getSchemaCache().invalidateRelationshipType(edgeType);
         return this;
     }
 
@@ -107,13 +106,7 @@ public class Neo4jEdge extends TurboGraphPPView {
     public GenericTableColumn getAttribute(
             @NotNull DBRProgressMonitor monitor, @NotNull String attributeName) throws DBException {
         if (properties != null) {
-            Iterator itr = properties.iterator();
-            while (itr.hasNext()) {
-                Neo4jProperty property = (Neo4jProperty) itr.next();
-                if (property.getName() == attributeName) {
-                    return property;
-                }
-            }
+            return DBUtils.findObject(properties, attributeName);
         }
         return null;
     }
@@ -123,34 +116,12 @@ public class Neo4jEdge extends TurboGraphPPView {
             return this.properties;
         }
 
-        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Load Edges Propeties")) {
-            String gql =
-                    "MATCH ()-[r:" + edgeType + "]-() WITH r LIMIT 200 RETURN DISTINCT keys(r)";
-            try (JDBCPreparedStatement dbStat = session.prepareStatement(gql)) {
-                try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-                    // List<TurboGraphPPEdge> edgeList = new ArrayList<>();
-                    String edgesPropery = null;
-                    Set<Neo4jProperty> setList = new HashSet<>();
-                    properties = null;
-                    while (dbResult.next()) {
-                        edgesPropery = JDBCUtils.safeGetString(dbResult, "keys(r)");
-                        if (edgesPropery != null && !edgesPropery.equals("[]")) {
-                            edgesPropery = edgesPropery.replace(String.valueOf('['), "");
-                            edgesPropery = edgesPropery.replace(String.valueOf(']'), "");
-                            String[] propertiesList = edgesPropery.split(", ");
-                            for (int i = 0; i < propertiesList.length; i++) {
-                                propertiesList[i] = propertiesList[i].replaceAll("\"", "");
-                                setList.add(new Neo4jProperty(this, propertiesList[i]));
-                            }
-                        }
-                    }
-                    properties = new ArrayList<>(setList);
-                    return properties;
-                }
-            }
-        } catch (SQLException ex) {
-            // throw new DBException(ex, this);
-            throw new DBException(ex.toString());
+        List<TurboGraphPPTableColumn> propertyList = new ArrayList<>();
+        for (TurboGraphPPSchemaCache.PropertyInfo info :
+                dataSource.getSchemaCache().getEdgeProperties(monitor, edgeType).values()) {
+            propertyList.add(new Neo4jProperty(this, info.getName(), info.getTypeName()));
         }
+        properties = propertyList;
+        return properties;
     }
 }
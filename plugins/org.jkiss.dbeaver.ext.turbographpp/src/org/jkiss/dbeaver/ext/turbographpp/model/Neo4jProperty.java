@@ -31,6 +31,12 @@ public class Neo4jProperty extends TurboGraphPPTableColumn {
         edgesPropery = properyKeys;
     }
 
+    public Neo4jProperty(GenericTableBase table, String properyKeys, String typeName)
+            throws DBException {
+        this(table, properyKeys);
+        setTypeName(typeName);
+    }
+
     public boolean equals(Object obj) {
         if (obj instanceof Neo4jProperty) {
             Neo4jProperty temp = (Neo4jProperty) obj;
@@ -52,7 +58,8 @@ public class Neo4jProperty extends TurboGraphPPTableColumn {
     @Override
     @Property(viewable = false, editable = false, order = 2)
     public String getTypeName() {
-        return "not support";
+        String typeName = super.getTypeName();
+        return typeName == null || typeName.isEmpty() ? "not support" : typeName;
     }
 
     @Override
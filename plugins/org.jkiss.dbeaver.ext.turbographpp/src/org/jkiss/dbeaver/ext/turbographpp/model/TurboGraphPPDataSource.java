@@ -16,12 +16,13 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.model;
 
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.ext.generic.model.GenericDataSource;
 import org.jkiss.dbeaver.ext.generic.model.GenericView;
@@ -29,14 +30,10 @@ import org.jkiss.dbeaver.ext.turbographpp.model.meta.TurboGraphPPMetaModel;
 import org.jkiss.dbeaver.ext.turbographpp.model.plan.TurboGraphPPPlanAnalyser;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.DBPDataSourceInfo;
-import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.plan.DBCQueryPlanner;
-import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.completion.CypherSchemaCache;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 
 public class TurboGraphPPDataSource extends GenericDataSource {
@@ -44,7 +41,9 @@ public class TurboGraphPPDataSource extends GenericDataSource {
     private boolean isTurboGraph = false;
     private DBPDataSourceInfo dataSourceInfo;
     private List<? extends TurboGraphPPView> edges;
+    private Map<String, TurboGraphPPView> edgesByName;
     private List<? extends TurboGraphPPTable> nodes;
+    private final TurboGraphPPSchemaCache schemaCache = new TurboGraphPPSchemaCache(this);
 
     public TurboGraphPPDataSource(
             DBRProgressMonitor monitor,
@@ -62,6 +61,18 @@ public class TurboGraphPPDataSource extends GenericDataSource {
         return isTurboGraph;
     }
 
+    /** Returns the label and relationship type properties of a Neo4j server. */
+    public TurboGraphPPSchemaCache getSchemaCache() {
+        return schemaCache;
+    }
+
+    @Override
+    public void initialize(@NotNull DBRProgressMonitor monitor) throws DBException {
+        super.initialize(monitor);
+        // Read labels and relationship types for the completion while the user starts typing
+        CypherSchemaCache.getInstance(getContainer()).scheduleLoad();
+    }
+
     @Override
     protected DBPDataSourceInfo createDataSourceInfo(
             DBRProgressMonitor monitor, JDBCDatabaseMetaData metaData) {
@@ -73,7 +84,11 @@ public class TurboGraphPPDataSource extends GenericDataSource {
     @Override
     public DBSObject refreshObject(DBRProgressMonitor monitor) throws DBException {
         this.edges = null;
-        return super.refreshObject(monitor);
+        this.edgesByName = null;
+        schemaCache.invalidate();
+        DBSObject result = super.refreshObject(monitor);
+        CypherSchemaCache.getInstance(getContainer()).scheduleLoad();
+        return result;
     }
     
     public List<? extends TurboGraphPPView> getEdges(DBRProgressMonitor monitor) throws DBException {
@@ -84,14 +99,8 @@ public class TurboGraphPPDataSource extends GenericDataSource {
     }
     
     private TurboGraphPPView getEdge(DBRProgressMonitor monitor, String edgeName) throws DBException {
-        if (edges != null) {
-            Iterator itr = edges.iterator();
-            while(itr.hasNext()) {
-                TurboGraphPPView edge = (TurboGraphPPView) itr.next();
-                if (edge.getName().equals(edgeName)) {
-                    return edge;
-                }
-            }
+        if (edgesByName != null) {
+            return edgesByName.get(edgeName);
         }
         return null;
     }
@@ -101,22 +110,15 @@ public class TurboGraphPPDataSource extends GenericDataSource {
             return (List<? extends TurboGraphPPView>) edges;
         }
         
-        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Load Edges")) {
-            try (JDBCPreparedStatement dbStat =
-                    session.prepareStatement("CALL db.relationshipTypes()")) {
-                try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-                    List<Neo4jEdge> edgeList = new ArrayList<Neo4jEdge>();
-                    while (dbResult.next()) {
-                        String edgeType = JDBCUtils.safeGetString(dbResult, "relationshipType");
-                        Neo4jEdge neo4jEdge = new Neo4jEdge(this.getObject(), edgeType, dbResult);
-                        edgeList.add(neo4jEdge);
-                    }
-                    return edgeList;
-                }
-            }
-        } catch (SQLException ex) {
-            throw new DBException(ex, this);
+        List<Neo4jEdge> edgeList = new ArrayList<Neo4jEdge>();
+        Map<String, TurboGraphPPView> edgeIndex = new HashMap<>();
+        for (String edgeType : schemaCache.getRelationshipTypes(monitor)) {
+            Neo4jEdge neo4jEdge = new Neo4jEdge(this.getObject(), edgeType);
+            edgeList.add(neo4jEdge);
+            edgeIndex.put(edgeType, neo4jEdge);
         }
+        edgesByName = edgeIndex;
+        return edgeList;
     }
     
     @Override
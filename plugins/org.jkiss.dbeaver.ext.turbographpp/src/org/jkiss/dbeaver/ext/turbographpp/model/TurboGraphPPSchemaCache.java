@@ -0,0 +1,399 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+/**
+ * Property keys of the node labels and relationship types of a Neo4j data source.
+ *
+ * <p>All keys are read at once with the <code>db.schema.nodeTypeProperties()</code> and <code>
+ * db.schema.relTypeProperties()</code> procedures. Servers without them are sampled label by label
+ * and type by type, on up to {@link #MAX_SAMPLING_THREADS} isolated connections in parallel.
+ * Results are indexed by label or type name and kept until the data source or the object is
+ * refreshed.
+ */
+public class TurboGraphPPSchemaCache {
+
+    private static final Log log = Log.getLog(TurboGraphPPSchemaCache.class);
+
+    public static final int SAMPLE_SIZE = 200;
+    public static final int MAX_SAMPLING_THREADS = 4;
+
+    /** Property key with the value types reported by the server. */
+    public static class PropertyInfo {
+        private final String name;
+        private String typeName;
+
+        PropertyInfo(String name, String typeName) {
+            this.name = name;
+            this.typeName = typeName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Returns the type names separated with <code>|</code>, empty if keys were sampled. */
+        public String getTypeName() {
+            return typeName;
+        }
+    }
+
+    private final TurboGraphPPDataSource dataSource;
+    private final Map<String, Map<String, PropertyInfo>> nodeProperties = new HashMap<>();
+    private final Map<String, Map<String, PropertyInfo>> edgeProperties = new HashMap<>();
+    private List<String> relationshipTypes;
+    private boolean loaded = false;
+
+    public TurboGraphPPSchemaCache(TurboGraphPPDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public synchronized List<String> getRelationshipTypes(DBRProgressMonitor monitor)
+            throws DBException {
+        load(monitor);
+        return relationshipTypes;
+    }
+
+    /**
+     * Returns the property keys of a node label; a label missing from the cache is sampled.
+     *
+     * @param monitor progress monitor
+     * @param label node label
+     * @return property keys by name
+     * @throws DBException if the keys cannot be read
+     */
+    public synchronized Map<String, PropertyInfo> getNodeProperties(
+            DBRProgressMonitor monitor, String label) throws DBException {
+        load(monitor);
+        Map<String, PropertyInfo> properties = nodeProperties.get(label);
+        if (properties == null) {
+            properties = sampleOne(monitor, nodeQuery(label));
+            nodeProperties.put(label, properties);
+        }
+        return properties;
+    }
+
+    /**
+     * Returns the property keys of a relationship type; a type missing from the cache is
+     * sampled.
+     *
+     * @param monitor progress monitor
+     * @param type relationship type
+     * @return property keys by name
+     * @throws DBException if the keys cannot be read
+     */
+    public synchronized Map<String, PropertyInfo> getEdgeProperties(
+            DBRProgressMonitor monitor, String type) throws DBException {
+        load(monitor);
+        Map<String, PropertyInfo> properties = edgeProperties.get(type);
+        if (properties == null) {
+            properties = sampleOne(monitor, edgeQuery(type));
+            edgeProperties.put(type, properties);
+        }
+        return properties;
+    }
+
+    /** Drops everything; the next call reloads the whole schema. */
+    public synchronized void invalidate() {
+        nodeProperties.clear();
+        edgeProperties.clear();
+        relationshipTypes = null;
+        loaded = false;
+    }
+
+    /** Drops the keys of a node label; the next call samples this label only. */
+    public synchronized void invalidateNodeLabel(String label) {
+        nodeProperties.remove(label);
+    }
+
+    /** Drops the keys of a relationship type; the next call samples this type only. */
+    public synchronized void invalidateRelationshipType(String type) {
+        edgeProperties.remove(type);
+    }
+
+    private void load(DBRProgressMonitor monitor) throws DBException {
+        if (loaded) {
+            return;
+        }
+
+        List<String> labels = null;
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Load schema")) {
+            relationshipTypes =
+                    Collections.unmodifiableList(
+                            readNames(session, "CALL db.relationshipTypes()", "relationshipType"));
+            try {
+                loadSchemaProperties(session);
+            } catch (SQLException e) {
+                log.debug("Schema procedures not available, sampling keys: " + e.getMessage());
+                nodeProperties.clear();
+                edgeProperties.clear();
+                labels = readNames(session, "CALL db.labels()", "label");
+            }
+        } catch (SQLException e) {
+            throw new DBException(e, dataSource);
+        }
+
+        if (labels != null) {
+            sampleAll(monitor, labels, relationshipTypes);
+        }
+        loaded = true;
+    }
+
+    private void loadSchemaProperties(JDBCSession session) throws SQLException {
+        try (JDBCPreparedStatement dbStat =
+                        session.prepareStatement("CALL db.schema.nodeTypeProperties()");
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            while (dbResult.next()) {
+                String key = JDBCUtils.safeGetString(dbResult, "propertyName");
+                String types = joinTypes(JDBCUtils.safeGetObject(dbResult, "propertyTypes"));
+                for (String label : toList(JDBCUtils.safeGetObject(dbResult, "nodeLabels"))) {
+                    addProperty(nodeProperties, label, key, types);
+                }
+            }
+        }
+        try (JDBCPreparedStatement dbStat =
+                        session.prepareStatement("CALL db.schema.relTypeProperties()");
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            while (dbResult.next()) {
+                // reported as :`TYPE`
+                String type = JDBCUtils.safeGetString(dbResult, "relType");
+                if (type == null) {
+                    continue;
+                }
+                type = type.startsWith(":") ? type.substring(1) : type;
+                if (type.length() > 1 && type.startsWith("`") && type.endsWith("`")) {
+                    type = type.substring(1, type.length() - 1).replace("``", "`");
+                }
+                addProperty(
+                        edgeProperties,
+                        type,
+                        JDBCUtils.safeGetString(dbResult, "propertyName"),
+                        joinTypes(JDBCUtils.safeGetObject(dbResult, "propertyTypes")));
+            }
+        }
+    }
+
+    private static void addProperty(
+            Map<String, Map<String, PropertyInfo>> index,
+            String owner,
+            String key,
+            String types) {
+        Map<String, PropertyInfo> properties = index.get(owner);
+        if (properties == null) {
+            properties = new LinkedHashMap<>();
+            index.put(owner, properties);
+        }
+        if (key == null) {
+            // owner without properties
+            return;
+        }
+        PropertyInfo property = properties.get(key);
+        if (property == null) {
+            properties.put(key, new PropertyInfo(key, types));
+        } else if (!types.isEmpty() && !property.typeName.contains(types)) {
+            // same key seen with another label combination
+            property.typeName =
+                    property.typeName.isEmpty() ? types : property.typeName + "|" + types;
+        }
+    }
+
+    /* Samples every label and type on a bounded pool of isolated connections */
+    private void sampleAll(DBRProgressMonitor monitor, List<String> labels, List<String> types)
+            throws DBException {
+        final Queue<String[]> tasks = new ConcurrentLinkedQueue<>();
+        for (String label : labels) {
+            tasks.add(new String[] {"node", label, nodeQuery(label)});
+        }
+        for (String type : types) {
+            tasks.add(new String[] {"edge", type, edgeQuery(type)});
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        monitor.subTask("Sample " + tasks.size() + " labels and types");
+        final Map<String, Map<String, PropertyInfo>> sampledNodes = new ConcurrentHashMap<>();
+        final Map<String, Map<String, PropertyInfo>> sampledEdges = new ConcurrentHashMap<>();
+        int threads = Math.min(MAX_SAMPLING_THREADS, tasks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(
+                    executor.submit(
+                            () -> {
+                                sampleQueue(monitor, tasks, sampledNodes, sampledEdges);
+                                return null;
+                            }));
+        }
+        executor.shutdown();
+
+        try {
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new DBException("Schema sampling interrupted", e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw new DBException("Schema sampling failed", e.getCause());
+        }
+        nodeProperties.putAll(sampledNodes);
+        edgeProperties.putAll(sampledEdges);
+    }
+
+    /* Runs on a pool thread, with its own connection; a failed sample is retried on use */
+    private void sampleQueue(
+            DBRProgressMonitor monitor,
+            Queue<String[]> tasks,
+            Map<String, Map<String, PropertyInfo>> sampledNodes,
+            Map<String, Map<String, PropertyInfo>> sampledEdges)
+            throws DBException {
+        VoidProgressMonitor workerMonitor = new VoidProgressMonitor();
+        DBCExecutionContext context =
+                DBUtils.getObjectOwnerInstance(dataSource)
+                        .openIsolatedContext(workerMonitor, "Sample schema", null);
+        try (JDBCSession session =
+                ((JDBCExecutionContext) context)
+                        .openSession(workerMonitor, DBCExecutionPurpose.META, "Sample schema")) {
+            String[] task;
+            while (!monitor.isCanceled() && (task = tasks.poll()) != null) {
+                try {
+                    Map<String, PropertyInfo> properties = sample(session, task[2]);
+                    ("node".equals(task[0]) ? sampledNodes : sampledEdges).put(task[1], properties);
+                } catch (SQLException e) {
+                    log.warn("Can't sample properties of " + task[1], e);
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private Map<String, PropertyInfo> sampleOne(DBRProgressMonitor monitor, String query)
+            throws DBException {
+        try (JDBCSession session = DBUtils.openMetaSession(monitor, dataSource, "Load properties")) {
+            return sample(session, query);
+        } catch (SQLException e) {
+            throw new DBException(e, dataSource);
+        }
+    }
+
+    private static Map<String, PropertyInfo> sample(JDBCSession session, String query)
+            throws SQLException {
+        Map<String, PropertyInfo> properties = new LinkedHashMap<>();
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(query);
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            while (dbResult.next()) {
+                for (String key : toList(JDBCUtils.safeGetObject(dbResult, 1))) {
+                    if (!properties.containsKey(key)) {
+                        properties.put(key, new PropertyInfo(key, ""));
+                    }
+                }
+            }
+        }
+        return properties;
+    }
+
+    private static String nodeQuery(String label) {
+        return "MATCH (n:" + label + ") WITH n LIMIT " + SAMPLE_SIZE + " RETURN DISTINCT keys(n)";
+    }
+
+    private static String edgeQuery(String type) {
+        return "MATCH ()-[r:"
+                + type
+                + "]-() WITH r LIMIT "
+                + SAMPLE_SIZE
+                + " RETURN DISTINCT keys(r)";
+    }
+
+    private static List<String> readNames(JDBCSession session, String query, String column)
+            throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (JDBCPreparedStatement dbStat = session.prepareStatement(query);
+                JDBCResultSet dbResult = dbStat.executeQuery()) {
+            while (dbResult.next()) {
+                String name = JDBCUtils.safeGetString(dbResult, column);
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String joinTypes(Object types) {
+        StringBuilder joined = new StringBuilder();
+        for (String type : toList(types)) {
+            if (joined.length() > 0) {
+                joined.append('|');
+            }
+            joined.append(type);
+        }
+        return joined.toString();
+    }
+
+    /* Lists come back as java.util.List or as their string form, depending on the driver */
+    private static List<String> toList(Object value) {
+        List<String> list = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (item != null) {
+                    list.add(item.toString());
+                }
+            }
+        } else if (value != null) {
+            String text = value.toString().replace("[", "").replace("]", "").trim();
+            if (!text.isEmpty()) {
+                for (String item : text.split(", ")) {
+                    list.add(item.replaceAll("\"", ""));
+                }
+            }
+        }
+        return list;
+    }
+}
@@ -16,12 +16,9 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.model;
 
-import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
@@ -40,14 +37,12 @@ import org.jkiss.dbeaver.model.exec.DBCStatement;
 import org.jkiss.dbeaver.model.exec.DBCStatementType;
 import org.jkiss.dbeaver.model.exec.DBCStatistics;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
-import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
-import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
 
 public class TurboGraphPPTable extends GenericTable {
 
@@ -180,35 +175,24 @@ public class TurboGraphPPTable extends GenericTable {
             return this.properties;
         }
 
-        try (JDBCSession session = DBUtils.openMetaSession(monitor, this, "Load Edges Propeties")) {
-            String gql =
-                    "MATCH (n:" + this.getName() +") WITH n LIMIT 200 RETURN DISTINCT keys(n)";
-            try (JDBCPreparedStatement dbStat = session.prepareStatement(gql)) {
-                try (JDBCResultSet dbResult = dbStat.executeQuery()) {
-                    // List<TurboGraphPPEdge> edgeList = new ArrayList<>();
-                    String edgesPropery = null;
-                    Set<Neo4jProperty> setList = new HashSet<>();
-                    properties = null;
-                    while (dbResult.next()) {
-                        edgesPropery = JDBCUtils.safeGetString(dbResult, "keys(n)");
-                        if (edgesPropery != null && !edgesPropery.equals("[]")) {
-                            edgesPropery = edgesPropery.replace(String.valueOf('['), "");
-                            edgesPropery = edgesPropery.replace(String.valueOf(']'), "");
-                            String[] propertiesList = edgesPropery.split(", ");
-                            for (int i = 0; i < propertiesList.length; i++) {
-                                propertiesList[i] = propertiesList[i].replaceAll("\"", "");
-                                setList.add(new Neo4jProperty(this, propertiesList[i]));
-                            }
-                        }
-                    }
-                    properties = new ArrayList<>(setList);
-                    return properties;
-                }
-            }
-        } catch (SQLException ex) {
-            // throw new DBException(ex, this);
-            throw new DBException(ex.toString());
+        TurboGraphPPSchemaCache schemaCache =
+                ((TurboGraphPPDataSource) this.getDataSource()).getSchemaCache();
+        List<TurboGraphPPTableColumn> propertyList = new ArrayList<>();
+        for (TurboGraphPPSchemaCache.PropertyInfo info :
+                schemaCache.getNodeProperties(monitor, this.getName()).values()) {
+            propertyList.add(new Neo4jProperty(this, info.getName(), info.getTypeName()));
         }
+        properties = propertyList;
+        return properties;
+    }
+    
+    @Override
+    public DBSObject refreshObject(DBRProgressMonitor monitor) throws DBException {
+        properties = null;
+        ((TurboGraphPPDataSource) this.getDataSource())
+                .getSchemaCache()
+                .invalidateNodeLabel(getName());
+        return super.refreshObject(monitor);
     }
     
     @Property(viewable = true, order = 1)
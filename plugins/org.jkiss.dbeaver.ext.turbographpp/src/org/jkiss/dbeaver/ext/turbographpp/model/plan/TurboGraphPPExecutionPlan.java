@@ -18,33 +18,53 @@ package org.jkiss.dbeaver.ext.turbographpp.model.plan;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.jkiss.dbeaver.ext.turbographpp.model.TurboGraphPPDataSource;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
-import org.jkiss.dbeaver.model.exec.plan.DBCPlanNode;
+import org.jkiss.dbeaver.model.exec.plan.DBCPlanCostNode;
 import org.jkiss.dbeaver.model.impl.plan.AbstractExecutionPlan;
 import org.jkiss.utils.CommonUtils;
 
+/**
+ * Plan of a TurboGraph++ query.
+ *
+ * <p>A profiled plan runs the query with the Cypher <code>PROFILE</code> prefix, so each operator
+ * reports its actual rows, db hits and time. Operators taking at least {@link
+ * #HOT_OPERATOR_PERCENT} of the plan time are marked as hot.
+ */
 public class TurboGraphPPExecutionPlan extends AbstractExecutionPlan {
 
+    public static final String PROFILE_PREFIX = "PROFILE ";
+
+    /** Share of the plan time from which an operator is hot. */
+    public static final double HOT_OPERATOR_PERCENT = 20;
+
     protected TurboGraphPPDataSource dataSource;
     protected String query;
     protected String plan;
+    private boolean profile;
 
-    private List<TurboGraphPPPlanNodePlain> rootNodes = null;
+    private List<TurboGraphPPPlanNodePlain> rootNodes = Collections.emptyList();
 
     public TurboGraphPPExecutionPlan(JDBCSession session, String query) throws DBCException {
+        this(session, query, false);
+    }
+
+    public TurboGraphPPExecutionPlan(JDBCSession session, String query, boolean profile)
+            throws DBCException {
         this.dataSource = (TurboGraphPPDataSource) session.getDataSource();
         this.query = query;
+        this.profile = profile;
 
         try {
 
             TurboGraphPPStatementProxy proxy =
                     new TurboGraphPPStatementProxy(session.getOriginal().createStatement());
 
-            plan = proxy.getQueryplan(query);
+            plan = proxy.getQueryplan(profile ? PROFILE_PREFIX + query : query);
 
             String[] plans = plan.split("plan : ");
             List<TurboGraphPPPlanNodePlain> nodes = new ArrayList<>();
@@ -61,14 +81,26 @@ public class TurboGraphPPExecutionPlan extends AbstractExecutionPlan {
                 }
             }
 
-            if (nodes.size() > 0) {
-                rootNodes = nodes;
-            }
+            rootNodes = nodes;
+            computeTimeShares();
         } catch (SQLException e) {
             throw new DBCException(e, session.getExecutionContext());
         }
     }
 
+    /**
+     * Creates a plan loaded from a file.
+     *
+     * @param query planned query
+     * @param nodes root operators
+     */
+    public TurboGraphPPExecutionPlan(String query, List<TurboGraphPPPlanNodePlain> nodes) {
+        this.query = query;
+        this.rootNodes = nodes;
+        computeTimeShares();
+        this.profile = getTotalTime() > 0;
+    }
+
     @Override
     public String getQueryString() {
         return query;
@@ -80,7 +112,64 @@ public class TurboGraphPPExecutionPlan extends AbstractExecutionPlan {
     }
 
     @Override
-    public List<? extends DBCPlanNode> getPlanNodes(Map<String, Object> options) {
+    public List<TurboGraphPPPlanNodePlain> getPlanNodes(Map<String, Object> options) {
         return rootNodes;
     }
+
+    /** Returns true if the operators carry runtime statistics. */
+    public boolean isProfile() {
+        return profile;
+    }
+
+    @Override
+    public Object getPlanFeature(String feature) {
+        if (DBCPlanCostNode.FEATURE_PLAN_ROWS.equals(feature)
+                || DBCPlanCostNode.FEATURE_PLAN_DURATION.equals(feature)) {
+            return profile;
+        }
+        return super.getPlanFeature(feature);
+    }
+
+    /** Returns the time of all the operators, in milliseconds. */
+    public double getTotalTime() {
+        double total = 0;
+        for (TurboGraphPPPlanNodePlain node : flatten()) {
+            Double time = node.getNodeDuration();
+            if (time != null) {
+                total += time;
+            }
+        }
+        return total;
+    }
+
+    /** Returns the operators in depth first order. */
+    public List<TurboGraphPPPlanNodePlain> flatten() {
+        List<TurboGraphPPPlanNodePlain> result = new ArrayList<>();
+        for (TurboGraphPPPlanNodePlain node : rootNodes) {
+            collect(node, result);
+        }
+        return result;
+    }
+
+    private static void collect(
+            TurboGraphPPPlanNodePlain node, List<TurboGraphPPPlanNodePlain> result) {
+        result.add(node);
+        for (TurboGraphPPPlanNodePlain child : node.getNested()) {
+            collect(child, result);
+        }
+    }
+
+    private void computeTimeShares() {
+        double total = getTotalTime();
+        if (total <= 0) {
+            return;
+        }
+        for (TurboGraphPPPlanNodePlain node : flatten()) {
+            Double time = node.getNodeDuration();
+            if (time != null) {
+                double percent = time * 100 / total;
+                node.setTimePercent(percent, percent >= HOT_OPERATOR_PERCENT);
+            }
+        }
+    }
 }
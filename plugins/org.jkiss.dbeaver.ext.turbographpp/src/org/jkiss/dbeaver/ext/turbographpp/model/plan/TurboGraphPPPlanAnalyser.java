@@ -16,10 +16,18 @@
  */
 package org.jkiss.dbeaver.ext.turbographpp.model.plan;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.ext.turbographpp.model.TurboGraphPPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSource;
@@ -28,10 +36,17 @@ import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.plan.*;
 import org.jkiss.dbeaver.model.impl.plan.AbstractExecutionPlanSerializer;
+import org.jkiss.dbeaver.model.impl.plan.ExecutionPlanDeserializer;
+import org.jkiss.utils.CommonUtils;
 
 public class TurboGraphPPPlanAnalyser extends AbstractExecutionPlanSerializer
         implements DBCQueryPlanner {
 
+    /** Planner parameter: run the query with PROFILE to get the actual operator statistics. */
+    public static final String PARAM_PROFILE = "use.profile";
+
+    public static final String FORMAT_VERSION = "1";
+
     private TurboGraphPPDataSource dataSource;
 
     public TurboGraphPPPlanAnalyser(TurboGraphPPDataSource dataSource) {
@@ -43,6 +58,11 @@ public class TurboGraphPPPlanAnalyser extends AbstractExecutionPlanSerializer
         return new TurboGraphPPExecutionPlan(session, query);
     }
 
+    public TurboGraphPPExecutionPlan profile(JDBCSession session, String query)
+            throws DBCException {
+        return new TurboGraphPPExecutionPlan(session, query, true);
+    }
+
     @Override
     public DBPDataSource getDataSource() {
         return dataSource;
@@ -55,6 +75,9 @@ public class TurboGraphPPPlanAnalyser extends AbstractExecutionPlanSerializer
             @NotNull String query,
             @NotNull DBCQueryPlannerConfiguration configuration)
             throws DBCException {
+        if (CommonUtils.toBoolean(configuration.getParameters().get(PARAM_PROFILE))) {
+            return profile((JDBCSession) session, query);
+        }
         return explain((JDBCSession) session, query);
     }
 
@@ -65,11 +88,74 @@ public class TurboGraphPPPlanAnalyser extends AbstractExecutionPlanSerializer
     }
 
     @Override
-    public void serialize(Writer planData, DBCPlan plan)
-            throws IOException, InvocationTargetException {}
+    public void serialize(@NotNull Writer planData, @NotNull DBCPlan plan) throws IOException {
+        serializeJson(
+                planData,
+                plan,
+                dataSource.getInfo().getDriverName(),
+                new DBCQueryPlannerSerialInfo() {
+
+                    @Override
+                    public String version() {
+                        return FORMAT_VERSION;
+                    }
+
+                    @Override
+                    public void addNodeProperties(DBCPlanNode node, JsonObject nodeJson) {
+                        JsonArray attributes = new JsonArray();
+                        if (node instanceof TurboGraphPPPlanNodePlain) {
+                            for (Map.Entry<String, String> e :
+                                    ((TurboGraphPPPlanNodePlain) node).getNodeProps().entrySet()) {
+                                JsonObject attr = new JsonObject();
+                                attr.add(
+                                        e.getKey(),
+                                        new JsonPrimitive(CommonUtils.notEmpty(e.getValue())));
+                                attributes.add(attr);
+                            }
+                        }
+                        nodeJson.add(PROP_ATTRIBUTES, attributes);
+                    }
+                });
+    }
 
     @Override
-    public DBCPlan deserialize(Reader planData) throws IOException, InvocationTargetException {
-        return null;
+    public DBCPlan deserialize(@NotNull Reader planData)
+            throws IOException, InvocationTargetException {
+        try {
+            JsonObject jo = new JsonParser().parse(planData).getAsJsonObject();
+
+            String query = getQuery(jo);
+
+            ExecutionPlanDeserializer<TurboGraphPPPlanNodePlain> loader =
+                    new ExecutionPlanDeserializer<>();
+
+            List<TurboGraphPPPlanNodePlain> planNodes =
+                    loader.loadRoot(
+                            dataSource,
+                            jo,
+                            (datasource, node, parent) ->
+                                    new TurboGraphPPPlanNodePlain(
+                                            parent,
+                                            node.get(PROP_TYPE).getAsString(),
+                                            readAttributes(node)));
+
+            return new TurboGraphPPExecutionPlan(query, planNodes);
+
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private static Map<String, String> readAttributes(JsonObject node) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        JsonArray attrs = node.getAsJsonArray(PROP_ATTRIBUTES);
+        if (attrs != null) {
+            for (JsonElement attr : attrs) {
+                for (Map.Entry<String, JsonElement> p : attr.getAsJsonObject().entrySet()) {
+                    attributes.put(p.getKey(), p.getValue().getAsString());
+                }
+            }
+        }
+        return attributes;
     }
 }
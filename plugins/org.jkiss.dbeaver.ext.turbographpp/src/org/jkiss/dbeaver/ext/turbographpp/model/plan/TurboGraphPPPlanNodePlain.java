@@ -24,13 +24,28 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.plan.DBCPlanCostNode;
 import org.jkiss.dbeaver.model.impl.plan.AbstractExecutionPlanNode;
 import org.jkiss.dbeaver.model.meta.Property;
 
-public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
+/**
+ * Operator of a TurboGraph++ plan, parsed from the indented text returned by the driver.
+ *
+ * <p>Operator statistics follow the operator name as <code>(key: value, ...)</code>. A profiled
+ * plan reports the actual rows, db hits and time of each operator; the share of the plan time
+ * spent in each operator is set by {@link TurboGraphPPExecutionPlan}.
+ */
+public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode
+        implements DBCPlanCostNode {
+
+    public static final String PROP_ROWS = "rows";
+    public static final String PROP_TIME = "time";
+    public static final String PROP_DB_HITS = "db hits";
+    public static final String PROP_EXTRA = "extra";
 
     private TurboGraphPPPlanNodePlain parent;
     private String type;
@@ -39,6 +54,8 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
     private int blankCount;
     private Map<String, String> nodeProps = new LinkedHashMap<>();
     private List<TurboGraphPPPlanNodePlain> nested = new ArrayList<>();
+    private Double timePercent;
+    private boolean hot;
 
     public TurboGraphPPPlanNodePlain(TurboGraphPPPlanNodePlain parent, String type, String plan) {
         this.parent = parent;
@@ -53,9 +70,18 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
         }
     }
 
+    /**
+     * Creates a node from saved attributes.
+     *
+     * @param parent parent node, null for a root
+     * @param type operator type
+     * @param attributes operator statistics
+     */
     public TurboGraphPPPlanNodePlain(
-            TurboGraphPPPlanNodePlain parent, Map<String, String> attributes) {
+            TurboGraphPPPlanNodePlain parent, String type, Map<String, String> attributes) {
         this.parent = parent;
+        this.type = type == null ? "" : type;
+        this.name = "";
         this.nodeProps.putAll(attributes);
     }
 
@@ -111,25 +137,23 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
             String[] values = value.split("\\)");
 
             String[] itemsValue = values[0].split(",");
-            
-            if (itemsValue.length != 2) {
-                nodeProps.put("extra", value.replace(")", ""));
+
+            if (!isStatistics(itemsValue)) {
+                nodeProps.put(PROP_EXTRA, value.replace(")", ""));
                 type = type + name;
                 return;
             }
-            
+
             for (int i = 0; i < itemsValue.length; i++) {
                 String[] items = itemsValue[i].split(":");
-                if (items.length == 2) {
-                    nodeProps.put(items[0].trim(), items[1].trim());
-                }
+                nodeProps.put(normalizeKey(items[0]), items[1].trim());
             }
 
             String extra = "";
             for (int i = 1; i < values.length; i++) {
                 extra = extra + values[i];
             }
-            nodeProps.put("extra", extra);
+            nodeProps.put(PROP_EXTRA, extra);
         } else {
             name = subplan.trim();
         }
@@ -161,7 +185,7 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
         return type = type.replace("->", "").trim();
     }
 
-    @Property(order = 14, viewable = false)
+    @Property(order = 16, viewable = false)
     @Override
     public String getNodeName() {
         return "";
@@ -169,22 +193,79 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
 
     @Property(order = 11, viewable = true)
     public String getRow() {
-        String value = nodeProps.get("rows");
+        String value = nodeProps.get(PROP_ROWS);
         return value == null ? null : value;
     }
 
     @Property(order = 12, viewable = true)
     public String getTime() {
-        String value = nodeProps.get("time");
+        String value = nodeProps.get(PROP_TIME);
         return value == null ? null : value;
     }
 
     @Property(order = 13, viewable = true)
+    public String getDbHits() {
+        return nodeProps.get(PROP_DB_HITS);
+    }
+
+    @Property(order = 14, viewable = true)
+    public String getTimePercent() {
+        return timePercent == null ? null : String.format(Locale.ROOT, "%.1f%%", timePercent);
+    }
+
+    @Property(order = 15, viewable = true)
     public String getExtra() {
-        String value = nodeProps.get("extra");
+        String value = nodeProps.get(PROP_EXTRA);
         return value == null ? null : value;
     }
 
+    @Override
+    public Number getNodeCost() {
+        return parseNumber(nodeProps.get(PROP_DB_HITS));
+    }
+
+    @Override
+    public Number getNodePercent() {
+        return timePercent;
+    }
+
+    /** Returns the operator time in milliseconds, or null if the plan was not profiled. */
+    @Override
+    public Double getNodeDuration() {
+        String value = nodeProps.get(PROP_TIME);
+        Double time = parseNumber(value);
+        if (time == null) {
+            return null;
+        }
+        String unit = value.replaceAll("[0-9.,\\s]", "").toLowerCase(Locale.ROOT);
+        if (unit.equals("s") || unit.equals("sec")) {
+            return time * 1000;
+        } else if (unit.equals("us") || unit.equals("\u00b5s")) {
+            return time / 1000;
+        }
+        return time;
+    }
+
+    @Override
+    public Number getNodeRowCount() {
+        Double rows = parseNumber(nodeProps.get(PROP_ROWS));
+        return rows == null ? null : rows.longValue();
+    }
+
+    /**
+     * Returns true if the operator takes a large share of the plan time.
+     *
+     * @see TurboGraphPPExecutionPlan#HOT_OPERATOR_PERCENT
+     */
+    public boolean isHot() {
+        return hot;
+    }
+
+    void setTimePercent(Double timePercent, boolean hot) {
+        this.timePercent = timePercent;
+        this.hot = hot;
+    }
+
     @Override
     public TurboGraphPPPlanNodePlain getParent() {
         return parent;
@@ -204,6 +285,45 @@ public class TurboGraphPPPlanNodePlain extends AbstractExecutionPlanNode {
         return plan == null ? nodeProps.toString() : plan.toString();
     }
 
+    /* Statistics are key: value pairs, anything else is kept as extra information */
+    private static boolean isStatistics(String[] items) {
+        for (String item : items) {
+            if (item.split(":").length != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeKey(String key) {
+        String normalized = key.trim().toLowerCase(Locale.ROOT).replace('_', ' ');
+        if (normalized.equals("dbhits") || normalized.equals("db hit")) {
+            return PROP_DB_HITS;
+        }
+        return normalized;
+    }
+
+    /* Reads the leading number of a statistic, such as 1,024 or 0.35ms */
+    private static Double parseNumber(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isDigit(c) || c == '.') {
+                digits.append(c);
+            } else if (c != ',' && !Character.isWhitespace(c)) {
+                break;
+            }
+        }
+        try {
+            return digits.length() == 0 ? null : Double.valueOf(digits.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private static int getBlankCount(String str) {
         StringBuilder sb = new StringBuilder(str);
         int i = 0;
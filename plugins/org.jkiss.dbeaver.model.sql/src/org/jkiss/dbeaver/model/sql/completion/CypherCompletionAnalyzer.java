@@ -64,6 +64,7 @@ import org.jkiss.dbeaver.model.sql.parser.tokens.SQLTokenType;
 import org.jkiss.dbeaver.model.struct.DBSAlias;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
 import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
@@ -295,6 +296,8 @@ public class CypherCompletionAnalyzer extends SQLCompletionAnalyzer {
                     // Get root object or objects from active database (if any)
                     if (queryType != SQLCompletionRequest.QueryType.COLUMN) {
                         makeDataSourceProposals();
+                    } else {
+                        makeProposalsFromPropertyKeys(dataSource, wordPart);
                     }
                 }
             }
@@ -886,11 +889,13 @@ public class CypherCompletionAnalyzer extends SQLCompletionAnalyzer {
         }
 
         DBPDataSource dataSource = request.getContext().getDataSource();
-        Collection<? extends DBSObject> children = null;
-        if (parent instanceof DBSObjectContainer) {
-            children = ((DBSObjectContainer) parent).getChildren(monitor);
-        } else if (parent instanceof DBSEntity) {
-            children = ((DBSEntity) parent).getAttributes(monitor);
+        Collection<? extends DBSObject> children = getCachedChildren(dataSource, parent, startPart);
+        if (children == null) {
+            if (parent instanceof DBSObjectContainer) {
+                children = ((DBSObjectContainer) parent).getChildren(monitor);
+            } else if (parent instanceof DBSEntity) {
+                children = ((DBSEntity) parent).getAttributes(monitor);
+            }
         }
         if (children != null && !children.isEmpty()) {
             // boolean isJoin =
@@ -1041,6 +1046,68 @@ public class CypherCompletionAnalyzer extends SQLCompletionAnalyzer {
         }
     }
 
+    /**
+     * Returns the labels, relationship types or properties matching a prefix from the schema
+     * cache, without any metadata query.
+     *
+     * @return matching children, or null if the cache does not know the parent yet
+     */
+    @Nullable
+    private Collection<? extends DBSObject> getCachedChildren(
+            @Nullable DBPDataSource dataSource, DBPObject parent, @Nullable String startPart) {
+        if (dataSource == null) {
+            return null;
+        }
+        CypherSchemaCache.Snapshot snapshot =
+                CypherSchemaCache.getInstance(dataSource.getContainer()).getSnapshot();
+        if (snapshot == null) {
+            return null;
+        }
+        // Fuzzy search and the all columns pattern need every name
+        String prefix =
+                request.getContext().isSearchInsideNames() || ALL_COLUMNS_PATTERN.equals(startPart)
+                        ? null
+                        : startPart;
+        if (parent == snapshot.getRoot()) {
+            return snapshot.getEntities().find(prefix);
+        }
+        if (parent instanceof DBSEntity) {
+            CypherSchemaCache.NameIndex<DBSEntityAttribute> properties =
+                    snapshot.getProperties((DBSEntity) parent);
+            return properties == null ? null : properties.find(prefix);
+        }
+        return null;
+    }
+
+    private void makeProposalsFromPropertyKeys(DBPDataSource dataSource, String wordPart) {
+        if (ALL_COLUMNS_PATTERN.equals(wordPart)) {
+            return;
+        }
+        CypherSchemaCache.Snapshot snapshot =
+                CypherSchemaCache.getInstance(dataSource.getContainer()).getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        // Label of the variable is unknown: propose the keys of all labels and types
+        String prefix = request.getWordDetector().removeQuotes(wordPart);
+        int divPos =
+                prefix.lastIndexOf(request.getContext().getSyntaxManager().getStructSeparator());
+        if (divPos != -1) {
+            prefix = prefix.substring(divPos + 1);
+        }
+        List<String> keys = snapshot.getPropertyKeys().find(prefix);
+        for (int i = 0; i < keys.size() && i < MAX_STRUCT_PROPOSALS; i++) {
+            String key = keys.get(i);
+            proposals.add(
+                    createCompletionProposal(
+                            request,
+                            DBUtils.getQuotedIdentifier(dataSource, key),
+                            key,
+                            DBPKeywordType.OTHER,
+                            "Property"));
+        }
+    }
+
     private void makeProposalsFromAssistant(
             DBSStructureAssistant assistant,
             @Nullable DBSObjectContainer rootSC,
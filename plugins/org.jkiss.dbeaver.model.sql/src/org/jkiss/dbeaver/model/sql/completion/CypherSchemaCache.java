@@ -0,0 +1,470 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvent;
+import org.jkiss.dbeaver.model.DBPEventListener;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
+
+/**
+ * Node labels, relationship types and property keys of a graph data source, for the Cypher
+ * completion.
+ *
+ * <p>The schema is read by a background job when the data source connects, and kept in
+ * case-insensitively sorted arrays: a prefix lookup is a binary search followed by a scan of the
+ * matching range, so proposals never wait for metadata queries. Entity events of the data source
+ * reload that entity only; a data source refresh reloads everything. Until a reload completes the
+ * previous {@link Snapshot} is served.
+ */
+public class CypherSchemaCache implements DBPEventListener {
+
+    private static final Log log = Log.getLog(CypherSchemaCache.class);
+
+    public static final long LOAD_DELAY = 500;
+
+    private static final Map<DBPDataSourceContainer, CypherSchemaCache> caches =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Names sorted without regard to case, with the object of each name.
+     *
+     * @param <T> Object type
+     */
+    public static class NameIndex<T> {
+
+        private final String[] names;
+        private final Object[] values;
+
+        private NameIndex(Collection<? extends T> objects, Function<T, String> nameOf) {
+            List<T> sorted = new ArrayList<>(objects);
+            sorted.sort(
+                    (o1, o2) ->
+                            String.CASE_INSENSITIVE_ORDER.compare(
+                                    nameOf.apply(o1), nameOf.apply(o2)));
+            this.names = new String[sorted.size()];
+            this.values = new Object[sorted.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = nameOf.apply(sorted.get(i));
+                values[i] = sorted.get(i);
+            }
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        /**
+         * Returns the objects whose name starts with a prefix, ignoring the case.
+         *
+         * @param prefix name prefix, all objects if empty
+         * @return matching objects sorted by name
+         */
+        public List<T> find(@Nullable String prefix) {
+            int from = 0;
+            int to = names.length;
+            if (prefix != null && !prefix.isEmpty()) {
+                from = lowerBound(prefix);
+                to = from;
+                while (to < names.length
+                        && names[to].regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    to++;
+                }
+            }
+            List<T> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(value(i));
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T value(int index) {
+            return (T) values[index];
+        }
+
+        /* First name not before the prefix */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = names.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /** Immutable state of the schema, safe to read from any thread. */
+    public static class Snapshot {
+
+        private final DBSObjectContainer root;
+        private final NameIndex<DBSEntity> labels;
+        private final NameIndex<DBSEntity> relationshipTypes;
+        private final NameIndex<DBSEntity> entities;
+        private final NameIndex<String> propertyKeys;
+        private final Map<DBSEntity, NameIndex<DBSEntityAttribute>> properties;
+
+        private Snapshot(
+                DBSObjectContainer root,
+                Map<DBSEntity, List<DBSEntityAttribute>> attributes) {
+            this.root = root;
+            List<DBSEntity> labelList = new ArrayList<>();
+            List<DBSEntity> typeList = new ArrayList<>();
+            Set<String> keys = new HashSet<>();
+            this.properties = new HashMap<>(attributes.size() * 2);
+            for (Map.Entry<DBSEntity, List<DBSEntityAttribute>> entry : attributes.entrySet()) {
+                DBSEntity entity = entry.getKey();
+                (isRelationshipType(entity) ? typeList : labelList).add(entity);
+                for (DBSEntityAttribute attribute : entry.getValue()) {
+                    keys.add(attribute.getName());
+                }
+                properties.put(entity, new NameIndex<>(entry.getValue(), DBSObject::getName));
+            }
+            this.labels = new NameIndex<>(labelList, DBSObject::getName);
+            this.relationshipTypes = new NameIndex<>(typeList, DBSObject::getName);
+            this.entities = new NameIndex<>(attributes.keySet(), DBSObject::getName);
+            this.propertyKeys = new NameIndex<>(keys, Function.identity());
+        }
+
+        /** Returns the container whose children are indexed. */
+        public DBSObjectContainer getRoot() {
+            return root;
+        }
+
+        public NameIndex<DBSEntity> getLabels() {
+            return labels;
+        }
+
+        public NameIndex<DBSEntity> getRelationshipTypes() {
+            return relationshipTypes;
+        }
+
+        /** Returns the labels and the relationship types together. */
+        public NameIndex<DBSEntity> getEntities() {
+            return entities;
+        }
+
+        /** Returns the property keys of all labels and relationship types. */
+        public NameIndex<String> getPropertyKeys() {
+            return propertyKeys;
+        }
+
+        /**
+         * Returns the properties of a label or relationship type.
+         *
+         * @param entity label or relationship type
+         * @return properties, or null if the entity is not part of this snapshot
+         */
+        @Nullable
+        public NameIndex<DBSEntityAttribute> getProperties(DBSEntity entity) {
+            return properties.get(entity);
+        }
+    }
+
+    private final DBPDataSourceContainer container;
+    private final LoadJob loadJob = new LoadJob();
+    private final Map<DBSEntity, List<DBSEntityAttribute>> attributes = new LinkedHashMap<>();
+    private final Map<DBSEntity, Boolean> pendingEntities = new LinkedHashMap<>();
+    private DBSObjectContainer root;
+    private boolean reloadPending = false;
+    // changed by every full reload request and clear; a load started before is discarded
+    private long generation;
+    private volatile Snapshot snapshot;
+
+    private CypherSchemaCache(DBPDataSourceContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * Returns the cache of a data source, creating it on first use.
+     *
+     * @param container data source container
+     * @return schema cache of the container
+     */
+    @NotNull
+    public static CypherSchemaCache getInstance(@NotNull DBPDataSourceContainer container) {
+        return caches.computeIfAbsent(
+                container,
+                c -> {
+                    CypherSchemaCache cache = new CypherSchemaCache(c);
+                    c.getRegistry().addDataSourceListener(cache);
+                    return cache;
+                });
+    }
+
+    /**
+     * Returns the last loaded schema. The first call starts loading it.
+     *
+     * @return schema, or null if it is not loaded yet
+     */
+    @Nullable
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null && container.isConnected()) {
+            synchronized (this) {
+                if (!reloadPending && root == null) {
+                    scheduleLoad();
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Reloads the whole schema in the background. */
+    public synchronized void scheduleLoad() {
+        generation++;
+        reloadPending = true;
+        pendingEntities.clear();
+        loadJob.schedule(LOAD_DELAY);
+    }
+
+    /**
+     * Reloads the properties of a label or relationship type in the background.
+     *
+     * @param entity label or relationship type
+     * @param removed true if the entity was dropped from the data source
+     */
+    public synchronized void scheduleRefresh(@NotNull DBSEntity entity, boolean removed) {
+        if (reloadPending || root == null) {
+            return;
+        }
+        pendingEntities.put(entity, removed);
+        loadJob.schedule(LOAD_DELAY);
+    }
+
+    /** Drops the schema, which is loaded again on the next connect or completion request. */
+    public synchronized void clear() {
+        generation++;
+        loadJob.cancel();
+        reloadPending = false;
+        pendingEntities.clear();
+        attributes.clear();
+        root = null;
+        snapshot = null;
+    }
+
+    @Override
+    public void handleDataSourceEvent(DBPEvent event) {
+        DBSObject object = event.getObject();
+        if (object == container) {
+            if (event.getAction() == DBPEvent.Action.OBJECT_REMOVE) {
+                dispose();
+            } else if (event.getAction() == DBPEvent.Action.OBJECT_UPDATE
+                    && event.getEnabled() != null) {
+                if (event.getEnabled()) {
+                    scheduleLoad();
+                } else {
+                    clear();
+                }
+            }
+        } else if (object instanceof DBSEntity
+                && object.getDataSource() != null
+                && object.getDataSource().getContainer() == container) {
+            switch (event.getAction()) {
+                case OBJECT_ADD:
+                case OBJECT_UPDATE:
+                    scheduleRefresh((DBSEntity) object, false);
+                    break;
+                case OBJECT_REMOVE:
+                    scheduleRefresh((DBSEntity) object, true);
+                    break;
+                default:
+                    break;
+            }
+        } else if (object != null
+                && object == container.getDataSource()
+                && event.getAction() == DBPEvent.Action.OBJECT_UPDATE) {
+            scheduleLoad();
+        }
+    }
+
+    private void dispose() {
+        clear();
+        caches.remove(container);
+        container.getRegistry().removeDataSourceListener(this);
+    }
+
+    public static boolean isRelationshipType(DBSEntity entity) {
+        return entity instanceof DBSTable && ((DBSTable) entity).isView();
+    }
+
+    private void load(DBRProgressMonitor monitor) throws DBException {
+        boolean reload;
+        long startGeneration;
+        Map<DBSEntity, Boolean> entities;
+        synchronized (this) {
+            reload = reloadPending;
+            startGeneration = generation;
+            entities = new LinkedHashMap<>(pendingEntities);
+            pendingEntities.clear();
+        }
+        if (reload) {
+            loadAll(monitor, startGeneration);
+        } else if (!entities.isEmpty()) {
+            Map<DBSEntity, List<DBSEntityAttribute>> loaded = new LinkedHashMap<>();
+            for (Map.Entry<DBSEntity, Boolean> entry : entities.entrySet()) {
+                if (!entry.getValue()) {
+                    loaded.put(entry.getKey(), readAttributes(monitor, entry.getKey()));
+                }
+            }
+            synchronized (this) {
+                if (reloadPending || root == null || generation != startGeneration) {
+                    return;
+                }
+                for (Map.Entry<DBSEntity, Boolean> entry : entities.entrySet()) {
+                    if (entry.getValue()) {
+                        attributes.remove(entry.getKey());
+                    } else {
+                        attributes.put(entry.getKey(), loaded.get(entry.getKey()));
+                    }
+                }
+                snapshot = new Snapshot(root, attributes);
+            }
+        }
+    }
+
+    private void loadAll(DBRProgressMonitor monitor, long startGeneration) throws DBException {
+        try {
+            DBPDataSource dataSource = container.getDataSource();
+            DBSObjectContainer rootContainer =
+                    DBUtils.getAdapter(DBSObjectContainer.class, dataSource);
+            if (rootContainer == null) {
+                return;
+            }
+            List<DBSEntity> entities = new ArrayList<>();
+            collectEntities(monitor, rootContainer, entities);
+            Map<DBSEntity, List<DBSEntityAttribute>> loaded = new LinkedHashMap<>();
+            for (DBSEntity entity : entities) {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                loaded.put(entity, readAttributes(monitor, entity));
+            }
+            synchronized (this) {
+                if (generation != startGeneration) {
+                    // Cleared or reloaded while loading: this schema may be stale
+                    return;
+                }
+                if (!pendingEntities.isEmpty()) {
+                    // Changed while loading: they are reloaded by the next run
+                    loadJob.schedule(LOAD_DELAY);
+                }
+                root = rootContainer;
+                attributes.clear();
+                attributes.putAll(loaded);
+                snapshot = new Snapshot(root, attributes);
+            }
+            log.debug(
+                    "Cypher schema of '" + container.getName() + "' loaded: " + entities.size()
+                            + " labels and relationship types");
+        } finally {
+            synchronized (this) {
+                // a newer request keeps its flag, its own run resets it
+                if (generation == startGeneration) {
+                    reloadPending = false;
+                }
+            }
+        }
+    }
+
+    private static void collectEntities(
+            DBRProgressMonitor monitor, DBSObjectContainer container, List<DBSEntity> entities)
+            throws DBException {
+        Collection<? extends DBSObject> children = container.getChildren(monitor);
+        if (children == null) {
+            return;
+        }
+        for (DBSObject child : children) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            if (DBUtils.isHiddenObject(child)) {
+                continue;
+            }
+            if (child instanceof DBSEntity) {
+                entities.add((DBSEntity) child);
+            } else if (child instanceof DBSObjectContainer && DBUtils.isVirtualObject(child)) {
+                collectEntities(monitor, (DBSObjectContainer) child, entities);
+            }
+        }
+    }
+
+    private static List<DBSEntityAttribute> readAttributes(
+            DBRProgressMonitor monitor, DBSEntity entity) {
+        try {
+            Collection<? extends DBSEntityAttribute> entityAttributes =
+                    entity.getAttributes(monitor);
+            if (entityAttributes != null) {
+                return new ArrayList<>(entityAttributes);
+            }
+        } catch (DBException e) {
+            log.debug("Can't read properties of '" + entity.getName() + "'", e);
+        }
+        return Collections.emptyList();
+    }
+
+    private class LoadJob extends AbstractJob {
+        LoadJob() {
+            super("Load Cypher schema");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            if (container.getDataSource() == null) {
+                return Status.OK_STATUS;
+            }
+            try {
+                load(monitor);
+            } catch (DBException e) {
+                log.debug("Can't load Cypher schema of '" + container.getName() + "'", e);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -21,6 +21,15 @@ package org.jkiss.dbeaver.model.data.aggregate;
  */
 public class AggregateUtils {
 
+    /**
+     * Checks whether the value is a boxed primitive number.
+     * Such values may be passed to {@link IAggregateNumericFunction#accumulate(double)}.
+     */
+    public static boolean isPrimitiveNumber(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Double ||
+            value instanceof Float || value instanceof Short || value instanceof Byte;
+    }
+
     public static int compareValues(Comparable val1, Comparable val2) {
         if (val1 instanceof Number && val2 instanceof Number) {
             double cmpr = ((Number) val1).doubleValue() - ((Number) val2).doubleValue();
@@ -19,7 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 /**
  * FunctionAvg
  */
-public class FunctionAvg extends FunctionNumeric {
+public class FunctionAvg extends FunctionNumeric implements IAggregateNumericFunction {
 
     protected double result = Double.NaN;
 
@@ -27,11 +27,7 @@ public class FunctionAvg extends FunctionNumeric {
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
         Number num = getNumeric(value);
         if (num != null) {
-            if (Double.isNaN(result)) {
-                result = 0.0;
-            }
-            result += num.doubleValue();
-            return true;
+            return accumulate(num.doubleValue());
         }/* else if (value instanceof Date) {
             dateResult += ((Date)value).getTime();
             return true;
@@ -39,6 +35,15 @@ public class FunctionAvg extends FunctionNumeric {
         return false;
     }
 
+    @Override
+    public boolean accumulate(double value) {
+        if (Double.isNaN(result)) {
+            result = 0.0;
+        }
+        result += value;
+        return true;
+    }
+
     @Override
     public Object getResult(int valueCount) {
         if (Double.isNaN(result)) {
@@ -19,7 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 /**
  * FunctionCount
  */
-public class FunctionCount implements IAggregateFunction {
+public class FunctionCount implements IAggregateNumericFunction {
 
     private int count = 0;
 
@@ -29,6 +29,12 @@ public class FunctionCount implements IAggregateFunction {
         return true;
     }
 
+    @Override
+    public boolean accumulate(double value) {
+        count++;
+        return true;
+    }
+
     @Override
     public Object getResult(int valueCount) {
         return count;
@@ -16,29 +16,93 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
- * FunctionCountDistinct
+ * Counts distinct values.
+ * Exact up to {@link #EXACT_LIMIT} distinct values, estimated with {@link HyperLogLog} after that.
+ * Numbers are compared by value: 1, 1L, 1.0 and 1.00 are the same value.
  */
 public class FunctionCountDistinct implements IAggregateFunction {
 
+    public static final int EXACT_LIMIT = 10000;
+
     private int count = 0;
     private Set<Object> cache = new HashSet<>();
+    private HyperLogLog estimator;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
-        if (!cache.contains(value)) {
-            count++;
-            cache.add(value);
+        Object key = getDistinctKey(value);
+        if (estimator != null) {
+            addToEstimator(key);
             return true;
         }
-        return false;
+        if (!cache.add(key)) {
+            return false;
+        }
+        count++;
+        if (count > EXACT_LIMIT) {
+            estimator = new HyperLogLog();
+            for (Object cached : cache) {
+                addToEstimator(cached);
+            }
+            cache = null;
+        }
+        return true;
     }
 
     @Override
     public Object getResult(int valueCount) {
+        if (estimator != null) {
+            return estimator.estimate();
+        }
         return count;
     }
+
+    private void addToEstimator(Object key) {
+        if (key instanceof Long) {
+            estimator.add(HyperLogLog.hash((Long) key));
+        } else if (key instanceof Double) {
+            estimator.addDouble((Double) key);
+        } else {
+            estimator.addObject(key);
+        }
+    }
+
+    /**
+     * Integral numbers become Long (BigInteger if they don't fit), other numbers Double or stripped BigDecimal.
+     * Integral values are never converted to double, so large numbers don't collide.
+     */
+    private static Object getDistinctKey(Object value) {
+        if (value instanceof Long) {
+            return value;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            long integral = (long) number;
+            // Long.MIN_VALUE and MAX_VALUE may be saturated conversions of larger doubles
+            if (integral == number && integral != Long.MIN_VALUE && integral != Long.MAX_VALUE) {
+                return integral;
+            }
+            return number;
+        } else if (value instanceof BigInteger) {
+            return getIntegerKey((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) value).stripTrailingZeros();
+            if (decimal.scale() <= 0) {
+                return getIntegerKey(decimal.toBigInteger());
+            }
+            return decimal;
+        }
+        return value;
+    }
+
+    private static Object getIntegerKey(BigInteger value) {
+        return value.bitLength() < 64 ? (Object) value.longValue() : value;
+    }
 }
@@ -21,28 +21,99 @@ import org.jkiss.dbeaver.Log;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
- * Median
+ * Median.
+ * Exact for up to {@link #EXACT_LIMIT} values. Larger numeric sets are estimated with a {@link TDigest},
+ * other values by the median of a random sample of {@link #EXACT_LIMIT} values.
  */
 public class FunctionMedian implements IAggregateFunction {
 
     private static final Log log = Log.getLog(FunctionMedian.class);
 
-    private List<Comparable> cache = new ArrayList<>();
+    public static final int EXACT_LIMIT = 4096;
+
+    // Numbers as they were passed, so the median of an odd count keeps its type
+    private final List<Number> numbers = new ArrayList<>();
+    private TDigest digest;
+
+    // Reservoir sample of non-numeric values
+    private final List<Comparable> cache = new ArrayList<>();
+    private long comparableCount;
+    private Random random;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
         value = FunctionNumeric.getComparable(value, aggregateAsStrings);
+        if (value instanceof Number) {
+            addNumber((Number) value);
+            return true;
+        }
         if (value != null) {
-            cache.add((Comparable) value);
+            comparableCount++;
+            if (cache.size() < EXACT_LIMIT) {
+                cache.add((Comparable) value);
+            } else {
+                if (random == null) {
+                    random = new Random(EXACT_LIMIT);
+                }
+                long index = (long) (random.nextDouble() * comparableCount);
+                if (index < EXACT_LIMIT) {
+                    cache.set((int) index, (Comparable) value);
+                }
+            }
             return true;
         }
         return false;
     }
 
+    private void addNumber(Number value) {
+        if (digest != null) {
+            digest.add(value.doubleValue());
+        } else if (numbers.size() < EXACT_LIMIT) {
+            numbers.add(value);
+        } else {
+            digest = new TDigest();
+            for (Number number : numbers) {
+                digest.add(number.doubleValue());
+            }
+            digest.add(value.doubleValue());
+            numbers.clear();
+        }
+    }
+
     @Override
     public Object getResult(int valueCount) {
+        boolean hasNumbers = digest != null || !numbers.isEmpty();
+        if (hasNumbers && !cache.isEmpty()) {
+            // Numbers and other values can't be compared
+            return null;
+        }
+        if (digest != null) {
+            return digest.quantile(0.5);
+        }
+        if (!numbers.isEmpty()) {
+            numbers.sort(FunctionMedian::compareNumbers);
+            int size = numbers.size();
+            int middle = size / 2;
+            if (size % 2 == 1) {
+                return numbers.get(middle);
+            }
+            return (numbers.get(middle - 1).doubleValue() + numbers.get(middle).doubleValue()) / 2.0;
+        }
+        return getComparableMedian();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNumbers(Number number1, Number number2) {
+        if (number1.getClass() == number2.getClass() && number1 instanceof Comparable) {
+            return ((Comparable<Object>) number1).compareTo(number2);
+        }
+        return Double.compare(number1.doubleValue(), number2.doubleValue());
+    }
+
+    private Object getComparableMedian() {
         try {
             Collections.sort(cache);
         } catch (Exception e) {
@@ -51,18 +122,11 @@ public class FunctionMedian implements IAggregateFunction {
         }
 
         int size = cache.size();
-        int middle = size / 2;
-        if (size % 2 == 1) {
-            return cache.get(middle);
-        } else {
-            Comparable val1 = cache.get(middle - 1);
-            Comparable val2 = cache.get(middle);
-            if (val1 instanceof Number && val2 instanceof Number) {
-                return (((Number) val1).doubleValue() + ((Number) val2).doubleValue()) / 2.0;
-            }
-            // Not true median - but we can't evaluate it for non-numeric values
-            // So just get first one
-            return val1;
+        if (size == 0) {
+            return null;
         }
+        // Not true median for even count - but we can't evaluate it for non-numeric values
+        // So just get first one
+        return cache.get(size % 2 == 1 ? size / 2 : size / 2 - 1);
     }
 }
@@ -19,7 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 /**
  * FunctionSum
  */
-public class FunctionSum extends FunctionNumeric {
+public class FunctionSum extends FunctionNumeric implements IAggregateNumericFunction {
 
     protected double result = Double.NaN;
 
@@ -27,15 +27,20 @@ public class FunctionSum extends FunctionNumeric {
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
         Number num = getNumeric(value);
         if (num != null) {
-            if (Double.isNaN(result)) {
-                result = 0.0;
-            }
-            result += num.doubleValue();
-            return true;
+            return accumulate(num.doubleValue());
         }
         return false;
     }
 
+    @Override
+    public boolean accumulate(double value) {
+        if (Double.isNaN(result)) {
+            result = 0.0;
+        }
+        result += value;
+        return true;
+    }
+
     @Override
     public Object getResult(int valueCount) {
         if (Double.isNaN(result)) {
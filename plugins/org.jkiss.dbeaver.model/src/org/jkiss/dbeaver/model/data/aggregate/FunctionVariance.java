@@ -0,0 +1,59 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+/**
+ * Sample variance, computed in one pass with Welford's algorithm
+ */
+public class FunctionVariance extends FunctionNumeric implements IAggregateNumericFunction {
+
+    private long count;
+    private double mean;
+    // Sum of squared differences from the current mean
+    private double m2;
+
+    @Override
+    public boolean accumulate(Object value, boolean aggregateAsStrings) {
+        Number num = getNumeric(value);
+        if (num != null) {
+            return accumulate(num.doubleValue());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean accumulate(double value) {
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        return true;
+    }
+
+    protected double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    @Override
+    public Object getResult(int valueCount) {
+        double variance = getVariance();
+        return Double.isNaN(variance) ? null : variance;
+    }
+}
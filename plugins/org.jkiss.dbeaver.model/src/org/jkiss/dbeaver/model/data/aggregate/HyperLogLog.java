@@ -0,0 +1,98 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+/**
+ * HyperLogLog distinct count estimation in constant memory.
+ *
+ * Uses 2^precision one-byte registers, the standard error is about 1.04 / sqrt(2^precision)
+ * (0.8% for the default precision). Cardinalities up to 3 * 2^precision are estimated by linear counting.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a value by its hash.
+     * Hash bits must be well mixed, see {@link #hash(long)}.
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Leading zeros of the remaining bits, the sentinel bit limits the rank
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void addObject(Object value) {
+        add(hash(value == null ? 0 : value.hashCode()));
+    }
+
+    public void addDouble(double value) {
+        add(hash(Double.doubleToLongBits(value)));
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        if (zeros > 0) {
+            // Linear counting is more precise for small cardinalities. The raw estimate is biased up to about 3m,
+            // so the choice is made by the linear counting estimate.
+            double linearEstimate = m * Math.log((double) m / zeros);
+            if (linearEstimate <= 3 * m) {
+                return Math.round(linearEstimate);
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        return Math.round(alpha * m * m / sum);
+    }
+
+    /**
+     * Mixes bits of a value (SplitMix64 finalizer)
+     */
+    public static long hash(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
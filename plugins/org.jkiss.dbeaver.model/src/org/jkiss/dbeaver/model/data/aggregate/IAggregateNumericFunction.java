@@ -0,0 +1,28 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+/**
+ * Aggregate function with a primitive path for numeric values.
+ * Callers pass numbers of primitive wrapper types (see {@link AggregateUtils#isPrimitiveNumber(Object)})
+ * to {@link #accumulate(double)} instead of {@link #accumulate(Object, boolean)}, the result is the same.
+ */
+public interface IAggregateNumericFunction extends IAggregateFunction {
+
+    boolean accumulate(double value);
+
+}
@@ -0,0 +1,172 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: streaming quantile estimation in constant memory.
+ *
+ * Values are buffered and then merged into a sorted list of centroids. Centroids near the
+ * tails are kept small, so extreme quantiles stay precise while the median has a relative
+ * error of about 1 / compression of the value count.
+ */
+public class TDigest {
+
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    // Sorted centroids
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private double totalWeight;
+
+    // Unmerged values
+    private final double[] buffer;
+    private int bufferCount;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(int compression) {
+        this.compression = compression;
+        this.means = new double[compression * 2 + 8];
+        this.weights = new double[means.length];
+        this.buffer = new double[compression * 5];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferCount == buffer.length) {
+            merge();
+        }
+        buffer[bufferCount++] = value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Number of added values
+     */
+    public long size() {
+        return (long) totalWeight + bufferCount;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param q quantile, between 0 and 1
+     * @return estimated value or NaN if the digest is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        merge();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index <= weights[0] / 2) {
+            // Between the minimum and the center of the first centroid
+            return interpolate(min, means[0], index / (weights[0] / 2));
+        }
+        double center = weights[0] / 2;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+            if (index <= nextCenter) {
+                return interpolate(means[i], means[i + 1], (index - center) / (nextCenter - center));
+            }
+            center = nextCenter;
+        }
+        // Between the center of the last centroid and the maximum
+        double lastHalf = weights[centroidCount - 1] / 2;
+        return interpolate(means[centroidCount - 1], max, Math.min(1, (index - center) / lastHalf));
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    private void merge() {
+        if (bufferCount == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferCount);
+
+        double newTotal = totalWeight + bufferCount;
+        double[] newMeans = new double[means.length];
+        double[] newWeights = new double[weights.length];
+        int newCount = 0;
+        double weightSoFar = 0;
+
+        int ci = 0, bi = 0;
+        while (ci < centroidCount || bi < bufferCount) {
+            double mean, weight;
+            if (bi >= bufferCount || (ci < centroidCount && means[ci] <= buffer[bi])) {
+                mean = means[ci];
+                weight = weights[ci];
+                ci++;
+            } else {
+                mean = buffer[bi];
+                weight = 1;
+                bi++;
+            }
+            if (newCount > 0) {
+                double proposed = newWeights[newCount - 1] + weight;
+                double q = (weightSoFar - newWeights[newCount - 1] + proposed / 2) / newTotal;
+                if (proposed <= Math.max(1, 4 * newTotal * q * (1 - q) / compression)) {
+                    // Absorb into the last centroid
+                    newMeans[newCount - 1] += (mean - newMeans[newCount - 1]) * weight / proposed;
+                    newWeights[newCount - 1] = proposed;
+                    weightSoFar += weight;
+                    continue;
+                }
+            }
+            if (newCount == newMeans.length) {
+                newMeans = Arrays.copyOf(newMeans, newCount * 2);
+                newWeights = Arrays.copyOf(newWeights, newCount * 2);
+            }
+            newMeans[newCount] = mean;
+            newWeights[newCount] = weight;
+            newCount++;
+            weightSoFar += weight;
+        }
+
+        means = newMeans;
+        weights = newWeights;
+        centroidCount = newCount;
+        totalWeight = newTotal;
+        bufferCount = 0;
+    }
+
+}
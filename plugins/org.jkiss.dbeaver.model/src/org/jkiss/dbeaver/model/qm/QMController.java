@@ -17,6 +17,8 @@
 
 package org.jkiss.dbeaver.model.qm;
 
+import org.jkiss.code.Nullable;
+
 /**
  * Query manager controller
  */
@@ -36,4 +38,14 @@ public interface QMController {
 
     void unregisterMetaListener(QMMetaListener metaListener);
 
+    /**
+     * Returns execution statistics of queries with the specified fingerprint
+     * (see {@link QMUtils#getQueryFingerprint(String)}).
+     * Null if there were no such queries or query history isn't stored.
+     */
+    @Nullable
+    default QMQueryStatistics getQueryStatistics(long queryFingerprint) {
+        return null;
+    }
+
 }
@@ -37,6 +37,8 @@ public class QMEventCriteria {
     DBCExecutionPurpose[] queryTypes = new DBCExecutionPurpose[0];
     @Nullable
     String searchString;
+    @Nullable
+    Long queryFingerprint;
 
     public String getContainerId() {
         return containerId;
@@ -95,4 +97,15 @@ public class QMEventCriteria {
     public void setSearchString(String searchString) {
         this.searchString = searchString;
     }
+
+    /**
+     * Fingerprint of normalized query text (see {@link QMUtils#getQueryFingerprint(String)})
+     */
+    public Long getQueryFingerprint() {
+        return queryFingerprint;
+    }
+
+    public void setQueryFingerprint(Long queryFingerprint) {
+        this.queryFingerprint = queryFingerprint;
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.model.qm;
+
+/**
+ * Execution statistics of all queries with the same fingerprint (see {@link QMUtils#getQueryFingerprint(String)}).
+ * Latencies are in milliseconds and cover a rolling time window.
+ */
+public class QMQueryStatistics {
+
+    private final long fingerprint;
+    private final long executeCount;
+    private final long errorCount;
+    private final long rowCount;
+    private final long latencyP50;
+    private final long latencyP95;
+    private final long latencyP99;
+
+    public QMQueryStatistics(long fingerprint, long executeCount, long errorCount, long rowCount, long latencyP50, long latencyP95, long latencyP99) {
+        this.fingerprint = fingerprint;
+        this.executeCount = executeCount;
+        this.errorCount = errorCount;
+        this.rowCount = rowCount;
+        this.latencyP50 = latencyP50;
+        this.latencyP95 = latencyP95;
+        this.latencyP99 = latencyP99;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getExecuteCount() {
+        return executeCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    public long getLatencyP95() {
+        return latencyP95;
+    }
+
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+
+    @Override
+    public String toString() {
+        return "p50=" + latencyP50 + "ms, p95=" + latencyP95 + "ms, p99=" + latencyP99 + "ms, executions=" + executeCount;
+    }
+}
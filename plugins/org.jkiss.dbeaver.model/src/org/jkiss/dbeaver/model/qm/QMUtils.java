@@ -34,12 +34,16 @@ import org.jkiss.utils.CommonUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Query Manager utils
  */
 public class QMUtils {
 
+    // Lists of placeholders (e.g. IN (?, ?, ?)) differ by length only
+    private static final Pattern PARAMETER_LIST_PATTERN = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
     private static DBPPlatform application;
     private static QMExecutionHandler defaultHandler;
 
@@ -185,6 +189,120 @@ public class QMUtils {
         return criteria;
     }
 
+    /**
+     * Returns execution statistics of queries with the specified fingerprint.
+     */
+    @Nullable
+    public static QMQueryStatistics getQueryStatistics(long queryFingerprint) {
+        if (application == null) {
+            return null;
+        }
+        return application.getQueryManager().getQueryStatistics(queryFingerprint);
+    }
+
+    /**
+     * Normalizes query text: literals are replaced with placeholders, comments are removed,
+     * whitespaces are collapsed and keywords/identifiers are lower-cased.
+     * Queries which differ by literal values only have the same normalized text.
+     */
+    @NotNull
+    public static String normalizeQuery(@NotNull String queryText) {
+        final int length = queryText.length();
+        StringBuilder result = new StringBuilder(Math.min(length, 4000));
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = queryText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = result.length() > 0;
+                continue;
+            }
+            if (c == '-' && i + 1 < length && queryText.charAt(i + 1) == '-') {
+                // Line comment
+                while (i < length && queryText.charAt(i) != '\n') {
+                    i++;
+                }
+                pendingSpace = result.length() > 0;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && queryText.charAt(i + 1) == '*') {
+                // Block comment
+                int end = queryText.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+                pendingSpace = result.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                result.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                // String literal. Doubled quote is an escaped quote
+                for (i++; i < length; i++) {
+                    if (queryText.charAt(i) == '\'') {
+                        if (i + 1 < length && queryText.charAt(i + 1) == '\'') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                result.append('?');
+            } else if (c == '"' || c == '`' || c == '[') {
+                // Quoted identifier, keep it as is
+                char endQuote = c == '[' ? ']' : c;
+                int end = queryText.indexOf(endQuote, i + 1);
+                if (end < 0) {
+                    end = length - 1;
+                }
+                result.append(queryText, i, end + 1);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierPart(result)) {
+                // Numeric literal (including decimals and exponents)
+                while (i + 1 < length) {
+                    char next = queryText.charAt(i + 1);
+                    if (Character.isLetterOrDigit(next) || next == '.' ||
+                        ((next == '+' || next == '-') && (queryText.charAt(i) == 'e' || queryText.charAt(i) == 'E'))) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                result.append('?');
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        int end = result.length();
+        while (end > 0 && result.charAt(end - 1) == ';') {
+            end--;
+        }
+        result.setLength(end);
+        return PARAMETER_LIST_PATTERN.matcher(result).replaceAll("(?)");
+    }
+
+    /**
+     * Returns 64-bit hash of normalized query text.
+     * It is used to group executions of the same query with different literal values.
+     */
+    public static long getQueryFingerprint(@NotNull String queryText) {
+        final String normalized = normalizeQuery(queryText);
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static boolean isIdentifierPart(StringBuilder text) {
+        if (text.length() == 0) {
+            return false;
+        }
+        char prev = text.charAt(text.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '$' || prev == ':' || prev == '@';
+    }
+
     public static class ListCursorImpl implements QMEventCursor {
 
         private final List<QMMetaEvent> events;
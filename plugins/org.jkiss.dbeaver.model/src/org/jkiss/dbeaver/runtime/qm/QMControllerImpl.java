@@ -47,7 +47,8 @@ public class QMControllerImpl implements QMController {
     private QMMCollectorImpl metaHandler;
     private final List<QMExecutionHandler> handlers = new ArrayList<>();
     private QMEventBrowser eventBrowser;
-    private DefaultEventBrowser defaultEventBrowser = new DefaultEventBrowser();
+    private DefaultEventBrowser defaultEventBrowser = new DefaultEventBrowser(false);
+    private QMHistoryStore historyStore;
 
     public QMControllerImpl() {
         defaultHandler = (QMExecutionHandler) Proxy.newProxyInstance(
@@ -95,14 +96,28 @@ public class QMControllerImpl implements QMController {
         if (eventBrowser == null) {
             eventBrowser = GeneralUtils.adapt(this, QMEventBrowser.class);
             if (eventBrowser == null) {
-                // Default browser
-                this.eventBrowser = defaultEventBrowser;
+                // Default browser. Includes persistent history
+                this.eventBrowser = new DefaultEventBrowser(true);
             }
         }
 
         return eventBrowser;
     }
 
+    @Nullable
+    @Override
+    public QMQueryStatistics getQueryStatistics(long queryFingerprint) {
+        final QMHistoryStore store = historyStore;
+        return store == null || !store.isEnabled() ? null : store.getStatistics(queryFingerprint);
+    }
+
+    /**
+     * Sets persistent query history. It is used by event browser and for query statistics.
+     */
+    public void setHistoryStore(@Nullable QMHistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
     @Override
     public void registerHandler(QMExecutionHandler handler) {
         synchronized (handlers) {
@@ -173,6 +188,13 @@ public class QMControllerImpl implements QMController {
     }
 
     private class DefaultEventBrowser implements QMEventBrowser {
+
+        private final boolean includeHistory;
+
+        DefaultEventBrowser(boolean includeHistory) {
+            this.includeHistory = includeHistory;
+        }
+
         @Override
         public QMEventCursor getQueryHistoryCursor(
             @NotNull DBRProgressMonitor monitor,
@@ -180,6 +202,17 @@ public class QMControllerImpl implements QMController {
             @Nullable QMEventFilter filter)
             throws DBException
         {
+            final QMHistoryStore store = includeHistory ? historyStore : null;
+            // Executions older than that are read from the history store
+            final long historyStartTime = metaHandler.getPastEventsStartTime();
+            final QMEventCursor pastCursor = getPastEventsCursor(criteria, filter);
+            if (store == null || !store.isEnabled()) {
+                return pastCursor;
+            }
+            return new ConcatCursor(pastCursor, store.openCursor(criteria, filter, historyStartTime));
+        }
+
+        private QMEventCursor getPastEventsCursor(@NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter) {
             List<QMMetaEvent> pastEvents = metaHandler.getPastEvents();
             Collections.reverse(pastEvents);
             if (criteria.getObjectTypes() != null || criteria.getQueryTypes() != null) {
@@ -196,6 +229,14 @@ public class QMControllerImpl implements QMController {
                         iter.remove();
                         continue;
                     }
+                    if (criteria.getQueryFingerprint() != null) {
+                        if (!(event.getObject() instanceof QMMStatementExecuteInfo) ||
+                            criteria.getQueryFingerprint() != QMUtils.getQueryFingerprint(CommonUtils.notEmpty(((QMMStatementExecuteInfo) event.getObject()).getQueryString())))
+                        {
+                            iter.remove();
+                            continue;
+                        }
+                    }
                     if (criteria.getQueryTypes() != null) {
                         QMMStatementInfo statementInfo = null;
                         if (event.getObject() instanceof QMMStatementInfo) {
@@ -236,4 +277,59 @@ public class QMControllerImpl implements QMController {
                 return ArrayUtils.contains(objectTypes, QMObjectType.query);
         }
     }
+
+    /**
+     * Reads events of the first cursor, then events of the second one
+     */
+    static class ConcatCursor implements QMEventCursor {
+        private final QMEventCursor first;
+        private final QMEventCursor second;
+        // Number of events read so far
+        private int position;
+
+        ConcatCursor(QMEventCursor first, QMEventCursor second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public long getTotalSize() {
+            return first.getTotalSize() + second.getTotalSize();
+        }
+
+        /**
+         * Moves forward to the event at the given position: in-memory events are skipped first,
+         * then events of the history store. Cursor can't be scrolled back.
+         */
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            if (position < this.position) {
+                throw new DBException("Query history cursor can't be scrolled back");
+            }
+            while (this.position < position) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + position + ")");
+                }
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            return first.hasNextEvent(monitor) || second.hasNextEvent(monitor);
+        }
+
+        @Override
+        public QMMetaEvent nextEvent(DBRProgressMonitor monitor) throws DBException {
+            QMMetaEvent event = first.hasNextEvent(monitor) ? first.nextEvent(monitor) : second.nextEvent(monitor);
+            position++;
+            return event;
+        }
+
+        @Override
+        public void close() {
+            first.close();
+            second.close();
+        }
+    }
 }
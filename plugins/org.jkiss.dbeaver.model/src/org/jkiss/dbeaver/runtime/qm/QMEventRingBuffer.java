@@ -0,0 +1,88 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free event history. The oldest events are overwritten when capacity is reached.
+ * Each slot keeps the sequence number of its event, so readers skip slots which are being overwritten.
+ */
+class QMEventRingBuffer {
+
+    private static class Slot {
+        final long sequence;
+        final QMMetaEvent event;
+
+        Slot(long sequence, QMMetaEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    QMEventRingBuffer(int capacity) {
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(@NotNull QMMetaEvent event) {
+        final long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence % capacity), new Slot(sequence, event));
+    }
+
+    void addAll(@NotNull List<QMMetaEvent> events) {
+        for (QMMetaEvent event : events) {
+            add(event);
+        }
+    }
+
+    /**
+     * Returns true if some events were already overwritten
+     */
+    boolean isWrapped() {
+        return nextSequence.get() > capacity;
+    }
+
+    /**
+     * Returns events in the order they were added
+     */
+    @NotNull
+    List<QMMetaEvent> getEvents() {
+        final long end = nextSequence.get();
+        final long start = Math.max(0, end - capacity);
+        List<QMMetaEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots.get((int) (sequence % capacity));
+            if (slot != null && slot.sequence == sequence) {
+                events.add(slot.event);
+            }
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,540 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.QMUtils;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Segment of the persistent query history.
+ *
+ * Data file is an append-only sequence of query execution records.
+ * Index file keeps the segment time range, data sources and query fingerprints of all records,
+ * plus offsets of each {@link #BLOCK_SIZE}-th record. So segments can be skipped without reading
+ * and records can be read backwards, block by block.
+ * Index of the active segment is kept in memory and is written when the segment is closed.
+ */
+class QMHistorySegment {
+
+    private static final Log log = Log.getLog(QMHistorySegment.class);
+
+    static final String DATA_FILE_EXT = ".qmh"; //$NON-NLS-1$
+    static final String INDEX_FILE_EXT = ".qmi"; //$NON-NLS-1$
+    static final int BLOCK_SIZE = 256;
+
+    private static final int INDEX_MAGIC = 0x514D4958;
+    private static final int INDEX_VERSION = 1;
+
+    // Protects from huge allocations on broken data
+    private static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+    private static final int FLAG_TRANSACTIONAL = 1;
+    private static final int FLAG_SESSION_TRANSACTIONAL = 2;
+
+    /**
+     * Single query execution
+     */
+    static class QueryRecord {
+        long openTime;
+        long closeTime;
+        long fetchBeginTime;
+        long fetchEndTime;
+        long rowCount;
+        long fingerprint;
+        int errorCode;
+        DBCExecutionPurpose purpose;
+        int flags;
+        String containerId;
+        String containerName;
+        String driverId;
+        String instanceId;
+        String contextName;
+        String queryString;
+        String errorMessage;
+
+        long getDuration() {
+            long fetchTime = fetchEndTime > fetchBeginTime ? fetchEndTime - fetchBeginTime : 0;
+            return closeTime - openTime + fetchTime;
+        }
+
+        boolean hasError() {
+            return errorCode != 0 || errorMessage != null;
+        }
+
+        @NotNull
+        static QueryRecord fromExecution(@NotNull QMMStatementExecuteInfo execution) {
+            QMMStatementInfo statement = execution.getStatement();
+            QMMSessionInfo session = statement.getSession();
+            QueryRecord record = new QueryRecord();
+            record.openTime = execution.getOpenTime();
+            record.closeTime = execution.getCloseTime();
+            record.fetchBeginTime = execution.getFetchBeginTime();
+            record.fetchEndTime = execution.getFetchEndTime();
+            record.rowCount = execution.getFetchRowCount() > 0 ? execution.getFetchRowCount() : execution.getUpdateRowCount();
+            record.queryString = CommonUtils.notEmpty(execution.getQueryString());
+            record.fingerprint = QMUtils.getQueryFingerprint(record.queryString);
+            record.errorCode = execution.getErrorCode();
+            record.errorMessage = execution.getErrorMessage();
+            record.purpose = statement.getPurpose();
+            record.flags = (execution.isTransactional() ? FLAG_TRANSACTIONAL : 0) |
+                (session.isTransactional() ? FLAG_SESSION_TRANSACTIONAL : 0);
+            record.containerId = session.getContainerId();
+            record.containerName = session.getContainerName();
+            record.driverId = session.getDriverId();
+            record.instanceId = session.getInstanceId();
+            record.contextName = session.getContextName();
+            return record;
+        }
+
+        /**
+         * Restores execution event. Sessions are shared between events of the same connection.
+         */
+        @NotNull
+        QMMetaEvent toEvent(@NotNull Map<String, QMMSessionInfo> sessions) {
+            String sessionKey = containerId + "/" + instanceId + "/" + contextName; //$NON-NLS-1$ //$NON-NLS-2$
+            QMMSessionInfo session = sessions.get(sessionKey);
+            if (session == null) {
+                session = new QMMSessionInfo(
+                    openTime, closeTime, containerId, containerName, driverId, null, instanceId, contextName,
+                    (flags & FLAG_SESSION_TRANSACTIONAL) != 0);
+                sessions.put(sessionKey, session);
+            }
+            QMMStatementInfo statement = new QMMStatementInfo(openTime, closeTime, session, purpose);
+            QMMStatementExecuteInfo execution = new QMMStatementExecuteInfo(
+                openTime, closeTime, statement, queryString, rowCount, errorCode, errorMessage,
+                fetchBeginTime, fetchEndTime, (flags & FLAG_TRANSACTIONAL) != 0);
+            return new QMMetaEvent(execution, QMMetaEvent.Action.END);
+        }
+
+        void write(@NotNull DataOutputStream out) throws IOException {
+            out.writeLong(openTime);
+            out.writeLong(closeTime);
+            out.writeLong(fetchBeginTime);
+            out.writeLong(fetchEndTime);
+            out.writeLong(rowCount);
+            out.writeLong(fingerprint);
+            out.writeInt(errorCode);
+            out.writeByte(purpose == null ? -1 : purpose.ordinal());
+            out.writeByte(flags);
+            writeString(out, containerId);
+            writeString(out, containerName);
+            writeString(out, driverId);
+            writeString(out, instanceId);
+            writeString(out, contextName);
+            writeString(out, queryString);
+            writeString(out, errorMessage);
+        }
+
+        @NotNull
+        static QueryRecord read(@NotNull DataInputStream in) throws IOException {
+            QueryRecord record = new QueryRecord();
+            record.openTime = in.readLong();
+            record.closeTime = in.readLong();
+            record.fetchBeginTime = in.readLong();
+            record.fetchEndTime = in.readLong();
+            record.rowCount = in.readLong();
+            record.fingerprint = in.readLong();
+            record.errorCode = in.readInt();
+            int purpose = in.readByte();
+            DBCExecutionPurpose[] purposes = DBCExecutionPurpose.values();
+            record.purpose = purpose >= 0 && purpose < purposes.length ? purposes[purpose] : DBCExecutionPurpose.USER;
+            record.flags = in.readByte();
+            record.containerId = readString(in);
+            record.containerName = readString(in);
+            record.driverId = readString(in);
+            record.instanceId = readString(in);
+            record.contextName = readString(in);
+            record.queryString = readString(in);
+            record.errorMessage = readString(in);
+            return record;
+        }
+    }
+
+    private final File dataFile;
+    private final File indexFile;
+
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private int recordCount;
+    // Length of flushed data. Readers never go beyond it
+    private long dataLength;
+    private final Set<String> containerIds = new HashSet<>();
+    private final Set<Long> fingerprints = new HashSet<>();
+    private long[] blockOffsets = new long[16];
+    private int blockCount;
+
+    // Writer of the active segment
+    private DataOutputStream output;
+    private long writeOffset;
+
+    private QMHistorySegment(@NotNull File dataFile) {
+        this.dataFile = dataFile;
+        this.indexFile = new File(dataFile.getParentFile(), getSegmentName(dataFile) + INDEX_FILE_EXT);
+    }
+
+    /**
+     * Creates new active segment
+     */
+    @NotNull
+    static QMHistorySegment create(@NotNull File folder, long createTime) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(new File(folder, String.format("%016x", createTime) + DATA_FILE_EXT)); //$NON-NLS-1$
+        segment.openOutput();
+        return segment;
+    }
+
+    /**
+     * Opens existing segment. Rebuilds index if it is missing or doesn't match the data file.
+     */
+    @NotNull
+    static QMHistorySegment open(@NotNull File dataFile) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(dataFile);
+        if (!segment.readIndex()) {
+            segment.rebuildIndex();
+        }
+        return segment;
+    }
+
+    static long getCreateTime(@NotNull File dataFile) {
+        try {
+            return Long.parseLong(getSegmentName(dataFile), 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    long getCreateTime() {
+        return getCreateTime(dataFile);
+    }
+
+    private static String getSegmentName(File dataFile) {
+        String name = dataFile.getName();
+        return name.endsWith(DATA_FILE_EXT) ? name.substring(0, name.length() - DATA_FILE_EXT.length()) : name;
+    }
+
+    synchronized long getMinTime() {
+        return minTime;
+    }
+
+    synchronized long getMaxTime() {
+        return maxTime;
+    }
+
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    synchronized long getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Checks the segment index. Null parameters match anything.
+     */
+    synchronized boolean mayContain(long beforeTime, @Nullable String containerId, @Nullable Long fingerprint) {
+        return recordCount > 0 &&
+            minTime < beforeTime &&
+            (containerId == null || containerIds.contains(containerId)) &&
+            (fingerprint == null || fingerprints.contains(fingerprint));
+    }
+
+    synchronized boolean isActive() {
+        return output != null;
+    }
+
+    ///////////////////////////////////////////////////
+    // Writing
+
+    void append(@NotNull QueryRecord record) throws IOException {
+        long offset = writeOffset;
+        record.write(output);
+        writeOffset = output.size();
+        synchronized (this) {
+            if (recordCount % BLOCK_SIZE == 0) {
+                if (blockCount == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                }
+                blockOffsets[blockCount++] = offset;
+            }
+            recordCount++;
+            minTime = Math.min(minTime, record.openTime);
+            maxTime = Math.max(maxTime, record.openTime);
+            if (record.containerId != null) {
+                containerIds.add(record.containerId);
+            }
+            fingerprints.add(record.fingerprint);
+        }
+    }
+
+    void flush() throws IOException {
+        output.flush();
+        synchronized (this) {
+            dataLength = writeOffset;
+        }
+    }
+
+    /**
+     * Closes the writer and saves the index
+     */
+    void close() throws IOException {
+        if (output != null) {
+            try {
+                flush();
+            } finally {
+                output.close();
+                synchronized (this) {
+                    output = null;
+                }
+            }
+            writeIndex();
+        }
+    }
+
+    void delete() {
+        if (indexFile.exists() && !indexFile.delete()) {
+            log.debug("Can't delete query history index '" + indexFile.getAbsolutePath() + "'");
+        }
+        if (dataFile.exists() && !dataFile.delete()) {
+            log.debug("Can't delete query history segment '" + dataFile.getAbsolutePath() + "'");
+        }
+    }
+
+    private void openOutput() throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile, true), 64 * 1024));
+        writeOffset = 0;
+    }
+
+    ///////////////////////////////////////////////////
+    // Reading
+
+    /**
+     * Returns number of blocks in flushed data
+     */
+    synchronized int getBlockCount() {
+        int count = blockCount;
+        while (count > 0 && blockOffsets[count - 1] >= dataLength) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Reads all records of the block
+     */
+    @NotNull
+    List<QueryRecord> readBlock(int block) throws IOException {
+        final long startOffset, endOffset;
+        synchronized (this) {
+            startOffset = blockOffsets[block];
+            endOffset = block + 1 < blockCount && blockOffsets[block + 1] <= dataLength ? blockOffsets[block + 1] : dataLength;
+        }
+        byte[] data = new byte[(int) (endOffset - startOffset)];
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) { //$NON-NLS-1$
+            file.seek(startOffset);
+            file.readFully(data);
+        }
+        List<QueryRecord> records = new ArrayList<>(BLOCK_SIZE);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            while (in.available() > 0 && records.size() < BLOCK_SIZE) {
+                records.add(QueryRecord.read(in));
+            }
+        }
+        return records;
+    }
+
+    ///////////////////////////////////////////////////
+    // Index
+
+    private boolean readIndex() {
+        if (!indexFile.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return false;
+            }
+            minTime = in.readLong();
+            maxTime = in.readLong();
+            recordCount = in.readInt();
+            dataLength = in.readLong();
+            if (dataLength != dataFile.length()) {
+                // Data was appended after the index was written
+                return false;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                containerIds.add(in.readUTF());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                fingerprints.add(in.readLong());
+            }
+            blockCount = in.readInt();
+            blockOffsets = new long[Math.max(blockCount, 16)];
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = in.readLong();
+            }
+            return true;
+        } catch (IOException e) {
+            log.debug("Error reading query history index '" + indexFile.getAbsolutePath() + "'", e);
+            return false;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            synchronized (this) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeLong(minTime);
+                out.writeLong(maxTime);
+                out.writeInt(recordCount);
+                out.writeLong(dataLength);
+                out.writeInt(containerIds.size());
+                for (String containerId : containerIds) {
+                    out.writeUTF(containerId);
+                }
+                out.writeInt(fingerprints.size());
+                for (Long fingerprint : fingerprints) {
+                    out.writeLong(fingerprint);
+                }
+                out.writeInt(blockCount);
+                for (int i = 0; i < blockCount; i++) {
+                    out.writeLong(blockOffsets[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans all data. Truncates a partially written record (e.g. after a crash).
+     */
+    private void rebuildIndex() throws IOException {
+        minTime = Long.MAX_VALUE;
+        maxTime = Long.MIN_VALUE;
+        recordCount = 0;
+        blockCount = 0;
+        containerIds.clear();
+        fingerprints.clear();
+        long validLength = 0;
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(dataFile), 64 * 1024))) {
+            DataInputStream in = new DataInputStream(counter);
+            while (true) {
+                QueryRecord record;
+                try {
+                    record = QueryRecord.read(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (recordCount % BLOCK_SIZE == 0) {
+                    if (blockCount == blockOffsets.length) {
+                        blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                    }
+                    blockOffsets[blockCount++] = validLength;
+                }
+                recordCount++;
+                minTime = Math.min(minTime, record.openTime);
+                maxTime = Math.max(maxTime, record.openTime);
+                if (record.containerId != null) {
+                    containerIds.add(record.containerId);
+                }
+                fingerprints.add(record.fingerprint);
+                validLength = counter.count;
+            }
+        }
+        if (validLength < dataFile.length()) {
+            log.debug("Truncate broken query history segment '" + dataFile.getAbsolutePath() + "'");
+            try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) { //$NON-NLS-1$
+                file.setLength(validLength);
+            }
+        }
+        dataLength = validLength;
+        writeIndex();
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_LENGTH) {
+            throw new EOFException("Broken query history record");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count += result;
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dataFile.getName();
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Persistent query history.
+ *
+ * Query executions are appended to segment files (see {@link QMHistorySegment}). A new segment is started
+ * when the current one reaches {@link #MAX_SEGMENT_SIZE} and on each application start.
+ * Segments older than the history retention period are deleted.
+ * Also keeps rolling latency statistics per query fingerprint (see {@link QMUtils#getQueryFingerprint(String)}).
+ */
+public class QMHistoryStore implements QMMetaListener, DBPPreferenceListener {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    public static final String HISTORY_FOLDER = "qm-history"; //$NON-NLS-1$
+
+    private static final long MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_QUERY_STATISTICS = 2000;
+    private static final long DAY_PERIOD = 24 * 60 * 60 * 1000L;
+
+    private final File folder;
+    private final boolean usePreferences;
+    private volatile boolean enabled;
+    private volatile int historyDays;
+
+    // Oldest segments go first
+    private final List<QMHistorySegment> segments = new CopyOnWriteArrayList<>();
+    // Current segment. Changed by the writer only
+    private QMHistorySegment activeSegment;
+
+    // Latency histograms by query fingerprint. Least recently executed queries are evicted
+    private final Map<Long, QMLatencyHistogram> statistics = new LinkedHashMap<Long, QMLatencyHistogram>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, QMLatencyHistogram> eldest) {
+            return size() > MAX_QUERY_STATISTICS;
+        }
+    };
+
+    public QMHistoryStore()
+    {
+        this.folder = new File(GeneralUtils.getMetadataFolder(), HISTORY_FOLDER);
+        this.usePreferences = true;
+        this.enabled = ModelPreferences.getPreferences().getBoolean(QMConstants.PROP_STORE_HISTORY);
+        this.historyDays = ModelPreferences.getPreferences().getInt(QMConstants.PROP_HISTORY_DAYS);
+        ModelPreferences.getPreferences().addPropertyChangeListener(this);
+        openSegments();
+    }
+
+    public QMHistoryStore(@NotNull File folder, int historyDays)
+    {
+        this.folder = folder;
+        this.usePreferences = false;
+        this.enabled = true;
+        this.historyDays = historyDays;
+        openSegments();
+    }
+
+    public synchronized void dispose()
+    {
+        if (usePreferences) {
+            ModelPreferences.getPreferences().removePropertyChangeListener(this);
+        }
+        closeActiveSegment();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    private void openSegments()
+    {
+        if (!folder.exists() && !folder.mkdirs()) {
+            log.error("Can't create query history folder '" + folder.getAbsolutePath() + "'");
+            return;
+        }
+        File[] dataFiles = folder.listFiles((dir, name) -> name.endsWith(QMHistorySegment.DATA_FILE_EXT));
+        if (dataFiles == null) {
+            return;
+        }
+        Arrays.sort(dataFiles, Comparator.comparingLong(QMHistorySegment::getCreateTime));
+        for (File dataFile : dataFiles) {
+            try {
+                segments.add(QMHistorySegment.open(dataFile));
+            } catch (IOException e) {
+                log.warn("Error opening query history segment '" + dataFile.getAbsolutePath() + "'", e);
+            }
+        }
+        purgeSegments();
+        if (!segments.isEmpty()) {
+            new StatisticsLoader(new ArrayList<>(segments)).schedule();
+        }
+    }
+
+    @Override
+    public synchronized void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    {
+        if (!enabled) {
+            return;
+        }
+        try {
+            boolean written = false;
+            // Events go newest first. Write them in execution order
+            for (int i = events.size(); i-- > 0; ) {
+                QMMetaEvent event = events.get(i);
+                if (event.getAction() != QMMetaEvent.Action.END || !(event.getObject() instanceof QMMStatementExecuteInfo)) {
+                    continue;
+                }
+                QMMStatementExecuteInfo execution = (QMMStatementExecuteInfo) event.getObject();
+                if (CommonUtils.isEmpty(execution.getQueryString())) {
+                    continue;
+                }
+                if (activeSegment == null) {
+                    activeSegment = QMHistorySegment.create(folder, getNextSegmentTime());
+                    segments.add(activeSegment);
+                }
+                QMHistorySegment.QueryRecord record = QMHistorySegment.QueryRecord.fromExecution(execution);
+                activeSegment.append(record);
+                addStatistics(record);
+                written = true;
+            }
+            if (written) {
+                activeSegment.flush();
+                if (activeSegment.getDataLength() >= MAX_SEGMENT_SIZE) {
+                    closeActiveSegment();
+                    purgeSegments();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("IO error writing query history", e);
+            closeActiveSegment();
+        }
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event)
+    {
+        if (QMConstants.PROP_STORE_HISTORY.equals(event.getProperty())) {
+            enabled = ModelPreferences.getPreferences().getBoolean(QMConstants.PROP_STORE_HISTORY);
+        } else if (QMConstants.PROP_HISTORY_DAYS.equals(event.getProperty())) {
+            historyDays = ModelPreferences.getPreferences().getInt(QMConstants.PROP_HISTORY_DAYS);
+            synchronized (this) {
+                purgeSegments();
+            }
+        }
+    }
+
+    /**
+     * Returns execution statistics of queries with the specified fingerprint
+     */
+    @Nullable
+    public QMQueryStatistics getStatistics(long queryFingerprint)
+    {
+        QMLatencyHistogram histogram;
+        synchronized (statistics) {
+            histogram = statistics.get(queryFingerprint);
+        }
+        final long currentTime = System.currentTimeMillis();
+        if (histogram == null || histogram.isEmpty(currentTime)) {
+            return null;
+        }
+        return histogram.getStatistics(currentTime);
+    }
+
+    /**
+     * Opens cursor over stored query executions, newest first
+     *
+     * @param beforeTime only executions started before this time are returned
+     */
+    @NotNull
+    public QMEventCursor openCursor(@NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter, long beforeTime)
+    {
+        if (!ArrayUtils.contains(criteria.getObjectTypes(), QMObjectType.query)) {
+            return new QMUtils.EmptyCursorImpl();
+        }
+        List<QMHistorySegment> candidates = new ArrayList<>();
+        for (QMHistorySegment segment : segments) {
+            if (segment.mayContain(beforeTime, criteria.getContainerId(), criteria.getQueryFingerprint())) {
+                candidates.add(segment);
+            }
+        }
+        Collections.reverse(candidates);
+        return new HistoryCursor(candidates, criteria, filter, beforeTime);
+    }
+
+    private void addStatistics(@NotNull QMHistorySegment.QueryRecord record)
+    {
+        QMLatencyHistogram histogram;
+        synchronized (statistics) {
+            histogram = statistics.get(record.fingerprint);
+            if (histogram == null) {
+                histogram = new QMLatencyHistogram(record.fingerprint);
+                statistics.put(record.fingerprint, histogram);
+            }
+        }
+        histogram.add(record.openTime, record.getDuration(), record.rowCount, record.hasError());
+    }
+
+    private long getNextSegmentTime()
+    {
+        long time = System.currentTimeMillis();
+        if (!segments.isEmpty()) {
+            // Segment names must be unique and ordered
+            time = Math.max(time, segments.get(segments.size() - 1).getCreateTime() + 1);
+        }
+        return time;
+    }
+
+    private void closeActiveSegment()
+    {
+        if (activeSegment != null) {
+            try {
+                activeSegment.close();
+            } catch (IOException e) {
+                log.warn("Error closing query history segment '" + activeSegment + "'", e);
+            }
+            activeSegment = null;
+        }
+    }
+
+    private void purgeSegments()
+    {
+        if (historyDays <= 0) {
+            return;
+        }
+        final long minTime = System.currentTimeMillis() - historyDays * DAY_PERIOD;
+        for (QMHistorySegment segment : segments) {
+            if (segment != activeSegment && segment.getMaxTime() < minTime) {
+                segments.remove(segment);
+                segment.delete();
+            }
+        }
+    }
+
+    private class HistoryCursor implements QMEventCursor {
+
+        private final List<QMHistorySegment> segments;
+        private final QMEventCriteria criteria;
+        private final QMEventFilter filter;
+        private final long beforeTime;
+        @Nullable
+        private final String searchString;
+        private final Map<String, QMMSessionInfo> sessions = new HashMap<>();
+        private final Deque<QMMetaEvent> buffer = new ArrayDeque<>();
+        private int segmentIndex;
+        // Block of the current segment to read next. Null if segment reading wasn't started
+        private Integer nextBlock;
+        // Number of events read so far
+        private int position;
+
+        HistoryCursor(@NotNull List<QMHistorySegment> segments, @NotNull QMEventCriteria criteria, @Nullable QMEventFilter filter, long beforeTime) {
+            this.segments = segments;
+            this.criteria = criteria;
+            this.filter = filter;
+            this.beforeTime = beforeTime;
+            this.searchString = CommonUtils.isEmpty(criteria.getSearchString()) ? null : criteria.getSearchString();
+        }
+
+        @Override
+        public long getTotalSize() {
+            // Upper bound
+            long totalSize = 0;
+            for (QMHistorySegment segment : segments) {
+                totalSize += segment.getRecordCount();
+            }
+            return totalSize;
+        }
+
+        /**
+         * Moves forward to the event at the given position, reading the skipped blocks.
+         * Cursor can't be scrolled back.
+         */
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            if (position < this.position) {
+                throw new DBException("Query history cursor can't be scrolled back");
+            }
+            while (this.position < position) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + position + ")");
+                }
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            while (buffer.isEmpty()) {
+                if (monitor.isCanceled() || !readNextBlock()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public QMMetaEvent nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more events in query history");
+            }
+            position++;
+            return buffer.removeFirst();
+        }
+
+        @Override
+        public void close() {
+            buffer.clear();
+            sessions.clear();
+        }
+
+        private boolean readNextBlock() throws DBException {
+            while (segmentIndex < segments.size()) {
+                QMHistorySegment segment = segments.get(segmentIndex);
+                if (nextBlock == null) {
+                    nextBlock = segment.getBlockCount() - 1;
+                }
+                if (nextBlock < 0) {
+                    segmentIndex++;
+                    nextBlock = null;
+                    continue;
+                }
+                List<QMHistorySegment.QueryRecord> records;
+                try {
+                    records = segment.readBlock(nextBlock);
+                } catch (IOException e) {
+                    throw new DBException("Error reading query history segment '" + segment + "'", e);
+                }
+                nextBlock--;
+                for (int i = records.size(); i-- > 0; ) {
+                    QMHistorySegment.QueryRecord record = records.get(i);
+                    if (matches(record)) {
+                        QMMetaEvent event = record.toEvent(sessions);
+                        if (filter == null || filter.accept(event)) {
+                            buffer.add(event);
+                        }
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private boolean matches(@NotNull QMHistorySegment.QueryRecord record) {
+            if (record.openTime >= beforeTime) {
+                return false;
+            }
+            if (criteria.getContainerId() != null && !criteria.getContainerId().equals(record.containerId)) {
+                return false;
+            }
+            if (criteria.getQueryFingerprint() != null && criteria.getQueryFingerprint() != record.fingerprint) {
+                return false;
+            }
+            if (!ArrayUtils.contains(criteria.getQueryTypes(), record.purpose)) {
+                return false;
+            }
+            return searchString == null || containsIgnoreCase(record.queryString, searchString);
+        }
+
+    }
+
+    private static boolean containsIgnoreCase(@NotNull String text, @NotNull String searchString) {
+        final int length = searchString.length();
+        for (int i = text.length() - length; i >= 0; i--) {
+            if (text.regionMatches(true, i, searchString, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restores query statistics from segments written before the application start
+     */
+    private class StatisticsLoader extends AbstractJob {
+
+        private final List<QMHistorySegment> segments;
+
+        StatisticsLoader(@NotNull List<QMHistorySegment> segments)
+        {
+            super("Load query statistics");
+            this.segments = segments;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            final long minTime = System.currentTimeMillis() - QMLatencyHistogram.WINDOW_PERIOD * QMLatencyHistogram.WINDOW_COUNT;
+            for (QMHistorySegment segment : segments) {
+                if (segment.getMaxTime() < minTime) {
+                    continue;
+                }
+                try {
+                    for (int block = 0; block < segment.getBlockCount(); block++) {
+                        if (monitor.isCanceled()) {
+                            return Status.CANCEL_STATUS;
+                        }
+                        for (QMHistorySegment.QueryRecord record : segment.readBlock(block)) {
+                            if (record.openTime >= minTime) {
+                                addStatistics(record);
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    log.debug("Error reading query history segment '" + segment + "'", e);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.qm.QMQueryStatistics;
+
+/**
+ * Rolling latency histogram of a single query fingerprint.
+ *
+ * Keeps one histogram per hour for the last day. Buckets are log-linear: exact below 16ms,
+ * then 8 buckets per power of two, so percentiles are within ~6% of the actual value.
+ */
+class QMLatencyHistogram {
+
+    static final long WINDOW_PERIOD = 60 * 60 * 1000L;
+    static final int WINDOW_COUNT = 24;
+
+    private static final int LINEAR_BITS = 4;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^40ms is ~35 years
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS) * SUB_BUCKETS;
+
+    private static class Window {
+        final long index;
+        final int[] buckets = new int[BUCKET_COUNT];
+        long executeCount;
+        long errorCount;
+        long rowCount;
+
+        Window(long index) {
+            this.index = index;
+        }
+    }
+
+    private final long fingerprint;
+    private final Window[] windows = new Window[WINDOW_COUNT];
+
+    QMLatencyHistogram(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    synchronized void add(long time, long latency, long rowCount, boolean error) {
+        final long windowIndex = time / WINDOW_PERIOD;
+        final int slot = (int) (windowIndex % WINDOW_COUNT);
+        Window window = windows[slot];
+        if (window == null || window.index < windowIndex) {
+            window = new Window(windowIndex);
+            windows[slot] = window;
+        } else if (window.index > windowIndex) {
+            // Too old
+            return;
+        }
+        window.buckets[getBucket(latency)]++;
+        window.executeCount++;
+        if (error) {
+            window.errorCount++;
+        }
+        if (rowCount > 0) {
+            window.rowCount += rowCount;
+        }
+    }
+
+    /**
+     * Returns true if there were no executions during the last day
+     */
+    synchronized boolean isEmpty(long currentTime) {
+        final long firstIndex = currentTime / WINDOW_PERIOD - WINDOW_COUNT + 1;
+        for (Window window : windows) {
+            if (window != null && window.index >= firstIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    synchronized QMQueryStatistics getStatistics(long currentTime) {
+        final long firstIndex = currentTime / WINDOW_PERIOD - WINDOW_COUNT + 1;
+        long[] buckets = new long[BUCKET_COUNT];
+        long executeCount = 0, errorCount = 0, rowCount = 0;
+        for (Window window : windows) {
+            if (window == null || window.index < firstIndex) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] += window.buckets[i];
+            }
+            executeCount += window.executeCount;
+            errorCount += window.errorCount;
+            rowCount += window.rowCount;
+        }
+        return new QMQueryStatistics(
+            fingerprint,
+            executeCount,
+            errorCount,
+            rowCount,
+            getPercentile(buckets, executeCount, 0.50),
+            getPercentile(buckets, executeCount, 0.95),
+            getPercentile(buckets, executeCount, 0.99));
+    }
+
+    private static long getPercentile(long[] buckets, long totalCount, double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(totalCount * percentile));
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i];
+            if (count >= rank) {
+                return getBucketValue(i);
+            }
+        }
+        return getBucketValue(buckets.length - 1);
+    }
+
+    static int getBucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Middle value of the bucket
+     */
+    static long getBucketValue(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        long bucketSize = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + bucketSize / 2;
+    }
+
+}
@@ -35,6 +35,8 @@ import org.jkiss.utils.LongKeyMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Query manager execution handler implementation
@@ -53,12 +55,11 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     // External listeners
     private final List<QMMetaListener> listeners = new ArrayList<>();
 
-    // Temporary event pool
-    private List<QMMetaEvent> eventPool = new ArrayList<>();
-    // Sync object
-    private final Object historySync = new Object();
-    // History (may be purged when limit reached)
-    private List<QMMetaEvent> pastEvents = new ArrayList<>();
+    // Temporary event pool. Filled by handlers, drained by event dispatcher
+    private final Queue<QMMetaEvent> eventPool = new ConcurrentLinkedQueue<>();
+    // History (oldest events are overwritten when limit reached)
+    private final QMEventRingBuffer pastEvents = new QMEventRingBuffer(MAX_HISTORY_EVENTS);
+    private final long startTime = System.currentTimeMillis();
     private boolean running = true;
 
     public QMMCollectorImpl()
@@ -129,18 +130,20 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
-    private synchronized void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
+    private void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
     {
         eventPool.add(new QMMetaEvent(object, action));
     }
 
-    private synchronized List<QMMetaEvent> obtainEvents()
+    private List<QMMetaEvent> obtainEvents()
     {
         if (eventPool.isEmpty()) {
             return Collections.emptyList();
         }
-        List<QMMetaEvent> events = eventPool;
-        eventPool = new ArrayList<>();
+        List<QMMetaEvent> events = new ArrayList<>();
+        for (QMMetaEvent event = eventPool.poll(); event != null; event = eventPool.poll()) {
+            events.add(event);
+        }
         return events;
     }
 
@@ -155,9 +158,24 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
 
     public List<QMMetaEvent> getPastEvents()
     {
-        synchronized (historySync) {
-            return new ArrayList<>(pastEvents);
+        return pastEvents.getEvents();
+    }
+
+    /**
+     * Returns the time since which all query executions are kept in past events
+     */
+    long getPastEventsStartTime()
+    {
+        if (!pastEvents.isWrapped()) {
+            return startTime;
         }
+        long pastStartTime = Long.MAX_VALUE;
+        for (QMMetaEvent event : pastEvents.getEvents()) {
+            if (event.getObject() instanceof QMMStatementExecuteInfo) {
+                pastStartTime = Math.min(pastStartTime, event.getObject().getOpenTime());
+            }
+        }
+        return pastStartTime;
     }
 
     @Override
@@ -314,10 +332,9 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         @Override
         protected IStatus run(DBRProgressMonitor monitor)
         {
-            final List<QMMetaEvent> events;
+            final List<QMMetaEvent> events = obtainEvents();
             List<Long> sessionsToClose;
             synchronized (QMMCollectorImpl.this) {
-                events = obtainEvents();
                 sessionsToClose = closedSessions;
                 closedSessions.clear();
             }
@@ -334,15 +351,7 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
                     }
                 }
             }
-            synchronized (historySync) {
-                pastEvents.addAll(events);
-                int size = pastEvents.size();
-                if (size > MAX_HISTORY_EVENTS) {
-                    pastEvents = new ArrayList<>(pastEvents.subList(
-                        size - MAX_HISTORY_EVENTS,
-                        size));
-                }
-            }
+            pastEvents.addAll(events);
             // Cleanup closed sessions
             synchronized (QMMCollectorImpl.this) {
                 for (Long sessionId : sessionsToClose) {
@@ -24,16 +24,24 @@ import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.data.DBDDataReceiverInteractive;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.UIUtils;
+import org.jkiss.dbeaver.ui.controls.resultset.storage.ResultSetColumnStore;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Data pump for SQL queries
@@ -42,6 +50,12 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
     private static final Log log = Log.getLog(ResultSetDataReceiver.class);
 
+    // Rows published at once in progressive mode, unless the publish interval elapses first
+    private static final int PROGRESSIVE_BATCH_SIZE = 5000;
+    private static final int MIN_PROGRESSIVE_INTERVAL = 100;
+    // Batches handed to the UI thread and not applied yet. Fetching waits when the UI falls behind.
+    private static final int MAX_PENDING_BATCHES = 2;
+
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBinding[] metaColumns;
@@ -50,6 +64,20 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     private boolean nextSegmentRead;
     private long offset;
     private long maxRows;
+    private boolean resetOldRows;
+
+    // Column store of the next segment rows, if enabled
+    private ResultSetColumnStore rowStore;
+    private Object[] rowBuffer;
+    private int storedRowFirst;
+    private int storedRowCount;
+
+    // Progressive mode: fetched rows are published to the viewer before the fetch ends
+    private boolean progressive;
+    private long progressiveInterval;
+    private long lastPublishTime;
+    private int publishedRows;
+    private final Semaphore publishPermits = new Semaphore(MAX_PENDING_BATCHES);
 
     private boolean paused;
 
@@ -95,6 +123,14 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         this.rows.clear();
         this.offset = offset;
         this.maxRows = maxRows;
+        this.publishedRows = 0;
+
+        DBPPreferenceStore preferenceStore = resultSetViewer.getPreferenceStore();
+        resetOldRows = nextSegmentRead && getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
+        // Re-read segments replace all rows, publishing them in parts would make the grid jump back
+        progressive = preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH) && !resetOldRows;
+        progressiveInterval = Math.max(MIN_PROGRESSIVE_INTERVAL, preferenceStore.getInt(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH_INTERVAL));
+        lastPublishTime = System.currentTimeMillis();
 
         if (!nextSegmentRead) {
             // Get columns metadata
@@ -110,12 +146,45 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             metaColumns = DBUtils.getAttributeBindings(session, getDataContainer(), metaData);
 
             resultSetViewer.setMetaData(resultSet, metaColumns);
+        } else {
+            openRowStore(session.getProgressMonitor(), preferenceStore);
         }
     }
 
+    private void openRowStore(DBRProgressMonitor monitor, DBPPreferenceStore preferenceStore) {
+        if (!preferenceStore.getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE)) {
+            return;
+        }
+        ResultSetColumnStore modelStore = resultSetViewer.getModel().getRowStore();
+        if (!resetOldRows && modelStore != null && modelStore.getColumnCount() == columnsCount) {
+            // Keep appending to the store of the previous segments
+            rowStore = modelStore;
+        } else {
+            File spillFolder;
+            try {
+                spillFolder = DBWorkbench.getPlatform().getTempFolder(monitor, "resultset-storage");
+            } catch (IOException e) {
+                log.debug("Can't create result set storage folder, use default temp folder", e);
+                spillFolder = null;
+            }
+            long heapBudget = Math.max(1, preferenceStore.getInt(ResultSetPreferences.RESULT_SET_STORAGE_HEAP_BUDGET)) * 1024L * 1024L;
+            rowStore = new ResultSetColumnStore(columnsCount, heapBudget, spillFolder);
+        }
+        rowBuffer = new Object[columnsCount];
+        storedRowFirst = rowStore.getRowCount();
+        storedRowCount = 0;
+    }
+
     @Override
     public void fetchRow(DBCSession session, DBCResultSet resultSet) {
-        Object[] row = new Object[columnsCount];
+        Object[] row;
+        if (rowStore != null) {
+            // The store copies values so the same buffer serves all rows
+            row = rowBuffer;
+            Arrays.fill(row, null);
+        } else {
+            row = new Object[columnsCount];
+        }
         for (int i = 0; i < columnsCount; i++) {
             try {
                 DBSAttributeBase metaAttribute = metaColumns[i].getAttribute();
@@ -148,53 +217,166 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 }
             }
         }
-        rows.add(row);
+        if (rowStore != null) {
+            rowStore.add(row);
+            storedRowCount++;
+        } else {
+            rows.add(row);
+        }
+
+        if (progressive) {
+            int pendingRows = getPendingRowCount();
+            if (System.currentTimeMillis() - lastPublishTime >= progressiveInterval ||
+                (publishedRows > 0 && pendingRows >= PROGRESSIVE_BATCH_SIZE))
+            {
+                publishPendingRows(session, resultSet);
+            }
+        }
     }
 
-    @Override
-    public void fetchEnd(DBCSession session, final DBCResultSet resultSet) {
-        if (!nextSegmentRead) {
+    private int getPendingRowCount() {
+        return rowStore != null ? storedRowCount - publishedRows : rows.size();
+    }
+
+    /**
+     * Hands the rows fetched so far to the viewer while the fetch goes on.
+     * The first batch of the first segment also binds the attributes and sets up the presentation.
+     */
+    private void publishPendingRows(DBCSession session, DBCResultSet resultSet) {
+        if (publishedRows == 0 && !nextSegmentRead) {
+            bindAttributes(session, resultSet, rows);
+            final List<Object[]> batch = rows;
+            rows = new ArrayList<>();
+            publishToViewer(session.getProgressMonitor(), () -> {
+                resultSetViewer.setData(batch, focusRow);
+                boolean metadataChanged = resultSetViewer.getModel().isMetadataChanged();
+                resultSetViewer.updatePresentation(resultSet, metadataChanged);
+                resultSetViewer.getActivePresentation().refreshData(true, false, !metadataChanged);
+                resultSetViewer.updateStatusMessage();
+            });
+            publishedRows = batch.size();
+        } else {
+            appendPendingRows(session.getProgressMonitor(), true);
+        }
+        lastPublishTime = System.currentTimeMillis();
+        session.getProgressMonitor().subTask("Fetched " + publishedRows + " rows");
+    }
+
+    /**
+     * Appends pending rows to the model.
+     * Model is changed in the UI thread because the presentation reads it while the fetch goes on.
+     */
+    private void appendPendingRows(DBRProgressMonitor monitor, boolean refresh) {
+        final Runnable append;
+        if (rowStore != null) {
+            final ResultSetColumnStore store = rowStore;
+            final int firstIndex = storedRowFirst + publishedRows;
+            final int rowCount = storedRowCount - publishedRows;
+            append = () -> resultSetViewer.appendStoredData(store, firstIndex, rowCount, false);
+            publishedRows = storedRowCount;
+        } else {
+            final List<Object[]> batch = rows;
+            rows = new ArrayList<>();
+            append = () -> resultSetViewer.appendData(batch, false);
+            publishedRows += batch.size();
+        }
+        publishToViewer(monitor, () -> {
+            append.run();
+            if (refresh) {
+                resultSetViewer.getActivePresentation().refreshData(false, true, true);
+            }
+        });
+    }
+
+    /**
+     * Runs the task in the UI thread without waiting for it.
+     * Waits only if earlier batches are still queued, so a slow UI doesn't collect fetched rows in its event queue.
+     * Tasks run in the order they were published.
+     */
+    private void publishToViewer(DBRProgressMonitor monitor, Runnable task) {
+        boolean acquired = false;
+        try {
+            // A closed viewer won't run the queued batches and release their permits
+            while (!acquired && !monitor.isCanceled() && !resultSetViewer.getControl().isDisposed()) {
+                acquired = publishPermits.tryAcquire(MIN_PROGRESSIVE_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final boolean release = acquired;
+        UIUtils.asyncExec(() -> {
             try {
-                // Read locators' metadata
-                DBSEntity entity = null;
-                DBSDataContainer dataContainer = getDataContainer();
-                if (dataContainer instanceof DBSEntity) {
-                    entity = (DBSEntity) dataContainer;
+                task.run();
+            } finally {
+                if (release) {
+                    publishPermits.release();
                 }
-                DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
-            } catch (Throwable e) {
-                errorList.add(e);
             }
+        });
+    }
+
+    private void bindAttributes(DBCSession session, DBCResultSet resultSet, List<Object[]> rows) {
+        try {
+            // Read locators' metadata
+            DBSEntity entity = null;
+            DBSDataContainer dataContainer = getDataContainer();
+            if (dataContainer instanceof DBSEntity) {
+                entity = (DBSEntity) dataContainer;
+            }
+            DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
+        } catch (Throwable e) {
+            errorList.add(e);
+        }
+    }
+
+    @Override
+    public void fetchEnd(DBCSession session, final DBCResultSet resultSet) {
+        // In progressive mode the viewer may already have the first rows
+        final boolean dataPublished = publishedRows > 0;
+        if (!nextSegmentRead && !dataPublished) {
+            bindAttributes(session, resultSet, rows);
         }
 
         final List<Object[]> tmpRows = rows;
 
-        final boolean nextSegmentRead = this.nextSegmentRead;
+        final boolean refreshMetadata = !nextSegmentRead && !dataPublished;
 
         // Push data into viewer
         DBRProgressMonitor monitor = session.getProgressMonitor();
         monitor.beginTask("Populate data", 1);
-        if (!nextSegmentRead) {
+        if (dataPublished) {
+            monitor.subTask("Append data");
+            if (getPendingRowCount() > 0) {
+                appendPendingRows(monitor, false);
+            }
+        } else if (!nextSegmentRead) {
             monitor.subTask("Set data");
             resultSetViewer.setData(tmpRows, focusRow);
+        } else if (rowStore != null) {
+            monitor.subTask("Append stored data");
+            resultSetViewer.appendStoredData(rowStore, storedRowFirst, storedRowCount, resetOldRows);
         } else {
             monitor.subTask("Append data");
-            boolean resetOldRows = getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
             resultSetViewer.appendData(tmpRows, resetOldRows);
         }
         // Check for more data
-        hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
+        int fetchedRows = rowStore != null ? storedRowCount : publishedRows + rows.size();
+        hasMoreData = maxRows > 0 && fetchedRows >= maxRows;
         monitor.done();
 
         UIUtils.asyncExec(() -> {
             // Push data into viewer
-            if (!nextSegmentRead) {
+            if (refreshMetadata) {
                 boolean metadataChanged = resultSetViewer.getModel().isMetadataChanged();
                 resultSetViewer.updatePresentation(resultSet, metadataChanged);
                 resultSetViewer.getActivePresentation().refreshData(true, false, !metadataChanged);
                 resultSetViewer.updateStatusMessage();
             } else {
                 resultSetViewer.getActivePresentation().refreshData(false, true, true);
+                if (dataPublished) {
+                    // The status was last updated with the first published batch
+                    resultSetViewer.updateStatusMessage();
+                }
             }
         });
     }
@@ -207,6 +389,13 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
     public void close() {
         nextSegmentRead = false;
 
+        if (rowStore != null && rowStore != resultSetViewer.getModel().getRowStore()) {
+            // Fetch failed before the rows were appended
+            rowStore.close();
+        }
+        rowStore = null;
+        rowBuffer = null;
+
         attrErrors.clear();
         rows = new ArrayList<>();
     }
@@ -29,12 +29,15 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
 import org.jkiss.dbeaver.runtime.jobs.DataSourceJob;
 import org.jkiss.dbeaver.ui.UIUtils;
+import org.jkiss.dbeaver.ui.controls.resultset.storage.ResultSetColumnStore;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
@@ -58,8 +61,14 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    // Values of the rows appended from the column store
+    @Nullable
+    private ResultSetColumnStore rowStore;
     private Long totalRowCount = null;
     private int changesCount = 0;
+    // Incremented on each change of rows or values
+    private volatile int dataVersion;
+    private final ResultSetSortIndex sortIndex = new ResultSetSortIndex();
     private volatile boolean hasData = false;
     // Flag saying that edited values update is in progress
     private volatile DataSourceJob updateInProgress = null;
@@ -338,7 +347,7 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -356,7 +365,20 @@ public class ResultSetModel {
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
-        return DBUtils.getAttributeValue(attribute, attributes, row.values);
+        return getCellValue(attributes, attribute, row);
+    }
+
+    /**
+     * Reads a cell value using the given top-level attributes instead of the current model metadata,
+     * so it may be called outside the UI thread with a copy of {@link #getAttributes()}
+     */
+    @Nullable
+    public static Object getCellValue(@NotNull DBDAttributeBinding[] attributes, @NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
+        if (row.isStored() && attribute.getLevel() == 0 && !attribute.isCustom()) {
+            // Read a single value instead of the whole stored row
+            return row.getValue(attribute.getOrdinalPosition());
+        }
+        return DBUtils.getAttributeValue(attribute, attributes, row.getValues());
     }
 
     /**
@@ -372,6 +394,7 @@ public class ResultSetModel {
     }
 
     public boolean updateCellValue(@NotNull DBDAttributeBinding attr, @NotNull ResultSetRow row, @Nullable Object value, boolean updateChanges) {
+        dataChanged();
         int depth = attr.getLevel();
         int rootIndex;
         if (depth == 0) {
@@ -379,7 +402,7 @@ public class ResultSetModel {
         } else {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -485,7 +508,7 @@ public class ResultSetModel {
                     e.printStackTrace();
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -799,8 +822,10 @@ public class ResultSetModel {
     }
 
     void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
+        dataChanged();
         if (resetOldRows) {
             curRows.clear();
+            closeRowStore();
         }
         int rowCount = rows.size();
         int firstRowNum = curRows.size();
@@ -814,9 +839,54 @@ public class ResultSetModel {
         updateRowColors(resetOldRows, newRows);
     }
 
+    /**
+     * Appends rows kept in a column store.
+     *
+     * @param store      store of the rows. Replaces the current store of the model if old rows are reset
+     * @param firstIndex store index of the first row
+     * @param rowCount   number of rows
+     */
+    void appendStoredData(@NotNull ResultSetColumnStore store, int firstIndex, int rowCount, boolean resetOldRows) {
+        dataChanged();
+        if (resetOldRows) {
+            curRows.clear();
+        }
+        if (store != rowStore) {
+            closeRowStore();
+            rowStore = store;
+        }
+        int firstRowNum = curRows.size();
+        List<ResultSetRow> newRows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            newRows.add(
+                new ResultSetRow(firstRowNum + i, store, firstIndex + i));
+        }
+        curRows.addAll(newRows);
+
+        updateRowColors(resetOldRows, newRows);
+    }
+
+    /**
+     * Returns the column store of the rows appended by {@link #appendStoredData}, if any
+     */
+    @Nullable
+    ResultSetColumnStore getRowStore() {
+        return rowStore;
+    }
+
+    private void closeRowStore() {
+        final ResultSetColumnStore oldStore = rowStore;
+        if (oldStore != null) {
+            rowStore = null;
+            RuntimeUtils.runTask(monitor -> oldStore.close(), "Release stored values", 5000);
+        }
+    }
+
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        dataChanged();
+        closeRowStore();
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -845,6 +915,7 @@ public class ResultSetModel {
 
     @NotNull
     ResultSetRow addNewRow(int rowNum, @NotNull Object[] data) {
+        dataChanged();
         ResultSetRow newRow = new ResultSetRow(curRows.size(), data);
         newRow.setVisualNumber(rowNum);
         newRow.setState(ResultSetRow.STATE_ADDED);
@@ -874,6 +945,7 @@ public class ResultSetModel {
     }
 
     void cleanupRow(@NotNull ResultSetRow row) {
+        dataChanged();
         row.release();
         this.curRows.remove(row.getVisualNumber());
         this.shiftRows(row, -1);
@@ -906,6 +978,7 @@ public class ResultSetModel {
 
     void releaseAllData() {
         final List<ResultSetRow> oldRows = curRows;
+        final ResultSetColumnStore oldStore = rowStore;
         // Cleanup in separate job.
         // Sometimes model cleanup takes much time (e.g. freeing LOB values)
         // So let's do it in separate job to avoid UI locking
@@ -913,6 +986,9 @@ public class ResultSetModel {
             for (ResultSetRow row : oldRows) {
                 row.release();
             }
+            if (oldStore != null) {
+                oldStore.releaseValues();
+            }
         }, "Release values", 5000);
     }
 
@@ -1036,38 +1112,87 @@ public class ResultSetModel {
         this.dataFilter.setAnyConstraint(filter.isAnyConstraint());
     }
 
+    /**
+     * Marks rows or values as changed. Drops cached sort keys.
+     */
+    void dataChanged() {
+        dataVersion++;
+        sortIndex.invalidate();
+    }
+
+    int getDataVersion() {
+        return dataVersion;
+    }
+
     public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
-
-        // First sort in original order to reset multi-column orderings
-        curRows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
-
-        if (hasOrdering) {
-            // Sort locally
-            final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-            curRows.sort((row1, row2) -> {
-                int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(binding, row1);
-                    Object cell2 = getCellValue(binding, row2);
-                    result = DBUtils.compareDataValues(cell1, cell2);
-                    if (co.isOrderDescending()) {
-                        result = -result;
-                    }
-                    if (result != 0) {
-                        break;
-                    }
+        int[] order = evaluateOrdering(new VoidProgressMonitor(), curRows, getOrdering());
+        if (order == null || !applyOrdering(order, dataVersion)) {
+            // Row numbers are out of sync with rows, keep the original order
+            curRows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
+            for (int i = 0; i < curRows.size(); i++) {
+                curRows.get(i).setVisualNumber(i);
+            }
+        }
+    }
+
+    /**
+     * Resolves client-side ordering of the current data filter. Reads the model, so it must be called in UI thread.
+     */
+    @NotNull
+    ResultSetSortIndex.Ordering getOrdering() {
+        List<DBDAttributeBinding> ordering = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        if (dataFilter.hasOrdering()) {
+            for (DBDAttributeConstraint co : dataFilter.getOrderConstraints()) {
+                final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
+                if (binding != null) {
+                    ordering.add(binding);
+                    descending.add(co.isOrderDescending());
                 }
-                return result;
-            });
+            }
         }
-        for (int i = 0; i < curRows.size(); i++) {
-            curRows.get(i).setVisualNumber(i);
+        boolean[] descFlags = new boolean[descending.size()];
+        for (int i = 0; i < descFlags.length; i++) {
+            descFlags[i] = descending.get(i);
+        }
+        return new ResultSetSortIndex.Ordering(attributes, ordering.toArray(new DBDAttributeBinding[0]), descFlags);
+    }
+
+    /**
+     * Evaluates client-side order of rows.
+     * Reads only the given rows and ordering, not the model, so it may run in background.
+     *
+     * @param rows     snapshot of all model rows
+     * @param ordering ordering resolved by {@link #getOrdering()}
+     * @return row numbers in the new order, or null if the order can't be evaluated (canceled or data changed)
+     */
+    @Nullable
+    int[] evaluateOrdering(@NotNull DBRProgressMonitor monitor, @NotNull List<ResultSetRow> rows, @NotNull ResultSetSortIndex.Ordering ordering) {
+        return sortIndex.getOrder(monitor, rows, ordering);
+    }
+
+    /**
+     * Reorders rows.
+     *
+     * @param order       row numbers in the new order
+     * @param dataVersion data version the order was evaluated for
+     * @return false if data was changed since the order was evaluated
+     */
+    boolean applyOrdering(@NotNull int[] order, int dataVersion) {
+        int rowCount = curRows.size();
+        if (dataVersion != this.dataVersion || order.length != rowCount) {
+            return false;
+        }
+        ResultSetRow[] rowsByNumber = new ResultSetRow[rowCount];
+        for (ResultSetRow row : curRows) {
+            rowsByNumber[row.getRowNumber()] = row;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            ResultSetRow row = rowsByNumber[order[i]];
+            row.setVisualNumber(i);
+            curRows.set(i, row);
         }
+        return true;
     }
 
     private void fillVisibleAttributes() {
@@ -521,9 +521,10 @@ class ResultSetPersister {
         if (!stat.updatedCells.isEmpty()) {
             for (Map.Entry<Integer, Object> entry : stat.updatedCells.entrySet()) {
                 ResultSetRow row = stat.row;
-                DBUtils.releaseValue(row.values[entry.getKey()]);
-                row.values[entry.getKey()] = entry.getValue();
+                DBUtils.releaseValue(row.getValue(entry.getKey()));
+                row.setValue(entry.getKey(), entry.getValue());
             }
+            model.dataChanged();
         }
     }
 
@@ -1075,9 +1076,10 @@ class ResultSetPersister {
                 UIUtils.syncExec(() -> {
                     // Update only if metadata wasn't changed
                     if (!viewer.getControl().isDisposed() && viewer.getModel().getAttributes() == curAttributes) {
+                        viewer.getModel().dataChanged();
                         for (int i = 0; i < rows.size(); i++) {
                             if (refreshValues[i] != null) {
-                                rows.get(i).values = refreshValues[i];
+                                rows.get(i).setValues(refreshValues[i]);
                             }
                         }
                         viewer.redrawData(false, true);
@@ -23,6 +23,7 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDCollection;
 import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.ui.controls.resultset.storage.ResultSetColumnStore;
 
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -52,9 +53,12 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
-    public Object[] values;
+    // Column values. Null for rows read from the column store until they are edited
+    @Nullable
+    private Object[] values;
+    @Nullable
+    private final ResultSetColumnStore store;
+    private final int storeIndex;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -68,14 +72,58 @@ public class ResultSetRow {
         this.rowNumber = rowNumber;
         this.visualNumber = rowNumber;
         this.values = values;
+        this.store = null;
+        this.storeIndex = -1;
         this.state = STATE_NORMAL;
     }
 
+    ResultSetRow(int rowNumber, @NotNull ResultSetColumnStore store, int storeIndex) {
+        this.rowNumber = rowNumber;
+        this.visualNumber = rowNumber;
+        this.store = store;
+        this.storeIndex = storeIndex;
+        this.state = STATE_NORMAL;
+    }
+
+    /**
+     * Returns row values. For rows kept in the column store this is a new array on each call,
+     * use {@link #getValue(int)} to read single values and {@link #setValue(int, Object)} to change them.
+     */
     @NotNull
     public Object[] getValues() {
+        if (values == null) {
+            return store.getRow(storeIndex);
+        }
         return values;
     }
 
+    @Nullable
+    public Object getValue(int index) {
+        if (values == null) {
+            return store.getValue(storeIndex, index);
+        }
+        return values[index];
+    }
+
+    public void setValue(int index, @Nullable Object value) {
+        if (values == null) {
+            // Edited rows keep their own copy of values
+            values = store.getRow(storeIndex);
+        }
+        values[index] = value;
+    }
+
+    void setValues(@NotNull Object[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns true if row values are read from the column store
+     */
+    public boolean isStored() {
+        return values == null;
+    }
+
     public boolean isChanged() {
         return changes != null && !changes.isEmpty();
     }
@@ -132,12 +180,22 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+        // Stored values are released by the store
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (store == null || values[i] != store.getValue(storeIndex, i)) {
+                    DBUtils.releaseValue(values[i]);
+                }
+            }
         }
         if (changes != null) {
-            for (Object oldValue : changes.values()) {
-                DBUtils.releaseValue(oldValue);
+            for (Map.Entry<DBDAttributeBinding, Object> change : changes.entrySet()) {
+                Object oldValue = change.getValue();
+                if (store == null || change.getKey().getLevel() > 0 ||
+                    oldValue != store.getValue(storeIndex, change.getKey().getOrdinalPosition()))
+                {
+                    DBUtils.releaseValue(oldValue);
+                }
             }
         }
     }
@@ -0,0 +1,281 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client-side ordering of fetched rows.
+ *
+ * Values of an ordering column are read once and turned into dense ranks (equal values get the same rank,
+ * nulls and NaN rank last), which are cached until the model data changes. Multi-column orderings combine ranks
+ * into primitive keys, so sorting never compares cell values and runs as a parallel primitive sort.
+ * Rows are identified by their row number, which is a permutation of 0..rowCount-1.
+ * Values are read from the given rows only, never from the model.
+ */
+class ResultSetSortIndex {
+
+    /**
+     * Ordering columns with their descending flags, resolved from the data filter in UI thread
+     */
+    static class Ordering {
+        // Top-level attributes of the model, used to read nested and custom attribute values
+        final DBDAttributeBinding[] attributes;
+        final DBDAttributeBinding[] columns;
+        final boolean[] descending;
+
+        Ordering(@NotNull DBDAttributeBinding[] attributes, @NotNull DBDAttributeBinding[] columns, @NotNull boolean[] descending) {
+            this.attributes = attributes;
+            this.columns = columns;
+            this.descending = descending;
+        }
+    }
+
+    private final Map<DBDAttributeBinding, ColumnRanks> rankCache = new ConcurrentHashMap<>();
+    private volatile int version;
+
+    /**
+     * Drops cached ranks. Called on each data change.
+     */
+    void invalidate() {
+        version++;
+        rankCache.clear();
+    }
+
+    /**
+     * Evaluates row order. Doesn't read or change the model, so it may run in background.
+     *
+     * @param rows     all model rows
+     * @param ordering ordering columns
+     * @return row numbers in the new order, or null if the monitor was canceled
+     */
+    @Nullable
+    int[] getOrder(@NotNull DBRProgressMonitor monitor, @NotNull List<ResultSetRow> rows, @NotNull Ordering ordering) {
+        final int rowCount = rows.size();
+        int[] combined = null;
+        int combinedCount = 1;
+        for (int i = 0; i < ordering.columns.length; i++) {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            ColumnRanks column = getRanks(ordering.attributes, ordering.columns[i], rows);
+            if (column == null) {
+                // Rows changed while ranks were read
+                return null;
+            }
+            int[] ranks = column.ranks;
+            if (ordering.descending[i]) {
+                int[] reversed = new int[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    reversed[r] = column.rankCount - 1 - ranks[r];
+                }
+                ranks = reversed;
+            }
+            if (combined == null) {
+                combined = ranks;
+                combinedCount = column.rankCount;
+            } else {
+                long[] keys = new long[rowCount];
+                for (int r = 0; r < rowCount; r++) {
+                    keys[r] = (long) combined[r] * column.rankCount + ranks[r];
+                }
+                combined = new int[rowCount];
+                combinedCount = denseRanks(keys, combined);
+            }
+        }
+
+        // Rank in the high half, row number in the low one: ties keep the original order
+        long[] order = new long[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            order[r] = combined == null ? r : ((long) combined[r] << 32) | r;
+        }
+        if (combined != null && combinedCount > 1) {
+            Arrays.parallelSort(order);
+        }
+        int[] rowNumbers = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rowNumbers[i] = (int) order[i];
+        }
+        return rowNumbers;
+    }
+
+    @Nullable
+    private ColumnRanks getRanks(@NotNull DBDAttributeBinding[] attributes, @NotNull DBDAttributeBinding binding, @NotNull List<ResultSetRow> rows) {
+        int startVersion = version;
+        ColumnRanks cached = rankCache.get(binding);
+        // Ranks put after an invalidation carry the old version and are never used
+        if (cached != null && cached.version == startVersion && cached.ranks.length == rows.size()) {
+            return cached;
+        }
+        ColumnRanks ranks = readRanks(attributes, binding, rows, startVersion);
+        if (ranks != null) {
+            rankCache.put(binding, ranks);
+        }
+        return ranks;
+    }
+
+    @Nullable
+    private static ColumnRanks readRanks(@NotNull DBDAttributeBinding[] attributes, @NotNull DBDAttributeBinding binding, @NotNull List<ResultSetRow> rows, int version) {
+        final int rowCount = rows.size();
+        Object[] values = new Object[rowCount];
+        boolean allNumbers = true, allStrings = true;
+        for (ResultSetRow row : rows) {
+            int rowNumber = row.getRowNumber();
+            if (rowNumber < 0 || rowNumber >= rowCount) {
+                return null;
+            }
+            Object value = ResultSetModel.getCellValue(attributes, binding, row);
+            if (DBUtils.isNullValue(value) || isNaN(value)) {
+                continue;
+            }
+            values[rowNumber] = value;
+            allNumbers &= value instanceof Number;
+            allStrings &= value instanceof String;
+        }
+
+        int[] ranks = new int[rowCount];
+        int rankCount;
+        if (allNumbers) {
+            rankCount = rankNumbers(values, ranks);
+        } else if (allStrings) {
+            rankCount = rankStrings(values, ranks);
+        } else {
+            rankCount = rankObjects(values, ranks);
+        }
+        return new ColumnRanks(ranks, rankCount, version);
+    }
+
+    // NaN is not ordered against other numbers, so it gets the rank of nulls
+    private static boolean isNaN(Object value) {
+        return (value instanceof Double && ((Double) value).isNaN()) || (value instanceof Float && ((Float) value).isNaN());
+    }
+
+    // Numbers are compared by double value, like DBUtils.compareDataValues does
+    private static int rankNumbers(Object[] values, int[] ranks) {
+        double[] keys = new double[values.length];
+        int count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                // Adding zero turns -0.0 into 0.0
+                keys[count++] = ((Number) value).doubleValue() + 0.0;
+            }
+        }
+        double[] distinct = Arrays.copyOf(keys, count);
+        Arrays.parallelSort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || Double.compare(distinct[i], distinct[distinctCount - 1]) != 0) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            ranks[i] = values[i] == null ?
+                distinctCount :
+                Arrays.binarySearch(distinct, 0, distinctCount, ((Number) values[i]).doubleValue() + 0.0);
+        }
+        return distinctCount + 1;
+    }
+
+    private static int rankStrings(Object[] values, int[] ranks) {
+        String[] distinct = new String[values.length];
+        int count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                distinct[count++] = (String) value;
+            }
+        }
+        Arrays.parallelSort(distinct, 0, count);
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || !distinct[i].equals(distinct[distinctCount - 1])) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            ranks[i] = values[i] == null ?
+                distinctCount :
+                Arrays.binarySearch(distinct, 0, distinctCount, values[i]);
+        }
+        return distinctCount + 1;
+    }
+
+    // Mixed or non-primitive values fall back to DBUtils.compareDataValues
+    private static int rankObjects(Object[] values, int[] ranks) {
+        Integer[] sorted = new Integer[values.length];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                sorted[count++] = i;
+            }
+        }
+        Arrays.parallelSort(sorted, 0, count, (i1, i2) -> DBUtils.compareDataValues(values[i1], values[i2]));
+        int rank = -1;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || DBUtils.compareDataValues(values[sorted[i - 1]], values[sorted[i]]) != 0) {
+                rank++;
+            }
+            ranks[sorted[i]] = rank;
+        }
+        int nullRank = rank + 1;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                ranks[i] = nullRank;
+            }
+        }
+        return nullRank + 1;
+    }
+
+    /**
+     * Replaces keys by their dense ranks
+     */
+    private static int denseRanks(long[] keys, int[] ranks) {
+        long[] distinct = keys.clone();
+        Arrays.parallelSort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[distinctCount - 1]) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            ranks[i] = Arrays.binarySearch(distinct, 0, distinctCount, keys[i]);
+        }
+        return distinctCount;
+    }
+
+    private static class ColumnRanks {
+        final int[] ranks;
+        final int rankCount;
+        // Index version the values were read at
+        final int version;
+
+        ColumnRanks(int[] ranks, int rankCount, int version) {
+            this.ranks = ranks;
+            this.rankCount = rankCount;
+            this.version = version;
+        }
+    }
+}
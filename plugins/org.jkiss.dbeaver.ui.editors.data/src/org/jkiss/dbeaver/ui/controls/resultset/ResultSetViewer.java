@@ -87,6 +87,7 @@ import org.jkiss.dbeaver.ui.controls.resultset.handler.*;
 import org.jkiss.dbeaver.ui.controls.resultset.internal.ResultSetMessages;
 import org.jkiss.dbeaver.ui.controls.resultset.panel.ResultSetPanelDescriptor;
 import org.jkiss.dbeaver.ui.controls.resultset.valuefilter.FilterValueEditPopup;
+import org.jkiss.dbeaver.ui.controls.resultset.storage.ResultSetColumnStore;
 import org.jkiss.dbeaver.ui.controls.resultset.view.EmptyPresentation;
 import org.jkiss.dbeaver.ui.controls.resultset.view.ErrorPresentation;
 import org.jkiss.dbeaver.ui.controls.resultset.view.StatisticsPresentation;
@@ -142,6 +143,8 @@ public class ResultSetViewer extends Viewer
 
     private static final DecimalFormat ROW_COUNT_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
     private static final IResultSetListener[] EMPTY_LISTENERS = new IResultSetListener[0];
+    // Bigger results are ordered in background
+    private static final int MAX_FOREGROUND_REORDER_ROWS = 10000;
 
     private IResultSetFilterManager filterManager;
     @NotNull
@@ -203,6 +206,8 @@ public class ResultSetViewer extends Viewer
     private final List<IResultSetListener> listeners = new ArrayList<>();
 
     private final List<ResultSetJobAbstract> dataPumpJobQueue = new ArrayList<>();
+    // Background ordering of rows, accessed in UI thread only
+    private AbstractJob reorderJob;
     private final AtomicBoolean dataPumpRunning = new AtomicBoolean();
 
     private final ResultSetModel model = new ResultSetModel();
@@ -2195,9 +2200,46 @@ public class ResultSetViewer extends Viewer
     private void reorderLocally()
     {
         this.rejectChanges();
-        this.getModel().resetOrdering();
-        this.getActivePresentation().refreshData(false, false, true);
-        this.updateFiltersText();
+        if (reorderJob != null) {
+            reorderJob.cancel();
+            reorderJob = null;
+        }
+        if (model.getRowCount() <= MAX_FOREGROUND_REORDER_ROWS) {
+            this.getModel().resetOrdering();
+            this.getActivePresentation().refreshData(false, false, true);
+            this.updateFiltersText();
+            return;
+        }
+        // Evaluate order on a snapshot of rows. Model is changed in UI thread only
+        final List<ResultSetRow> rows = new ArrayList<>(model.getAllRows());
+        final ResultSetSortIndex.Ordering ordering = model.getOrdering();
+        final int dataVersion = model.getDataVersion();
+        reorderJob = new AbstractJob("Order rows") {
+            {
+                setUser(false);
+            }
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                final int[] order = model.evaluateOrdering(monitor, rows, ordering);
+                if (order == null || monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                UIUtils.asyncExec(() -> {
+                    if (reorderJob != this || viewerPanel.isDisposed()) {
+                        return;
+                    }
+                    reorderJob = null;
+                    if (!model.applyOrdering(order, dataVersion)) {
+                        // Data was changed meanwhile
+                        model.resetOrdering();
+                    }
+                    getActivePresentation().refreshData(false, false, true);
+                    updateFiltersText();
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        reorderJob.schedule();
     }
 
 
@@ -2261,8 +2303,18 @@ public class ResultSetViewer extends Viewer
     void appendData(List<Object[]> rows, boolean resetOldRows) {
         model.appendData(rows, resetOldRows);
 
+        updateAppendStatus(rows.size());
+    }
+
+    void appendStoredData(ResultSetColumnStore store, int firstIndex, int rowCount, boolean resetOldRows) {
+        model.appendStoredData(store, firstIndex, rowCount, resetOldRows);
+
+        updateAppendStatus(rowCount);
+    }
+
+    private void updateAppendStatus(int appendedRows) {
         UIUtils.asyncExec(() -> {
-            setStatus(NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(), rows.size()) + getExecutionTimeMessage());
+            setStatus(NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(), appendedRows) + getExecutionTimeMessage());
 
             updateEditControls();
         });
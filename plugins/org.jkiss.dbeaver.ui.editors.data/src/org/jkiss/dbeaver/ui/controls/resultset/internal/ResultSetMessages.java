@@ -303,6 +303,14 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_resultsets_label_read_metadata_tip;
     public static String pref_page_database_resultsets_label_read_references_tip;
     public static String pref_page_database_resultsets_label_fetch_size_tip;
+    public static String pref_page_database_resultsets_label_progressive_fetch;
+    public static String pref_page_database_resultsets_label_progressive_fetch_tip;
+    public static String pref_page_database_resultsets_label_progressive_fetch_interval;
+    public static String pref_page_database_resultsets_label_progressive_fetch_interval_tip;
+    public static String pref_page_database_resultsets_label_columnar_storage;
+    public static String pref_page_database_resultsets_label_columnar_storage_tip;
+    public static String pref_page_database_resultsets_label_storage_heap_budget;
+    public static String pref_page_database_resultsets_label_storage_heap_budget_tip;
 
     public static String pref_page_content_cache_clob;
     public static String pref_page_content_cache_blob;
@@ -331,6 +339,8 @@ public class ResultSetMessages extends NLS {
     public static String results_decorator_grouping_is_not_supported;
     public static String results_decorator_no_connected_to_db;
     public static String results_decorator_no_groupings;
+
+    public static String aggregate_panel_label_calculating;
     
     public static String virtual_edit_columns_page_add;
     public static String virtual_edit_columns_page_table_column_name;
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.*;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.ISelection;
@@ -32,13 +34,19 @@ import org.jkiss.dbeaver.model.DBIcon;
 import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.aggregate.AggregateUtils;
 import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.data.aggregate.IAggregateNumericFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
 import org.jkiss.dbeaver.ui.UIIcon;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.controls.resultset.*;
+import org.jkiss.dbeaver.ui.controls.resultset.internal.ResultSetMessages;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
@@ -61,6 +69,9 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("###,###,###,###,###,##0.###");
     private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
 
+    // Larger selections are aggregated in background
+    private static final int MAX_FOREGROUND_SELECTION = 10000;
+
     private IResultSetPresentation presentation;
     private Tree aggregateTable;
 
@@ -72,6 +83,8 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
 
+    private AggregateJob aggregateJob;
+
     public AggregateColumnsPanel() {
     }
 
@@ -106,7 +119,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
         menuMgr.setRemoveAllWhenShown(true);
         this.aggregateTable.setMenu(menuMgr.createContextMenu(this.aggregateTable));
-        this.aggregateTable.addDisposeListener(e -> menuMgr.dispose());
+        this.aggregateTable.addDisposeListener(e -> {
+            cancelAggregation();
+            menuMgr.dispose();
+        });
 
         aggregateTable.addSelectionListener(new SelectionAdapter() {
             @Override
@@ -184,7 +200,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void deactivatePanel() {
-
+        cancelAggregation();
     }
 
     @Override
@@ -194,62 +210,95 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
-        aggregateTable.setRedraw(false);
-        try {
-            aggregateTable.removeAll();
-            if (this.presentation instanceof ISelectionProvider) {
-                ISelection selection = ((ISelectionProvider) presentation).getSelection();
-                if (selection instanceof IResultSetSelection) {
-                    aggregateSelection((IResultSetSelection)selection);
+        cancelAggregation();
+        List<AggregateGroup> groups = Collections.emptyList();
+        if (this.presentation instanceof ISelectionProvider) {
+            ISelection selection = ((ISelectionProvider) presentation).getSelection();
+            if (selection instanceof IResultSetSelection) {
+                // Selection can be read in UI thread only, so cells are resolved before aggregation
+                SelectedCells cells = new SelectedCells((IResultSetSelection) selection);
+                if (cells.size() > MAX_FOREGROUND_SELECTION) {
+                    showCalculating();
+                    aggregateJob = new AggregateJob(cells);
+                    aggregateJob.schedule();
+                    saveSettings();
+                    return;
                 }
+                groups = aggregateValues(new VoidProgressMonitor(), cells, new ArrayList<>(enabledFunctions), groupByColumns, aggregateAsStrings);
             }
-            UIUtils.packColumns(aggregateTable, false, null);
-        } finally {
-            aggregateTable.setRedraw(true);
         }
+        showResults(groups);
         saveSettings();
     }
 
+    private void cancelAggregation() {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
+    }
+
+    private void showCalculating() {
+        aggregateTable.removeAll();
+        TreeItem item = new TreeItem(aggregateTable, SWT.NONE);
+        item.setText(0, ResultSetMessages.aggregate_panel_label_calculating);
+        UIUtils.packColumns(aggregateTable, false, null);
+    }
+
     @Override
     public void contributeActions(IContributionManager manager) {
         fillToolBar(manager);
     }
 
-    private void aggregateSelection(IResultSetSelection selection) {
-        ResultSetModel model = presentation.getController().getModel();
-        if (groupByColumns) {
-            Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                List<Object> values = attrValues.computeIfAbsent(attr, k -> new ArrayList<>());
-                values.add(cellValue);
+    /**
+     * Aggregates values of selected cells. Each value is read from its row and passed to the functions,
+     * values are never copied. Doesn't touch UI or the model so it can run in background.
+     */
+    private static List<AggregateGroup> aggregateValues(DBRProgressMonitor monitor, SelectedCells cells, List<AggregateFunctionDescriptor> functions, boolean groupByColumns, boolean aggregateAsStrings) {
+        Map<DBDAttributeBinding, AggregateGroup> attrGroups = new LinkedHashMap<>();
+        AggregateGroup allGroup = groupByColumns ? null : new AggregateGroup(null, functions, aggregateAsStrings);
+        for (int i = 0; i < cells.size(); i++) {
+            if (i % 1000 == 999 && monitor.isCanceled()) {
+                break;
             }
-
-            for (Map.Entry<DBDAttributeBinding, List<Object>> entry : attrValues.entrySet()) {
-                TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
-                attrItem.setText(entry.getKey().getName());
-                attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
-                attrItem.setExpanded(true);
+            DBDAttributeBinding attr = cells.attributes[i];
+            Object cellValue = cells.getValue(i);
+            AggregateGroup group = allGroup;
+            if (group == null) {
+                group = attrGroups.computeIfAbsent(attr, k -> new AggregateGroup(k, functions, aggregateAsStrings));
             }
-        } else {
-            List<Object> allValues = new ArrayList<>(selection.size());
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                allValues.add(cellValue);
+            group.accumulate(cellValue);
+        }
+        if (allGroup != null) {
+            return Collections.singletonList(allGroup);
+        }
+        return new ArrayList<>(attrGroups.values());
+    }
+
+    private void showResults(List<AggregateGroup> groups) {
+        aggregateTable.setRedraw(false);
+        try {
+            aggregateTable.removeAll();
+            for (AggregateGroup group : groups) {
+                if (group.attribute == null) {
+                    showGroupResults(null, group);
+                } else {
+                    TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
+                    attrItem.setText(group.attribute.getName());
+                    attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(group.attribute)));
+                    showGroupResults(attrItem, group);
+                    attrItem.setExpanded(true);
+                }
             }
-            aggregateValues(null, allValues);
+            UIUtils.packColumns(aggregateTable, false, null);
+        } finally {
+            aggregateTable.setRedraw(true);
         }
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
-        List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
-        for (AggregateFunctionDescriptor funcDesc : functions) {
+    private void showGroupResults(TreeItem parentItem, AggregateGroup group) {
+        for (int i = 0; i < group.functions.size(); i++) {
+            AggregateFunctionDescriptor funcDesc = group.functions.get(i);
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
                 new TreeItem(parentItem, SWT.NONE);
@@ -259,31 +308,8 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             if (icon != null) {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
-            try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
-            } catch (DBException e) {
-                log.error(e);
-            }
-        }
-
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
-            for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
-                }
-            }
-        }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
-                continue;
-            }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
+            Object result = group.getResult(i);
             if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
                 String strValue;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
                     strValue = DOUBLE_FORMAT.format(result);
@@ -293,7 +319,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                     strValue = result.toString();
                 }
                 if (strValue != null) {
-                    treeItem.setText(1, strValue);
+                    funcItem.setText(1, strValue);
                 }
             }
         }
@@ -314,6 +340,120 @@ public class AggregateColumnsPanel implements IResultSetPanel {
         contributionManager.add(new ValueTypeToggleAction());
     }
 
+    /**
+     * Attributes and rows of the selected cells, resolved in UI thread.
+     * Values are read one by one during aggregation, using the model attributes of the moment of selection.
+     */
+    private class SelectedCells {
+        private final DBDAttributeBinding[] modelAttributes;
+        private final DBDAttributeBinding[] attributes;
+        private final ResultSetRow[] rows;
+
+        SelectedCells(IResultSetSelection selection) {
+            this.modelAttributes = presentation.getController().getModel().getAttributes().clone();
+            List<?> elements = selection.toList();
+            this.attributes = new DBDAttributeBinding[elements.size()];
+            this.rows = new ResultSetRow[elements.size()];
+            int index = 0;
+            for (Object element : elements) {
+                attributes[index] = selection.getElementAttribute(element);
+                rows[index] = selection.getElementRow(element);
+                index++;
+            }
+        }
+
+        int size() {
+            return rows.length;
+        }
+
+        Object getValue(int index) {
+            return ResultSetModel.getCellValue(modelAttributes, attributes[index], rows[index]);
+        }
+    }
+
+    /**
+     * Aggregate functions state of an attribute, or of all values if attribute is null
+     */
+    private static class AggregateGroup {
+        private final DBDAttributeBinding attribute;
+        private final List<AggregateFunctionDescriptor> functions;
+        private final boolean aggregateAsStrings;
+        private final IAggregateFunction[] funcs;
+        private final IAggregateNumericFunction[] numericFuncs;
+        private final int[] funcCount;
+
+        AggregateGroup(DBDAttributeBinding attribute, List<AggregateFunctionDescriptor> functions, boolean aggregateAsStrings) {
+            this.attribute = attribute;
+            this.functions = functions;
+            this.aggregateAsStrings = aggregateAsStrings;
+            this.funcs = new IAggregateFunction[functions.size()];
+            this.numericFuncs = new IAggregateNumericFunction[functions.size()];
+            this.funcCount = new int[functions.size()];
+            for (int i = 0; i < funcs.length; i++) {
+                try {
+                    funcs[i] = functions.get(i).createFunction();
+                    if (funcs[i] instanceof IAggregateNumericFunction) {
+                        numericFuncs[i] = (IAggregateNumericFunction) funcs[i];
+                    }
+                } catch (DBException e) {
+                    log.error(e);
+                }
+            }
+        }
+
+        void accumulate(Object value) {
+            // Numbers skip boxing and parsing in functions which support it
+            boolean primitive = !aggregateAsStrings && AggregateUtils.isPrimitiveNumber(value);
+            double number = primitive ? ((Number) value).doubleValue() : 0;
+            for (int i = 0; i < funcs.length; i++) {
+                if (funcs[i] == null) {
+                    continue;
+                }
+                boolean accumulated = primitive && numericFuncs[i] != null ?
+                    numericFuncs[i].accumulate(number) :
+                    funcs[i].accumulate(value, aggregateAsStrings);
+                if (accumulated) {
+                    funcCount[i]++;
+                }
+            }
+        }
+
+        Object getResult(int index) {
+            if (funcs[index] == null || funcCount[index] <= 0) {
+                return null;
+            }
+            return funcs[index].getResult(funcCount[index]);
+        }
+    }
+
+    private class AggregateJob extends AbstractJob {
+        private final SelectedCells cells;
+        private final List<AggregateFunctionDescriptor> functions = new ArrayList<>(enabledFunctions);
+        private final boolean groupByColumns = AggregateColumnsPanel.this.groupByColumns;
+        private final boolean aggregateAsStrings = AggregateColumnsPanel.this.aggregateAsStrings;
+
+        AggregateJob(SelectedCells cells) {
+            super("Aggregate " + cells.size() + " values");
+            this.cells = cells;
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            List<AggregateGroup> groups = aggregateValues(monitor, cells, functions, groupByColumns, aggregateAsStrings);
+            if (monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+            UIUtils.asyncExec(() -> {
+                if (aggregateJob == this && !aggregateTable.isDisposed()) {
+                    aggregateJob = null;
+                    showResults(groups);
+                }
+            });
+            return Status.OK_STATUS;
+        }
+    }
+
     private class GroupByColumnsAction extends Action {
         public GroupByColumnsAction() {
             super("Group by columns", IAction.AS_CHECK_BOX);
@@ -0,0 +1,72 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Booleans, one bit per row
+ */
+final class BooleanColumnVector extends ColumnVector {
+
+    private volatile LongBuffer bits;
+
+    BooleanColumnVector(int capacity) {
+        super(capacity);
+        this.bits = LongBuffer.wrap(new long[(capacity + 63) >> 6]);
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (!(value instanceof Boolean)) {
+            return false;
+        }
+        if ((Boolean) value) {
+            bits.put(row >> 6, bits.get(row >> 6) | (1L << row));
+        }
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        return (bits.get(row >> 6) & (1L << row)) != 0;
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return bits.capacity() * 8L;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return bits.capacity() * 8;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        writeLongs(out, bits);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        bits = slice(in, bits.capacity() * 8).asLongBuffer();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Values of one column in one segment of a {@link ResultSetColumnStore}.
+ * Vectors keep their data in NIO buffers: heap buffers while the segment is in memory and
+ * read-only views of the spill file once the segment was spilled.
+ */
+abstract class ColumnVector {
+
+    // One bit per row, set for non-null values
+    private volatile LongBuffer present;
+    private boolean spilled;
+
+    ColumnVector(int capacity) {
+        this.present = LongBuffer.wrap(new long[(capacity + 63) >> 6]);
+    }
+
+    /**
+     * Stores a non-null value.
+     *
+     * @return false if the value does not fit this vector, the caller then has to convert it
+     */
+    final boolean put(int row, @NotNull Object value) {
+        if (!putValue(row, value)) {
+            return false;
+        }
+        LongBuffer mask = present;
+        mask.put(row >> 6, mask.get(row >> 6) | (1L << row));
+        return true;
+    }
+
+    @Nullable
+    final Object get(int row) {
+        return isPresent(row) ? getValue(row) : null;
+    }
+
+    final boolean isPresent(int row) {
+        return (present.get(row >> 6) & (1L << row)) != 0;
+    }
+
+    boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Returns false if the values can't be written to disk and stay on heap
+     */
+    boolean isSpillable() {
+        return true;
+    }
+
+    /**
+     * Estimated heap size in bytes
+     */
+    final long getHeapSize() {
+        return spilled ? getResidentSize() : present.capacity() * 8L + getDataHeapSize();
+    }
+
+    /**
+     * Size of the values in the spill file, in bytes
+     */
+    final int getSpillSize() {
+        return present.capacity() * 8 + getDataSpillSize();
+    }
+
+    final void writeTo(@NotNull ByteBuffer out) {
+        writeLongs(out, present);
+        writeData(out);
+    }
+
+    /**
+     * Replaces the heap buffers with views of the spill file written by {@link #writeTo(ByteBuffer)}
+     */
+    final void mapFrom(@NotNull ByteBuffer in) {
+        LongBuffer mappedPresent = slice(in, present.capacity() * 8).asLongBuffer();
+        mapData(in);
+        present = mappedPresent;
+        spilled = true;
+    }
+
+    abstract boolean putValue(int row, @NotNull Object value);
+
+    @NotNull
+    abstract Object getValue(int row);
+
+    abstract long getDataHeapSize();
+
+    abstract int getDataSpillSize();
+
+    abstract void writeData(@NotNull ByteBuffer out);
+
+    abstract void mapData(@NotNull ByteBuffer in);
+
+    /**
+     * Heap size which remains after the vector was spilled
+     */
+    long getResidentSize() {
+        return 0;
+    }
+
+    static ByteBuffer slice(ByteBuffer in, int bytes) {
+        ByteBuffer slice = in.slice();
+        slice.limit(bytes);
+        slice.order(in.order());
+        in.position(in.position() + bytes);
+        return slice;
+    }
+
+    static void writeLongs(ByteBuffer out, LongBuffer data) {
+        out.asLongBuffer().put(data.duplicate());
+        out.position(out.position() + data.capacity() * 8);
+    }
+
+    static void writeInts(ByteBuffer out, IntBuffer data) {
+        out.asIntBuffer().put(data.duplicate());
+        out.position(out.position() + data.capacity() * 4);
+    }
+
+    static void writeChars(ByteBuffer out, CharBuffer data) {
+        out.asCharBuffer().put(data.duplicate());
+        out.position(out.position() + data.capacity() * 2);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Dates and times of a single JDBC type, stored as epoch milliseconds (and nanoseconds for timestamps).
+ * Each read returns a new instance as these types are mutable.
+ */
+final class DateColumnVector extends ColumnVector {
+
+    private final Class<?> type;
+    private volatile LongBuffer millis;
+    private volatile IntBuffer nanos;
+
+    DateColumnVector(int capacity, @NotNull Class<?> type) {
+        super(capacity);
+        this.type = type;
+        this.millis = LongBuffer.wrap(new long[capacity]);
+        if (type == Timestamp.class) {
+            this.nanos = IntBuffer.wrap(new int[capacity]);
+        }
+    }
+
+    static boolean accepts(@NotNull Class<?> type) {
+        return type == Timestamp.class || type == java.sql.Date.class || type == Time.class || type == Date.class;
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (value.getClass() != type) {
+            return false;
+        }
+        millis.put(row, ((Date) value).getTime());
+        if (nanos != null) {
+            nanos.put(row, ((Timestamp) value).getNanos());
+        }
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        long time = millis.get(row);
+        if (type == Timestamp.class) {
+            Timestamp timestamp = new Timestamp(time);
+            timestamp.setNanos(nanos.get(row));
+            return timestamp;
+        } else if (type == java.sql.Date.class) {
+            return new java.sql.Date(time);
+        } else if (type == Time.class) {
+            return new Time(time);
+        } else {
+            return new Date(time);
+        }
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return millis.capacity() * (nanos == null ? 8L : 12L);
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return millis.capacity() * (nanos == null ? 8 : 12);
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        writeLongs(out, millis);
+        if (nanos != null) {
+            writeInts(out, nanos);
+        }
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        LongBuffer mappedMillis = slice(in, millis.capacity() * 8).asLongBuffer();
+        if (nanos != null) {
+            nanos = slice(in, nanos.capacity() * 4).asIntBuffer();
+        }
+        millis = mappedMillis;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Decimal numbers whose unscaled value fits in a long, stored as unscaled value and scale
+ */
+final class DecimalColumnVector extends ColumnVector {
+
+    private volatile LongBuffer unscaled;
+    private volatile IntBuffer scales;
+
+    DecimalColumnVector(int capacity) {
+        super(capacity);
+        this.unscaled = LongBuffer.wrap(new long[capacity]);
+        this.scales = IntBuffer.wrap(new int[capacity]);
+    }
+
+    static boolean accepts(@NotNull Object value) {
+        return value.getClass() == BigDecimal.class && ((BigDecimal) value).unscaledValue().bitLength() < 64;
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (!accepts(value)) {
+            return false;
+        }
+        BigDecimal decimal = (BigDecimal) value;
+        unscaled.put(row, decimal.unscaledValue().longValue());
+        scales.put(row, decimal.scale());
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        return BigDecimal.valueOf(unscaled.get(row), scales.get(row));
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return unscaled.capacity() * 12L;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return unscaled.capacity() * 12;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        writeLongs(out, unscaled);
+        writeInts(out, scales);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        LongBuffer mappedUnscaled = slice(in, unscaled.capacity() * 8).asLongBuffer();
+        IntBuffer mappedScales = slice(in, scales.capacity() * 4).asIntBuffer();
+        unscaled = mappedUnscaled;
+        scales = mappedScales;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * Floating point numbers of a single boxed type, stored as doubles
+ */
+final class DoubleColumnVector extends ColumnVector {
+
+    private final Class<?> type;
+    private volatile DoubleBuffer values;
+
+    DoubleColumnVector(int capacity, @NotNull Class<?> type) {
+        super(capacity);
+        this.type = type;
+        this.values = DoubleBuffer.wrap(new double[capacity]);
+    }
+
+    static boolean accepts(@NotNull Class<?> type) {
+        return type == Double.class || type == Float.class;
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (value.getClass() != type) {
+            return false;
+        }
+        values.put(row, ((Number) value).doubleValue());
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        double value = values.get(row);
+        return type == Double.class ? (Object) value : (Object) (float) value;
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return values.capacity() * 8L;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return values.capacity() * 8;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        out.asDoubleBuffer().put(values.duplicate());
+        out.position(out.position() + values.capacity() * 8);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        values = slice(in, values.capacity() * 8).asDoubleBuffer();
+    }
+}
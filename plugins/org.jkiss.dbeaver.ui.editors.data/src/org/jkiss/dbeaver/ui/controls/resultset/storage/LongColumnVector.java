@@ -0,0 +1,85 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Integral numbers of a single boxed type, stored as longs
+ */
+final class LongColumnVector extends ColumnVector {
+
+    private final Class<?> type;
+    private volatile LongBuffer values;
+
+    LongColumnVector(int capacity, @NotNull Class<?> type) {
+        super(capacity);
+        this.type = type;
+        this.values = LongBuffer.wrap(new long[capacity]);
+    }
+
+    static boolean accepts(@NotNull Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (value.getClass() != type) {
+            return false;
+        }
+        values.put(row, ((Number) value).longValue());
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        long value = values.get(row);
+        if (type == Long.class) {
+            return value;
+        } else if (type == Integer.class) {
+            return (int) value;
+        } else if (type == Short.class) {
+            return (short) value;
+        } else {
+            return (byte) value;
+        }
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return values.capacity() * 8L;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return values.capacity() * 8;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        writeLongs(out, values);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        values = slice(in, values.capacity() * 8).asLongBuffer();
+    }
+}
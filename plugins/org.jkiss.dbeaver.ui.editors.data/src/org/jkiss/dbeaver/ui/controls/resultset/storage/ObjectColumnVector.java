@@ -0,0 +1,102 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Values without a compact representation (LOBs, structures, arrays, errors, mixed types).
+ * They stay on heap as is.
+ */
+final class ObjectColumnVector extends ColumnVector {
+
+    // Rough size of a boxed value, the real size of driver objects is unknown
+    private static final int VALUE_SIZE_ESTIMATE = 48;
+
+    private final Object[] values;
+    private int valueCount;
+
+    ObjectColumnVector(int capacity) {
+        super(capacity);
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Copies the first rows of a vector which did not fit a value
+     */
+    ObjectColumnVector(int capacity, @NotNull ColumnVector source, int rowCount) {
+        this(capacity);
+        for (int i = 0; i < rowCount; i++) {
+            if (source.isPresent(i)) {
+                put(i, source.getValue(i));
+            }
+        }
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        values[row] = value;
+        valueCount++;
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        return values[row];
+    }
+
+    @Override
+    boolean isSpillable() {
+        return false;
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return values.length * 4L + valueCount * (long) VALUE_SIZE_ESTIMATE;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        // Values are not written, only the null mask goes to disk
+        return 0;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+    }
+
+    @Override
+    long getResidentSize() {
+        return getDataHeapSize();
+    }
+
+    void releaseValues() {
+        for (Object value : values) {
+            if (value != null) {
+                DBUtils.releaseValue(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Columnar storage of result set rows.
+ *
+ * Rows are appended in segments of {@link #SEGMENT_SIZE} rows. Within a segment each column is a vector:
+ * numbers, dates and booleans are kept in primitive arrays, strings as codes of a per-column dictionary,
+ * and anything else as plain objects. When the estimated heap size of the full segments exceeds the heap budget,
+ * the least recently read segments are written to a temporary file and read back through memory mappings.
+ *
+ * Rows may be appended by one thread while other threads read the rows appended before.
+ */
+public class ResultSetColumnStore {
+
+    private static final Log log = Log.getLog(ResultSetColumnStore.class);
+
+    public static final int SEGMENT_SIZE = 1 << 12;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int SEGMENT_SHIFT = 12;
+
+    // Spilling stops once the heap size is below this part of the budget
+    private static final double SPILL_TARGET = 0.75;
+
+    private static class Segment {
+        final ColumnVector[] columns;
+        int size;
+        long heapSize;
+        boolean spilled;
+        long lastAccess;
+
+        Segment(int columnCount) {
+            this.columns = new ColumnVector[columnCount];
+        }
+    }
+
+    private final int columnCount;
+    private final long heapBudget;
+    @Nullable
+    private final File spillDirectory;
+    private final StringDictionary[] dictionaries;
+
+    private volatile Segment[] segments = new Segment[16];
+    private volatile int rowCount;
+    // Heap size of the full segments
+    private long heapSize;
+    private long accessCounter;
+    @Nullable
+    private SpillFile spillFile;
+    private boolean spillFailed;
+    private boolean closed;
+
+    /**
+     * @param columnCount    number of values in a row
+     * @param heapBudget     heap size in bytes above which segments are spilled, 0 to keep everything on heap
+     * @param spillDirectory directory of the spill file, null to keep everything on heap
+     */
+    public ResultSetColumnStore(int columnCount, long heapBudget, @Nullable File spillDirectory) {
+        this.columnCount = columnCount;
+        this.heapBudget = heapBudget;
+        this.spillDirectory = spillDirectory;
+        this.dictionaries = new StringDictionary[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            dictionaries[i] = new StringDictionary();
+        }
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Appends a row. Values are copied, so the array may be reused by the caller.
+     *
+     * @return index of the new row
+     */
+    public synchronized int add(@NotNull Object[] row) {
+        if (closed) {
+            throw new IllegalStateException("Result set storage is closed");
+        }
+        int index = rowCount;
+        int offset = index & SEGMENT_MASK;
+        Segment segment;
+        if (offset == 0) {
+            segment = new Segment(columnCount);
+            Segment[] curSegments = segments;
+            int segmentIndex = index >> SEGMENT_SHIFT;
+            if (segmentIndex == curSegments.length) {
+                curSegments = Arrays.copyOf(curSegments, segmentIndex * 2);
+            }
+            curSegments[segmentIndex] = segment;
+            segments = curSegments;
+        } else {
+            segment = segments[index >> SEGMENT_SHIFT];
+        }
+        for (int i = 0; i < columnCount && i < row.length; i++) {
+            Object value = row[i];
+            if (value == null) {
+                continue;
+            }
+            ColumnVector vector = segment.columns[i];
+            if (vector == null) {
+                vector = createVector(i, value);
+                segment.columns[i] = vector;
+            }
+            if (!vector.put(offset, value)) {
+                // Value of another type or dictionary overflow
+                if (vector instanceof StringColumnVector && value instanceof String) {
+                    vector = new TextColumnVector(SEGMENT_SIZE, vector, offset);
+                } else {
+                    vector = new ObjectColumnVector(SEGMENT_SIZE, vector, offset);
+                }
+                vector.put(offset, value);
+                segment.columns[i] = vector;
+            }
+        }
+        segment.size = offset + 1;
+        rowCount = index + 1;
+
+        if (segment.size == SEGMENT_SIZE) {
+            for (ColumnVector vector : segment.columns) {
+                if (vector != null) {
+                    segment.heapSize += vector.getHeapSize();
+                }
+            }
+            heapSize += segment.heapSize;
+            if (heapBudget > 0 && getHeapSize() > heapBudget) {
+                spillColdSegments();
+            }
+        }
+        return index;
+    }
+
+    @Nullable
+    public Object getValue(int row, int column) {
+        Segment segment = getSegment(row);
+        if (segment == null) {
+            return null;
+        }
+        // Racy on purpose: access order is only a hint for spilling
+        segment.lastAccess = ++accessCounter;
+        ColumnVector vector = segment.columns[column];
+        return vector == null ? null : vector.get(row & SEGMENT_MASK);
+    }
+
+    /**
+     * Reads all values of a row into a new array
+     */
+    @NotNull
+    public Object[] getRow(int row) {
+        Object[] values = new Object[columnCount];
+        Segment segment = getSegment(row);
+        if (segment != null) {
+            segment.lastAccess = ++accessCounter;
+            for (int i = 0; i < columnCount; i++) {
+                ColumnVector vector = segment.columns[i];
+                if (vector != null) {
+                    values[i] = vector.get(row & SEGMENT_MASK);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Estimated heap size in bytes, not counting the segment being filled
+     */
+    public synchronized long getHeapSize() {
+        long size = heapSize;
+        for (StringDictionary dictionary : dictionaries) {
+            size += dictionary.getHeapSize();
+        }
+        return size;
+    }
+
+    /**
+     * Size of the spill file in bytes
+     */
+    public synchronized long getSpilledSize() {
+        return spillFile == null ? 0 : spillFile.getLength();
+    }
+
+    /**
+     * Releases values which hold resources (like LOBs). Stored values remain readable.
+     */
+    public synchronized void releaseValues() {
+        Segment[] curSegments = segments;
+        for (int i = 0; i < curSegments.length && curSegments[i] != null; i++) {
+            for (ColumnVector vector : curSegments[i].columns) {
+                if (vector instanceof ObjectColumnVector) {
+                    ((ObjectColumnVector) vector).releaseValues();
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases values and deletes the spill file. The store is empty afterwards.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        releaseValues();
+        closed = true;
+        rowCount = 0;
+        segments = new Segment[0];
+        heapSize = 0;
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    @Nullable
+    private Segment getSegment(int row) {
+        // Row count first: segments are published before the row count grows
+        if (row >= rowCount) {
+            return null;
+        }
+        Segment[] curSegments = segments;
+        int segmentIndex = row >> SEGMENT_SHIFT;
+        // Closed concurrently
+        return segmentIndex < curSegments.length ? curSegments[segmentIndex] : null;
+    }
+
+    @NotNull
+    private ColumnVector createVector(int column, @NotNull Object value) {
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            if (dictionaries[column].isFull()) {
+                return new TextColumnVector(SEGMENT_SIZE);
+            }
+            return new StringColumnVector(SEGMENT_SIZE, dictionaries[column]);
+        } else if (LongColumnVector.accepts(type)) {
+            return new LongColumnVector(SEGMENT_SIZE, type);
+        } else if (DoubleColumnVector.accepts(type)) {
+            return new DoubleColumnVector(SEGMENT_SIZE, type);
+        } else if (DecimalColumnVector.accepts(value)) {
+            return new DecimalColumnVector(SEGMENT_SIZE);
+        } else if (type == Boolean.class) {
+            return new BooleanColumnVector(SEGMENT_SIZE);
+        } else if (DateColumnVector.accepts(type)) {
+            return new DateColumnVector(SEGMENT_SIZE, type);
+        } else {
+            return new ObjectColumnVector(SEGMENT_SIZE);
+        }
+    }
+
+    private void spillColdSegments() {
+        if (spillFailed || spillDirectory == null) {
+            return;
+        }
+        List<Segment> candidates = new ArrayList<>();
+        Segment[] curSegments = segments;
+        for (int i = 0; i < curSegments.length && curSegments[i] != null; i++) {
+            Segment segment = curSegments[i];
+            if (segment.size == SEGMENT_SIZE && !segment.spilled) {
+                candidates.add(segment);
+            }
+        }
+        // Stable sort: segments which were never read go first, oldest first
+        candidates.sort(Comparator.comparingLong(s -> s.lastAccess));
+
+        long target = (long) (heapBudget * SPILL_TARGET);
+        for (Segment segment : candidates) {
+            if (getHeapSize() <= target) {
+                break;
+            }
+            try {
+                spillSegment(segment);
+            } catch (IOException e) {
+                log.warn("Error spilling result set rows to disk. Keep the rest of rows in memory.", e);
+                spillFailed = true;
+                return;
+            }
+        }
+    }
+
+    private void spillSegment(@NotNull Segment segment) throws IOException {
+        ColumnVector[] columns = segment.columns;
+        int[] sizes = new int[columns.length];
+        int totalSize = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null && columns[i].isSpillable()) {
+                // Keep each vector 8-byte aligned
+                sizes[i] = (columns[i].getSpillSize() + 7) & ~7;
+                totalSize += sizes[i];
+            }
+        }
+        segment.spilled = true;
+        if (totalSize == 0) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(totalSize).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < columns.length; i++) {
+            if (sizes[i] > 0) {
+                int start = buffer.position();
+                columns[i].writeTo(buffer);
+                buffer.position(start + sizes[i]);
+            }
+        }
+        buffer.flip();
+        if (spillFile == null) {
+            spillFile = new SpillFile(spillDirectory);
+        }
+        ByteBuffer mapped = spillFile.append(buffer);
+
+        long newHeapSize = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (sizes[i] > 0) {
+                int start = mapped.position();
+                columns[i].mapFrom(mapped);
+                mapped.position(start + sizes[i]);
+            }
+            if (columns[i] != null) {
+                newHeapSize += columns[i].getHeapSize();
+            }
+        }
+        heapSize -= segment.heapSize - newHeapSize;
+        segment.heapSize = newHeapSize;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Temporary file holding spilled segments. Segments are appended and then read through read-only mappings,
+ * so reading spilled values goes through the OS page cache and does not use the Java heap.
+ */
+final class SpillFile {
+
+    private static final Log log = Log.getLog(SpillFile.class);
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private long length;
+
+    SpillFile(@NotNull File directory) throws IOException {
+        this.file = File.createTempFile("resultset-", ".dat", directory);
+        this.file.deleteOnExit();
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * Appends data to the file.
+     *
+     * @return read-only mapping of the written data, in native byte order
+     */
+    @NotNull
+    ByteBuffer append(@NotNull ByteBuffer data) throws IOException {
+        long position = length;
+        int size = data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data, position + size - data.remaining());
+        }
+        length += size;
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.nativeOrder());
+    }
+
+    void close() {
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            log.debug("Error closing result set spill file", e);
+        }
+        // Mapped files can't be deleted on some platforms until the mappings are collected
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
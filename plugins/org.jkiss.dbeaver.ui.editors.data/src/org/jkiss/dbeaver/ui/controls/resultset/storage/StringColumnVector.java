@@ -0,0 +1,76 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Dictionary-encoded strings. Only the codes are stored per row, the dictionary stays on heap.
+ */
+final class StringColumnVector extends ColumnVector {
+
+    private final StringDictionary dictionary;
+    private volatile IntBuffer codes;
+
+    StringColumnVector(int capacity, @NotNull StringDictionary dictionary) {
+        super(capacity);
+        this.dictionary = dictionary;
+        this.codes = IntBuffer.wrap(new int[capacity]);
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+        int code = dictionary.encode((String) value);
+        if (code < 0) {
+            return false;
+        }
+        codes.put(row, code);
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        return dictionary.decode(codes.get(row));
+    }
+
+    @Override
+    long getDataHeapSize() {
+        return codes.capacity() * 4L;
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return codes.capacity() * 4;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        writeInts(out, codes);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        codes = slice(in, codes.capacity() * 4).asIntBuffer();
+    }
+}
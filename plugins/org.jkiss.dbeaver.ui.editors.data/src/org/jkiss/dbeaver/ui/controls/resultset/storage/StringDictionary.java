@@ -0,0 +1,81 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Distinct strings of one column, shared by all segments of a store.
+ * The dictionary stops growing once it holds too many (or too long) strings: high-cardinality
+ * columns gain nothing from it and are stored as plain text instead.
+ */
+final class StringDictionary {
+
+    static final int MAX_SIZE = 1 << 14;
+    static final int MAX_CHARS = 1 << 20;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] strings = new String[64];
+    private int size;
+    private long charCount;
+    private boolean full;
+
+    /**
+     * Returns the code of a string, adding it to the dictionary if needed.
+     *
+     * @return code of the string or -1 if the dictionary is full
+     */
+    int encode(@NotNull String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (full || size >= MAX_SIZE || charCount + value.length() > MAX_CHARS) {
+            full = true;
+            return -1;
+        }
+        String[] curStrings = strings;
+        if (size == curStrings.length) {
+            curStrings = Arrays.copyOf(curStrings, size * 2);
+        }
+        curStrings[size] = value;
+        strings = curStrings;
+        codes.put(value, size);
+        charCount += value.length();
+        return size++;
+    }
+
+    @NotNull
+    String decode(int code) {
+        return strings[code];
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Estimated heap size: string and hash map entry overhead plus characters
+     */
+    long getHeapSize() {
+        return size * 96L + charCount * 2;
+    }
+}
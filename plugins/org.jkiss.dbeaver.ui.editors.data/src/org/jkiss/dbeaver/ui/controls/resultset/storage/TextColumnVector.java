@@ -0,0 +1,120 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Strings of a column whose dictionary is full.
+ * Kept as strings on heap, spilled as UTF-16 characters with an offset per row.
+ */
+final class TextColumnVector extends ColumnVector {
+
+    // Larger segments would not fit a single mapping
+    private static final long MAX_SPILL_CHARS = 1 << 28;
+
+    private final int capacity;
+    private volatile String[] values;
+    private long charCount;
+    private IntBuffer offsets;
+    private CharBuffer chars;
+
+    TextColumnVector(int capacity) {
+        super(capacity);
+        this.capacity = capacity;
+        this.values = new String[capacity];
+    }
+
+    /**
+     * Copies the first rows of a dictionary-encoded vector
+     */
+    TextColumnVector(int capacity, @NotNull ColumnVector source, int rowCount) {
+        this(capacity);
+        for (int i = 0; i < rowCount; i++) {
+            if (source.isPresent(i)) {
+                put(i, source.getValue(i));
+            }
+        }
+    }
+
+    @Override
+    boolean putValue(int row, @NotNull Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+        values[row] = (String) value;
+        charCount += ((String) value).length();
+        return true;
+    }
+
+    @NotNull
+    @Override
+    Object getValue(int row) {
+        String[] curValues = values;
+        if (curValues != null) {
+            return curValues[row];
+        }
+        CharBuffer text = chars.duplicate();
+        text.limit(offsets.get(row + 1));
+        text.position(offsets.get(row));
+        return text.toString();
+    }
+
+    @Override
+    boolean isSpillable() {
+        return charCount <= MAX_SPILL_CHARS;
+    }
+
+    @Override
+    long getDataHeapSize() {
+        // Array slot, string and its array headers, characters
+        return capacity * 4L + (capacity * 40L + charCount * 2);
+    }
+
+    @Override
+    int getDataSpillSize() {
+        return (capacity + 1) * 4 + (int) charCount * 2;
+    }
+
+    @Override
+    void writeData(@NotNull ByteBuffer out) {
+        IntBuffer rowOffsets = IntBuffer.allocate(capacity + 1);
+        CharBuffer text = CharBuffer.allocate((int) charCount);
+        for (int i = 0; i < capacity; i++) {
+            rowOffsets.put(i, text.position());
+            if (values[i] != null) {
+                text.put(values[i]);
+            }
+        }
+        rowOffsets.put(capacity, text.position());
+        text.clear();
+        writeInts(out, rowOffsets);
+        writeChars(out, text);
+    }
+
+    @Override
+    void mapData(@NotNull ByteBuffer in) {
+        offsets = slice(in, (capacity + 1) * 4).asIntBuffer();
+        chars = slice(in, (int) charCount * 2).asCharBuffer();
+        // Volatile write publishes the mapped buffers to readers
+        values = null;
+    }
+}
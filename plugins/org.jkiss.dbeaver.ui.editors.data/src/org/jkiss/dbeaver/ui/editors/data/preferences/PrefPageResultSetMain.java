@@ -50,6 +50,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
     private Button autoFetchNextSegmentCheck;
     private Button rereadOnScrollingCheck;
+    private Button progressiveFetchCheck;
+    private Text progressiveFetchInterval;
     private Text resultSetSize;
     private Button resultSetUseSQLCheck;
     private Combo orderingModeCombo;
@@ -70,6 +72,9 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
     private Button ignoreColumnLabelCheck;
 
+    private Button columnarStorageCheck;
+    private Text storageHeapBudget;
+
     public PrefPageResultSetMain()
     {
         super();
@@ -82,6 +87,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
         return
             store.contains(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT) ||
             store.contains(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING) ||
+            store.contains(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH) ||
+            store.contains(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH_INTERVAL) ||
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS) ||
             store.contains(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL) ||
             store.contains(ModelPreferences.RESULT_SET_READ_METADATA) ||
@@ -95,7 +102,9 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
             store.contains(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS) ||
             store.contains(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG) ||
-            store.contains(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL)
+            store.contains(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL) ||
+            store.contains(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_STORAGE_HEAP_BUDGET)
             ;
     }
 
@@ -132,6 +141,16 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             autoFetchNextSegmentCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment, ResultSetMessages.pref_page_database_resultsets_label_auto_fetch_segment_tip, true, 2);
             rereadOnScrollingCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling, ResultSetMessages.pref_page_database_resultsets_label_reread_on_scrolling_tip, true, 2);
+            progressiveFetchCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch, ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch_tip, false, 2);
+            progressiveFetchCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    updateOptionsEnablement();
+                }
+            });
+            progressiveFetchInterval = UIUtils.createLabelText(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch_interval + UIMessages.label_ms, "0");
+            progressiveFetchInterval.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
+            progressiveFetchInterval.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_progressive_fetch_interval_tip);
             resultSetUseSQLCheck = UIUtils.createCheckbox(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_use_sql, ResultSetMessages.pref_page_database_resultsets_label_use_sql_tip, false, 2);
             orderingModeCombo = UIUtils.createLabelCombo(queriesGroup, ResultSetMessages.pref_page_database_resultsets_label_order_mode, ResultSetMessages.pref_page_database_resultsets_label_order_mode_tip, SWT.DROP_DOWN | SWT.READ_ONLY);
             for (ResultSetUtils.OrderingMode mode : ResultSetUtils.OrderingMode.values()) {
@@ -162,6 +181,17 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             ignoreColumnLabelCheck = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_general_use_column_names, ResultSetMessages.pref_page_database_general_use_column_names_tip, false, 1);
             advUseFetchSize = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_fetch_size, ResultSetMessages.pref_page_database_resultsets_label_fetch_size_tip, false, 1);
+            columnarStorageCheck = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_columnar_storage, ResultSetMessages.pref_page_database_resultsets_label_columnar_storage_tip, false, 1);
+            columnarStorageCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    updateOptionsEnablement();
+                }
+            });
+            Composite budgetComposite = UIUtils.createComposite(advGroup, 2);
+            storageHeapBudget = UIUtils.createLabelText(budgetComposite, ResultSetMessages.pref_page_database_resultsets_label_storage_heap_budget, "0");
+            storageHeapBudget.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
+            storageHeapBudget.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_storage_heap_budget_tip);
         }
 
 
@@ -189,6 +219,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
     private void updateOptionsEnablement() {
         readQueryReferences.setEnabled(readQueryMetadata.isEnabled() && readQueryMetadata.getSelection());
+        progressiveFetchInterval.setEnabled(progressiveFetchCheck.isEnabled() && progressiveFetchCheck.getSelection());
+        storageHeapBudget.setEnabled(columnarStorageCheck.isEnabled() && columnarStorageCheck.getSelection());
     }
 
     @Override
@@ -197,6 +229,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
         try {
             autoFetchNextSegmentCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT));
             rereadOnScrollingCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING));
+            progressiveFetchCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH));
+            progressiveFetchInterval.setText(store.getString(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH_INTERVAL));
             int rsSegmentSize = store.getInt(ModelPreferences.RESULT_SET_MAX_ROWS);
             if (rsSegmentSize > 0 && rsSegmentSize < ResultSetPreferences.MIN_SEGMENT_SIZE) {
                 rsSegmentSize = ResultSetPreferences.MIN_SEGMENT_SIZE;
@@ -217,6 +251,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             advUseFetchSize.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE));
             ignoreColumnLabelCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL));
+            columnarStorageCheck.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE));
+            storageHeapBudget.setText(store.getString(ResultSetPreferences.RESULT_SET_STORAGE_HEAP_BUDGET));
 
             showErrorsInDialog.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG));
 
@@ -232,6 +268,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
         try {
             store.setValue(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT, autoFetchNextSegmentCheck.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING, rereadOnScrollingCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH, progressiveFetchCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH_INTERVAL, progressiveFetchInterval.getText());
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS, resultSetSize.getText());
             store.setValue(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL, resultSetUseSQLCheck.getSelection());
             store.setValue(ResultSetPreferences.RESULT_SET_ORDERING_MODE, ResultSetUtils.OrderingMode.values()[orderingModeCombo.getSelectionIndex()].toString());
@@ -248,6 +286,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             store.setValue(ModelPreferences.RESULT_SET_USE_FETCH_SIZE, advUseFetchSize.getSelection());
             store.setValue(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL, ignoreColumnLabelCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE, columnarStorageCheck.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_STORAGE_HEAP_BUDGET, storageHeapBudget.getText());
 
             store.setValue(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG, showErrorsInDialog.getSelection());
         } catch (Exception e) {
@@ -261,6 +301,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
     {
         store.setToDefault(ResultSetPreferences.RESULT_SET_AUTO_FETCH_NEXT_SEGMENT);
         store.setToDefault(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_PROGRESSIVE_FETCH_INTERVAL);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS);
         store.setToDefault(ModelPreferences.RESULT_SET_MAX_ROWS_USE_SQL);
         store.setToDefault(ResultSetPreferences.RESULT_SET_ORDERING_MODE);
@@ -277,6 +319,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
         store.setToDefault(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
         store.setToDefault(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_STORAGE_HEAP_BUDGET);
 
         store.setToDefault(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG);
 
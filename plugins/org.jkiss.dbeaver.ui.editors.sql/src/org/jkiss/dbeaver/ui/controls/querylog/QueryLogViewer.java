@@ -316,6 +316,22 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             return contextName;
         }
     };
+    private LogColumn COLUMN_LATENCY = new LogColumn("latency", SQLEditorMessages.controls_querylog_column_latency_name + " (" + SQLEditorMessages.controls_querylog__ms + ")", SQLEditorMessages.controls_querylog_column_latency_tooltip, 140) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        @Override
+        String getText(QMMetaEvent event, boolean briefInfo) {
+            QMMObject object = event.getObject();
+            if (object instanceof QMMStatementExecuteInfo) {
+                Long fingerprint = getQueryFingerprint((QMMStatementExecuteInfo) object);
+                QMQueryStatistics statistics = fingerprint == null ? null : QMUtils.getQueryStatistics(fingerprint);
+                if (statistics != null) {
+                    return NUMBER_FORMAT.format(statistics.getLatencyP50()) + " / " + //$NON-NLS-1$
+                        NUMBER_FORMAT.format(statistics.getLatencyP95()) + " / " + //$NON-NLS-1$
+                        NUMBER_FORMAT.format(statistics.getLatencyP99());
+                }
+            }
+            return ""; //$NON-NLS-1$
+        }
+    };
     private LogColumn[] ALL_COLUMNS = new LogColumn[]{
         COLUMN_TIME,
         COLUMN_TYPE,
@@ -325,10 +341,17 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         COLUMN_RESULT,
         COLUMN_DATA_SOURCE,
         COLUMN_CONTEXT,
+        COLUMN_LATENCY,
     };
 
     private final IWorkbenchPartSite site;
     private final Text searchText;
+    // Shows executions of a single query (with any literal values) if set
+    @Nullable
+    private Long queryFingerprint;
+    // Fingerprints of executed queries. Query normalization is too slow to repeat on each item update
+    private final Map<QMMStatementExecuteInfo, Long> queryFingerprints = new WeakHashMap<>();
+    private final boolean showConnection;
     private Table logTable;
     private java.util.List<ColumnDescriptor> columns = new ArrayList<>();
     private LongKeyMap<TableItem> objectToItemMap = new LongKeyMap<>();
@@ -354,6 +377,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         super();
 
         this.site = site;
+        this.showConnection = showConnection;
         this.currentSessionOnly = currentSessionOnly;
 
         // Prepare colors
@@ -380,7 +404,10 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
                 e.gc.setFont(null);
             }
         });
-        this.searchText.addModifyListener(e -> scheduleLogRefresh());
+        this.searchText.addModifyListener(e -> {
+            queryFingerprint = null;
+            scheduleLogRefresh();
+        });
         TextEditorUtils.enableHostEditorKeyBindingsSupport(site, searchText);
 
         // Create log table
@@ -401,7 +428,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             }
         };
 
-        createColumns(showConnection);
+        createColumns();
 
 
         {
@@ -483,7 +510,10 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         dialog.open();
     }
 
-    private void createColumns(boolean showConnection) {
+    private void createColumns() {
+        // Latency statistics are collected by query history storage only
+        final boolean showLatency = DBWorkbench.getPlatform().getPreferenceStore().getBoolean(QMConstants.PROP_STORE_HISTORY);
+
         for (TableColumn tableColumn : logTable.getColumns()) {
             tableColumn.dispose();
         }
@@ -496,6 +526,9 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             if (!showConnection && (logColumn == COLUMN_DATA_SOURCE || logColumn == COLUMN_CONTEXT)) {
                 continue;
             }
+            if (!showLatency && logColumn == COLUMN_LATENCY) {
+                continue;
+            }
             final TableColumn tableColumn = UIUtils.createTableColumn(logTable, SWT.NONE, logColumn.title);
             tableColumn.setData(logColumn);
             final String colWidth = dialogSettings.get("column-" + logColumn.id); //$NON-NLS-1$
@@ -660,7 +693,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
 
         // Extract events
 
-        EventHistoryReadService loadingService = new EventHistoryReadService(searchString);
+        EventHistoryReadService loadingService = new EventHistoryReadService(searchString, queryFingerprint);
         LoadingJob.createService(
             loadingService,
             new EvenHistoryReadVisualizer(loadingService))
@@ -696,13 +729,20 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
                 }
                 QMMObject object = event.getObject();
                 if (object instanceof QMMStatementExecuteInfo) {
-                    if (CommonUtils.isEmpty(((QMMStatementExecuteInfo) object).getQueryString())) {
+                    Long fingerprint = getQueryFingerprint((QMMStatementExecuteInfo) object);
+                    if (fingerprint == null) {
                         // Ignore empty statements
                         continue;
                     }
+                    if (queryFingerprint != null && !queryFingerprint.equals(fingerprint)) {
+                        // Similar queries only
+                        continue;
+                    }
                     itemIndex = createOrUpdateItem(event, itemIndex);
                 } else if (object instanceof QMMTransactionInfo || object instanceof QMMTransactionSavepointInfo) {
-                    itemIndex = createOrUpdateItem(event, itemIndex);
+                    if (queryFingerprint == null) {
+                        itemIndex = createOrUpdateItem(event, itemIndex);
+                    }
                     // Update all dependent statements
                     if (object instanceof QMMTransactionInfo) {
                         for (QMMTransactionSavepointInfo savepoint = ((QMMTransactionInfo) object).getCurrentSavepoint(); savepoint != null; savepoint = savepoint.getPrevious()) {
@@ -712,7 +752,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
                     } else {
                         updateExecutions(event, (QMMTransactionSavepointInfo) object);
                     }
-                } else if (object instanceof QMMSessionInfo) {
+                } else if (object instanceof QMMSessionInfo && queryFingerprint == null) {
                     QMMetaEvent.Action action = event.getAction();
                     if (action == QMMetaEvent.Action.BEGIN || action == QMMetaEvent.Action.END) {
                         TableItem item = new TableItem(logTable, SWT.NONE, itemIndex++);
@@ -833,6 +873,29 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             }
             if (hasStatements) {
                 manager.add(editorAction);
+            }
+            if (logTable.getSelectionCount() == 1 && hasStatements) {
+                final Long fingerprint = getQueryFingerprint((QMMStatementExecuteInfo) ((QMMetaEvent) logTable.getSelection()[0].getData()).getObject());
+                if (fingerprint != null) {
+                    manager.add(new Action(SQLEditorMessages.controls_querylog_action_show_similar) {
+                        @Override
+                        public void run() {
+                            queryFingerprint = fingerprint;
+                            refresh();
+                        }
+                    });
+                }
+            }
+            if (queryFingerprint != null) {
+                manager.add(new Action(SQLEditorMessages.controls_querylog_action_show_all) {
+                    @Override
+                    public void run() {
+                        queryFingerprint = null;
+                        refresh();
+                    }
+                });
+            }
+            if (hasStatements || queryFingerprint != null) {
                 manager.add(new Separator());
             }
             manager.add(copyAction);
@@ -981,6 +1044,20 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
         objectToItemMap.clear();
     }
 
+    @Nullable
+    private Long getQueryFingerprint(@NotNull QMMStatementExecuteInfo exec) {
+        Long fingerprint = queryFingerprints.get(exec);
+        if (fingerprint == null) {
+            String queryString = exec.getQueryString();
+            if (CommonUtils.isEmpty(queryString)) {
+                return null;
+            }
+            fingerprint = QMUtils.getQueryFingerprint(queryString);
+            queryFingerprints.put(exec, fingerprint);
+        }
+        return fingerprint;
+    }
+
     public void selectAll() {
         if (!logTable.isDisposed()) {
             logTable.selectAll();
@@ -1036,6 +1113,13 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
 
     @Override
     public synchronized void preferenceChange(PreferenceChangeEvent event) {
+        if (event.getProperty().equals(QMConstants.PROP_STORE_HISTORY)) {
+            UIUtils.asyncExec(() -> {
+                if (!logTable.isDisposed()) {
+                    createColumns();
+                }
+            });
+        }
         if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
             scheduleLogRefresh();
         }
@@ -1158,10 +1242,13 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
 
         @Nullable
         private String searchString;
+        @Nullable
+        private Long queryFingerprint;
 
-        protected EventHistoryReadService(@Nullable String searchString) {
+        protected EventHistoryReadService(@Nullable String searchString, @Nullable Long queryFingerprint) {
             super("Load query history"); //$NON-NLS-1$
             this.searchString = searchString;
+            this.queryFingerprint = queryFingerprint;
         }
 
         @Override
@@ -1171,6 +1258,7 @@ public class QueryLogViewer extends Viewer implements QMMetaListener, DBPPrefere
             if (eventBrowser != null) {
                 QMEventCriteria criteria = QMUtils.createDefaultCriteria(DBWorkbench.getPlatform().getPreferenceStore());
                 criteria.setSearchString(CommonUtils.isEmptyTrimmed(searchString) ? null : searchString.trim());
+                criteria.setQueryFingerprint(queryFingerprint);
 
                 monitor.beginTask("Load query history", 1); //$NON-NLS-1$
                 if (!CommonUtils.isEmpty(searchString)) {
@@ -278,6 +278,8 @@ public class SQLEditorMessages extends NLS {
     public static String controls_querylog_action_copy;
     public static String controls_querylog_action_copy_all_fields;
     public static String controls_querylog_action_select_all;
+    public static String controls_querylog_action_show_similar;
+    public static String controls_querylog_action_show_all;
     public static String controls_querylog_column_duration_name;
     public static String controls_querylog_column_duration_tooltip;
     public static String controls_querylog_column_result_name;
@@ -294,6 +296,8 @@ public class SQLEditorMessages extends NLS {
     public static String controls_querylog_column_connection_tooltip;
     public static String controls_querylog_column_context_name;
     public static String controls_querylog_column_context_tooltip;
+    public static String controls_querylog_column_latency_name;
+    public static String controls_querylog_column_latency_tooltip;
     public static String controls_querylog_commit;
     public static String controls_querylog_connected_to;
     public static String controls_querylog_disconnected_from;
@@ -0,0 +1,144 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower than allowed.
+ *
+ * <p>Benchmarks are matched by name and parameters. A result regresses when it is worse than the
+ * baseline by more than the allowed ratio plus the score errors of both runs, so noisy benchmarks
+ * do not fail the comparison on their own. Lower is better in the time modes and higher is better
+ * in the throughput mode.
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.jkiss.dbeaver.ext.turbographpp.graph.benchmark.BenchmarkComparison
+ *     baseline.json jmh-result.json [allowed regression, default 0.10]
+ * </pre>
+ */
+public class BenchmarkComparison {
+
+    private static final double DEFAULT_ALLOWED_REGRESSION = 0.10;
+
+    static class Result {
+
+        final String mode;
+        final double score;
+        final double error;
+
+        Result(String mode, double score, double error) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(
+                    "Usage: BenchmarkComparison <baseline.json> <current.json>"
+                            + " [allowed regression]");
+            System.exit(2);
+        }
+        double allowed = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_ALLOWED_REGRESSION;
+        Map<String, Result> baseline = read(args[0]);
+        Map<String, Result> current = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf(
+                "%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null || !before.mode.equals(now.mode)) {
+                System.out.printf(
+                        "%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            boolean regressed = isRegression(before, now, allowed);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf(
+                    "%-90s %14.3f %14.3f %+8.1f%%%s%n",
+                    entry.getKey(),
+                    before.score,
+                    now.score,
+                    (now.score - before.score) / before.score * 100,
+                    regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + allowed);
+            System.exit(1);
+        }
+    }
+
+    static boolean isRegression(Result before, Result now, double allowed) {
+        double margin = before.score * allowed + safeError(before) + safeError(now);
+        if ("thrpt".equals(now.mode)) {
+            return now.score < before.score - margin;
+        }
+        return now.score > before.score + margin;
+    }
+
+    /* Single iteration runs report NaN as the error */
+    private static double safeError(Result result) {
+        return Double.isNaN(result.error) ? 0 : result.error;
+    }
+
+    /* Results by benchmark name and parameters, sorted by parameter name */
+    static Map<String, Result> read(String file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    Map<String, String> params = new TreeMap<>();
+                    for (Map.Entry<String, JsonElement> param :
+                            run.getAsJsonObject("params").entrySet()) {
+                        params.put(param.getKey(), param.getValue().getAsString());
+                    }
+                    key.append(params);
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                JsonElement error = metric.get("scoreError");
+                results.put(
+                        key.toString(),
+                        new Result(
+                                run.get("mode").getAsString(),
+                                metric.get("score").getAsDouble(),
+                                error.isJsonPrimitive() && error.getAsJsonPrimitive().isNumber()
+                                        ? error.getAsDouble()
+                                        : Double.NaN));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jkiss.dbeaver.ext.turbographpp.graph.chart.CalculateStep;
+import org.jkiss.dbeaver.ext.turbographpp.graph.chart.HistogramBins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Histogram binning of the chart view: {@link HistogramBins} over a primitive array against the
+ * legacy path, which computed the step labels with {@link CalculateStep} and then counted the
+ * boxed values of each step in a scan of its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChartBinningBenchmark {
+
+    @State(Scope.Thread)
+    public static class ValueState {
+
+        @Param({"10000", "100000", "1000000"})
+        public int size;
+
+        long[] values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            values = createValues(size);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LegacyState {
+
+        @Param({"10000", "50000"})
+        public int size;
+
+        List<Long> values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            values = new ArrayList<>(size);
+            for (long value : createValues(size)) {
+                values.add(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Long> histogram(ValueState state) {
+        return HistogramBins.of(state.values, state.values.length).toStepData();
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Long> legacySteps(LegacyState state) {
+        Long min = state.values.get(0);
+        Long max = state.values.get(0);
+        for (Long value : state.values) {
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        LinkedHashMap<String, Long> stepData = new LinkedHashMap<>();
+        CalculateStep.calcStep(min, max, stepData);
+
+        List<Long> remaining = new ArrayList<>(state.values);
+        for (Map.Entry<String, Long> step : stepData.entrySet()) {
+            String[] range = step.getKey().split(HistogramBins.RANGE_SEPARATOR);
+            long start = Long.parseLong(range[0]);
+            long end = range.length > 1 ? Long.parseLong(range[1]) : start;
+            long count = 0;
+            for (int i = remaining.size() - 1; i >= 0; i--) {
+                long value = remaining.get(i);
+                if (value >= start && value <= end) {
+                    remaining.remove(i);
+                    count++;
+                }
+            }
+            step.setValue(count);
+        }
+        return stepData;
+    }
+
+    /* Skewed ages between 0 and 99, like a typical property of a person node */
+    private static long[] createValues(int size) {
+        Random random = new Random(size);
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (long) (Math.abs(random.nextGaussian()) * 30) % 100;
+        }
+        return values;
+    }
+}
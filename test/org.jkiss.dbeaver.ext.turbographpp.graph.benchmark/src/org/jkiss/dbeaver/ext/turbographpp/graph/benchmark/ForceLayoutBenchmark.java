@@ -0,0 +1,193 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javafx.geometry.Point2D;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.UtilitiesPoint2D;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartBarnesHutForceLayout;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartForceLayout;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartLayoutModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.force.SmartSpringForceLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One automatic layout step of the graph panel on a random graph with two edges per vertex.
+ *
+ * <p>The legacy benchmark replays the former per-frame loop of <code>SmartGraphPanel</code>
+ * (all pairs, {@link Point2D} arithmetic, hash set adjacency); it is limited to the smaller sizes
+ * as it takes minutes per step beyond that.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForceLayoutBenchmark {
+
+    private static final double REPULSION_FORCE = 35000;
+    private static final double ATTRACTION_FORCE = 10;
+    private static final double ATTRACTION_SCALE = 100;
+
+    private static final int EDGES_PER_VERTEX = 2;
+    private static final double VERTEX_RADIUS = 15;
+
+    @State(Scope.Thread)
+    public static class ModelState {
+
+        @Param({"1000", "10000", "50000"})
+        public int vertices;
+
+        SmartLayoutModel model;
+        SmartForceLayout spring;
+        SmartForceLayout barnesHut;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            model = createModel(vertices);
+            spring = new SmartSpringForceLayout(REPULSION_FORCE, ATTRACTION_FORCE, ATTRACTION_SCALE);
+            barnesHut =
+                    new SmartBarnesHutForceLayout(
+                            REPULSION_FORCE, ATTRACTION_FORCE, ATTRACTION_SCALE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LegacyState {
+
+        @Param({"1000", "10000"})
+        public int vertices;
+
+        Point2D[] positions;
+        List<Set<Integer>> adjacency;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            SmartLayoutModel model = createModel(vertices);
+            positions = new Point2D[vertices];
+            adjacency = new ArrayList<>(vertices);
+            int[] start = model.adjacencyStart();
+            int[] neighbors = model.adjacency();
+            for (int i = 0; i < vertices; i++) {
+                positions[i] = new Point2D(model.x()[i], model.y()[i]);
+                Set<Integer> set = new HashSet<>();
+                for (int k = start[i]; k < start[i + 1]; k++) {
+                    set.add(neighbors[k]);
+                }
+                adjacency.add(set);
+            }
+        }
+    }
+
+    @Benchmark
+    public double legacyStep(LegacyState state) {
+        Point2D[] positions = state.positions;
+        int n = positions.length;
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            double forceX = 0, forceY = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                Point2D repelling =
+                        UtilitiesPoint2D.repellingForce(positions[i], positions[j], REPULSION_FORCE);
+                forceX += repelling.getX();
+                forceY += repelling.getY();
+                if (state.adjacency.get(i).contains(j)) {
+                    Point2D attractive =
+                            UtilitiesPoint2D.attractiveForce(
+                                    positions[i],
+                                    positions[j],
+                                    n,
+                                    ATTRACTION_FORCE,
+                                    ATTRACTION_SCALE);
+                    forceX += attractive.getX();
+                    forceY += attractive.getY();
+                }
+            }
+            total += Math.abs(forceX) + Math.abs(forceY);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double springStep(ModelState state) {
+        return state.spring.step(state.model);
+    }
+
+    @Benchmark
+    public double barnesHutStep(ModelState state) {
+        return state.barnesHut.step(state.model);
+    }
+
+    static SmartLayoutModel createModel(int vertices) {
+        Random random = new Random(vertices);
+        double side = Math.sqrt(vertices) * VERTEX_RADIUS * 8;
+
+        List<List<Integer>> neighbors = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            neighbors.add(new ArrayList<>());
+        }
+        for (int e = 0; e < vertices * EDGES_PER_VERTEX; e++) {
+            int u = random.nextInt(vertices);
+            int v = random.nextInt(vertices);
+            if (u != v) {
+                neighbors.get(u).add(v);
+                neighbors.get(v).add(u);
+            }
+        }
+
+        int[] start = new int[vertices + 1];
+        for (int i = 0; i < vertices; i++) {
+            start[i + 1] = start[i] + neighbors.get(i).size();
+        }
+        int[] adjacency = new int[start[vertices]];
+        for (int i = 0; i < vertices; i++) {
+            int k = start[i];
+            for (int neighbor : neighbors.get(i)) {
+                adjacency[k++] = neighbor;
+            }
+        }
+
+        SmartLayoutModel model = new SmartLayoutModel();
+        model.resize(vertices);
+        model.setAdjacency(start, adjacency);
+        model.setBounds(side, side);
+        for (int i = 0; i < vertices; i++) {
+            model.setVertex(
+                    i, random.nextDouble() * side, random.nextDouble() * side, VERTEX_RADIUS);
+        }
+        return model;
+    }
+}
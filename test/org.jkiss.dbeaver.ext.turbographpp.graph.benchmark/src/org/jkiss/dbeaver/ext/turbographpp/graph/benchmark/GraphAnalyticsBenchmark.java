@@ -0,0 +1,103 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.AnalyticsGraph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysis;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalysisResult;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics.GraphAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Graph analyses on the random graphs of {@link ShortestPathBenchmark}, run on a pool that leaves
+ * a core free like the graph view does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphAnalyticsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class GraphState {
+
+        @Param({"10000", "50000"})
+        public int vertices;
+
+        TurboGraphArray<String, String> graph;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = ShortestPathBenchmark.createGraph(vertices);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AnalysisState {
+
+        @Param({
+            "DEGREE",
+            "BETWEENNESS",
+            "PAGERANK",
+            "COMPONENTS",
+            "STRONG_COMPONENTS",
+            "COMMUNITIES"
+        })
+        public GraphAnalysis analysis;
+
+        ForkJoinPool pool;
+        GraphAnalytics<String> analytics;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphState graphState) {
+            pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            analytics =
+                    new GraphAnalytics<>(AnalyticsGraph.build(graphState.graph), pool, () -> false);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public AnalyticsGraph<String> snapshot(GraphState state) {
+        return AnalyticsGraph.build(state.graph);
+    }
+
+    @Benchmark
+    public GraphAnalysisResult analyze(AnalysisState state) {
+        return state.analysis.run(state.analytics);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphProperties;
+import org.jkiss.dbeaver.ext.turbographpp.graph.utils.GraphCsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV export of the nodes and edges of the graph view, written through a UTF-8 writer to a
+ * discarding stream, so the formatting and the encoding are measured but not the disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphExportBenchmark {
+
+    @State(Scope.Thread)
+    public static class ElementState {
+
+        @Param({"1000", "10000", "100000"})
+        public int vertices;
+
+        List<CypherNode> nodes;
+        List<CypherEdge> edges;
+        Set<String> nodeKeys;
+        Set<String> edgeKeys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            GraphBatch batch = GraphIngestBenchmark.createBatch(vertices);
+            nodes = new ArrayList<>(batch.getNodes().size());
+            nodeKeys = new LinkedHashSet<>();
+            for (GraphBatch.NodeData node : batch.getNodes()) {
+                nodes.add(
+                        new CypherNode(
+                                node.getId(),
+                                node.getLabels(),
+                                node.getAttr(),
+                                "",
+                                SmartGraphProperties.DEFAULT_VERTEX_RADIUS));
+                nodeKeys.addAll(node.getAttr().keySet());
+            }
+            edges = new ArrayList<>(batch.getEdges().size());
+            edgeKeys = new LinkedHashSet<>();
+            for (GraphBatch.EdgeData edge : batch.getEdges()) {
+                edges.add(
+                        new CypherEdge(
+                                edge.getId(),
+                                edge.getTypes(),
+                                edge.getAttr(),
+                                edge.getStartNodeID(),
+                                edge.getEndNodeID()));
+                edgeKeys.addAll(edge.getAttr().keySet());
+            }
+        }
+    }
+
+    @Benchmark
+    public void csv(ElementState state) throws IOException {
+        try (Writer writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                OutputStream.nullOutputStream(), StandardCharsets.UTF_8))) {
+            GraphCsvWriter nodes = new GraphCsvWriter(writer, state.nodeKeys);
+            nodes.writeNodeHeader();
+            for (CypherNode node : state.nodes) {
+                nodes.writeNode(node);
+            }
+            GraphCsvWriter edges = new GraphCsvWriter(writer, state.edgeKeys);
+            edges.writeEdgeHeader();
+            for (CypherEdge edge : state.edges) {
+                edges.writeEdge(edge);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphClusters;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphDataModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoded result rows added to the graph model, as the graph view adds a batch but without the
+ * view: one vertex or edge in the graph store and one entry in the {@link GraphDataModel} indexes
+ * per element.
+ *
+ * <p><code>clustered</code> is the path of the results past the clustering threshold, where the
+ * nodes only go to {@link GraphClusters} and the merged links are computed once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphIngestBenchmark {
+
+    private static final String[] LABELS = {"Person", "Company", "City", "Product", "Order"};
+    private static final String[] TYPES = {"KNOWS", "WORKS_AT", "LIVES_IN", "BOUGHT"};
+    private static final int EDGES_PER_VERTEX = 2;
+
+    @State(Scope.Thread)
+    public static class BatchState {
+
+        @Param({"1000", "10000", "100000"})
+        public int vertices;
+
+        GraphBatch batch;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batch = createBatch(vertices);
+        }
+    }
+
+    @Benchmark
+    public GraphDataModel ingest(BatchState state) {
+        TurboGraphArray<CypherNode, CypherEdge> graph = new TurboGraphArray<>();
+        GraphDataModel model = new GraphDataModel();
+        for (GraphBatch.NodeData node : state.batch.getNodes()) {
+            CypherNode element =
+                    new CypherNode(
+                            node.getId(),
+                            node.getLabels(),
+                            node.getAttr(),
+                            "",
+                            SmartGraphProperties.DEFAULT_VERTEX_RADIUS);
+            model.putNode(node.getId(), node.getLabels(), graph.insertVertex(element));
+        }
+        for (GraphBatch.EdgeData edge : state.batch.getEdges()) {
+            CypherEdge element =
+                    new CypherEdge(
+                            edge.getId(),
+                            edge.getTypes(),
+                            edge.getAttr(),
+                            edge.getStartNodeID(),
+                            edge.getEndNodeID());
+            model.putEdge(
+                    edge.getId(),
+                    edge.getTypes(),
+                    graph.insertEdge(
+                            model.getNode(edge.getStartNodeID()),
+                            model.getNode(edge.getEndNodeID()),
+                            element));
+        }
+        return model;
+    }
+
+    @Benchmark
+    public List<GraphClusters.Link> clustered(BatchState state) {
+        GraphClusters clusters = new GraphClusters();
+        for (GraphBatch.NodeData node : state.batch.getNodes()) {
+            clusters.addNode(node);
+        }
+        for (GraphBatch.EdgeData edge : state.batch.getEdges()) {
+            clusters.addEdge(edge);
+        }
+        return clusters.getLinks(id -> false);
+    }
+
+    /* Nodes with a label and four properties, one of them quoted in CSV, and typed edges */
+    static GraphBatch createBatch(int vertices) {
+        Random random = new Random(vertices);
+        GraphBatch batch = new GraphBatch();
+        for (int i = 0; i < vertices; i++) {
+            LinkedHashMap<String, Object> attr = new LinkedHashMap<>();
+            attr.put("name", "node " + i);
+            attr.put("age", (long) random.nextInt(100));
+            attr.put("score", random.nextDouble());
+            attr.put("note", i % 10 == 0 ? "a \"quoted\", text" : "text");
+            batch.addNode(
+                    String.valueOf(i),
+                    Collections.singletonList(LABELS[random.nextInt(LABELS.length)]),
+                    attr);
+        }
+        for (int e = 0; e < vertices * EDGES_PER_VERTEX; e++) {
+            LinkedHashMap<String, Object> attr = new LinkedHashMap<>();
+            attr.put("since", (long) (1990 + random.nextInt(35)));
+            batch.addEdge(
+                    "e" + e,
+                    Collections.singletonList(TYPES[random.nextInt(TYPES.length)]),
+                    String.valueOf(random.nextInt(vertices)),
+                    String.valueOf(random.nextInt(vertices)),
+                    attr);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.application.Platform;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphPanel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.SmartGraphVertex;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartCircularGroupPlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartCircularSortedPlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartGridPlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartHorizotalTreePlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartPlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartRandomPlacementStrategy;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphview.layout.SmartVerticalTreePlacementStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Initial placement of the vertices of a graph panel by each placement strategy, on a random
+ * forest so the tree strategies have roots and levels to work with.
+ *
+ * <p>The vertex nodes are JavaFX nodes, so the toolkit is started on the headless Monocle platform
+ * with the software pipeline. Placement only sets the vertex positions and does not need the
+ * panel to be shown; it runs on the benchmark thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {
+            "-Dglass.platform=Monocle",
+            "-Dmonocle.platform=Headless",
+            "-Dprism.order=sw"
+        })
+public class PlacementBenchmark {
+
+    private static final double WIDTH = 1920;
+    private static final double HEIGHT = 1080;
+    private static final int ROOT_EVERY = 50;
+
+    @State(Scope.Thread)
+    public static class PanelState {
+
+        @Param({"random", "grid", "circular", "circular-group", "horizontal-tree", "vertical-tree"})
+        public String strategy;
+
+        @Param({"1000", "10000"})
+        public int vertices;
+
+        SmartGraphPanel<String, String> panel;
+        List<SmartGraphVertex<String>> nodes;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            startToolkit();
+            TurboGraphArray<String, String> graph = createForest(vertices);
+            panel = new SmartGraphPanel<>(graph, createStrategy());
+            runOnFxThread(
+                    () -> {
+                        panel.init();
+                        // keep the force layout from moving vertices while strategies are timed
+                        panel.setAutomaticLayout(false);
+                    });
+
+            nodes = new ArrayList<>(vertices);
+            for (Vertex<String> vertex : graph.vertices()) {
+                nodes.add(panel.getGraphVertex(vertex));
+            }
+        }
+
+        SmartPlacementStrategy createStrategy() {
+            switch (strategy) {
+                case "random":
+                    return new SmartRandomPlacementStrategy();
+                case "grid":
+                    return new SmartGridPlacementStrategy();
+                case "circular":
+                    return new SmartCircularSortedPlacementStrategy();
+                case "circular-group":
+                    return new SmartCircularGroupPlacementStrategy();
+                case "horizontal-tree":
+                    return new SmartHorizotalTreePlacementStrategy();
+                case "vertical-tree":
+                    return new SmartVerticalTreePlacementStrategy();
+                default:
+                    throw new IllegalArgumentException(strategy);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SmartGraphVertex<String>> place(PanelState state) {
+        state.createStrategy().place(WIDTH, HEIGHT, state.panel, state.nodes);
+        return state.nodes;
+    }
+
+    /* Each vertex hangs below a random earlier one, except every ROOT_EVERY-th which is a root */
+    private static TurboGraphArray<String, String> createForest(int vertices) {
+        Random random = new Random(vertices);
+        TurboGraphArray<String, String> graph = new TurboGraphArray<>();
+        List<Vertex<String>> inserted = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            Vertex<String> vertex = graph.insertVertex("v" + i);
+            if (i % ROOT_EVERY != 0) {
+                graph.insertEdge(inserted.get(random.nextInt(i)), vertex, "e" + i);
+            }
+            inserted.add(vertex);
+        }
+        return graph;
+    }
+
+    private static void startToolkit() {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // already started by an earlier trial in the same fork
+        }
+    }
+
+    private static void runOnFxThread(Runnable task) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Platform.runLater(
+                () -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        error.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+        done.await();
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+}
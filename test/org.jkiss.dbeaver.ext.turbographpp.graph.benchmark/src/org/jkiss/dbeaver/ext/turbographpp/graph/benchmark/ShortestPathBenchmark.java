@@ -0,0 +1,222 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Entry;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.HeapAdaptablePriorityQueue;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path.ShortestPathGraph;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path.ShortestPathLandmarks;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path.ShortestPathSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point-to-point shortest path queries on a random directed graph with four edges per vertex and
+ * weights from 1 to 100 stored as text, like edge properties.
+ *
+ * <p>The legacy benchmark replays the former <code>ShortestPath</code> search (every vertex queued
+ * up front, weights parsed on each relaxation); <code>snapshot</code> is the cost of preparing the
+ * primitive graph, paid once per query in the graph view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    private static final int EDGES_PER_VERTEX = 4;
+    private static final int MAX_WEIGHT = 100;
+    private static final int QUERIES = 64;
+    private static final int LANDMARKS = 8;
+    private static final int PATH_COUNT = 5;
+
+    @State(Scope.Thread)
+    public static class GraphState {
+
+        @Param({"1000", "10000", "100000"})
+        public int vertices;
+
+        TurboGraphArray<String, String> graph;
+        ShortestPathSearch search;
+        ShortestPathLandmarks landmarks;
+        Queries queries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = createGraph(vertices);
+            search =
+                    new ShortestPathSearch(
+                            ShortestPathGraph.build(graph, ShortestPathBenchmark::weight));
+            landmarks = new ShortestPathLandmarks(search, LANDMARKS);
+            queries = new Queries(vertices);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LegacyState {
+
+        @Param({"1000", "10000"})
+        public int vertices;
+
+        TurboGraphArray<String, String> graph;
+        ShortestPathGraph<String, String> snapshot;
+        Queries queries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = createGraph(vertices);
+            snapshot = ShortestPathGraph.build(graph, ShortestPathBenchmark::weight);
+            queries = new Queries(vertices);
+        }
+    }
+
+    /* Fixed random source and target pairs, taken in turn */
+    static final class Queries {
+        final int[] sources = new int[QUERIES];
+        final int[] targets = new int[QUERIES];
+        int current;
+
+        Queries(int vertices) {
+            Random random = new Random(vertices + 1);
+            for (int i = 0; i < QUERIES; i++) {
+                sources[i] = random.nextInt(vertices);
+                targets[i] = random.nextInt(vertices);
+            }
+        }
+
+        int next() {
+            current = (current + 1) % QUERIES;
+            return current;
+        }
+    }
+
+    @Benchmark
+    public int legacyDijkstra(LegacyState state) {
+        Queries queries = state.queries;
+        int q = queries.next();
+        return legacyDistance(
+                state.graph,
+                state.snapshot.vertex(queries.sources[q]),
+                state.snapshot.vertex(queries.targets[q]));
+    }
+
+    @Benchmark
+    public ShortestPathGraph<String, String> snapshot(GraphState state) {
+        return ShortestPathGraph.build(state.graph, ShortestPathBenchmark::weight);
+    }
+
+    @Benchmark
+    public ShortestPathSearch.Path dijkstra(GraphState state) {
+        Queries queries = state.queries;
+        int q = queries.next();
+        return state.search.dijkstra(queries.sources[q], queries.targets[q]);
+    }
+
+    @Benchmark
+    public ShortestPathSearch.Path bidirectional(GraphState state) {
+        Queries queries = state.queries;
+        int q = queries.next();
+        return state.search.bidirectional(queries.sources[q], queries.targets[q]);
+    }
+
+    @Benchmark
+    public ShortestPathSearch.Path aStar(GraphState state) {
+        Queries queries = state.queries;
+        int q = queries.next();
+        return state.search.aStar(
+                queries.sources[q], queries.targets[q], state.landmarks.toward(queries.targets[q]));
+    }
+
+    @Benchmark
+    public List<ShortestPathSearch.Path> kShortest(GraphState state) {
+        Queries queries = state.queries;
+        int q = queries.next();
+        return state.search.kShortest(queries.sources[q], queries.targets[q], PATH_COUNT);
+    }
+
+    static int weight(String edge) {
+        return Integer.parseInt(edge.substring(edge.indexOf(':') + 1));
+    }
+
+    static TurboGraphArray<String, String> createGraph(int vertices) {
+        Random random = new Random(vertices);
+        TurboGraphArray<String, String> graph = new TurboGraphArray<>();
+        List<Vertex<String>> list = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            list.add(graph.insertVertex("v" + i));
+        }
+        for (int e = 0; e < vertices * EDGES_PER_VERTEX; e++) {
+            graph.insertEdge(
+                    list.get(random.nextInt(vertices)),
+                    list.get(random.nextInt(vertices)),
+                    "e" + e + ":" + (1 + random.nextInt(MAX_WEIGHT)));
+        }
+        return graph;
+    }
+
+    /* The former search: all vertices queued with an infinite key, weights parsed when relaxed */
+    private static int legacyDistance(
+            TurboGraphArray<String, String> graph, Vertex<String> start, Vertex<String> end) {
+        Map<Vertex<String>, Integer> d = new LinkedHashMap<>();
+        Map<Vertex<String>, Integer> cloud = new LinkedHashMap<>();
+        HeapAdaptablePriorityQueue<Integer, Vertex<String>> pq =
+                new HeapAdaptablePriorityQueue<>();
+        Map<Vertex<String>, Entry<Integer, Vertex<String>>> pqTokens = new LinkedHashMap<>();
+        for (Vertex<String> v : graph.vertices()) {
+            d.put(v, v.equals(start) ? 0 : Integer.MAX_VALUE);
+            pqTokens.put(v, pq.insert(d.get(v), v));
+        }
+        while (!pq.isEmpty()) {
+            Entry<Integer, Vertex<String>> entry = pq.removeMin();
+            Vertex<String> u = entry.getValue();
+            cloud.put(u, entry.getKey());
+            pqTokens.remove(u);
+            for (FxEdge<String, String> edge : graph.outboundEdges(u)) {
+                Vertex<String> v = graph.opposite(u, edge);
+                if (cloud.get(v) == null) {
+                    String element = edge.element();
+                    int wgt = Integer.valueOf(element.substring(element.indexOf(':') + 1));
+                    if (d.get(u) + wgt < d.get(v)) {
+                        d.put(v, d.get(u) + wgt);
+                        pq.replaceKey(pqTokens.get(v), d.get(v));
+                    }
+                }
+            }
+        }
+        return cloud.get(end);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.chart;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class HistogramBinsTest {
+
+    @Test
+    public void testEdgeValues() {
+        // width = 100 / 10 + 1 = 11, the last bin is cut at the maximum
+        HistogramBins bins = HistogramBins.of(new long[] {0, 10, 11, 98, 99, 100}, 6);
+
+        Assert.assertEquals(10, bins.size());
+        Assert.assertEquals(0, bins.binOf(0));
+        Assert.assertEquals(0, bins.binOf(10));
+        Assert.assertEquals(1, bins.binOf(11));
+        Assert.assertEquals(8, bins.binOf(98));
+        Assert.assertEquals(bins.size() - 1, bins.binOf(100));
+
+        LinkedHashMap<String, Long> data = bins.toStepData();
+        Assert.assertEquals(Long.valueOf(2), data.get("0~10"));
+        Assert.assertEquals(Long.valueOf(1), data.get("11~21"));
+        Assert.assertEquals(Long.valueOf(1), data.get("88~98"));
+        Assert.assertEquals(Long.valueOf(2), data.get("99~100"));
+
+        // Values of one bin: width 1, one bin per value
+        bins = HistogramBins.of(new long[] {5, 6, 6}, 3);
+        Assert.assertEquals(Map.of("5", 1L, "6", 2L), bins.toStepData());
+    }
+
+    @Test
+    public void testMaxInLastBin() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            long min = random.nextInt(2000) - 1000;
+            long max = min + random.nextInt(5000);
+            HistogramBins bins = new HistogramBins(min, max);
+            Assert.assertEquals(0, bins.binOf(min));
+            Assert.assertEquals(bins.size() - 1, bins.binOf(max));
+            Assert.assertTrue(bins.size() <= HistogramBins.MAX_BINS + 1);
+        }
+    }
+
+    @Test
+    public void testSingleValue() {
+        HistogramBins bins = HistogramBins.of(new long[] {-7, -7, -7}, 3);
+
+        Assert.assertEquals(1, bins.size());
+        Assert.assertEquals(Map.of("-7", 3L), bins.toStepData());
+
+        HistogramBins.Builder builder = new HistogramBins.Builder();
+        builder.add(-7);
+        builder.add(-7);
+        Assert.assertEquals(Map.of("-7", 2L), builder.build().toStepData());
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertNull(HistogramBins.of(new long[0], 0));
+        Assert.assertNull(new HistogramBins.Builder().build());
+    }
+
+    @Test
+    public void testServerCounts() {
+        HistogramBins bins = new HistogramBins(0, 20);
+        bins.addCount(0, 5);
+        bins.addCount(bins.size() - 1, 2);
+        // Out of range bins reported by the server are ignored
+        bins.addCount(-1, 100);
+        bins.addCount(bins.size(), 100);
+
+        long total = 0;
+        for (long count : bins.toStepData().values()) {
+            total += count;
+        }
+        Assert.assertEquals(7, total);
+    }
+
+    @Test
+    public void testStreamingNarrowRange() {
+        // Ranges narrower than the provisional bins are binned exactly, in any order
+        Random random = new Random(2);
+        for (int round = 0; round < 50; round++) {
+            int size = 1 + random.nextInt(5000);
+            long offset = random.nextInt(1_000_000) - 500_000;
+            int range = 1 + random.nextInt(HistogramBins.Builder.FINE_BINS);
+            long[] values = new long[size];
+            HistogramBins.Builder builder = new HistogramBins.Builder();
+            for (int i = 0; i < size; i++) {
+                values[i] = offset + random.nextInt(range);
+                builder.add(values[i]);
+            }
+            Assert.assertEquals(HistogramBins.of(values, size).toStepData(), builder.build().toStepData());
+        }
+    }
+
+    @Test
+    public void testStreamingWideRange() {
+        Random random = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            int size = 1 + random.nextInt(20000);
+            long[] values = new long[size];
+            HistogramBins.Builder builder = new HistogramBins.Builder();
+            for (int i = 0; i < size; i++) {
+                // Widening both upwards and downwards
+                values[i] = (long) (random.nextGaussian() * (i + 1) * 1000);
+                builder.add(values[i]);
+            }
+            HistogramBins exact = HistogramBins.of(values, size);
+            HistogramBins streamed = builder.build();
+            Assert.assertEquals(exact.getMin(), streamed.getMin());
+            Assert.assertEquals(exact.getMax(), streamed.getMax());
+
+            List<String> labels = new ArrayList<>(exact.toStepData().keySet());
+            Assert.assertEquals(labels, new ArrayList<>(streamed.toStepData().keySet()));
+
+            // Only values close to a bin boundary may be counted in the neighbour bin
+            long width = (exact.getMax() - exact.getMin()) / HistogramBins.MAX_BINS + 1;
+            long slack = 2 * (exact.getMax() - exact.getMin()) / HistogramBins.Builder.FINE_BINS + 2;
+            long total = 0;
+            for (String label : labels) {
+                long start = Long.parseLong(label.split(HistogramBins.RANGE_SEPARATOR + "(?=-?\\d)")[0]);
+                long end = Math.min(start + width - 1, exact.getMax());
+                long near = 0;
+                for (long value : values) {
+                    if ((value >= start - slack && value < start + slack) || (value > end - slack && value <= end + slack)) {
+                        near++;
+                    }
+                }
+                long difference = Math.abs(exact.toStepData().get(label) - streamed.toStepData().get(label));
+                Assert.assertTrue(label + ": " + difference + " > " + near, difference <= near);
+                total += streamed.toStepData().get(label);
+            }
+            Assert.assertEquals(size, total);
+        }
+    }
+}
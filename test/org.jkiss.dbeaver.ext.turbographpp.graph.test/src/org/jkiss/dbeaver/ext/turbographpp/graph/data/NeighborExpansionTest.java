@@ -0,0 +1,94 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class NeighborExpansionTest {
+
+    private static final String COLUMNS =
+        " RETURN id(r), type(r), id(startNode(r)), id(endNode(r)), properties(r),"
+            + " id(b), labels(b), properties(b)";
+
+    @Test
+    public void testKeysetPaging() {
+        NeighborExpansion expansion = new NeighborExpansion(" 7 ", NeighborExpansion.Direction.OUTGOING, null, 100);
+
+        Assert.assertEquals(
+            "MATCH (a)-[r]->(b) WHERE id(a) = 7" + COLUMNS + " ORDER BY id(r) LIMIT 100",
+            expansion.buildQuery());
+        Assert.assertTrue(expansion.hasMore());
+
+        // the next page starts after the last relationship read
+        expansion.advance(41, 100);
+        Assert.assertEquals(
+            "MATCH (a)-[r]->(b) WHERE id(a) = 7 AND id(r) > 41" + COLUMNS + " ORDER BY id(r) LIMIT 100",
+            expansion.buildQuery());
+        Assert.assertTrue(expansion.hasMore());
+
+        // an empty page keeps the position
+        expansion.advance(0, 0);
+        Assert.assertFalse(expansion.hasMore());
+        Assert.assertTrue(expansion.buildQuery().contains(" AND id(r) > 41 "));
+    }
+
+    @Test
+    public void testShortPage() {
+        NeighborExpansion expansion = new NeighborExpansion("7", NeighborExpansion.Direction.INCOMING, null, 100);
+        expansion.advance(12, 99);
+
+        Assert.assertFalse(expansion.hasMore());
+        Assert.assertTrue(expansion.buildQuery().startsWith("MATCH (a)<-[r]-(b) WHERE id(a) = 7 AND id(r) > 12 "));
+    }
+
+    @Test
+    public void testTypeQuoting() {
+        NeighborExpansion expansion = new NeighborExpansion(
+            "7", NeighborExpansion.Direction.OUTGOING, List.of("KNOWS", "has space", "back`tick"), 10);
+
+        Assert.assertTrue(expansion.buildQuery().startsWith(
+            "MATCH (a)-[r:`KNOWS`|`has space`|`back``tick`]->(b) WHERE id(a) = 7 "));
+        Assert.assertTrue(expansion.isSameFilter(
+            NeighborExpansion.Direction.OUTGOING, List.of("KNOWS", "has space", "back`tick")));
+        Assert.assertFalse(expansion.isSameFilter(NeighborExpansion.Direction.BOTH, List.of("KNOWS")));
+    }
+
+    @Test
+    public void testBothDirectionsDistinct() {
+        // a self-loop matches both directions, it must be counted once in the page
+        NeighborExpansion expansion = new NeighborExpansion("7", NeighborExpansion.Direction.BOTH, null, 100);
+        expansion.advance(41, 100);
+
+        Assert.assertEquals(
+            "MATCH (a)-[r]-(b) WHERE id(a) = 7 AND id(r) > 41 WITH DISTINCT r, b" + COLUMNS
+                + " ORDER BY id(r) LIMIT 100",
+            expansion.buildQuery());
+    }
+
+    @Test
+    public void testInvalidAnchor() {
+        try {
+            new NeighborExpansion("n1", NeighborExpansion.Direction.BOTH, null, 100);
+            Assert.fail("Non numeric node id accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TurboGraphArrayTest {
+
+    private TurboGraphArray<String, String> graph;
+
+    @Before
+    public void setUp() {
+        graph = new TurboGraphArray<>();
+    }
+
+    @Test
+    public void testAdd() {
+        Vertex<String> a = graph.insertVertex("a");
+        Vertex<String> b = graph.insertVertex("b");
+        Vertex<String> c = graph.insertVertex("c");
+        FxEdge<String, String> ab = graph.insertEdge(a, b, "ab");
+        FxEdge<String, String> bc = graph.insertEdge("b", "c", "bc");
+
+        Assert.assertEquals(3, graph.numVertices());
+        Assert.assertEquals(2, graph.numEdges());
+        Assert.assertEquals(List.of(a, b, c), new ArrayList<>(graph.vertices()));
+        Assert.assertEquals(List.of(ab, bc), new ArrayList<>(graph.edges()));
+
+        Assert.assertSame(a, ab.vertices()[0]);
+        Assert.assertSame(b, ab.vertices()[1]);
+        Assert.assertSame(c, graph.opposite(b, bc));
+        Assert.assertTrue(graph.areAdjacent(a, b));
+        Assert.assertFalse(graph.areAdjacent(b, a));
+        Assert.assertSame(bc, graph.getEdge(b, c));
+        Assert.assertNull(graph.getEdge(a, c));
+        Assert.assertSame(b, graph.getVertex("b"));
+        Assert.assertSame(ab, graph.getEdge("ab"));
+        Assert.assertEquals(List.of(ab), new ArrayList<>(graph.incomingEdges(b)));
+        Assert.assertEquals(List.of(bc), new ArrayList<>(graph.outboundEdges(b)));
+    }
+
+    @Test
+    public void testAddDuplicates() {
+        Vertex<String> a = graph.insertVertex("a");
+        Vertex<String> b = graph.insertVertex("b");
+        graph.insertEdge(a, b, "e");
+        try {
+            graph.insertVertex("a");
+            Assert.fail("Duplicate vertex inserted");
+        } catch (InvalidVertexException e) {
+            // expected
+        }
+
+        // An edge with the same element replaces the existing one
+        FxEdge<String, String> e = graph.insertEdge(b, a, "e");
+        Assert.assertEquals(1, graph.numEdges());
+        Assert.assertSame(b, e.vertices()[0]);
+        Assert.assertTrue(graph.outboundEdges(a).isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        Vertex<String> a = graph.insertVertex("a");
+        Vertex<String> b = graph.insertVertex("b");
+        Vertex<String> c = graph.insertVertex("c");
+        FxEdge<String, String> ab = graph.insertEdge(a, b, "ab");
+        FxEdge<String, String> bc = graph.insertEdge(b, c, "bc");
+        FxEdge<String, String> ca = graph.insertEdge(c, a, "ca");
+
+        Assert.assertEquals("ca", graph.removeEdge(ca));
+        Assert.assertEquals(2, graph.numEdges());
+        Assert.assertTrue(graph.incomingEdges(a).isEmpty());
+
+        // Removing a vertex removes its edges
+        Assert.assertEquals("b", graph.removeVertex(b));
+        Assert.assertEquals(2, graph.numVertices());
+        Assert.assertEquals(0, graph.numEdges());
+        Assert.assertNull(graph.getVertex("b"));
+        Assert.assertNull(graph.getEdge("ab"));
+        Assert.assertEquals(List.of(a, c), new ArrayList<>(graph.vertices()));
+
+        try {
+            graph.removeVertex(b);
+            Assert.fail("Removed vertex accepted");
+        } catch (InvalidVertexException e) {
+            // expected
+        }
+        try {
+            graph.removeEdge(bc);
+            Assert.fail("Removed edge accepted");
+        } catch (InvalidEdgeException e) {
+            // expected
+        }
+        Assert.assertNull(ab.vertices()[0]);
+    }
+
+    @Test
+    public void testGrowAndCompact() {
+        int count = 1000;
+        List<Vertex<String>> vertices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            vertices.add(graph.insertVertex("v" + i));
+        }
+        for (int i = 0; i < count; i++) {
+            graph.insertEdge(vertices.get(i), vertices.get((i + 1) % count), "e" + i);
+        }
+        Assert.assertEquals(count, graph.numVertices());
+        Assert.assertEquals(count, graph.numEdges());
+        Assert.assertEquals(count, graph.vertexIdBound());
+
+        // Removing most of the vertices compacts the ids, keeping the order
+        for (int i = 0; i < count; i++) {
+            if (i % 10 != 0) {
+                graph.removeVertex(vertices.get(i));
+            }
+        }
+        Assert.assertEquals(count / 10, graph.numVertices());
+        Assert.assertEquals(0, graph.numEdges());
+        Assert.assertTrue(graph.vertexIdBound() < count);
+        for (int i = 0; i < count / 10; i++) {
+            Vertex<String> vertex = vertices.get(i * 10);
+            Assert.assertSame(vertex, graph.vertexAt(graph.vertexId(vertex)));
+            if (i > 0) {
+                Assert.assertTrue(graph.vertexId(vertex) > graph.vertexId(vertices.get(i * 10 - 10)));
+            }
+        }
+
+        // Edges added after compaction connect the right vertices
+        for (int i = 0; i + 10 < count; i += 10) {
+            graph.insertEdge(vertices.get(i), vertices.get(i + 10), "n" + i);
+        }
+        for (int i = 0; i + 10 < count; i += 10) {
+            FxEdge<String, String> edge = graph.getEdge(vertices.get(i), vertices.get(i + 10));
+            Assert.assertEquals("n" + i, edge.element());
+        }
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 100; i++) {
+            graph.insertVertex("v" + i);
+        }
+        graph.insertEdge("v0", "v1", "e");
+        graph.clear();
+
+        Assert.assertEquals(0, graph.numVertices());
+        Assert.assertEquals(0, graph.numEdges());
+        Assert.assertTrue(graph.vertices().isEmpty());
+        Assert.assertNull(graph.getVertex("v0"));
+        graph.insertVertex("v0");
+        Assert.assertEquals(1, graph.numVertices());
+    }
+
+    @Test
+    public void testConcurrentRead() throws Exception {
+        int count = 2000;
+        Vertex<String> root = graph.insertVertex("root");
+        CountDownLatch started = new CountDownLatch(4);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                try {
+                    int lastEdges = 0;
+                    while (lastEdges < count) {
+                        // Readers never see an edge before its end points
+                        int edges = 0;
+                        for (FxEdge<String, String> edge : graph.outboundEdges(root)) {
+                            Assert.assertSame(root, edge.vertices()[0]);
+                            Assert.assertNotNull(edge.vertices()[1]);
+                            edges++;
+                        }
+                        Assert.assertTrue(graph.vertices().size() > edges);
+                        Assert.assertTrue(edges >= lastEdges);
+                        lastEdges = edges;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            Vertex<String> vertex = graph.insertVertex("v" + i);
+            graph.insertEdge(root, vertex, "e" + i);
+        }
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(30));
+            Assert.assertFalse(reader.isAlive());
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        Assert.assertEquals(count + 1, graph.numVertices());
+        Assert.assertEquals(count, graph.numEdges());
+    }
+}
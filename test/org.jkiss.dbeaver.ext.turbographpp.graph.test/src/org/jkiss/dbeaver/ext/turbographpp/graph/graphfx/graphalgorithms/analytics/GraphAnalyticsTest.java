@@ -0,0 +1,122 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.analytics;
+
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class GraphAnalyticsTest {
+
+    private static final double DELTA = 1e-9;
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        // one source per task on the small graphs, so the tasks are forked
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testPath() {
+        // v0 -> v1 -> v2 -> v3 -> v4
+        GraphAnalytics<String> analytics = createAnalytics(5, new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 4}});
+
+        Assert.assertArrayEquals(new double[] {1, 2, 2, 2, 1}, analytics.degree(), DELTA);
+        // v1 is on the paths from v0 to v2, v3, v4; v2 on the paths from v0, v1 to v3, v4
+        Assert.assertArrayEquals(new double[] {0, 3, 4, 3, 0}, analytics.betweenness(), DELTA);
+    }
+
+    @Test
+    public void testStar() {
+        // center v0 linked both ways to 4 leaves
+        int leaves = 4;
+        int[][] edges = new int[leaves * 2][];
+        for (int i = 0; i < leaves; i++) {
+            edges[i * 2] = new int[] {0, i + 1};
+            edges[i * 2 + 1] = new int[] {i + 1, 0};
+        }
+        GraphAnalytics<String> analytics = createAnalytics(leaves + 1, edges);
+
+        Assert.assertArrayEquals(new double[] {8, 2, 2, 2, 2}, analytics.degree(), DELTA);
+        // every ordered pair of distinct leaves goes through the center
+        Assert.assertArrayEquals(new double[] {leaves * (leaves - 1), 0, 0, 0, 0}, analytics.betweenness(), DELTA);
+    }
+
+    @Test
+    public void testSplitPaths() {
+        // two shortest paths from v0 to v3 share the dependency of v0 on v1 and v2
+        GraphAnalytics<String> analytics = createAnalytics(4, new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}});
+
+        Assert.assertArrayEquals(new double[] {0, 0.5, 0.5, 0}, analytics.betweenness(), DELTA);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        Random random = new Random(5);
+        int n = 200;
+        int[][] edges = new int[n * 4][];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new int[] {random.nextInt(n), random.nextInt(n)};
+        }
+        double[] parallel = createAnalytics(n, edges).betweenness();
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            GraphAnalytics<String> sequential =
+                new GraphAnalytics<>(createAnalytics(n, edges).getGraph(), single, () -> false);
+            Assert.assertArrayEquals(sequential.betweenness(), parallel, 1e-6);
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        GraphAnalytics<String> analytics = createAnalytics(0, new int[0][]);
+
+        Assert.assertEquals(0, analytics.degree().length);
+        Assert.assertEquals(0, analytics.betweenness().length);
+    }
+
+    private GraphAnalytics<String> createAnalytics(int vertexCount, int[][] edges) {
+        TurboGraphArray<String, String> graph = new TurboGraphArray<>();
+        for (int i = 0; i < vertexCount; i++) {
+            graph.insertVertex("v" + i);
+        }
+        for (int i = 0; i < edges.length; i++) {
+            graph.insertEdge("v" + edges[i][0], "v" + edges[i][1], "e" + i);
+        }
+        AnalyticsGraph<String> snapshot = AnalyticsGraph.build(graph);
+        for (int i = 0; i < vertexCount; i++) {
+            // indexes follow the insertion order, the expected arrays rely on it
+            Assert.assertEquals("v" + i, snapshot.vertex(i).element());
+        }
+        return new GraphAnalytics<>(snapshot, pool, () -> false);
+    }
+}
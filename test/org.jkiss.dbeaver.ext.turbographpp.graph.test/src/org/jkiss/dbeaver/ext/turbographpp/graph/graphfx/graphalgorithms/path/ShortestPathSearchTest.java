@@ -0,0 +1,235 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graphalgorithms.path;
+
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ShortestPathSearchTest {
+
+    @Test
+    public void testUniqueShortestPath() {
+        // 0 -> 1 -> 3 -> 4 (weight 6) beats 0 -> 2 -> 4 (7) and 0 -> 4 (10)
+        ShortestPathSearch search = createSearch(5, new int[][] {
+            {0, 1, 1}, {1, 3, 2}, {3, 4, 3}, {0, 2, 3}, {2, 4, 4}, {0, 4, 10}, {2, 3, 5}
+        });
+
+        ShortestPathSearch.Path dijkstra = search.dijkstra(0, 4);
+        Assert.assertEquals(6, dijkstra.getWeight());
+        Assert.assertArrayEquals(new int[] {0, 1, 3, 4}, dijkstra.getVertices());
+        Assert.assertEquals(dijkstra, search.bidirectional(0, 4));
+        Assert.assertEquals(dijkstra, search.aStar(0, 4, new ShortestPathLandmarks(search, 2).toward(4)));
+        Assert.assertEquals(dijkstra, search.kShortest(0, 4, 1).get(0));
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int n = 5 + random.nextInt(30);
+            int[][] edges = new int[n * 3][];
+            for (int i = 0; i < edges.length; i++) {
+                // Zero weights and parallel edges are allowed
+                edges[i] = new int[] {random.nextInt(n), random.nextInt(n), random.nextInt(20)};
+            }
+            ShortestPathSearch search = createSearch(n, edges);
+            ShortestPathLandmarks landmarks = new ShortestPathLandmarks(search, 3);
+
+            for (int source = 0; source < n; source++) {
+                long[] expected = referenceDistances(n, edges, source);
+                for (int target = 0; target < n; target++) {
+                    assertPath(search, source, target, expected[target], search.dijkstra(source, target));
+                    assertPath(search, source, target, expected[target], search.bidirectional(source, target));
+                    assertPath(search, source, target, expected[target],
+                        search.aStar(source, target, landmarks.toward(target)));
+                }
+                Assert.assertArrayEquals(expected, search.distances(source, false));
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        // 2 has no incoming edges, 3 is isolated
+        ShortestPathSearch search = createSearch(4, new int[][] {{0, 1, 1}, {2, 0, 1}});
+
+        Assert.assertNull(search.dijkstra(0, 2));
+        Assert.assertNull(search.bidirectional(0, 2));
+        Assert.assertNull(search.aStar(0, 2, new ShortestPathLandmarks(search, 2).toward(2)));
+        Assert.assertTrue(search.kShortest(0, 2, 3).isEmpty());
+        Assert.assertNull(search.bidirectional(0, 3));
+        Assert.assertTrue(search.kShortest(3, 0, 3).isEmpty());
+        Assert.assertEquals(ShortestPathSearch.UNREACHABLE, search.distances(0, false)[3]);
+    }
+
+    @Test
+    public void testSourceIsTarget() {
+        ShortestPathSearch search = createSearch(3, new int[][] {{0, 1, 1}, {1, 0, 1}, {1, 2, 1}});
+
+        for (ShortestPathSearch.Path path : new ShortestPathSearch.Path[] {
+            search.dijkstra(1, 1),
+            search.bidirectional(1, 1),
+            search.aStar(1, 1, vertex -> 0)
+        }) {
+            Assert.assertEquals(0, path.getWeight());
+            Assert.assertArrayEquals(new int[] {1}, path.getVertices());
+            Assert.assertEquals(0, path.getEdges().length);
+        }
+        List<ShortestPathSearch.Path> paths = search.kShortest(1, 1, 3);
+        Assert.assertEquals(1, paths.size());
+        Assert.assertEquals(0, paths.get(0).getEdges().length);
+    }
+
+    @Test
+    public void testKShortest() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            int n = 6;
+            int[][] edges = new int[14][];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = new int[] {random.nextInt(n), random.nextInt(n), 1 + random.nextInt(9)};
+            }
+            ShortestPathSearch search = createSearch(n, edges);
+            List<Long> expected = referencePathWeights(search, 0, n - 1);
+
+            for (int k : new int[] {1, 2, 3, expected.size(), expected.size() + 5}) {
+                List<ShortestPathSearch.Path> paths = search.kShortest(0, n - 1, k);
+                Assert.assertEquals(Math.min(k, expected.size()), paths.size());
+                Set<ShortestPathSearch.Path> distinct = new HashSet<>();
+                for (int i = 0; i < paths.size(); i++) {
+                    ShortestPathSearch.Path path = paths.get(i);
+                    assertPath(search, 0, n - 1, expected.get(i), path);
+                    Assert.assertTrue("Path has a loop: " + path, isLoopless(path));
+                    Assert.assertTrue("Duplicate path: " + path, distinct.add(path));
+                }
+            }
+        }
+    }
+
+    private static ShortestPathSearch createSearch(int vertexCount, int[][] edges) {
+        TurboGraphArray<String, String> graph = new TurboGraphArray<>();
+        for (int i = 0; i < vertexCount; i++) {
+            graph.insertVertex("v" + i);
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        for (int i = 0; i < edges.length; i++) {
+            String element = "e" + i;
+            graph.insertEdge("v" + edges[i][0], "v" + edges[i][1], element);
+            weights.put(element, edges[i][2]);
+        }
+        ShortestPathGraph<String, String> snapshot = ShortestPathGraph.build(graph, weights::get);
+        for (int i = 0; i < vertexCount; i++) {
+            // Ids follow the insertion order, the tests rely on it
+            Assert.assertEquals(i, snapshot.indexOf(graph.getVertex("v" + i)));
+        }
+        return new ShortestPathSearch(snapshot);
+    }
+
+    /* Checks that the path is a valid source-target walk of the expected weight */
+    private static void assertPath(
+            ShortestPathSearch search, int source, int target, long expectedWeight, ShortestPathSearch.Path path) {
+        if (expectedWeight == ShortestPathSearch.UNREACHABLE) {
+            Assert.assertNull(path);
+            return;
+        }
+        Assert.assertNotNull(source + " -> " + target, path);
+        Assert.assertEquals(source + " -> " + target, expectedWeight, path.getWeight());
+        ShortestPathGraph<?, ?> graph = search.getGraph();
+        int[] vertices = path.getVertices();
+        int[] edges = path.getEdges();
+        Assert.assertEquals(edges.length + 1, vertices.length);
+        Assert.assertEquals(source, vertices[0]);
+        Assert.assertEquals(target, vertices[vertices.length - 1]);
+        long weight = 0;
+        for (int i = 0; i < edges.length; i++) {
+            Assert.assertEquals(vertices[i], graph.source(edges[i]));
+            Assert.assertEquals(vertices[i + 1], graph.target(edges[i]));
+            weight += graph.weight(edges[i]);
+        }
+        Assert.assertEquals(expectedWeight, weight);
+    }
+
+    /* Plain O(n^2) Dijkstra */
+    private static long[] referenceDistances(int n, int[][] edges, int source) {
+        long[] distance = new long[n];
+        Arrays.fill(distance, ShortestPathSearch.UNREACHABLE);
+        boolean[] done = new boolean[n];
+        distance[source] = 0;
+        for (int round = 0; round < n; round++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && distance[v] != ShortestPathSearch.UNREACHABLE && (u < 0 || distance[v] < distance[u])) {
+                    u = v;
+                }
+            }
+            if (u < 0) {
+                break;
+            }
+            done[u] = true;
+            for (int[] edge : edges) {
+                if (edge[0] == u && distance[u] + edge[2] < distance[edge[1]]) {
+                    distance[edge[1]] = distance[u] + edge[2];
+                }
+            }
+        }
+        return distance;
+    }
+
+    /* Weights of all loopless paths, by depth-first enumeration */
+    private static List<Long> referencePathWeights(ShortestPathSearch search, int source, int target) {
+        List<Long> weights = new ArrayList<>();
+        collectPaths(search.getGraph(), source, target, new boolean[search.getGraph().vertexCount()], 0, weights);
+        Collections.sort(weights);
+        return weights;
+    }
+
+    private static void collectPaths(
+            ShortestPathGraph<?, ?> graph, int vertex, int target, boolean[] visited, long weight, List<Long> weights) {
+        if (vertex == target) {
+            weights.add(weight);
+            return;
+        }
+        visited[vertex] = true;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.source(e) == vertex && !visited[graph.target(e)]) {
+                collectPaths(graph, graph.target(e), target, visited, weight + graph.weight(e), weights);
+            }
+        }
+        visited[vertex] = false;
+    }
+
+    private static boolean isLoopless(ShortestPathSearch.Path path) {
+        Set<Integer> vertices = new HashSet<>();
+        for (int vertex : path.getVertices()) {
+            if (!vertices.add(vertex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
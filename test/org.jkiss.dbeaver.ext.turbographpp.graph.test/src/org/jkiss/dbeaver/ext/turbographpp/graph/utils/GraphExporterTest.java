@@ -0,0 +1,186 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2024 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.turbographpp.graph.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.CypherNode;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphBatch;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphClusters;
+import org.jkiss.dbeaver.ext.turbographpp.graph.data.GraphDataModel;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.FxEdge;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.TurboGraphArray;
+import org.jkiss.dbeaver.ext.turbographpp.graph.graphfx.graph.Vertex;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class GraphExporterTest {
+
+    private Path folder;
+    private TurboGraphArray<CypherNode, CypherEdge> graph;
+    private GraphDataModel model;
+    private GraphClusters clusters;
+
+    @Before
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("graph-export");
+        graph = new TurboGraphArray<>();
+        model = new GraphDataModel();
+        clusters = new GraphClusters();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(folder)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(folder);
+    }
+
+    @Test
+    public void testClusteredGraph() throws Exception {
+        // n1 and n2 are drawn, n3 and n4 are hidden in a cluster
+        drawNode("n1");
+        drawNode("n2");
+        drawEdge("e1", "n1", "n2");
+        GraphBatch hidden = new GraphBatch();
+        hidden.addNode("n3", List.of("Person"), properties("n3"));
+        hidden.addNode("n4", List.of("Person"), properties("n4"));
+        hidden.addEdge("e2", List.of("KNOWS"), "n3", "n4", properties("e2"));
+        hidden.addEdge("e3", List.of("KNOWS"), "n1", "n3", properties("e3"));
+        // the end node of e4 is not in the result
+        hidden.addEdge("e4", List.of("KNOWS"), "n4", "n99", properties("e4"));
+        for (GraphBatch.NodeData node : hidden.getNodes()) {
+            clusters.addNode(node);
+        }
+        for (GraphBatch.EdgeData edge : hidden.getEdges()) {
+            clusters.addEdge(edge);
+        }
+
+        // the view draws the cluster and its link, outside the data model
+        Vertex<CypherNode> cluster = graph.insertVertex(
+            new CypherNode(GraphClusters.CLUSTER_ID_PREFIX + "Person", List.of("Person"), properties("c"), "", 0));
+        graph.insertEdge(
+            model.getNode("n1"),
+            cluster,
+            new CypherEdge(GraphClusters.LINK_ID_PREFIX + "n1", List.of("KNOWS (1)"), properties("l"), "n1",
+                cluster.element().getID()));
+
+        List<JsonObject> lines = exportJsonLines(new GraphExporter(GraphExportFormat.JSONL, model, clusters));
+
+        Assert.assertEquals(List.of("n1", "n2", "n3", "n4", "e1", "e2", "e3"), ids(lines));
+        JsonObject hiddenNode = lines.get(2);
+        Assert.assertEquals("node", hiddenNode.get("type").getAsString());
+        Assert.assertEquals("Person", hiddenNode.getAsJsonArray("labels").get(0).getAsString());
+        Assert.assertEquals("n3", hiddenNode.getAsJsonObject("properties").get("name").getAsString());
+        JsonObject hiddenEdge = lines.get(6);
+        Assert.assertEquals("n1", hiddenEdge.get("start").getAsString());
+        Assert.assertEquals("n3", hiddenEdge.get("end").getAsString());
+    }
+
+    @Test
+    public void testReleasedElements() throws Exception {
+        // a node released from its cluster is in the model and exported once
+        GraphBatch batch = new GraphBatch();
+        batch.addNode("n1", List.of("Person"), properties("n1"));
+        batch.addNode("n2", List.of("Person"), properties("n2"));
+        batch.addEdge("e1", List.of("KNOWS"), "n1", "n2", properties("e1"));
+        for (GraphBatch.NodeData node : batch.getNodes()) {
+            clusters.addNode(node);
+        }
+        clusters.addEdge(batch.getEdges().get(0));
+        for (GraphBatch.NodeData node : clusters.expand(clusters.getClusters().iterator().next().getId(), 10)) {
+            drawNode(node.getId());
+        }
+        for (GraphBatch.EdgeData edge : clusters.releaseEdges(id -> model.getNode(id) != null)) {
+            drawEdge(edge.getId(), edge.getStartNodeID(), edge.getEndNodeID());
+        }
+
+        List<JsonObject> lines = exportJsonLines(new GraphExporter(GraphExportFormat.JSONL, model, clusters));
+
+        Assert.assertEquals(List.of("n1", "n2", "e1"), ids(lines));
+    }
+
+    @Test
+    public void testCsvFiles() throws Exception {
+        drawNode("n1");
+        GraphBatch hidden = new GraphBatch();
+        hidden.addNode("n2", List.of("Person"), properties("n2"));
+        hidden.addEdge("e1", List.of("KNOWS"), "n1", "n2", properties("e1"));
+        clusters.addNode(hidden.getNodes().get(0));
+        clusters.addEdge(hidden.getEdges().get(0));
+
+        Path nodeFile = folder.resolve("nodes.csv");
+        Path edgeFile = folder.resolve("edges.csv");
+        Assert.assertTrue(new GraphExporter(GraphExportFormat.CSV, model, clusters)
+            .export(new VoidProgressMonitor(), nodeFile, edgeFile));
+
+        // header and one line per element
+        Assert.assertEquals(3, Files.readAllLines(nodeFile, StandardCharsets.UTF_8).size());
+        Assert.assertEquals(2, Files.readAllLines(edgeFile, StandardCharsets.UTF_8).size());
+    }
+
+    private void drawNode(String id) {
+        Vertex<CypherNode> vertex = graph.insertVertex(new CypherNode(id, List.of("Person"), properties(id), "", 30));
+        model.putNode(id, vertex.element().getLabels(), vertex);
+    }
+
+    private void drawEdge(String id, String start, String end) {
+        FxEdge<CypherEdge, CypherNode> edge = graph.insertEdge(
+            model.getNode(start), model.getNode(end), new CypherEdge(id, List.of("KNOWS"), properties(id), start, end));
+        model.putEdge(id, edge.element().getTypes(), edge);
+    }
+
+    private List<JsonObject> exportJsonLines(GraphExporter exporter) throws Exception {
+        Path file = folder.resolve("graph.jsonl");
+        Assert.assertTrue(exporter.export(new VoidProgressMonitor(), file, null));
+        List<JsonObject> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lines.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        return lines;
+    }
+
+    private static List<String> ids(List<JsonObject> lines) {
+        List<String> ids = new ArrayList<>();
+        for (JsonObject line : lines) {
+            ids.add(line.get("id").getAsString());
+        }
+        return ids;
+    }
+
+    private static LinkedHashMap<String, Object> properties(String name) {
+        LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+        properties.put("name", name);
+        return properties;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QMHistoryStoreTest {
+
+    @Test
+    public void testQueryFingerprint() {
+        Assert.assertEquals("select * from t1 where id = ? and name = ?",
+            QMUtils.normalizeQuery("SELECT *\n  FROM t1 -- comment\nWHERE id = 10 AND name = 'O''Brien';"));
+        Assert.assertEquals("select \"Col1\" from t where id in (?)",
+            QMUtils.normalizeQuery("select \"Col1\" /* block */ from t where id in (1, 2, 3)"));
+        Assert.assertEquals(
+            QMUtils.getQueryFingerprint("select * from t where x = 1.5e3"),
+            QMUtils.getQueryFingerprint("SELECT * FROM t WHERE x = 42"));
+        Assert.assertNotEquals(
+            QMUtils.getQueryFingerprint("select * from t1"),
+            QMUtils.getQueryFingerprint("select * from t2"));
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        final long time = System.currentTimeMillis();
+        QMLatencyHistogram histogram = new QMLatencyHistogram(1);
+        for (int i = 1; i <= 10000; i++) {
+            histogram.add(time, i, 1, i % 100 == 0);
+        }
+        // Too old, must be ignored
+        histogram.add(time - QMLatencyHistogram.WINDOW_PERIOD * QMLatencyHistogram.WINDOW_COUNT, 1000000, 1, false);
+
+        QMQueryStatistics statistics = histogram.getStatistics(time);
+        Assert.assertEquals(10000, statistics.getExecuteCount());
+        Assert.assertEquals(100, statistics.getErrorCount());
+        Assert.assertEquals(10000, statistics.getRowCount());
+        Assert.assertEquals(5000, statistics.getLatencyP50(), 5000 * 0.07);
+        Assert.assertEquals(9500, statistics.getLatencyP95(), 9500 * 0.07);
+        Assert.assertEquals(9900, statistics.getLatencyP99(), 9900 * 0.07);
+        Assert.assertTrue(histogram.isEmpty(time + QMLatencyHistogram.WINDOW_PERIOD * QMLatencyHistogram.WINDOW_COUNT));
+    }
+
+    @Test
+    public void testEventRingBuffer() {
+        QMEventRingBuffer buffer = new QMEventRingBuffer(10);
+        List<QMMetaEvent> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            events.add(createExecution(i, "select " + i, "ds"));
+        }
+        buffer.addAll(events.subList(0, 5));
+        Assert.assertFalse(buffer.isWrapped());
+        Assert.assertEquals(events.subList(0, 5), buffer.getEvents());
+        buffer.addAll(events.subList(5, 25));
+        Assert.assertTrue(buffer.isWrapped());
+        Assert.assertEquals(events.subList(15, 25), buffer.getEvents());
+    }
+
+    @Test
+    public void testHistoryStore() throws Exception {
+        File folder = Files.createTempDirectory("qm-history").toFile();
+        try {
+            QMHistoryStore store = new QMHistoryStore(folder, 0);
+            List<QMMetaEvent> events = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                events.add(createExecution(i, i % 2 == 0 ? "select * from orders where id = " + i : "update customers set name = 'n" + i + "'", i % 3 == 0 ? "ds1" : "ds2"));
+            }
+            // Listeners get fresh events of each batch first
+            for (int i = 0; i < events.size(); i += 100) {
+                List<QMMetaEvent> batch = new ArrayList<>(events.subList(i, i + 100));
+                Collections.reverse(batch);
+                store.metaInfoChanged(new VoidProgressMonitor(), batch);
+            }
+            QMQueryStatistics statistics = store.getStatistics(QMUtils.getQueryFingerprint("SELECT * FROM orders WHERE id = 1"));
+            Assert.assertNotNull(statistics);
+            Assert.assertEquals(500, statistics.getExecuteCount());
+            store.dispose();
+
+            store = new QMHistoryStore(folder, 0);
+            try {
+                List<QMMetaEvent> all = readAll(store, new QMEventCriteria(), Long.MAX_VALUE);
+                Assert.assertEquals(1000, all.size());
+                // Newest first
+                Assert.assertEquals("select * from orders where id = 998", all.get(1).getObject().getText());
+
+                QMEventCriteria criteria = new QMEventCriteria();
+                criteria.setQueryFingerprint(QMUtils.getQueryFingerprint("update customers set name = 'x'"));
+                Assert.assertEquals(500, readAll(store, criteria, Long.MAX_VALUE).size());
+
+                criteria = new QMEventCriteria();
+                criteria.setSearchString("ID = 99");
+                criteria.setContainerId("ds1");
+                // Selects of ids 990-998 match, but only 990 and 996 belong to ds1
+                Assert.assertEquals(2, readAll(store, criteria, Long.MAX_VALUE).size());
+
+                criteria = new QMEventCriteria();
+                criteria.setContainerId("unknown");
+                Assert.assertEquals(0, readAll(store, criteria, Long.MAX_VALUE).size());
+
+                // Executions which are still in memory are skipped
+                Assert.assertEquals(100, readAll(store, new QMEventCriteria(), BASE_TIME + 100 * 1000).size());
+            } finally {
+                store.dispose();
+            }
+        } finally {
+            File[] files = folder.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Assert.assertTrue(file.delete());
+                }
+            }
+            Assert.assertTrue(folder.delete());
+        }
+    }
+
+    @Test
+    public void testScrollHistoryCursor() throws Exception {
+        File folder = Files.createTempDirectory("qm-history").toFile();
+        try {
+            QMHistoryStore store = new QMHistoryStore(folder, 0);
+            try {
+                List<QMMetaEvent> events = new ArrayList<>();
+                for (int i = 0; i < 350; i++) {
+                    events.add(createExecution(i, "select " + i, "ds"));
+                }
+                List<QMMetaEvent> stored = new ArrayList<>(events.subList(0, 300));
+                Collections.reverse(stored);
+                store.metaInfoChanged(new VoidProgressMonitor(), stored);
+                // Newest first, like past events of the meta handler
+                List<QMMetaEvent> memory = new ArrayList<>(events.subList(300, 350));
+                Collections.reverse(memory);
+                List<QMMetaEvent> history = readAll(store, new QMEventCriteria(), BASE_TIME + 300 * 1000);
+                Assert.assertEquals(300, history.size());
+
+                VoidProgressMonitor monitor = new VoidProgressMonitor();
+                try (QMEventCursor cursor = openConcatCursor(store, memory)) {
+                    cursor.scroll(0, monitor);
+                    Assert.assertSame(memory.get(0), cursor.nextEvent(monitor));
+                    // Skip in-memory events only
+                    cursor.scroll(30, monitor);
+                    Assert.assertSame(memory.get(30), cursor.nextEvent(monitor));
+                    // Skip the rest of in-memory events and the first stored ones
+                    cursor.scroll(60, monitor);
+                    Assert.assertEquals(history.get(10).getObject().getText(), cursor.nextEvent(monitor).getObject().getText());
+                    try {
+                        cursor.scroll(10, monitor);
+                        Assert.fail("Cursor scrolled back");
+                    } catch (DBException e) {
+                        // expected
+                    }
+                    cursor.scroll(349, monitor);
+                    Assert.assertEquals(history.get(299).getObject().getText(), cursor.nextEvent(monitor).getObject().getText());
+                    Assert.assertFalse(cursor.hasNextEvent(monitor));
+                }
+
+                // Scroll straight into stored events
+                try (QMEventCursor cursor = openConcatCursor(store, memory)) {
+                    cursor.scroll(100, monitor);
+                    Assert.assertEquals(history.get(50).getObject().getText(), cursor.nextEvent(monitor).getObject().getText());
+                }
+
+                try (QMEventCursor cursor = openConcatCursor(store, memory)) {
+                    cursor.scroll(351, monitor);
+                    Assert.fail("Cursor scrolled out of range");
+                } catch (DBException e) {
+                    // expected
+                }
+            } finally {
+                store.dispose();
+            }
+        } finally {
+            File[] files = folder.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Assert.assertTrue(file.delete());
+                }
+            }
+            Assert.assertTrue(folder.delete());
+        }
+    }
+
+    private static final long BASE_TIME = System.currentTimeMillis() - 60 * 60 * 1000L;
+
+    private static QMEventCursor openConcatCursor(QMHistoryStore store, List<QMMetaEvent> memory) {
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setObjectTypes(new QMObjectType[] {QMObjectType.query});
+        criteria.setQueryTypes(new DBCExecutionPurpose[] {DBCExecutionPurpose.USER});
+        return new QMControllerImpl.ConcatCursor(
+            new QMUtils.ListCursorImpl(new ArrayList<>(memory)),
+            store.openCursor(criteria, null, BASE_TIME + 300 * 1000));
+    }
+
+    private static List<QMMetaEvent> readAll(QMHistoryStore store, QMEventCriteria criteria, long beforeTime) throws Exception {
+        criteria.setObjectTypes(new QMObjectType[] {QMObjectType.query});
+        criteria.setQueryTypes(new DBCExecutionPurpose[] {DBCExecutionPurpose.USER});
+        List<QMMetaEvent> events = new ArrayList<>();
+        try (QMEventCursor cursor = store.openCursor(criteria, null, beforeTime)) {
+            while (cursor.hasNextEvent(new VoidProgressMonitor())) {
+                events.add(cursor.nextEvent(new VoidProgressMonitor()));
+            }
+        }
+        return events;
+    }
+
+    private static QMMetaEvent createExecution(int index, String query, String containerId) {
+        long openTime = BASE_TIME + index * 1000L;
+        QMMSessionInfo session = new QMMSessionInfo(openTime, 0, containerId, containerId, "driver", null, "main", "context", false);
+        QMMStatementInfo statement = new QMMStatementInfo(openTime, openTime + 10, session, DBCExecutionPurpose.USER);
+        QMMStatementExecuteInfo execution = new QMMStatementExecuteInfo(openTime, openTime + 10 + index % 50, statement, query, 1, 0, null, 0, 0, false);
+        return new QMMetaEvent(execution, QMMetaEvent.Action.END);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StreamingAggregatesTest {
+
+    @Test
+    public void testTDigestQuantiles() {
+        Random random = new Random(1);
+        int count = 200000;
+        double[] values = new double[count];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextGaussian() * 10 + Math.exp(random.nextDouble() * 3);
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+        Assert.assertEquals(count, digest.size());
+        for (double q : new double[] {0.01, 0.25, 0.5, 0.75, 0.99}) {
+            double exact = values[(int) (q * (count - 1))];
+            Assert.assertEquals("Quantile " + q, exact, digest.quantile(q), 0.05);
+        }
+        Assert.assertTrue(Double.isNaN(new TDigest().quantile(0.5)));
+    }
+
+    @Test
+    public void testHyperLogLog() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000000; i++) {
+            hll.addDouble(i % 300000);
+        }
+        Assert.assertEquals(300000, hll.estimate(), 300000 * 0.03);
+
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            small.addObject("value" + i);
+        }
+        Assert.assertEquals(100, small.estimate(), 2);
+    }
+
+    @Test
+    public void testMedian() {
+        FunctionMedian median = new FunctionMedian();
+        for (int i = 1; i <= 4; i++) {
+            median.accumulate(i, false);
+        }
+        Assert.assertEquals(2.5, (Double) median.getResult(4), 0);
+
+        FunctionMedian integers = new FunctionMedian();
+        for (int value : new int[] {3, 1, 2}) {
+            integers.accumulate(value, false);
+        }
+        Assert.assertEquals(2, integers.getResult(3));
+
+        FunctionMedian decimals = new FunctionMedian();
+        for (String value : new String[] {"1.10", "3.30", "2.20"}) {
+            decimals.accumulate(new BigDecimal(value), false);
+        }
+        Assert.assertEquals(new BigDecimal("2.20"), decimals.getResult(3));
+
+        FunctionMedian strings = new FunctionMedian();
+        for (String value : new String[] {"b", "a", "c"}) {
+            strings.accumulate(value, true);
+        }
+        Assert.assertEquals("b", strings.getResult(3));
+
+        FunctionMedian large = new FunctionMedian();
+        for (int i = 0; i <= 100000; i++) {
+            large.accumulate(i, false);
+        }
+        Assert.assertEquals(50000, (Double) large.getResult(100001), 100);
+    }
+
+    @Test
+    public void testCountDistinct() {
+        FunctionCountDistinct exact = new FunctionCountDistinct();
+        for (int i = 0; i < 1000; i++) {
+            exact.accumulate("value" + (i % 123), false);
+        }
+        Assert.assertEquals(123, exact.getResult(1000));
+
+        FunctionCountDistinct estimated = new FunctionCountDistinct();
+        for (int i = 0; i < 100000; i++) {
+            estimated.accumulate(i % 40000, false);
+        }
+        Assert.assertEquals(40000, ((Number) estimated.getResult(100000)).doubleValue(), 40000 * 0.03);
+    }
+
+    @Test
+    public void testCountDistinctNumbers() {
+        FunctionCountDistinct sameValue = new FunctionCountDistinct();
+        Assert.assertTrue(sameValue.accumulate(1, false));
+        Assert.assertFalse(sameValue.accumulate(1L, false));
+        Assert.assertFalse(sameValue.accumulate(1.0, false));
+        Assert.assertFalse(sameValue.accumulate(new BigDecimal("1.00"), false));
+        Assert.assertFalse(sameValue.accumulate(BigInteger.ONE, false));
+        Assert.assertTrue(sameValue.accumulate(new BigDecimal("1.50"), false));
+        Assert.assertFalse(sameValue.accumulate(new BigDecimal("1.5"), false));
+        Assert.assertEquals(2, sameValue.getResult(7));
+
+        // Above 2^53 neighbouring longs are the same double
+        long large = 1L << 53;
+        FunctionCountDistinct largeValues = new FunctionCountDistinct();
+        largeValues.accumulate(large, false);
+        largeValues.accumulate(large + 1, false);
+        largeValues.accumulate(BigInteger.valueOf(large + 2), false);
+        largeValues.accumulate(new BigDecimal(large + 3), false);
+        largeValues.accumulate(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), false);
+        largeValues.accumulate(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.valueOf(2)), false);
+        Assert.assertEquals(6, largeValues.getResult(6));
+    }
+
+    @Test
+    public void testStdDev() {
+        FunctionStdDev stdDev = new FunctionStdDev();
+        Assert.assertTrue(stdDev.accumulate(1.0));
+        Assert.assertNull(stdDev.getResult(1));
+        for (int i = 2; i <= 5; i++) {
+            stdDev.accumulate(i, false);
+        }
+        Assert.assertEquals(Math.sqrt(2.5), (Double) stdDev.getResult(5), 1e-12);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultSetSortIndexTest {
+
+    private DBDAttributeBinding[] attributes;
+    private ResultSetSortIndex sortIndex;
+
+    @Before
+    public void setUp() {
+        attributes = new DBDAttributeBinding[3];
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = Mockito.mock(DBDAttributeBinding.class);
+            Mockito.when(attributes[i].getOrdinalPosition()).thenReturn(i);
+        }
+        sortIndex = new ResultSetSortIndex();
+    }
+
+    @Test
+    public void testNumberRanks() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {3},
+            new Object[] {1.5},
+            new Object[] {-1L},
+            new Object[] {1.5f},
+            new Object[] {0});
+
+        // Equal values keep the fetch order
+        Assert.assertArrayEquals(new int[] {2, 4, 1, 3, 0}, getOrder(rows, 0, false));
+    }
+
+    @Test
+    public void testStringRanks() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {"b"},
+            new Object[] {"a"},
+            new Object[] {"c"},
+            new Object[] {"a"});
+
+        Assert.assertArrayEquals(new int[] {1, 3, 0, 2}, getOrder(rows, 0, false));
+    }
+
+    @Test
+    public void testObjectRanks() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {new Timestamp(3000)},
+            new Object[] {new Timestamp(1000)},
+            new Object[] {new Timestamp(2000)});
+
+        Assert.assertArrayEquals(new int[] {1, 2, 0}, getOrder(rows, 0, false));
+    }
+
+    @Test
+    public void testNulls() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {null},
+            new Object[] {2},
+            new Object[] {null},
+            new Object[] {1});
+
+        // Nulls go last in ascending order and first in descending order
+        Assert.assertArrayEquals(new int[] {3, 1, 0, 2}, getOrder(rows, 0, false));
+        Assert.assertArrayEquals(new int[] {0, 2, 1, 3}, getOrder(rows, 0, true));
+    }
+
+    @Test
+    public void testNaN() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {Double.NaN},
+            new Object[] {2.0},
+            new Object[] {null},
+            new Object[] {Float.NaN},
+            new Object[] {Double.POSITIVE_INFINITY},
+            new Object[] {1});
+
+        // NaN ranks with nulls, after infinity, whatever the comparison order
+        Assert.assertArrayEquals(new int[] {5, 1, 4, 0, 2, 3}, getOrder(rows, 0, false));
+        Assert.assertArrayEquals(new int[] {0, 2, 3, 4, 1, 5}, getOrder(rows, 0, true));
+
+        // Same with values compared as objects
+        rows = createRows(
+            new Object[] {Double.NaN},
+            new Object[] {new Timestamp(2000)},
+            new Object[] {null},
+            new Object[] {new Timestamp(1000)});
+        Assert.assertArrayEquals(new int[] {3, 1, 0, 2}, getOrder(rows, 0, false));
+    }
+
+    @Test
+    public void testDescending() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {"b"},
+            new Object[] {"a"},
+            new Object[] {"c"},
+            new Object[] {"a"});
+
+        // Equal values keep the fetch order in descending order too
+        Assert.assertArrayEquals(new int[] {2, 0, 1, 3}, getOrder(rows, 0, true));
+    }
+
+    @Test
+    public void testMultiColumnOrder() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {"b", 1, 10},
+            new Object[] {"a", 2, 10},
+            new Object[] {"b", 0, 10},
+            new Object[] {"a", 1, 20},
+            new Object[] {"a", 1, 10},
+            new Object[] {"b", 1, 20});
+
+        ResultSetSortIndex.Ordering ordering = new ResultSetSortIndex.Ordering(
+            attributes,
+            new DBDAttributeBinding[] {attributes[0], attributes[1], attributes[2]},
+            new boolean[] {false, true, false});
+        int[] order = sortIndex.getOrder(new VoidProgressMonitor(), rows, ordering);
+
+        Assert.assertArrayEquals(new int[] {1, 4, 3, 0, 5, 2}, order);
+    }
+
+    @Test
+    public void testNoOrdering() {
+        List<ResultSetRow> rows = createRows(
+            new Object[] {2},
+            new Object[] {1});
+
+        ResultSetSortIndex.Ordering ordering = new ResultSetSortIndex.Ordering(
+            attributes, new DBDAttributeBinding[0], new boolean[0]);
+
+        Assert.assertArrayEquals(new int[] {0, 1}, sortIndex.getOrder(new VoidProgressMonitor(), rows, ordering));
+    }
+
+    @Test
+    public void testInvalidate() {
+        Object[] changedRow = {3};
+        List<ResultSetRow> rows = createRows(
+            new Object[] {1},
+            new Object[] {2},
+            changedRow);
+        Assert.assertArrayEquals(new int[] {0, 1, 2}, getOrder(rows, 0, false));
+
+        // Ranks are cached until the index is invalidated
+        changedRow[0] = 0;
+        Assert.assertArrayEquals(new int[] {0, 1, 2}, getOrder(rows, 0, false));
+
+        sortIndex.invalidate();
+        Assert.assertArrayEquals(new int[] {2, 0, 1}, getOrder(rows, 0, false));
+    }
+
+    @Test
+    public void testRowsOutOfSync() {
+        List<ResultSetRow> rows = new ArrayList<>();
+        rows.add(new ResultSetRow(0, new Object[] {1}));
+        rows.add(new ResultSetRow(5, new Object[] {2}));
+
+        Assert.assertNull(getOrder(rows, 0, false));
+    }
+
+    private int[] getOrder(List<ResultSetRow> rows, int column, boolean descending) {
+        ResultSetSortIndex.Ordering ordering = new ResultSetSortIndex.Ordering(
+            attributes,
+            new DBDAttributeBinding[] {attributes[column]},
+            new boolean[] {descending});
+        return sortIndex.getOrder(new VoidProgressMonitor(), rows, ordering);
+    }
+
+    private static List<ResultSetRow> createRows(Object[]... values) {
+        List<ResultSetRow> rows = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            rows.add(new ResultSetRow(i, values[i]));
+        }
+        return rows;
+    }
+}
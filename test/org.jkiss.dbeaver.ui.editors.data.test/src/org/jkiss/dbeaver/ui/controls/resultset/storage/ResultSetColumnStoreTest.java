@@ -0,0 +1,269 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2021 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.storage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public class ResultSetColumnStoreTest {
+
+    private static final int CAPACITY = 200;
+
+    private File spillDirectory;
+    private SpillFile spillFile;
+
+    @Before
+    public void setUp() throws IOException {
+        spillDirectory = Files.createTempDirectory("resultset-test").toFile();
+        spillFile = new SpillFile(spillDirectory);
+    }
+
+    @After
+    public void tearDown() {
+        spillFile.close();
+        File[] files = spillDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        spillDirectory.delete();
+    }
+
+    @Test
+    public void testSpillFileAppend() throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+        first.putLong(1).putLong(2).flip();
+        ByteBuffer second = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+        second.putLong(3).flip();
+
+        ByteBuffer firstMapped = spillFile.append(first);
+        ByteBuffer secondMapped = spillFile.append(second);
+
+        Assert.assertEquals(24, spillFile.getLength());
+        Assert.assertEquals(16, firstMapped.remaining());
+        Assert.assertEquals(1, firstMapped.getLong(0));
+        Assert.assertEquals(2, firstMapped.getLong(8));
+        Assert.assertEquals(8, secondMapped.remaining());
+        Assert.assertEquals(3, secondMapped.getLong(0));
+    }
+
+    @Test
+    public void testLongVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 5 == 0 ? null : i * 1_000_000_007L - Long.MAX_VALUE / 3);
+        }
+        assertRoundTrip(new LongColumnVector(CAPACITY, Long.class), values);
+
+        values.clear();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 3 == 0 ? null : -i);
+        }
+        assertRoundTrip(new LongColumnVector(CAPACITY, Integer.class), values);
+    }
+
+    @Test
+    public void testDoubleVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 4 == 0 ? null : i / 7.0);
+        }
+        values.set(1, Double.NaN);
+        values.set(2, Double.NEGATIVE_INFINITY);
+        assertRoundTrip(new DoubleColumnVector(CAPACITY, Double.class), values);
+    }
+
+    @Test
+    public void testDecimalVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 6 == 0 ? null : BigDecimal.valueOf(i * 12345L - 100000, i % 4));
+        }
+        assertRoundTrip(new DecimalColumnVector(CAPACITY), values);
+    }
+
+    @Test
+    public void testBooleanVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 7 == 0 ? null : i % 3 == 0);
+        }
+        assertRoundTrip(new BooleanColumnVector(CAPACITY), values);
+    }
+
+    @Test
+    public void testDateVectorRoundTrip() throws IOException {
+        List<Object> timestamps = new ArrayList<>();
+        List<Object> times = new ArrayList<>();
+        List<Object> dates = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            Timestamp timestamp = new Timestamp(1600000000000L + i * 86400000L);
+            timestamp.setNanos(i * 1001);
+            timestamps.add(i % 5 == 0 ? null : timestamp);
+            times.add(i % 5 == 1 ? null : new Time(i * 1000L));
+            dates.add(i % 5 == 2 ? null : new Date(1500000000000L - i));
+        }
+        assertRoundTrip(new DateColumnVector(CAPACITY, Timestamp.class), timestamps);
+        assertRoundTrip(new DateColumnVector(CAPACITY, Time.class), times);
+        assertRoundTrip(new DateColumnVector(CAPACITY, Date.class), dates);
+    }
+
+    @Test
+    public void testStringVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 9 == 0 ? null : "value " + (i % 10));
+        }
+        values.set(1, "");
+        assertRoundTrip(new StringColumnVector(CAPACITY, new StringDictionary()), values);
+    }
+
+    @Test
+    public void testTextVectorRoundTrip() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 8 == 0 ? null : "text \u00e9\u4e2d " + i);
+        }
+        values.set(1, "");
+        assertRoundTrip(new TextColumnVector(CAPACITY), values);
+    }
+
+    @Test
+    public void testObjectVectorStaysOnHeap() throws IOException {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            values.add(i % 3 == 0 ? null : new UUID(i, -i));
+        }
+        ObjectColumnVector vector = new ObjectColumnVector(CAPACITY);
+        fill(vector, values);
+        Assert.assertFalse(vector.isSpillable());
+
+        spill(vector);
+
+        // Only the null mask moves to the file
+        Assert.assertEquals(vector.getDataHeapSize(), vector.getHeapSize());
+        assertValues(vector, values);
+    }
+
+    @Test
+    public void testStoreSpillAndRemap() {
+        // More distinct strings than a dictionary holds, so later segments switch to text vectors
+        int rowCount = ResultSetColumnStore.SEGMENT_SIZE * 5 + 100;
+        ResultSetColumnStore store = new ResultSetColumnStore(8, 1, spillDirectory);
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        Object[] buffer = new Object[8];
+        for (int i = 0; i < rowCount; i++) {
+            Timestamp timestamp = new Timestamp(1600000000000L + i * 1000L);
+            timestamp.setNanos(i);
+            Object[] row = {
+                (long) i,
+                // One value of another type turns the column into objects
+                i == 4200 ? "mixed" : i % 11 == 0 ? null : (Object) (i * 0.5),
+                BigDecimal.valueOf(i, 2),
+                "group " + (i % 30),
+                "unique " + i,
+                i % 2 == 0,
+                timestamp,
+                new UUID(0, i)
+            };
+            rows.add(row.clone());
+            System.arraycopy(row, 0, buffer, 0, row.length);
+            store.add(buffer);
+        }
+
+        Assert.assertEquals(rowCount, store.getRowCount());
+        Assert.assertTrue(store.getSpilledSize() > 0);
+        for (int i = 0; i < rowCount; i++) {
+            Assert.assertArrayEquals("Row " + i, rows.get(i), store.getRow(i));
+        }
+        for (int i = 0; i < rowCount; i += 97) {
+            for (int j = 0; j < 8; j++) {
+                Assert.assertEquals(rows.get(i)[j], store.getValue(i, j));
+            }
+        }
+        Assert.assertNull(store.getValue(rowCount, 0));
+
+        store.close();
+        Assert.assertEquals(0, store.getRowCount());
+        Assert.assertEquals(0, store.getSpilledSize());
+    }
+
+    @Test
+    public void testStoreWithoutSpillDirectory() {
+        int rowCount = ResultSetColumnStore.SEGMENT_SIZE * 2 + 1;
+        ResultSetColumnStore store = new ResultSetColumnStore(2, 1, null);
+        for (int i = 0; i < rowCount; i++) {
+            store.add(new Object[] {i, "row " + i});
+        }
+
+        Assert.assertEquals(0, store.getSpilledSize());
+        for (int i = 0; i < rowCount; i++) {
+            Assert.assertEquals(i, store.getValue(i, 0));
+            Assert.assertEquals("row " + i, store.getValue(i, 1));
+        }
+        store.close();
+    }
+
+    private void assertRoundTrip(ColumnVector vector, List<Object> values) throws IOException {
+        fill(vector, values);
+        assertValues(vector, values);
+        Assert.assertTrue(vector.isSpillable());
+
+        spill(vector);
+
+        Assert.assertTrue(vector.isSpilled());
+        assertValues(vector, values);
+    }
+
+    private void spill(ColumnVector vector) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.getSpillSize()).order(ByteOrder.nativeOrder());
+        vector.writeTo(buffer);
+        Assert.assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        vector.mapFrom(spillFile.append(buffer));
+    }
+
+    private static void fill(ColumnVector vector, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) != null) {
+                Assert.assertTrue(vector.put(i, values.get(i)));
+            }
+        }
+    }
+
+    private static void assertValues(ColumnVector vector, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals("Row " + i, values.get(i), vector.get(i));
+        }
+    }
+}